@@ -24,6 +24,20 @@ public class CacheNames {
     public static final String PROFIT_SUMMARY = "profitSummary";
     public static final String MONTHLY_PROFIT = "monthlyProfit";
 
+    // Account references (id per wallet type) - immutable once created
+    public static final String ACCOUNT_REFERENCES = "accountReferences";
+
+    // Stored responses of idempotent writes (front of idempotency_record)
+    public static final String IDEMPOTENT_RESPONSES = "idempotentResponses";
+
+    // Stock and average cost per variant of each inventory, for sale quotes
+    public static final String STOCK_SNAPSHOT = "stockSnapshot";
+
+    // Gzipped JSON of each public catalog, by catalog token
+    public static final String PUBLIC_CATALOG = "publicCatalog";
+    // Search index of each public catalog, by catalog token
+    public static final String PUBLIC_CATALOG_INDEX = "publicCatalogIndex";
+
     public static final String[] ALL_CACHE_NAMES = {
             PRODUCT_INDICATORS,
             PRODUCT_INDICATORS_GROUPED,
@@ -40,6 +54,11 @@ public class CacheNames {
             PROFIT_CALCULATION,
             CASH_FLOW_CALCULATION,
             PROFIT_SUMMARY,
-            MONTHLY_PROFIT
+            MONTHLY_PROFIT,
+            ACCOUNT_REFERENCES,
+            IDEMPOTENT_RESPONSES,
+            STOCK_SNAPSHOT,
+            PUBLIC_CATALOG,
+            PUBLIC_CATALOG_INDEX
     };
 }
@@ -0,0 +1,54 @@
+package com.jaoow.helmetstore.cache;
+
+import lombok.Value;
+
+import java.time.YearMonth;
+
+/**
+ * Structured key of the financial caches: (user, scope, month).
+ * <p>
+ * Lets a write evict only the entries of the affected user, and among the
+ * month-scoped entries only the months whose values changed, instead of
+ * clearing the whole cache for every tenant.
+ * <p>
+ * Used from {@code @Cacheable} SpEL, e.g.
+ * {@code key = "T(com.jaoow.helmetstore.cache.FinancialCacheKey).month(#userEmail, #yearMonth)"}.
+ */
+@Value
+public class FinancialCacheKey {
+
+    public enum Scope {
+        /** All-time aggregate of the user (summaries, totals). */
+        SUMMARY,
+        /** Month-by-month list of the user. */
+        BREAKDOWN,
+        /** A single month of the user. */
+        MONTH
+    }
+
+    String userEmail;
+    Scope scope;
+    YearMonth month;
+
+    public static FinancialCacheKey summary(String userEmail) {
+        return new FinancialCacheKey(userEmail, Scope.SUMMARY, null);
+    }
+
+    public static FinancialCacheKey breakdown(String userEmail) {
+        return new FinancialCacheKey(userEmail, Scope.BREAKDOWN, null);
+    }
+
+    public static FinancialCacheKey month(String userEmail, YearMonth month) {
+        return new FinancialCacheKey(userEmail, Scope.MONTH, month);
+    }
+
+    /**
+     * Whether this is a month entry of the user at or after {@code fromMonth}
+     * ({@code null} matches every month).
+     */
+    public boolean isMonthOfUserFrom(String email, YearMonth fromMonth) {
+        return scope == Scope.MONTH
+                && userEmail.equals(email)
+                && (fromMonth == null || !month.isBefore(fromMonth));
+    }
+}
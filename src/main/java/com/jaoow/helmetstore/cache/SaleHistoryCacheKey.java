@@ -0,0 +1,31 @@
+package com.jaoow.helmetstore.cache;
+
+import lombok.Value;
+
+/**
+ * Key of a cached sales history page: (user, period, cursor, page size).
+ * <p>
+ * Lets a sale write evict only the pages of its user instead of every store's pages.
+ * <p>
+ * Used from {@code @Cacheable} SpEL, e.g.
+ * {@code key = "T(com.jaoow.helmetstore.cache.SaleHistoryCacheKey).of(#principal.name, #year, #month, #cursor, #limit)"}.
+ */
+@Value
+public class SaleHistoryCacheKey {
+
+    String userEmail;
+    /** {@code null} for the whole history */
+    Integer year;
+    Integer month;
+    /** {@code null} for the first page */
+    String cursor;
+    int limit;
+
+    public static SaleHistoryCacheKey of(String userEmail, Integer year, Integer month, String cursor, int limit) {
+        return new SaleHistoryCacheKey(userEmail, year, month, cursor, limit);
+    }
+
+    public boolean isOfUser(String email) {
+        return userEmail.equals(email);
+    }
+}
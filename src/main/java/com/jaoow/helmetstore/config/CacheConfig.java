@@ -2,26 +2,45 @@ package com.jaoow.helmetstore.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.jaoow.helmetstore.cache.CacheNames;
+import com.jaoow.helmetstore.cache.FinancialCacheKey;
+import com.jaoow.helmetstore.usecase.cashflow.GetCashFlowSummaryUseCase;
+import com.jaoow.helmetstore.usecase.profit.GetProfitSummaryUseCase;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.function.Function;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    /**
+     * Summaries are served stale for at most this long while a background refresh
+     * recomputes them.
+     */
+    private static final Duration SUMMARY_REFRESH_AFTER_WRITE = Duration.ofMinutes(2);
+
     /**
      * PERFORMANCE OPTIMIZATION: Different cache strategies for different data types
+     * <p>
+     * The manager is transaction-aware: puts and evictions issued inside a transaction
+     * (including every {@code @CacheEvict}) are applied after commit, so a concurrent
+     * reader cannot repopulate an entry with pre-commit data.
+     * <p>
+     * The use cases are resolved lazily because they are themselves cache-proxied.
      */
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(ObjectProvider<GetProfitSummaryUseCase> getProfitSummaryUseCase,
+                                     ObjectProvider<GetCashFlowSummaryUseCase> getCashFlowSummaryUseCase) {
         SimpleCacheManager cacheManager = new SimpleCacheManager();
 
         cacheManager.setCaches(Arrays.asList(
@@ -31,13 +50,15 @@ public class CacheConfig {
             // /sales/history: 3698ms max - Cache por 10 min
             buildCache(CacheNames.SALES_HISTORY, 10, ChronoUnit.MINUTES, 200),
 
-            // /account/profit-summary: 5284ms - Cache por 15 min
-            buildCache(CacheNames.PROFIT_SUMMARY, 15, ChronoUnit.MINUTES, 100),
+            // /account/profit-summary: 5284ms - Cache por 15 min, refresh em background
+            buildRefreshingCache(CacheNames.PROFIT_SUMMARY, 15, ChronoUnit.MINUTES, 100,
+                    userEmail -> getProfitSummaryUseCase.getObject().calculate(userEmail)),
             buildCache(CacheNames.MONTHLY_PROFIT, 15, ChronoUnit.MINUTES, 200),
             buildCache(CacheNames.PROFIT_CALCULATION, 15, ChronoUnit.MINUTES, 100),
 
-            // /account/cash-flow-summary: 4640ms - Cache por 15 min
-            buildCache(CacheNames.CASH_FLOW_SUMMARY, 15, ChronoUnit.MINUTES, 100),
+            // /account/cash-flow-summary: 4640ms - Cache por 15 min, refresh em background
+            buildRefreshingCache(CacheNames.CASH_FLOW_SUMMARY, 15, ChronoUnit.MINUTES, 100,
+                    userEmail -> getCashFlowSummaryUseCase.getObject().calculate(userEmail)),
             buildCache(CacheNames.MONTHLY_CASH_FLOW, 15, ChronoUnit.MINUTES, 200),
             buildCache(CacheNames.CASH_FLOW_CALCULATION, 15, ChronoUnit.MINUTES, 100),
 
@@ -60,14 +81,28 @@ public class CacheConfig {
             buildCache(CacheNames.PRODUCT, 1, ChronoUnit.HOURS, 500),
             buildCache(CacheNames.CATEGORY, 1, ChronoUnit.HOURS, 100),
 
+            // Account ids per user/wallet: never change once created
+            buildCache(CacheNames.ACCOUNT_REFERENCES, 12, ChronoUnit.HOURS, 1000),
+
+            // Responses of writes sent with an Idempotency-Key (retries) - at most the key TTL
+            buildCache(CacheNames.IDEMPOTENT_RESPONSES, 24, ChronoUnit.HOURS, 5000),
+
+            // Stock snapshot for POST /sales/quote - replaced whenever the inventory data version moves
+            buildCache(CacheNames.STOCK_SNAPSHOT, 10, ChronoUnit.MINUTES, 500),
+
+            // GET /catalog/public/{slug}/catalog (unauthenticated) - rebuilt whenever the owner's data version moves
+            buildCache(CacheNames.PUBLIC_CATALOG, 30, ChronoUnit.MINUTES, 500),
+            buildCache(CacheNames.PUBLIC_CATALOG_INDEX, 30, ChronoUnit.MINUTES, 500),
+
             // Revenue and profit calculations - Cache por 30 min
             buildCache(CacheNames.REVENUE_AND_PROFIT, 30, ChronoUnit.MINUTES, 100),
 
             // Financial summary - Cache por 15 min
             buildCache(CacheNames.FINANCIAL_SUMMARY, 15, ChronoUnit.MINUTES, 100)
         ));
+        cacheManager.initializeCaches();
 
-        return cacheManager;
+        return new TransactionAwareCacheManagerProxy(cacheManager);
     }
 
     /**
@@ -80,4 +115,22 @@ public class CacheConfig {
                 .maximumSize(maxSize)
                 .build());
     }
+
+    /**
+     * Build an async loading Caffeine cache for per-user summaries
+     * ({@link FinancialCacheKey#summary} keys).
+     * <p>
+     * - Concurrent misses for the same key share one computation (use {@code @Cacheable(sync = true)})
+     * - After {@link #SUMMARY_REFRESH_AFTER_WRITE} the stale value keeps being served while
+     *   the loader recomputes it in the background
+     */
+    private CaffeineCache buildRefreshingCache(String name, long duration, ChronoUnit unit, int maxSize,
+                                               Function<String, Object> loader) {
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .recordStats() // Enable metrics
+                .expireAfterWrite(Duration.of(duration, unit))
+                .refreshAfterWrite(SUMMARY_REFRESH_AFTER_WRITE)
+                .maximumSize(maxSize)
+                .buildAsync(key -> loader.apply(((FinancialCacheKey) key).getUserEmail())), true);
+    }
 }
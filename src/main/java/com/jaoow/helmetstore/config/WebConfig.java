@@ -0,0 +1,19 @@
+package com.jaoow.helmetstore.config;
+
+import com.jaoow.helmetstore.controller.InventoryVersionInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final InventoryVersionInterceptor inventoryVersionInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(inventoryVersionInterceptor);
+    }
+}
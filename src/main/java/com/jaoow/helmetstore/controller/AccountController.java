@@ -90,6 +90,7 @@ public class AccountController {
      * Get comprehensive profit summary with monthly breakdown
      */
     @GetMapping("/profit-summary")
+    @InventoryVersioned
     public ProfitSummaryDTO getProfitSummary(Principal principal) {
         return financialReportService.getProfitSummary(principal);
     }
@@ -3,9 +3,11 @@ package com.jaoow.helmetstore.controller;
 import com.jaoow.helmetstore.dto.ApiErrorResponse;
 import com.jaoow.helmetstore.exception.*;
 import io.jsonwebtoken.JwtException;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -54,6 +56,7 @@ public class GlobalAdviceController {
 
     @ExceptionHandler({
             OrderAlreadyExistsException.class,
+            IdempotencyConflictException.class,
             EmailAlreadyInUseException.class,
             TokenAlreadyInUseException.class
     })
@@ -61,6 +64,14 @@ public class GlobalAdviceController {
         return buildError(HttpStatus.CONFLICT, ex.getMessage(), request);
     }
 
+    @ExceptionHandler({
+            OptimisticLockingFailureException.class,
+            OptimisticLockException.class
+    })
+    public ResponseEntity<ApiErrorResponse> handleOptimisticLockExceptions(RuntimeException ex, HttpServletRequest request) {
+        return buildError(HttpStatus.CONFLICT, "Os dados foram alterados por outra operação. Tente novamente.", request);
+    }
+
     @ExceptionHandler({
             OrderNotFoundException.class,
             ProductNotFoundException.class,
@@ -85,6 +96,11 @@ public class GlobalAdviceController {
         return buildError(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiErrorResponse> handleTooManyRequestsException(TooManyRequestsException ex, HttpServletRequest request) {
+        return buildError(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), request);
+    }
+
     @ExceptionHandler({
             JwtException.class,
             InvalidTokenException.class,
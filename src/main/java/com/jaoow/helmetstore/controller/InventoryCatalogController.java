@@ -2,13 +2,28 @@ package com.jaoow.helmetstore.controller;
 
 import com.jaoow.helmetstore.dto.inventory.CatalogDTO;
 import com.jaoow.helmetstore.dto.inventory.CatalogCreateDTO;
-import com.jaoow.helmetstore.dto.inventory.CatalogStoreViewDTO;
+import com.jaoow.helmetstore.dto.inventory.CatalogStoreViewPageDTO;
 import com.jaoow.helmetstore.dto.inventory.CatalogUpdateDTO;
+import com.jaoow.helmetstore.dto.reservation.StockReservationCreateDTO;
+import com.jaoow.helmetstore.dto.reservation.StockReservationDTO;
 import com.jaoow.helmetstore.service.InventoryCatalogService;
+import com.jaoow.helmetstore.service.InventoryVersionService;
+import com.jaoow.helmetstore.service.PublicCatalogIndex;
+import com.jaoow.helmetstore.service.PublicCatalogIndexService;
+import com.jaoow.helmetstore.service.PublicCatalogResponse;
+import com.jaoow.helmetstore.service.PublicCatalogResponseService;
+import com.jaoow.helmetstore.service.StockReservationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.security.Principal;
 
 @RestController
@@ -17,15 +32,77 @@ import java.security.Principal;
 public class InventoryCatalogController {
 
     private final InventoryCatalogService catalogService;
+    private final StockReservationService stockReservationService;
+    private final PublicCatalogResponseService publicCatalogResponseService;
+    private final PublicCatalogIndexService publicCatalogIndexService;
 
     @GetMapping
     public CatalogDTO getOwnCatalog(Principal principal) {
         return catalogService.getByUser(principal);
     }
 
+    /**
+     * Served from the pre-serialized, gzipped {@link PublicCatalogResponse}: answers 304
+     * when {@code If-None-Match} matches its ETag, and only decompresses the body for
+     * clients that do not accept gzip.
+     */
     @GetMapping("/public/{slug}/catalog")
-    public CatalogStoreViewDTO getCatalogViewByToken(@PathVariable String slug) {
-        return catalogService.getCatalogView(slug);
+    public ResponseEntity<byte[]> getCatalogViewByToken(@PathVariable String slug,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        PublicCatalogResponse response = publicCatalogResponseService.get(slug);
+
+        boolean notModified = InventoryVersionService.matchesETag(ifNoneMatch, response.getETag());
+        // Shared caches may keep it but must revalidate it on every use
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(response.getETag())
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (notModified) {
+            return builder.build();
+        }
+
+        builder.contentType(MediaType.APPLICATION_JSON);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.getGzippedBody());
+        }
+        return builder.body(publicCatalogResponseService.decompress(response));
+    }
+
+    /**
+     * One page of the catalog products matching the filters (all optional): category,
+     * size, words of the model or color, only variants with stock, and a price range.
+     */
+    @GetMapping("/public/{slug}/catalog/search")
+    public CatalogStoreViewPageDTO searchCatalog(@PathVariable String slug,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String size,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + PublicCatalogIndexService.DEFAULT_PAGE_SIZE) int limit) {
+        PublicCatalogIndex.Query query = PublicCatalogIndex.Query.builder()
+                .category(category)
+                .size(size)
+                .text(q)
+                .inStockOnly(inStock)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .build();
+        return publicCatalogIndexService.search(slug, query, page, limit);
+    }
+
+    /**
+     * Hold items of the catalog before checking out on WhatsApp. The returned code
+     * identifies the reservation for the store; it expires if not converted in time.
+     */
+    @PostMapping("/public/{slug}/reservations")
+    public StockReservationDTO reserve(@PathVariable String slug,
+            @RequestBody @Valid StockReservationCreateDTO request,
+            HttpServletRequest httpRequest) {
+        return stockReservationService.reserve(slug, request, httpRequest.getRemoteAddr());
     }
 
     @PostMapping
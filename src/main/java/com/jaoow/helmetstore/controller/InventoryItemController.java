@@ -44,6 +44,11 @@ public class InventoryItemController {
         inventoryItemService.updateProductAverageCost(productId, averageCost, principal);
     }
 
+    @PostMapping("/rebuild-incoming-stock")
+    public int rebuildIncomingStock(Principal principal) {
+        return inventoryItemService.rebuildIncomingStock(principal);
+    }
+
     @DeleteMapping("/product/{productId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteProductFromInventory(@PathVariable Long productId, Principal principal) {
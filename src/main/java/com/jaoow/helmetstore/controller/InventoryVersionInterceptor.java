@@ -0,0 +1,71 @@
+package com.jaoow.helmetstore.controller;
+
+import com.jaoow.helmetstore.service.InventoryVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+
+/**
+ * Conditional GET on the inventory data version.
+ * <p>
+ * - Before an {@link InventoryVersioned} handler: sets the ETag and answers 304 when
+ *   {@code If-None-Match} matches it. The use case, its cache lookup and the JSON
+ *   serialization are skipped: an unchanged poll costs one in-memory lookup.
+ * - After any successful write request (POST, PUT, PATCH, DELETE) of an authenticated
+ *   user: bumps the user's version. The service transaction has committed by then, so
+ *   a response tagged with the new version always reflects the write. Handlers marked
+ *   {@link ReadOnlyOperation} are not writes.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryVersionInterceptor implements HandlerInterceptor {
+
+    private final InventoryVersionService inventoryVersionService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Principal principal = request.getUserPrincipal();
+        if (principal == null
+                || !(handler instanceof HandlerMethod handlerMethod)
+                || !handlerMethod.hasMethodAnnotation(InventoryVersioned.class)) {
+            return true;
+        }
+
+        String eTag = inventoryVersionService.currentETag(principal.getName());
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        // Clients may keep the response but must revalidate it on every use
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (InventoryVersionService.matchesETag(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && ex == null && isWrite(request, handler) && response.getStatus() < 400) {
+            inventoryVersionService.bump(principal.getName());
+        }
+    }
+
+    private boolean isWrite(HttpServletRequest request, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod && handlerMethod.hasMethodAnnotation(ReadOnlyOperation.class)) {
+            return false;
+        }
+        String method = request.getMethod();
+        return !HttpMethod.GET.matches(method)
+                && !HttpMethod.HEAD.matches(method)
+                && !HttpMethod.OPTIONS.matches(method);
+    }
+}
@@ -0,0 +1,21 @@
+package com.jaoow.helmetstore.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET endpoint whose response only depends on the caller's inventory data.
+ * <p>
+ * The response carries the inventory data version as ETag, and a request whose
+ * {@code If-None-Match} matches it gets 304 Not Modified before the handler runs.
+ *
+ * @see InventoryVersionInterceptor
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface InventoryVersioned {
+}
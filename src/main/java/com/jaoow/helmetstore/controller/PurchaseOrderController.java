@@ -25,6 +25,7 @@ public class PurchaseOrderController {
     }
 
     @GetMapping("/history")
+    @InventoryVersioned
     public PurchaseOrderHistoryResponse getAllHistory(Principal principal) {
         return purchaseOrderService.getHistory(principal);
     }
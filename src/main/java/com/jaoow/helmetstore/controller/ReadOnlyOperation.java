@@ -0,0 +1,20 @@
+package com.jaoow.helmetstore.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a POST/PUT endpoint that changes no data (e.g. a dry run that needs a request
+ * body). Unlike other writes, a successful call does not bump the inventory data version,
+ * so it neither invalidates the ETags nor the snapshots built on that version.
+ *
+ * @see InventoryVersionInterceptor
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyOperation {
+}
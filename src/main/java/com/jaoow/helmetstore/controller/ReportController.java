@@ -8,9 +8,11 @@ import com.jaoow.helmetstore.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.security.Principal;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -20,22 +22,33 @@ public class ReportController {
     private final ReportService reportService;
 
     @GetMapping("/product-stock")
+    @InventoryVersioned
     public List<ProductStockDto> getStockSummary(Principal principal) {
         return reportService.getProductStock(principal);
     }
 
     @GetMapping("/product-indicators")
-    public List<ProductVariantSalesAndStockSummary> getProductIndicators(Principal principal) {
-        return reportService.getProductIndicators(principal);
+    public List<ProductVariantSalesAndStockSummary> getProductIndicators(
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to,
+            Principal principal) {
+        return reportService.getProductIndicators(from, to, principal);
     }
 
     @GetMapping("/product-indicators-grouped")
-    public List<ProductSalesAndStockSummary> getProductIndicatorsGrouped(Principal principal) {
-        return reportService.getProductIndicatorsGrouped(principal);
+    public List<ProductSalesAndStockSummary> getProductIndicatorsGrouped(
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to,
+            Principal principal) {
+        return reportService.getProductIndicatorsGrouped(from, to, principal);
     }
 
     @GetMapping("/most-sold-products")
-    public List<ProductVariantSaleSummary> getMostSoldProducts(Principal principal) {
-        return reportService.getMostSoldProducts(principal);
+    public List<ProductVariantSaleSummary> getMostSoldProducts(
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to,
+            @RequestParam(defaultValue = "" + ReportService.DEFAULT_TOP_LIMIT) int limit,
+            Principal principal) {
+        return reportService.getMostSoldProducts(from, to, limit, principal);
     }
 }
@@ -2,7 +2,9 @@ package com.jaoow.helmetstore.controller;
 
 import com.jaoow.helmetstore.dto.balance.AvailableMonthDTO;
 import com.jaoow.helmetstore.dto.sale.*;
+import com.jaoow.helmetstore.service.IdempotencyService;
 import com.jaoow.helmetstore.service.SaleService;
+import com.jaoow.helmetstore.usecase.sale.GetSaleHistoryUseCase;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -40,12 +42,19 @@ public class SaleController {
         return saleService.getById(id, principal);
     }
 
+    /**
+     * Sales history, newest first, one page at a time. Pass the nextCursor of a
+     * response as cursor to get the following page.
+     */
     @GetMapping("/history")
+    @InventoryVersioned
     public SaleHistoryResponse getHistory(
             @RequestParam(required = false) Integer year,
             @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + GetSaleHistoryUseCase.DEFAULT_PAGE_SIZE) int limit,
             Principal principal) {
-        return saleService.getHistory(year, month, principal);
+        return saleService.getHistory(year, month, cursor, limit, principal);
     }
 
     /**
@@ -56,9 +65,35 @@ public class SaleController {
         return saleService.getAvailableMonths(principal);
     }
 
+    /**
+     * Create a sale. With an Idempotency-Key header, a retry of the same request
+     * (e.g. after a timeout) returns the sale already created instead of selling twice.
+     */
     @PostMapping
-    public SaleResponseDTO create(@RequestBody @Valid SaleCreateDTO saleCreateDTO, Principal principal) {
-        return saleService.save(saleCreateDTO, principal);
+    public SaleResponseDTO create(@RequestBody @Valid SaleCreateDTO saleCreateDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Principal principal) {
+        return saleService.save(saleCreateDTO, principal, idempotencyKey);
+    }
+
+    /**
+     * Dry run of POST /sales: totals, profit, payments and stock of the cart, with every
+     * problem found. Writes nothing and reads the stock from an in-memory snapshot.
+     */
+    @PostMapping("/quote")
+    @ReadOnlyOperation
+    public SaleQuoteResponseDTO quote(@RequestBody @Valid SaleQuoteRequestDTO request, Principal principal) {
+        return saleService.quote(request, principal);
+    }
+
+    /**
+     * Ingest sales queued by an offline POS. Each sale may carry a clientSaleId:
+     * sales already received are reported as duplicates, invalid ones as failed,
+     * without rejecting the rest of the batch.
+     */
+    @PostMapping("/batch")
+    public SaleBatchResponseDTO createBatch(@RequestBody List<SaleCreateDTO> sales, Principal principal) {
+        return saleService.saveBatch(sales, principal);
     }
 
     @PutMapping("/{id}")
@@ -79,8 +114,9 @@ public class SaleController {
     public SaleCancellationResponseDTO cancelSale(
             @PathVariable Long id,
             @RequestBody @Valid SaleCancellationRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Principal principal) {
-        return saleService.cancelSale(id, request, principal);
+        return saleService.cancelSale(id, request, principal, idempotencyKey);
     }
 
     /**
@@ -89,8 +125,9 @@ public class SaleController {
     @PostMapping("/exchange")
     public ProductExchangeResponseDTO exchangeProducts(
             @RequestBody @Valid ProductExchangeRequestDTO request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Principal principal) {
-        return saleService.exchangeProducts(request, principal);
+        return saleService.exchangeProducts(request, principal, idempotencyKey);
     }
 
     @GetMapping("/{id}/receipt")
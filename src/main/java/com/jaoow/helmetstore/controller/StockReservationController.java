@@ -0,0 +1,32 @@
+package com.jaoow.helmetstore.controller;
+
+import com.jaoow.helmetstore.dto.reservation.StockReservationDTO;
+import com.jaoow.helmetstore.service.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Stock reservations made from the public catalog. A reservation is turned into a
+ * sale with POST /sales and its id as reservationId.
+ */
+@RestController
+@RequestMapping("/reservations")
+@RequiredArgsConstructor
+public class StockReservationController {
+
+    private final StockReservationService stockReservationService;
+
+    @GetMapping
+    @InventoryVersioned
+    public List<StockReservationDTO> getActive(Principal principal) {
+        return stockReservationService.findActive(principal);
+    }
+
+    @PostMapping("/{id}/cancel")
+    public void cancel(@PathVariable Long id, Principal principal) {
+        stockReservationService.cancel(id, principal);
+    }
+}
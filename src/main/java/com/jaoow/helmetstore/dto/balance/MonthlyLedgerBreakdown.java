@@ -0,0 +1,17 @@
+package com.jaoow.helmetstore.dto.balance;
+
+import java.time.YearMonth;
+
+/**
+ * {@link MonthlyLedgerMetrics} of one month of the breakdown, with the month it belongs to.
+ */
+public interface MonthlyLedgerBreakdown extends MonthlyLedgerMetrics {
+
+    Integer getYear();
+
+    Integer getMonth();
+
+    default YearMonth getYearMonth() {
+        return YearMonth.of(getYear(), getMonth());
+    }
+}
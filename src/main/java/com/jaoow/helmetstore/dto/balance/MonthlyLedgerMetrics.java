@@ -0,0 +1,30 @@
+package com.jaoow.helmetstore.dto.balance;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection with every metric of a single month plus the closing wallet balances,
+ * produced by one aggregation over the monthly ledger rollup.
+ */
+public interface MonthlyLedgerMetrics {
+
+    BigDecimal getIncome();
+
+    BigDecimal getExpense();
+
+    BigDecimal getCashFlow();
+
+    BigDecimal getNetProfit();
+
+    BigDecimal getOperationalExpenses();
+
+    BigDecimal getCogs();
+
+    BigDecimal getSalesRevenue();
+
+    BigDecimal getGrossProfit();
+
+    BigDecimal getBankBalance();
+
+    BigDecimal getCashBalance();
+}
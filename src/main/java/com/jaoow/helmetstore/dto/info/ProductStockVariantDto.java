@@ -10,6 +10,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class ProductStockVariantDto extends BaseProductStockVariantDto {
+    private int reservedStock = 0;
+    private int availableStock = 0;
     private int incomingStock = 0;
     private int futureStock = 0;
 }
@@ -11,6 +11,7 @@ public class CatalogDTO {
     private Boolean showPrice;
     private Boolean showWhatsappButton;
     private Boolean showSizeSelector;
+    private Boolean allowReservations;
     private String whatsappNumber;
     private String whatsappMessage;
 }
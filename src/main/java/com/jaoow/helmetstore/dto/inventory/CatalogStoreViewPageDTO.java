@@ -0,0 +1,23 @@
+package com.jaoow.helmetstore.dto.inventory;
+
+import lombok.*;
+
+/**
+ * One page of a filtered public catalog: the store details and the matching products.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class CatalogStoreViewPageDTO extends CatalogStoreViewDTO {
+    private int page;
+    private int limit;
+
+    /**
+     * Number of matching products, all pages included.
+     */
+    private int totalProducts;
+
+    private boolean hasMore;
+}
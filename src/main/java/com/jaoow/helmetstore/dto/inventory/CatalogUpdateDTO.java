@@ -24,6 +24,8 @@ public class CatalogUpdateDTO {
 
     private Boolean showSizeSelector;
 
+    private Boolean allowReservations;
+
     @Pattern(regexp = "^\\+55\\d{11}$", message = "O número do WhatsApp deve estar no formato +55DDDDDDDDDD, onde D é um dígito.")
     private String whatsappNumber;
 
@@ -0,0 +1,27 @@
+package com.jaoow.helmetstore.dto.reservation;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationCreateDTO {
+
+    @NotEmpty(message = "Deve haver pelo menos um item na reserva")
+    @Size(max = 20, message = "A reserva deve ter no máximo 20 itens")
+    @Valid
+    private List<StockReservationItemCreateDTO> items;
+
+    @Size(max = 100, message = "O nome deve ter no máximo 100 caracteres")
+    private String customerName;
+
+    @Size(max = 30, message = "O telefone deve ter no máximo 30 caracteres")
+    private String customerPhone;
+}
@@ -0,0 +1,24 @@
+package com.jaoow.helmetstore.dto.reservation;
+
+import com.jaoow.helmetstore.model.reservation.ReservationStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationDTO {
+    private Long id;
+    private String code;
+    private ReservationStatus status;
+    private String customerName;
+    private String customerPhone;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    private Long saleId;
+    private List<StockReservationItemDTO> items;
+}
@@ -0,0 +1,22 @@
+package com.jaoow.helmetstore.dto.reservation;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationItemCreateDTO {
+
+    @NotNull(message = "ID da variante do produto é obrigatório")
+    private Long variantId;
+
+    @NotNull(message = "Quantidade é obrigatória")
+    @Min(value = 1, message = "quantity: deve ser maior que ou igual à 1")
+    @Max(value = 10, message = "quantity: deve ser menor que ou igual à 10")
+    private Integer quantity;
+}
@@ -0,0 +1,18 @@
+package com.jaoow.helmetstore.dto.reservation;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationItemDTO {
+    private Long variantId;
+    private String sku;
+    private String size;
+    private Long productId;
+    private String model;
+    private String color;
+    private Integer quantity;
+}
@@ -0,0 +1,21 @@
+package com.jaoow.helmetstore.dto.sale;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * DTO de resposta de POST /sales/batch, com o resultado de cada venda do lote
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaleBatchResponseDTO {
+
+    private int created;
+    private int duplicates;
+    private int failed;
+    private List<SaleBatchResultDTO> results;
+}
@@ -0,0 +1,30 @@
+package com.jaoow.helmetstore.dto.sale;
+
+import lombok.*;
+
+/**
+ * Resultado de uma venda enviada em POST /sales/batch
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaleBatchResultDTO {
+
+    public enum Status {
+        /** Venda registrada neste lote */
+        CREATED,
+        /** Venda já recebida anteriormente (mesmo clientSaleId) */
+        DUPLICATE,
+        /** Venda rejeitada; ver {@code error} */
+        FAILED
+    }
+
+    /** Posição da venda no lote enviado */
+    private int index;
+    private String clientSaleId;
+    private Status status;
+    private Long saleId;
+    private String error;
+}
@@ -3,6 +3,7 @@ package com.jaoow.helmetstore.dto.sale;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -33,4 +34,17 @@ public class SaleCreateDTO {
      */
     @Builder.Default
     private Boolean isDerivedFromExchange = false;
+
+    /**
+     * Identificador gerado pelo PDV, usado apenas em POST /sales/batch:
+     * uma venda já recebida com o mesmo id é reportada como duplicada.
+     */
+    @Size(max = 64, message = "O identificador da venda deve ter no máximo 64 caracteres")
+    private String clientSaleId;
+
+    /**
+     * Reserva de estoque do catálogo que esta venda conclui, usada apenas em POST /sales:
+     * a reserva é marcada como convertida e suas unidades passam para a venda.
+     */
+    private Long reservationId;
 }
@@ -15,4 +15,9 @@ public class SaleHistoryResponse {
     private List<SaleResponseDTO> sales;
     private List<SimpleProductDTO> products;
     private List<SimpleProductVariantDTO> productVariants;
+
+    /**
+     * Cursor of the next (older) page; null on the last page.
+     */
+    private String nextCursor;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.jaoow.helmetstore.dto.sale;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaleQuoteItemDTO {
+    private Long productVariantId;
+    private String sku;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal unitProfit;
+    private BigDecimal totalItemPrice;
+    private BigDecimal totalItemProfit;
+    private Integer availableStock;
+    private Boolean inStock;
+}
@@ -0,0 +1,25 @@
+package com.jaoow.helmetstore.dto.sale;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Cart to quote: same items and payments as a sale, payments may still be missing.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaleQuoteRequestDTO {
+
+    @NotEmpty(message = "Deve haver pelo menos um item na venda")
+    @Valid
+    private List<SaleItemCreateDTO> items;
+
+    @Valid
+    private List<SalePaymentCreateDTO> payments;
+}
@@ -0,0 +1,26 @@
+package com.jaoow.helmetstore.dto.sale;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Result of POST /sales/quote. {@code valid} tells whether the same cart would be
+ * accepted by POST /sales right now; {@code issues} lists what is wrong otherwise.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaleQuoteResponseDTO {
+    private List<SaleQuoteItemDTO> items;
+    private BigDecimal totalAmount;
+    private BigDecimal totalProfit;
+    private BigDecimal paymentsSum;
+    private BigDecimal remainingAmount;
+    private Boolean paymentsMatch;
+    private Boolean valid;
+    private List<String> issues;
+}
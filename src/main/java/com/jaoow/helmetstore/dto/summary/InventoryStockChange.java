@@ -0,0 +1,12 @@
+package com.jaoow.helmetstore.dto.summary;
+
+/**
+ * Row returned by the atomic stock updates of {@code InventoryItemRepository}.
+ */
+public interface InventoryStockChange {
+    Long getId();
+
+    Long getVariantId();
+
+    Integer getQuantity();
+}
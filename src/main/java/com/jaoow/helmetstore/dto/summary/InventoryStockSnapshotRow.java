@@ -0,0 +1,18 @@
+package com.jaoow.helmetstore.dto.summary;
+
+import java.math.BigDecimal;
+
+/**
+ * Stock and average cost of one variant, read to build a {@code StockSnapshot}.
+ */
+public interface InventoryStockSnapshotRow {
+    Long getVariantId();
+
+    String getSku();
+
+    int getQuantity();
+
+    int getReservedQuantity();
+
+    BigDecimal getAverageCost();
+}
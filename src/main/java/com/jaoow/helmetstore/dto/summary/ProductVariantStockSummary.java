@@ -28,6 +28,10 @@ public interface ProductVariantStockSummary {
 
     int getCurrentStock();
 
+    int getReservedStock();
+
+    int getAvailableStock();
+
     int getIncomingStock();
 
     int getFutureStock();
@@ -0,0 +1,42 @@
+package com.jaoow.helmetstore.dto.summary;
+
+import java.math.BigDecimal;
+
+/**
+ * Sale item of the sales history, with its variant and product columns.
+ */
+public interface SaleHistoryItemRow {
+    Long getSaleId();
+
+    Long getId();
+
+    Integer getQuantity();
+
+    BigDecimal getUnitPrice();
+
+    BigDecimal getUnitProfit();
+
+    BigDecimal getTotalItemPrice();
+
+    BigDecimal getTotalItemProfit();
+
+    Boolean getIsCancelled();
+
+    Integer getCancelledQuantity();
+
+    Long getVariantId();
+
+    String getSize();
+
+    String getSku();
+
+    Long getProductId();
+
+    String getModel();
+
+    String getColor();
+
+    String getImgUrl();
+
+    String getCategoryName();
+}
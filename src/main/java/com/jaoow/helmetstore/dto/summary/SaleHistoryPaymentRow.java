@@ -0,0 +1,16 @@
+package com.jaoow.helmetstore.dto.summary;
+
+import com.jaoow.helmetstore.model.balance.PaymentMethod;
+
+import java.math.BigDecimal;
+
+/**
+ * Payment of a sale listed by the sales history.
+ */
+public interface SaleHistoryPaymentRow {
+    Long getSaleId();
+
+    PaymentMethod getPaymentMethod();
+
+    BigDecimal getAmount();
+}
@@ -0,0 +1,37 @@
+package com.jaoow.helmetstore.dto.summary;
+
+import com.jaoow.helmetstore.model.balance.PaymentMethod;
+import com.jaoow.helmetstore.model.sale.CancellationReason;
+import com.jaoow.helmetstore.model.sale.SaleStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only sale columns listed by the sales history.
+ */
+public interface SaleHistoryRow {
+    Long getId();
+
+    LocalDateTime getDate();
+
+    BigDecimal getTotalAmount();
+
+    BigDecimal getTotalProfit();
+
+    SaleStatus getStatus();
+
+    LocalDateTime getCancelledAt();
+
+    String getCancelledBy();
+
+    CancellationReason getCancellationReason();
+
+    String getCancellationNotes();
+
+    Boolean getHasRefund();
+
+    BigDecimal getRefundAmount();
+
+    PaymentMethod getRefundPaymentMethod();
+}
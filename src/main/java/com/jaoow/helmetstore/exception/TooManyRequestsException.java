@@ -0,0 +1,10 @@
+package com.jaoow.helmetstore.exception;
+
+/**
+ * Thrown when a client exceeds a rate limit of an unauthenticated endpoint.
+ */
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,45 @@
+package com.jaoow.helmetstore.helper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between ledger amounts and scaled {@code long} cents.
+ * <p>
+ * Every monetary column is stored as DECIMAL(x,2). Amounts with more decimals
+ * (request values are not limited to cents) are rounded half up, the way the
+ * database rounds them when they are stored. Reductions work on cents (see
+ * {@link MoneyAccumulator}) and convert back to {@link BigDecimal} only when
+ * building DTOs.
+ */
+public final class Money {
+
+    /**
+     * Number of decimal places of every stored amount.
+     */
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Convert an amount to cents, rounding sub-cent precision half up (as NUMERIC(19,2) does).
+     *
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP)
+                .movePointRight(SCALE)
+                .longValueExact();
+    }
+
+    /**
+     * Convert cents back to an amount with the ledger scale.
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+}
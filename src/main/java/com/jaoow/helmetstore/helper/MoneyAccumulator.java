@@ -0,0 +1,51 @@
+package com.jaoow.helmetstore.helper;
+
+import java.math.BigDecimal;
+
+/**
+ * Mutable sum of amounts held as {@code long} cents.
+ * <p>
+ * PERFORMANCE OPTIMIZATION:
+ * - Replaces {@code stream().map(...).reduce(BigDecimal.ZERO, BigDecimal::add)},
+ *   which creates a new BigDecimal for every element, with a primitive add
+ * - Overflow is checked ({@link Math#addExact}) instead of silently wrapping
+ * <p>
+ * Not thread-safe: meant to be used as a local inside a single reduction.
+ */
+public final class MoneyAccumulator {
+
+    private long cents;
+
+    public MoneyAccumulator add(BigDecimal amount) {
+        return addCents(Money.toCents(amount));
+    }
+
+    public MoneyAccumulator subtract(BigDecimal amount) {
+        return addCents(Math.negateExact(Money.toCents(amount)));
+    }
+
+    public MoneyAccumulator addCents(long value) {
+        cents = Math.addExact(cents, value);
+        return this;
+    }
+
+    public MoneyAccumulator add(MoneyAccumulator other) {
+        return addCents(other.cents);
+    }
+
+    public long cents() {
+        return cents;
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public boolean isZero() {
+        return cents == 0L;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return Money.toBigDecimal(cents);
+    }
+}
@@ -25,6 +25,7 @@ import java.util.List;
  * - Net Profit is calculated from the LEDGER (transactions with affectsProfit=true)
  * - Gross Profit is calculated from SALES (revenue - COGS only)
  * - The ledger is the authoritative source for business profitability
+ * - In-memory reductions sum long cents ({@link MoneyAccumulator}), not BigDecimals
  */
 @Component
 @RequiredArgsConstructor
@@ -54,16 +55,13 @@ public class ProfitCalculationHelper {
      * @param userEmail User's email
      * @return Net Profit (can be negative if business is losing money)
      */
-    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.PROFIT_CALCULATION, key = "#userEmail")
+    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.PROFIT_CALCULATION, key = "T(com.jaoow.helmetstore.cache.FinancialCacheKey).summary(#userEmail)", sync = true)
     public BigDecimal calculateTotalNetProfit(String userEmail) {
         log.debug("Calculating total net profit for user: {}", userEmail);
 
         List<Transaction> transactions = transactionRepository.findByAccountUserEmail(userEmail);
 
-        BigDecimal netProfit = transactions.stream()
-            .filter(Transaction::isAffectsProfit) // All profit-affecting transactions
-            .map(Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal netProfit = calculateNetProfitFromTransactions(transactions);
 
         log.debug("Total net profit for {}: {}", userEmail, netProfit);
         return netProfit;
@@ -80,10 +78,13 @@ public class ProfitCalculationHelper {
     public BigDecimal calculateNetProfitFromTransactions(List<Transaction> transactions) {
         log.debug("Calculating net profit from {} transactions", transactions.size());
 
-        return transactions.stream()
-            .filter(Transaction::isAffectsProfit)
-            .map(Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        MoneyAccumulator netProfit = new MoneyAccumulator();
+        for (Transaction transaction : transactions) {
+            if (transaction.isAffectsProfit()) { // All profit-affecting transactions
+                netProfit.add(transaction.getAmount());
+            }
+        }
+        return netProfit.toBigDecimal();
     }
 
     // ============================================================================
@@ -154,12 +155,7 @@ public class ProfitCalculationHelper {
 
         List<Transaction> transactions = transactionRepository.findByAccountUserEmail(userEmail);
 
-        BigDecimal expenses = transactions.stream()
-            .filter(Transaction::isAffectsProfit) // Affects profit
-            .filter(t -> t.getAmount().compareTo(BigDecimal.ZERO) < 0) // Negative = expense
-            .filter(t -> t.getDetail() != TransactionDetail.COST_OF_GOODS_SOLD) // Exclude COGS
-            .map(Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal expenses = calculateOperationalExpensesFromTransactions(transactions);
 
         log.debug("Total operational expenses for {}: {}", userEmail, expenses);
         return expenses;
@@ -172,12 +168,15 @@ public class ProfitCalculationHelper {
      * @return Operational expenses (as negative number)
      */
     public BigDecimal calculateOperationalExpensesFromTransactions(List<Transaction> transactions) {
-        return transactions.stream()
-            .filter(Transaction::isAffectsProfit)
-            .filter(t -> t.getAmount().compareTo(BigDecimal.ZERO) < 0)
-            .filter(t -> t.getDetail() != TransactionDetail.COST_OF_GOODS_SOLD)
-            .map(Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        MoneyAccumulator expenses = new MoneyAccumulator();
+        for (Transaction transaction : transactions) {
+            if (transaction.isAffectsProfit() // Affects profit
+                    && transaction.getAmount().signum() < 0 // Negative = expense
+                    && transaction.getDetail() != TransactionDetail.COST_OF_GOODS_SOLD) { // Exclude COGS
+                expenses.add(transaction.getAmount());
+            }
+        }
+        return expenses.toBigDecimal();
     }
 
     // ============================================================================
@@ -0,0 +1,66 @@
+package com.jaoow.helmetstore.mapper;
+
+import com.jaoow.helmetstore.dto.info.BaseProductStockDto;
+import com.jaoow.helmetstore.dto.info.BaseProductStockVariantDto;
+import com.jaoow.helmetstore.dto.info.ProductStockDto;
+import com.jaoow.helmetstore.dto.info.ProductStockVariantDto;
+import com.jaoow.helmetstore.dto.info.PublicProductStockDto;
+import com.jaoow.helmetstore.dto.info.PublicProductStockVariantDto;
+import com.jaoow.helmetstore.dto.summary.ProductVariantStockSummary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stock projection rows → product stock report and public catalog DTOs.
+ * Same output as the former {@code modelMapper.map(projection, ...)}; the variants
+ * list of the product DTOs is left empty for the caller to fill.
+ */
+@Component
+public class ProductStockMapper {
+
+    public ProductStockDto toProductStock(ProductVariantStockSummary summary) {
+        ProductStockDto dto = copyProduct(summary, new ProductStockDto());
+        dto.setAverageCost(summary.getAverageCost());
+        dto.setLastPurchaseDate(summary.getLastPurchaseDate());
+        return dto;
+    }
+
+    public ProductStockVariantDto toProductStockVariant(ProductVariantStockSummary summary) {
+        ProductStockVariantDto dto = copyVariant(summary, new ProductStockVariantDto());
+        dto.setReservedStock(summary.getReservedStock());
+        dto.setAvailableStock(summary.getAvailableStock());
+        dto.setIncomingStock(summary.getIncomingStock());
+        dto.setFutureStock(summary.getFutureStock());
+        return dto;
+    }
+
+    public PublicProductStockDto toPublicProductStock(ProductVariantStockSummary summary) {
+        return copyProduct(summary, new PublicProductStockDto());
+    }
+
+    /**
+     * The catalog shows what can still be bought: units held by reservations are left out.
+     */
+    public PublicProductStockVariantDto toPublicProductStockVariant(ProductVariantStockSummary summary) {
+        PublicProductStockVariantDto dto = copyVariant(summary, new PublicProductStockVariantDto());
+        dto.setCurrentStock(summary.getAvailableStock());
+        return dto;
+    }
+
+    private <T extends BaseProductStockDto<?>> T copyProduct(ProductVariantStockSummary summary, T dto) {
+        dto.setProductId(summary.getProductId());
+        dto.setModel(summary.getModel());
+        dto.setColor(summary.getColor());
+        dto.setImgUrl(summary.getImgUrl());
+        dto.setCategoryName(summary.getCategoryName());
+        dto.setSalePrice(summary.getSalePrice());
+        return dto;
+    }
+
+    private <T extends BaseProductStockVariantDto> T copyVariant(ProductVariantStockSummary summary, T dto) {
+        dto.setVariantId(summary.getVariantId());
+        dto.setSku(summary.getSku());
+        dto.setSize(summary.getSize());
+        dto.setCurrentStock(summary.getCurrentStock());
+        return dto;
+    }
+}
@@ -0,0 +1,59 @@
+package com.jaoow.helmetstore.mapper;
+
+import com.jaoow.helmetstore.dto.order.OrderDetailDTO;
+import com.jaoow.helmetstore.dto.order.PurchaseOrderDTO;
+import com.jaoow.helmetstore.dto.order.PurchaseOrderItemDTO;
+import com.jaoow.helmetstore.model.PurchaseOrder;
+import com.jaoow.helmetstore.model.PurchaseOrderItem;
+import org.springframework.stereotype.Component;
+
+import static com.jaoow.helmetstore.mapper.SaleMapper.mapAll;
+
+/**
+ * Purchase order → DTOs, same output as the former {@code modelMapper.map(order, ...)}.
+ */
+@Component
+public class PurchaseOrderMapper {
+
+    public PurchaseOrderDTO toDTO(PurchaseOrder order) {
+        PurchaseOrderDTO dto = new PurchaseOrderDTO();
+        dto.setId(order.getId());
+        dto.setOrderNumber(order.getOrderNumber());
+        dto.setDate(order.getDate());
+        dto.setStatus(order.getStatus());
+        dto.setItems(mapAll(order.getItems(), this::toItemDTO));
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setPaymentMethod(order.getPaymentMethod());
+        return dto;
+    }
+
+    public OrderDetailDTO toDetail(PurchaseOrder order) {
+        OrderDetailDTO dto = new OrderDetailDTO();
+        dto.setId(order.getId());
+        dto.setOrderNumber(order.getOrderNumber());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setDate(order.getDate());
+        dto.setStatus(order.getStatus() != null ? order.getStatus().name() : null);
+        dto.setPaymentMethod(order.getPaymentMethod());
+        dto.setItems(mapAll(order.getItems(), this::toDetailItem));
+        return dto;
+    }
+
+    private PurchaseOrderItemDTO toItemDTO(PurchaseOrderItem item) {
+        return PurchaseOrderItemDTO.builder()
+                .id(item.getId())
+                .productVariantId(item.getProductVariant() != null ? item.getProductVariant().getId() : null)
+                .quantity(item.getQuantity())
+                .purchasePrice(item.getPurchasePrice())
+                .build();
+    }
+
+    private OrderDetailDTO.OrderItemDTO toDetailItem(PurchaseOrderItem item) {
+        OrderDetailDTO.OrderItemDTO dto = new OrderDetailDTO.OrderItemDTO();
+        dto.setId(item.getId());
+        dto.setProductVariantId(item.getProductVariant() != null ? item.getProductVariant().getId() : null);
+        dto.setPurchasePrice(item.getPurchasePrice());
+        dto.setQuantity(item.getQuantity());
+        return dto;
+    }
+}
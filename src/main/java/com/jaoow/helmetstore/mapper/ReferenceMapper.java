@@ -0,0 +1,36 @@
+package com.jaoow.helmetstore.mapper;
+
+import com.jaoow.helmetstore.dto.reference.SimpleProductDTO;
+import com.jaoow.helmetstore.dto.reference.SimpleProductVariantDTO;
+import com.jaoow.helmetstore.model.Category;
+import com.jaoow.helmetstore.model.Product;
+import com.jaoow.helmetstore.model.ProductVariant;
+import org.springframework.stereotype.Component;
+
+/**
+ * Product and variant references sent alongside histories.
+ * Same output as the former {@code modelMapper.map(product, SimpleProductDTO.class)}.
+ */
+@Component
+public class ReferenceMapper {
+
+    public SimpleProductDTO toSimpleProduct(Product product) {
+        SimpleProductDTO dto = new SimpleProductDTO();
+        dto.setId(product.getId());
+        dto.setModel(product.getModel());
+        dto.setColor(product.getColor());
+        dto.setImgUrl(product.getImgUrl());
+        Category category = product.getCategory();
+        dto.setCategoryName(category != null ? category.getName() : null);
+        return dto;
+    }
+
+    public SimpleProductVariantDTO toSimpleVariant(ProductVariant variant) {
+        SimpleProductVariantDTO dto = new SimpleProductVariantDTO();
+        dto.setId(variant.getId());
+        dto.setSize(variant.getSize());
+        dto.setSku(variant.getSku());
+        dto.setProductId(variant.getProduct() != null ? variant.getProduct().getId() : null);
+        return dto;
+    }
+}
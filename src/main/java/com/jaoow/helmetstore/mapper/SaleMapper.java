@@ -0,0 +1,72 @@
+package com.jaoow.helmetstore.mapper;
+
+import com.jaoow.helmetstore.dto.sale.SaleItemDTO;
+import com.jaoow.helmetstore.dto.sale.SalePaymentDTO;
+import com.jaoow.helmetstore.dto.sale.SaleResponseDTO;
+import com.jaoow.helmetstore.model.Sale;
+import com.jaoow.helmetstore.model.sale.SaleItem;
+import com.jaoow.helmetstore.model.sale.SalePayment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Sale → {@link SaleResponseDTO}, same output as the former
+ * {@code modelMapper.map(sale, SaleResponseDTO.class)}.
+ */
+@Component
+public class SaleMapper {
+
+    public SaleResponseDTO toResponse(Sale sale) {
+        return SaleResponseDTO.builder()
+                .id(sale.getId())
+                .date(sale.getDate())
+                .items(mapAll(sale.getItems(), this::toItem))
+                .payments(mapAll(sale.getPayments(), this::toPayment))
+                .totalAmount(sale.getTotalAmount())
+                .totalProfit(sale.getTotalProfit())
+                .status(sale.getStatus())
+                .cancelledAt(sale.getCancelledAt())
+                .cancelledBy(sale.getCancelledBy())
+                .cancellationReason(sale.getCancellationReason())
+                .cancellationNotes(sale.getCancellationNotes())
+                .hasRefund(sale.getHasRefund())
+                .refundAmount(sale.getRefundAmount())
+                .refundPaymentMethod(sale.getRefundPaymentMethod())
+                .build();
+    }
+
+    public SaleItemDTO toItem(SaleItem item) {
+        return SaleItemDTO.builder()
+                .id(item.getId())
+                .productVariantId(item.getProductVariant() != null ? item.getProductVariant().getId() : null)
+                .quantity(item.getQuantity() != null ? item.getQuantity() : 0)
+                .unitPrice(item.getUnitPrice())
+                .unitProfit(item.getUnitProfit())
+                .totalItemPrice(item.getTotalItemPrice())
+                .totalItemProfit(item.getTotalItemProfit())
+                .isCancelled(item.getIsCancelled())
+                .cancelledQuantity(item.getCancelledQuantity())
+                .build();
+    }
+
+    public SalePaymentDTO toPayment(SalePayment payment) {
+        return SalePaymentDTO.builder()
+                .paymentMethod(payment.getPaymentMethod())
+                .amount(payment.getAmount())
+                .build();
+    }
+
+    static <S, T> List<T> mapAll(List<S> sources, Function<S, T> mapper) {
+        if (sources == null) {
+            return null;
+        }
+        List<T> targets = new ArrayList<>(sources.size());
+        for (S source : sources) {
+            targets.add(mapper.apply(source));
+        }
+        return targets;
+    }
+}
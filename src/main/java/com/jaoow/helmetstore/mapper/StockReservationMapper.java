@@ -0,0 +1,42 @@
+package com.jaoow.helmetstore.mapper;
+
+import com.jaoow.helmetstore.dto.reservation.StockReservationDTO;
+import com.jaoow.helmetstore.dto.reservation.StockReservationItemDTO;
+import com.jaoow.helmetstore.model.ProductVariant;
+import com.jaoow.helmetstore.model.reservation.StockReservation;
+import com.jaoow.helmetstore.model.reservation.StockReservationItem;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stock reservation → DTO. Expects the items with their variant and product loaded.
+ */
+@Component
+public class StockReservationMapper {
+
+    public StockReservationDTO toDTO(StockReservation reservation) {
+        return StockReservationDTO.builder()
+                .id(reservation.getId())
+                .code(reservation.getCode())
+                .status(reservation.getStatus())
+                .customerName(reservation.getCustomerName())
+                .customerPhone(reservation.getCustomerPhone())
+                .createdAt(reservation.getCreatedAt())
+                .expiresAt(reservation.getExpiresAt())
+                .saleId(reservation.getSaleId())
+                .items(SaleMapper.mapAll(reservation.getItems(), this::toItem))
+                .build();
+    }
+
+    public StockReservationItemDTO toItem(StockReservationItem item) {
+        ProductVariant variant = item.getProductVariant();
+        return StockReservationItemDTO.builder()
+                .variantId(variant.getId())
+                .sku(variant.getSku())
+                .size(variant.getSize())
+                .productId(variant.getProduct().getId())
+                .model(variant.getProduct().getModel())
+                .color(variant.getProduct().getColor())
+                .quantity(item.getQuantity())
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.jaoow.helmetstore.mapper;
+
+import com.jaoow.helmetstore.dto.balance.TransactionInfo;
+import com.jaoow.helmetstore.model.balance.Transaction;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Ledger transaction → {@link TransactionInfo}, same output as the former
+ * {@code modelMapper.map(transaction, TransactionInfo.class)}.
+ */
+@Component
+public class TransactionMapper {
+
+    public TransactionInfo toInfo(Transaction transaction) {
+        return TransactionInfo.builder()
+                .id(transaction.getId())
+                .date(transaction.getDate())
+                .description(transaction.getDescription())
+                .amount(transaction.getAmount())
+                .paymentMethod(transaction.getPaymentMethod())
+                .type(transaction.getType())
+                .detail(transaction.getDetail())
+                .reference(transaction.getReference())
+                .build();
+    }
+
+    public List<TransactionInfo> toInfos(List<Transaction> transactions) {
+        return SaleMapper.mapAll(transactions, this::toInfo);
+    }
+}
@@ -13,7 +13,7 @@ import java.math.BigDecimal;
 @Builder
 public class PurchaseOrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @ManyToOne
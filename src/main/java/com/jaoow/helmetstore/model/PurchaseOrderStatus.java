@@ -5,5 +5,12 @@ public enum PurchaseOrderStatus {
     INVOICED,
     SHIPPED,
     DELIVERED,
-    CANCELED
+    CANCELED;
+
+    /**
+     * Whether the items of an order in this status count as incoming stock.
+     */
+    public boolean isIncoming() {
+        return this != DELIVERED && this != CANCELED;
+    }
 }
@@ -22,12 +22,14 @@ import java.util.List;
 @Builder
 @Table(indexes = {
     @Index(name = "idx_sale_date", columnList = "date"),
-    @Index(name = "idx_sale_inventory_date", columnList = "inventory_id, date"),
-    @Index(name = "idx_sale_status", columnList = "status")
+    @Index(name = "idx_sale_inventory_date_id", columnList = "inventory_id, date DESC, id DESC"),
+    @Index(name = "idx_sale_status", columnList = "status"),
+    // Unique only WHERE client_sale_id IS NOT NULL: the partial index is defined in V6_5_0
+    @Index(name = "idx_sale_inventory_client_sale_id", columnList = "inventory_id, client_sale_id")
 })
 public class Sale {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @Column(nullable = false)
@@ -131,4 +133,18 @@ public class Sale {
     @Builder.Default
     private Boolean isDerivedFromExchange = false;
 
+    /**
+     * Identificador gerado pelo PDV para vendas enviadas em lote (POST /sales/batch).
+     * Único por inventário: reenviar o mesmo lote não duplica a venda.
+     */
+    @Column(name = "client_sale_id", length = 64)
+    private String clientSaleId;
+
+    /**
+     * Optimistic lock: a cancellation and an update of the same sale running at the
+     * same time cannot both commit.
+     */
+    @Version
+    private Long version;
+
 }
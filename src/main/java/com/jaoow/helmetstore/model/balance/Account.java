@@ -12,6 +12,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_account_user_type", columnNames = {"user_id", "type"}))
 public class Account {
 
     @Id
@@ -29,4 +30,11 @@ public class Account {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
+
+    /**
+     * Optimistic lock on the account row. Balances are not stored here: they live in
+     * {@link AccountBalance} and are changed with atomic increments.
+     */
+    @Version
+    private Long version;
 }
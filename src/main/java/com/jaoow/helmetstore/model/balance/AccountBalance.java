@@ -0,0 +1,44 @@
+package com.jaoow.helmetstore.model.balance;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Materialized wallet balance of an {@link Account}.
+ * <p>
+ * Adjusted atomically ({@code balance = balance + :delta}) in the same database
+ * transaction as every ledger insert, update and delete, so reading a balance is
+ * a primary-key lookup instead of a SUM over the account's transactions.
+ * <p>
+ * Formula kept in sync: SUM(amount) WHERE walletDestination = account.type
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "account_balance")
+public class AccountBalance {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "account_id")
+    private Account account;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    /**
+     * Incremented on every applied delta. The reconciler only overwrites a
+     * balance when this value did not change while it was recalculating.
+     */
+    @Column(name = "applied_version", nullable = false)
+    private long appliedVersion;
+}
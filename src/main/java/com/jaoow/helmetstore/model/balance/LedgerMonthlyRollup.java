@@ -0,0 +1,101 @@
+package com.jaoow.helmetstore.model.balance;
+
+import com.jaoow.helmetstore.model.user.User;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Monthly read model of the ledger, one row per (user, month, wallet).
+ * <p>
+ * Maintained incrementally in the same database transaction as every ledger write
+ * (see {@link com.jaoow.helmetstore.service.LedgerRollupService}), so monthly reports
+ * read N small rows instead of scanning the whole transaction table.
+ * <p>
+ * Wallet buckets:
+ * - CASH / BANK: transactions with the matching walletDestination
+ * - NONE: non-wallet entries (COGS, COGS reversals)
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "ledger_monthly_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ledger_rollup_user_month_wallet",
+                columnNames = {"user_id", "month_start", "wallet"}))
+public class LedgerMonthlyRollup {
+
+    public static final String NO_WALLET = "NONE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    /**
+     * First day of the month this row aggregates.
+     */
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    /**
+     * CASH, BANK or NONE (see {@link #NO_WALLET}).
+     */
+    @Column(nullable = false, length = 20)
+    private String wallet;
+
+    /**
+     * Formula: SUM(amount) WHERE affectsCash = true AND amount > 0
+     */
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal income;
+
+    /**
+     * Formula: ABS(SUM(amount)) WHERE affectsCash = true AND amount < 0
+     */
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal expense;
+
+    /**
+     * Formula: SUM(amount) WHERE affectsProfit = true
+     */
+    @Column(name = "net_profit", nullable = false, precision = 19, scale = 2)
+    private BigDecimal netProfit;
+
+    /**
+     * Formula: SUM(amount) WHERE affectsProfit = true AND amount < 0 AND detail != COST_OF_GOODS_SOLD
+     */
+    @Column(name = "operational_expenses", nullable = false, precision = 19, scale = 2)
+    private BigDecimal operationalExpenses;
+
+    /**
+     * Formula: SUM(amount) WHERE detail = COST_OF_GOODS_SOLD
+     */
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal cogs;
+
+    /**
+     * Formula: SUM(amount) WHERE detail = SALE
+     */
+    @Column(name = "sales_revenue", nullable = false, precision = 19, scale = 2)
+    private BigDecimal salesRevenue;
+
+    /**
+     * Net wallet movement of the month. The closing balance of a month is the
+     * running sum of this column up to (and including) that month.
+     * <p>
+     * Formula: SUM(amount) WHERE walletDestination = wallet
+     */
+    @Column(name = "balance_change", nullable = false, precision = 19, scale = 2)
+    private BigDecimal balanceChange;
+
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+}
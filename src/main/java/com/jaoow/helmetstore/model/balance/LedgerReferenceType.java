@@ -0,0 +1,45 @@
+package com.jaoow.helmetstore.model.balance;
+
+/**
+ * Origin of a ledger {@link Transaction}, stored in {@code reference_type} next to
+ * the id of the originating entity ({@code reference_id}).
+ * <p>
+ * The constant names match the prefixes of the legacy {@code reference} strings
+ * ("SALE#123", "REFUND_PURCHASE_ORDER#45"...), which are still written for display.
+ */
+public enum LedgerReferenceType {
+
+    /** Receita e CPV de uma venda (reference_id = Sale.id) */
+    SALE,
+
+    /** Estorno de venda cancelada (reference_id = Sale.id) */
+    SALE_REFUND,
+
+    /** Reversão do CPV de itens cancelados (reference_id = Sale.id) */
+    SALE_CANCEL_COGS,
+
+    /** Compra de estoque (reference_id = PurchaseOrder.id) */
+    PURCHASE_ORDER,
+
+    /** Reembolso de item cancelado no pedido (reference_id = PurchaseOrder.id) */
+    REFUND_PURCHASE_ORDER,
+
+    /** Reversão do CPV dos itens devolvidos na troca (reference_id = venda original) */
+    EXCHANGE_COGS,
+
+    /** CPV dos novos itens da troca (reference_id = venda original) */
+    EXCHANGE_COGS_NEW,
+
+    /** Cobrança adicional na troca (reference_id = venda original) */
+    EXCHANGE_CHARGE,
+
+    /** Reembolso da diferença na troca (reference_id = venda original) */
+    EXCHANGE_REFUND;
+
+    /**
+     * Legacy display reference, e.g. {@code SALE#123}.
+     */
+    public String format(Long referenceId) {
+        return name() + "#" + referenceId;
+    }
+}
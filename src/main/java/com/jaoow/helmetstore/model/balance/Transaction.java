@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 @Table(indexes = {
     @Index(name = "idx_transaction_date", columnList = "date"),
     @Index(name = "idx_transaction_account_date", columnList = "account_id, date"),
-    @Index(name = "idx_transaction_reference", columnList = "reference"),
+    @Index(name = "idx_transaction_reference_type_id", columnList = "reference_type, reference_id"),
     @Index(name = "idx_transaction_reference_sub_id", columnList = "reference_sub_id"),
     @Index(name = "idx_transaction_affects_profit", columnList = "affectsProfit, date"),
     @Index(name = "idx_transaction_wallet_dest", columnList = "walletDestination, date"),
@@ -24,7 +24,7 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     private LocalDateTime date;
@@ -47,10 +47,24 @@ public class Transaction {
     private PaymentMethod paymentMethod;
 
     /**
-     * Reference to originating entity (e.g., "SALE#123", "PURCHASE_ORDER#456")
+     * Reference to originating entity (e.g., "SALE#123", "PURCHASE_ORDER#456").
+     * Display only: lookups use {@link #referenceType} and {@link #referenceId}.
      */
     private String reference;
 
+    /**
+     * Kind of the originating entity; null for manual and conversion transactions.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reference_type", length = 30)
+    private LedgerReferenceType referenceType;
+
+    /**
+     * Id of the originating entity (e.g. Sale.id for {@link LedgerReferenceType#SALE}).
+     */
+    @Column(name = "reference_id")
+    private Long referenceId;
+
     /**
      * Sub-reference ID for duplicate prevention.
      * Used to track specific sub-entities (e.g., SalePayment.id within a Sale)
@@ -91,6 +105,22 @@ public class Transaction {
     @Column(length = 20)
     private AccountType walletDestination;
 
+    /**
+     * Builder extension: link the transaction to its originating entity.
+     */
+    public static class TransactionBuilder {
+
+        /**
+         * Sets the typed reference (type + id) and the matching display reference.
+         */
+        public TransactionBuilder ledgerReference(LedgerReferenceType type, Long id) {
+            this.referenceType = type;
+            this.referenceId = id;
+            this.reference = type.format(id);
+            return this;
+        }
+    }
+
     /**
      * Validates business rules before persisting or updating the transaction.
      */
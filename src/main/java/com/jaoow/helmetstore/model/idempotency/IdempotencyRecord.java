@@ -0,0 +1,59 @@
+package com.jaoow.helmetstore.model.idempotency;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response of a write request sent with an {@code Idempotency-Key} header, kept so
+ * that a retry of the same request returns it instead of running the write again.
+ * <p>
+ * The row is inserted (claiming the key) in the same database transaction as the
+ * write itself: the write and its stored response commit or roll back together.
+ * Rows are deleted once {@link #expiresAt} has passed.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "idempotency_record",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_record_user_operation_key",
+                columnNames = {"user_email", "operation", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_record_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private IdempotentOperation operation;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the request (path id + body): a key reused with another request is rejected.
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * JSON of the response; NULL while the request is being processed.
+     */
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
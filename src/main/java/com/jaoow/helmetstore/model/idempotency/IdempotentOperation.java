@@ -0,0 +1,17 @@
+package com.jaoow.helmetstore.model.idempotency;
+
+/**
+ * Write endpoints that accept an {@code Idempotency-Key} header.
+ * The same key may be used once per user and operation.
+ */
+public enum IdempotentOperation {
+
+    /** POST /sales */
+    CREATE_SALE,
+
+    /** POST /sales/exchange */
+    EXCHANGE_PRODUCTS,
+
+    /** POST /sales/{id}/cancel */
+    CANCEL_SALE
+}
@@ -38,6 +38,12 @@ public class InventoryCatalog {
     @Column
     private Boolean showSizeSelector;
 
+    /**
+     * Whether customers may reserve stock from the public catalog (opt-in).
+     */
+    @Column(nullable = false)
+    private boolean allowReservations;
+
     @Column
     private String whatsappNumber;
 
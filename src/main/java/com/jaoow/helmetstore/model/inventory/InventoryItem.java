@@ -19,11 +19,23 @@ import java.time.LocalDate;
 })
 public class InventoryItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     private int quantity;
 
+    /**
+     * Units held by active stock reservations; available to sell is {@code quantity - reservedQuantity}.
+     */
+    @Column(nullable = false)
+    private int reservedQuantity;
+
+    /**
+     * Units on open purchase orders (not delivered nor cancelled), kept by the order lifecycle.
+     */
+    @Column(nullable = false)
+    private int incomingStock;
+
     private BigDecimal averageCost;
 
     private LocalDate lastPurchaseDate;
@@ -34,4 +46,17 @@ public class InventoryItem {
     @ManyToOne(optional = false)
     private Inventory inventory;
 
+    /**
+     * Optimistic lock: a concurrent write of the same row fails instead of overwriting it.
+     */
+    @Version
+    private Long version;
+
+    /**
+     * Units that can still be sold or reserved.
+     */
+    public int getAvailableQuantity() {
+        return Math.max(quantity - reservedQuantity, 0);
+    }
+
 }
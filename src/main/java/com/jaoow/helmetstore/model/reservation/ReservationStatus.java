@@ -0,0 +1,16 @@
+package com.jaoow.helmetstore.model.reservation;
+
+public enum ReservationStatus {
+
+    /** Holding stock until it expires */
+    ACTIVE,
+
+    /** Turned into a sale */
+    CONVERTED,
+
+    /** Released by the store before expiring */
+    CANCELLED,
+
+    /** Released by the sweeper once its TTL passed */
+    EXPIRED
+}
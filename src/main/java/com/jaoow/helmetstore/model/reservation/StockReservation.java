@@ -0,0 +1,73 @@
+package com.jaoow.helmetstore.model.reservation;
+
+import com.jaoow.helmetstore.model.inventory.Inventory;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Items held for a customer of the public catalog until {@link #expiresAt}.
+ * <p>
+ * While {@link ReservationStatus#ACTIVE}, the quantities of its items are counted in
+ * {@code InventoryItem.reservedQuantity} and cannot be sold to anyone else. The store
+ * turns it into a sale (POST /sales with its id) or cancels it; otherwise the sweeper
+ * releases it once expired.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "stock_reservation",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_reservation_code", columnNames = "code"),
+        indexes = @Index(name = "idx_stock_reservation_inventory_status", columnList = "inventory_id, status"))
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "inventory_id")
+    private Inventory inventory;
+
+    /**
+     * Short code the customer sends in the WhatsApp message.
+     */
+    @Column(nullable = false, length = 12)
+    private String code;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationStatus status;
+
+    @Column(name = "customer_name", length = 100)
+    private String customerName;
+
+    @Column(name = "customer_phone", length = 30)
+    private String customerPhone;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Sale the reservation was turned into.
+     */
+    @Column(name = "sale_id")
+    private Long saleId;
+
+    @OneToMany(mappedBy = "reservation", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Builder.Default
+    private List<StockReservationItem> items = new ArrayList<>();
+
+    public boolean isActiveAt(LocalDateTime now) {
+        return status == ReservationStatus.ACTIVE && expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,31 @@
+package com.jaoow.helmetstore.model.reservation;
+
+import com.jaoow.helmetstore.model.ProductVariant;
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "stock_reservation_item",
+        indexes = @Index(name = "idx_stock_reservation_item_reservation", columnList = "reservation_id"))
+public class StockReservationItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "reservation_id")
+    private StockReservation reservation;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_variant_id")
+    private ProductVariant productVariant;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
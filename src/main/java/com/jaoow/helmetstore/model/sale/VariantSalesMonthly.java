@@ -0,0 +1,62 @@
+package com.jaoow.helmetstore.model.sale;
+
+import com.jaoow.helmetstore.model.ProductVariant;
+import com.jaoow.helmetstore.model.inventory.Inventory;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Monthly sales read model, one row per (inventory, month, variant).
+ * <p>
+ * Maintained with {@link VariantSalesStats} by
+ * {@link com.jaoow.helmetstore.service.VariantSalesStatsService}; period-scoped
+ * product reports sum the month buckets of the period.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "variant_sales_monthly",
+        uniqueConstraints = @UniqueConstraint(name = "uk_variant_sales_monthly_inventory_month_variant",
+                columnNames = {"inventory_id", "month_start", "product_variant_id"}))
+public class VariantSalesMonthly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_id", nullable = false)
+    private Inventory inventory;
+
+    /**
+     * First day of the month this row aggregates.
+     */
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_variant_id", nullable = false)
+    private ProductVariant productVariant;
+
+    @Column(name = "total_sold", nullable = false)
+    private long totalSold;
+
+    @Column(name = "total_revenue", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalRevenue;
+
+    @Column(name = "total_profit", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalProfit;
+
+    @Column(name = "last_sale_date")
+    private LocalDateTime lastSaleDate;
+
+    @Column(name = "sale_item_count", nullable = false)
+    private long saleItemCount;
+}
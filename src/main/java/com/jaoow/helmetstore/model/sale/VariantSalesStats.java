@@ -0,0 +1,69 @@
+package com.jaoow.helmetstore.model.sale;
+
+import com.jaoow.helmetstore.model.ProductVariant;
+import com.jaoow.helmetstore.model.inventory.Inventory;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Sales read model, one row per (inventory, variant).
+ * <p>
+ * Maintained incrementally in the same database transaction as every sale write
+ * (see {@link com.jaoow.helmetstore.service.VariantSalesStatsService}), so product
+ * reports join one row per variant instead of aggregating every sale item.
+ * <p>
+ * Sale items are counted as recorded, cancelled quantities included.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "variant_sales_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_variant_sales_stats_inventory_variant",
+                columnNames = {"inventory_id", "product_variant_id"}))
+public class VariantSalesStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_id", nullable = false)
+    private Inventory inventory;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_variant_id", nullable = false)
+    private ProductVariant productVariant;
+
+    /**
+     * Formula: SUM(sale_item.quantity)
+     */
+    @Column(name = "total_sold", nullable = false)
+    private long totalSold;
+
+    /**
+     * Formula: SUM(sale_item.total_item_price)
+     */
+    @Column(name = "total_revenue", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalRevenue;
+
+    /**
+     * Formula: SUM(sale_item.total_item_profit)
+     */
+    @Column(name = "total_profit", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalProfit;
+
+    /**
+     * Formula: MAX(sale.date)
+     */
+    @Column(name = "last_sale_date")
+    private LocalDateTime lastSaleDate;
+
+    @Column(name = "sale_item_count", nullable = false)
+    private long saleItemCount;
+}
@@ -1,6 +1,11 @@
 package com.jaoow.helmetstore.observability;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,4 +22,18 @@ public class HibernateConfiguration {
         return hibernateProperties ->
             hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, queryPerformanceInspector);
     }
+
+    /**
+     * Falhas de lock otimista (@Version) contadas pelo Hibernate.
+     * Só é incrementado com hibernate.generate_statistics=true; o contador
+     * optimistic.lock.conflicts do RetryOnConflictAspect funciona sempre.
+     */
+    @Bean
+    public MeterBinder optimisticLockFailuresMetric(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> FunctionCounter
+                .builder("hibernate.optimistic.lock.failures", statistics, Statistics::getOptimisticFailureCount)
+                .description("Optimistic lock failures (stale @Version) reported by Hibernate statistics")
+                .register(registry);
+    }
 }
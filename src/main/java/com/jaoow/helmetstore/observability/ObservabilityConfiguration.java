@@ -1,11 +1,11 @@
 package com.jaoow.helmetstore.observability;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import io.micrometer.core.aop.TimedAspect;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -42,8 +42,8 @@ public class ObservabilityConfiguration implements WebMvcConfigurer {
     private void registerCacheMetrics() {
         cacheManager.getCacheNames().forEach(cacheName -> {
             var cache = cacheManager.getCache(cacheName);
-            if (cache instanceof CaffeineCache caffeineCache) {
-                var nativeCache = caffeineCache.getNativeCache();
+            // Caches are wrapped in transaction-aware decorators, which expose the Caffeine cache
+            if (cache != null && cache.getNativeCache() instanceof Cache<?, ?> nativeCache) {
                 CaffeineCacheMetrics.monitor(meterRegistry, nativeCache, cacheName);
 
                 log.info("✅ Cache metrics registered for: {}", cacheName);
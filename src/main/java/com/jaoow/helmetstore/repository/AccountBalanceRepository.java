@@ -0,0 +1,67 @@
+package com.jaoow.helmetstore.repository;
+
+import com.jaoow.helmetstore.model.balance.AccountBalance;
+import com.jaoow.helmetstore.model.balance.AccountType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface AccountBalanceRepository extends JpaRepository<AccountBalance, Long> {
+
+       @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+       @Query("SELECT b FROM AccountBalance b JOIN b.account a WHERE a.user.email = :userEmail")
+       List<AccountBalance> findAllByUserEmail(@Param("userEmail") String userEmail);
+
+       @Query("SELECT b.balance FROM AccountBalance b JOIN b.account a " +
+                     "WHERE a.user.email = :userEmail AND a.type = :type")
+       Optional<BigDecimal> findBalanceByUserEmailAndType(@Param("userEmail") String userEmail,
+                                                          @Param("type") AccountType type);
+
+       /**
+        * All balances with their owner, for the background reconciler.
+        */
+       @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+       @Query("SELECT b FROM AccountBalance b JOIN FETCH b.account a JOIN FETCH a.user")
+       List<AccountBalance> findAllWithAccountAndUser();
+
+       /**
+        * Atomically add a delta to the balance of the user's account of the given wallet type.
+        * <p>
+        * The target account is resolved from the owner of {@code :sourceAccountId}, so a
+        * transaction linked to one account always moves the balance of the wallet it
+        * declares in walletDestination.
+        */
+       @Modifying
+       @Query(value = """
+                     INSERT INTO account_balance (account_id, balance, applied_version)
+                     SELECT a.id, :delta, 1
+                     FROM account a
+                     JOIN account src ON src.user_id = a.user_id
+                     WHERE src.id = :sourceAccountId AND a.type = :wallet
+                     ON CONFLICT (account_id) DO UPDATE SET
+                         balance = account_balance.balance + EXCLUDED.balance,
+                         applied_version = account_balance.applied_version + 1
+                     """, nativeQuery = true)
+       int applyDelta(@Param("sourceAccountId") Long sourceAccountId,
+                      @Param("wallet") String wallet,
+                      @Param("delta") BigDecimal delta);
+
+       /**
+        * Overwrite a drifted balance, only if no delta was applied since it was read.
+        *
+        * @return 1 when corrected, 0 when a concurrent write won
+        */
+       @Modifying
+       @Query("UPDATE AccountBalance b SET b.balance = :balance, b.appliedVersion = b.appliedVersion + 1 " +
+                     "WHERE b.accountId = :accountId AND b.appliedVersion = :expectedVersion")
+       int correctBalance(@Param("accountId") Long accountId,
+                          @Param("balance") BigDecimal balance,
+                          @Param("expectedVersion") long expectedVersion);
+}
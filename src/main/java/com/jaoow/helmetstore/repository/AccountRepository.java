@@ -3,6 +3,7 @@ package com.jaoow.helmetstore.repository;
 import com.jaoow.helmetstore.model.balance.Account;
 import com.jaoow.helmetstore.model.balance.AccountType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -20,4 +21,23 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Query("SELECT a FROM Account a LEFT JOIN FETCH a.transactions WHERE a.user.email = :userEmail AND a.type = :type")
     Optional<Account> findByUserEmailAndTypeWithTransactions(@Param("userEmail") String userEmail,
             @Param("type") AccountType type);
+
+    /**
+     * Lightweight account references of a user: [id, type].
+     * Never touches the transactions collection.
+     */
+    @Query("SELECT a.id, a.type FROM Account a WHERE a.user.email = :userEmail")
+    List<Object[]> findAccountReferencesByUserEmail(@Param("userEmail") String userEmail);
+
+    /**
+     * Create the user's account of the given type if it does not exist yet.
+     * Race-free: concurrent callers are serialized by the (user_id, type) unique constraint.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO account (type, user_id)
+            SELECT :type, u.id FROM app_user u WHERE u.email = :userEmail
+            ON CONFLICT (user_id, type) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfMissing(@Param("userEmail") String userEmail, @Param("type") String type);
 }
@@ -0,0 +1,23 @@
+package com.jaoow.helmetstore.repository;
+
+import com.jaoow.helmetstore.model.idempotency.IdempotencyRecord;
+import com.jaoow.helmetstore.model.idempotency.IdempotentOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByUserEmailAndOperationAndIdempotencyKey(
+            String userEmail, IdempotentOperation operation, String idempotencyKey);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
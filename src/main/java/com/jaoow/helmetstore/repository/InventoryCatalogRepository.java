@@ -2,7 +2,11 @@ package com.jaoow.helmetstore.repository;
 
 import com.jaoow.helmetstore.model.inventory.Inventory;
 import com.jaoow.helmetstore.model.inventory.InventoryCatalog;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -15,4 +19,23 @@ public interface InventoryCatalogRepository extends JpaRepository<InventoryCatal
     Optional<InventoryCatalog> findByInventory(Inventory inventory);
 
     Optional<InventoryCatalog> findByTokenAndActiveTrue(String token);
+
+    /**
+     * Active catalog with this token, its row locked until the end of the transaction:
+     * reservations of one catalog are checked against its limits one at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM InventoryCatalog c WHERE c.token = :token AND c.active = true")
+    Optional<InventoryCatalog> findActiveByTokenForUpdate(@Param("token") String token);
+
+    /**
+     * Email of the user owning the active catalog with this token, without loading any entity.
+     */
+    @Query("""
+            SELECT u.email
+            FROM InventoryCatalog c
+            JOIN User u ON u.inventory = c.inventory
+            WHERE c.token = :token AND c.active = true
+            """)
+    Optional<String> findOwnerEmailByActiveToken(@Param("token") String token);
 }
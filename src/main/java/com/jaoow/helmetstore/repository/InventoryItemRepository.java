@@ -1,19 +1,23 @@
 package com.jaoow.helmetstore.repository;
 
+import com.jaoow.helmetstore.dto.summary.InventoryStockChange;
+import com.jaoow.helmetstore.dto.summary.InventoryStockSnapshotRow;
 import com.jaoow.helmetstore.dto.summary.ProductSalesAndStockSummary;
 import com.jaoow.helmetstore.dto.summary.ProductVariantSaleSummary;
 import com.jaoow.helmetstore.dto.summary.ProductVariantSalesAndStockSummary;
 import com.jaoow.helmetstore.dto.summary.ProductVariantStockSummary;
 import com.jaoow.helmetstore.model.ProductVariant;
-import com.jaoow.helmetstore.model.PurchaseOrderStatus;
 import com.jaoow.helmetstore.model.inventory.Inventory;
 import com.jaoow.helmetstore.model.inventory.InventoryItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.math.BigDecimal;
@@ -21,29 +25,12 @@ import java.math.BigDecimal;
 @Repository
 public interface InventoryItemRepository extends JpaRepository<InventoryItem, Long> {
 
+    /**
+     * Sales totals come from the {@link com.jaoow.helmetstore.model.sale.VariantSalesStats}
+     * read model: one row per variant instead of aggregating every sale item.
+     * Incoming stock is the counter kept on the inventory item.
+     */
     @Query("""
-            WITH SalesSummary AS (
-                SELECT
-                    si.productVariant.id AS variantId,
-                    MAX(s.date) AS lastSaleDate,
-                    SUM(si.quantity) AS totalSold,
-                    SUM(si.totalItemPrice) AS totalRevenue,
-                    SUM(si.totalItemProfit) AS totalProfit
-                FROM Sale s
-                JOIN s.items si
-                WHERE s.inventory = :inventory
-                GROUP BY si.productVariant.id
-            ),
-            StockSummary AS (
-                SELECT
-                    ii.productVariant.id AS variantId,
-                    COALESCE(SUM(CASE WHEN po.status NOT IN (:excludedStatuses) THEN poi.quantity ELSE 0 END), 0) AS incomingStock
-                FROM InventoryItem ii
-                LEFT JOIN PurchaseOrderItem poi ON poi.productVariant.id = ii.productVariant.id
-                LEFT JOIN poi.purchaseOrder po ON po.inventory = :inventory
-                WHERE ii.inventory = :inventory
-                GROUP BY ii.productVariant.id, ii.quantity
-            )
             SELECT
                 p.id AS productId,
                 p.model AS model,
@@ -58,16 +45,16 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
                 pv.size AS size,
                 ii.quantity AS currentStock,
                 COALESCE(SUM(poi.quantity), 0) AS totalPurchased,
-                COALESCE(s.incomingStock, 0) AS incomingStock,
-                COALESCE(ss.lastSaleDate, NULL) AS lastSaleDate,
-                COALESCE(ss.totalSold, 0) AS totalSold,
-                COALESCE(ss.totalRevenue, 0) AS totalRevenue,
-                COALESCE(ss.totalProfit, 0) AS totalProfit,
-                ii.quantity + s.incomingStock AS futureStock,
+                ii.incomingStock AS incomingStock,
+                COALESCE(vs.lastSaleDate, NULL) AS lastSaleDate,
+                COALESCE(vs.totalSold, 0) AS totalSold,
+                COALESCE(vs.totalRevenue, 0) AS totalRevenue,
+                COALESCE(vs.totalProfit, 0) AS totalProfit,
+                ii.quantity + ii.incomingStock AS futureStock,
                 ii.quantity * COALESCE(ii.averageCost, 0) AS totalStockValue,
                 CASE
-                    WHEN COALESCE(ss.totalRevenue, 0) > 0 THEN
-                        (COALESCE(ss.totalProfit, 0) / COALESCE(ss.totalRevenue, 0)) * 100
+                    WHEN COALESCE(vs.totalRevenue, 0) > 0 THEN
+                        (COALESCE(vs.totalProfit, 0) / COALESCE(vs.totalRevenue, 0)) * 100
                     ELSE 0
                 END AS profitMargin
             FROM InventoryItem ii
@@ -76,28 +63,82 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
             LEFT JOIN p.category c
             LEFT JOIN PurchaseOrderItem poi ON poi.productVariant.id = pv.id
             LEFT JOIN poi.purchaseOrder po ON po.inventory = :inventory
-            LEFT JOIN SalesSummary ss ON ss.variantId = pv.id
-            LEFT JOIN StockSummary s ON s.variantId = pv.id
+            LEFT JOIN VariantSalesStats vs ON vs.inventory = ii.inventory AND vs.productVariant = pv
             WHERE ii.inventory = :inventory
             GROUP BY
-                p.id, pv.id, ii.quantity, ii.lastPurchaseDate, ii.averageCost,
-                ss.lastSaleDate, ss.totalSold, ss.totalRevenue, ss.totalProfit, s.incomingStock, p.salePrice, c.name
+                p.id, pv.id, ii.quantity, ii.lastPurchaseDate, ii.averageCost, ii.incomingStock,
+                vs.lastSaleDate, vs.totalSold, vs.totalRevenue, vs.totalProfit, p.salePrice, c.name
             ORDER BY p.model ASC, p.color ASC, pv.size
             """)
     List<ProductVariantSalesAndStockSummary> findAllWithSalesAndPurchaseDataByInventory(
-            @Param("excludedStatuses") List<PurchaseOrderStatus> excludedStatuses,
             @Param("inventory") Inventory inventory);
 
+    /**
+     * Same as {@link #findAllWithSalesAndPurchaseDataByInventory}, sales restricted to
+     * the months {@code fromMonth..toMonth} (first days of month, inclusive): sums the
+     * {@link com.jaoow.helmetstore.model.sale.VariantSalesMonthly} buckets of the period.
+     */
+    @Query("""
+            WITH PeriodSales AS (
+                SELECT
+                    m.productVariant.id AS variantId,
+                    MAX(m.lastSaleDate) AS lastSaleDate,
+                    SUM(m.totalSold) AS totalSold,
+                    SUM(m.totalRevenue) AS totalRevenue,
+                    SUM(m.totalProfit) AS totalProfit
+                FROM VariantSalesMonthly m
+                WHERE m.inventory = :inventory AND m.monthStart BETWEEN :fromMonth AND :toMonth
+                GROUP BY m.productVariant.id
+            )
+            SELECT
+                p.id AS productId,
+                p.model AS model,
+                p.color AS color,
+                p.imgUrl AS imgUrl,
+                COALESCE(c.name, '') AS categoryName,
+                ii.lastPurchaseDate AS lastPurchaseDate,
+                COALESCE(ii.averageCost, 0) AS averageCost,
+                COALESCE(p.salePrice, 0) AS salePrice,
+                pv.id AS variantId,
+                pv.sku AS sku,
+                pv.size AS size,
+                ii.quantity AS currentStock,
+                COALESCE(SUM(poi.quantity), 0) AS totalPurchased,
+                ii.incomingStock AS incomingStock,
+                COALESCE(vs.lastSaleDate, NULL) AS lastSaleDate,
+                COALESCE(vs.totalSold, 0) AS totalSold,
+                COALESCE(vs.totalRevenue, 0) AS totalRevenue,
+                COALESCE(vs.totalProfit, 0) AS totalProfit,
+                ii.quantity + ii.incomingStock AS futureStock,
+                ii.quantity * COALESCE(ii.averageCost, 0) AS totalStockValue,
+                CASE
+                    WHEN COALESCE(vs.totalRevenue, 0) > 0 THEN
+                        (COALESCE(vs.totalProfit, 0) / COALESCE(vs.totalRevenue, 0)) * 100
+                    ELSE 0
+                END AS profitMargin
+            FROM InventoryItem ii
+            JOIN ProductVariant pv ON pv.id = ii.productVariant.id
+            JOIN Product p ON p.id = pv.product.id
+            LEFT JOIN p.category c
+            LEFT JOIN PurchaseOrderItem poi ON poi.productVariant.id = pv.id
+            LEFT JOIN poi.purchaseOrder po ON po.inventory = :inventory
+            LEFT JOIN PeriodSales vs ON vs.variantId = pv.id
+            WHERE ii.inventory = :inventory
+            GROUP BY
+                p.id, pv.id, ii.quantity, ii.lastPurchaseDate, ii.averageCost, ii.incomingStock,
+                vs.lastSaleDate, vs.totalSold, vs.totalRevenue, vs.totalProfit, p.salePrice, c.name
+            ORDER BY p.model ASC, p.color ASC, pv.size
+            """)
+    List<ProductVariantSalesAndStockSummary> findAllWithSalesAndPurchaseDataByInventoryAndPeriod(
+            @Param("inventory") Inventory inventory,
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth);
+
+    /**
+     * Stock of every variant of the inventory, read from the inventory item rows
+     * alone (incoming stock included): no purchase order is scanned.
+     */
     @Query("""
-                WITH IncomingStock AS (
-                    SELECT
-                        poi.productVariant.id AS variantId,
-                        SUM(poi.quantity) AS incomingStock
-                    FROM PurchaseOrderItem poi
-                    JOIN poi.purchaseOrder po
-                    WHERE po.inventory = :inventory AND po.status NOT IN (:excludedStatuses)
-                    GROUP BY poi.productVariant.id
-                )
                 SELECT
                     p.id AS productId,
                     p.model AS model,
@@ -111,36 +152,26 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
                     pv.sku AS sku,
                     pv.size AS size,
                     ii.quantity AS currentStock,
-                    COALESCE(is.incomingStock, 0) AS incomingStock,
-                    ii.quantity + COALESCE(is.incomingStock, 0) AS futureStock
+                    ii.reservedQuantity AS reservedStock,
+                    GREATEST(ii.quantity - ii.reservedQuantity, 0) AS availableStock,
+                    ii.incomingStock AS incomingStock,
+                    ii.quantity + ii.incomingStock AS futureStock
                 FROM InventoryItem ii
                 JOIN ProductVariant pv ON pv.id = ii.productVariant.id
                 JOIN Product p ON p.id = pv.product.id
                 LEFT JOIN p.category c
-                LEFT JOIN IncomingStock is ON is.variantId = pv.id
                 WHERE ii.inventory = :inventory
                 ORDER BY p.model ASC, p.color ASC, pv.size
             """)
-    List<ProductVariantStockSummary> findAllWithStockDetailsByInventory(
-            @Param("excludedStatuses") List<PurchaseOrderStatus> excludedStatuses,
-            @Param("inventory") Inventory inventory);
+    List<ProductVariantStockSummary> findAllWithStockDetailsByInventory(@Param("inventory") Inventory inventory);
 
+    /**
+     * Best sellers of all time, most sold first, limited at the database: reads the
+     * top rows of {@link com.jaoow.helmetstore.model.sale.VariantSalesStats}
+     * (idx_variant_sales_stats_inventory_total_sold).
+     */
     @Query("""
-                WITH SalesSummary AS (
-                     SELECT
-                         si.productVariant.id AS variantId,
-                         MAX(s.date) AS lastSaleDate,
-                         SUM(si.quantity) AS totalSold,
-                         SUM(si.totalItemPrice) AS totalRevenue,
-                         SUM(si.totalItemProfit) AS totalProfit
-                     FROM Sale s
-                     JOIN s.items si
-                     JOIN ProductVariant pv ON pv.id = si.productVariant.id
-                     JOIN InventoryItem ii ON ii.productVariant.id = pv.id
-                     WHERE ii.inventory = :inventory
-                     GROUP BY si.productVariant.id
-                 )
-                 SELECT
+                SELECT
                     p.id AS productId,
                     p.model AS model,
                     p.color AS color,
@@ -150,25 +181,216 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
                     pv.id AS variantId,
                     pv.sku AS sku,
                     pv.size AS size,
-                    ss.lastSaleDate AS lastSaleDate,
-                    COALESCE(ss.totalSold, 0) AS totalSold,
-                    COALESCE(ss.totalRevenue, 0) AS totalRevenue,
-                    COALESCE(ss.totalProfit, 0) AS totalProfit,
-                    COALESCE(ii.quantity, 0) AS currentStock
-                 FROM InventoryItem ii
-                 JOIN ProductVariant pv ON ii.productVariant.id = pv.id
-                 JOIN Product p ON pv.product.id = p.id
-                 LEFT JOIN p.category c
-                 LEFT JOIN SalesSummary ss ON ss.variantId = pv.id
-                 WHERE ii.inventory = :inventory
-                 ORDER BY ss.totalSold DESC, p.model ASC, p.color ASC, pv.size
+                    vs.lastSaleDate AS lastSaleDate,
+                    vs.totalSold AS totalSold,
+                    vs.totalRevenue AS totalRevenue,
+                    vs.totalProfit AS totalProfit,
+                    ii.quantity AS currentStock
+                FROM VariantSalesStats vs
+                JOIN ProductVariant pv ON pv.id = vs.productVariant.id
+                JOIN Product p ON p.id = pv.product.id
+                LEFT JOIN p.category c
+                JOIN InventoryItem ii ON ii.inventory = vs.inventory AND ii.productVariant = pv
+                WHERE vs.inventory = :inventory AND vs.totalSold > 0
+                ORDER BY vs.totalSold DESC, p.model ASC, p.color ASC, pv.size
+            """)
+    List<ProductVariantSaleSummary> findTopSoldByInventory(@Param("inventory") Inventory inventory, Limit limit);
+
+    /**
+     * Best sellers of the months {@code fromMonth..toMonth}, most sold first,
+     * limited at the database.
+     */
+    @Query("""
+            WITH PeriodSales AS (
+                SELECT
+                    m.productVariant.id AS variantId,
+                    MAX(m.lastSaleDate) AS lastSaleDate,
+                    SUM(m.totalSold) AS totalSold,
+                    SUM(m.totalRevenue) AS totalRevenue,
+                    SUM(m.totalProfit) AS totalProfit
+                FROM VariantSalesMonthly m
+                WHERE m.inventory = :inventory AND m.monthStart BETWEEN :fromMonth AND :toMonth
+                GROUP BY m.productVariant.id
+                HAVING SUM(m.totalSold) > 0
+            )
+                SELECT
+                    p.id AS productId,
+                    p.model AS model,
+                    p.color AS color,
+                    p.imgUrl AS imgUrl,
+                    COALESCE(c.name, '') AS categoryName,
+                    COALESCE(p.salePrice, 0) AS salePrice,
+                    pv.id AS variantId,
+                    pv.sku AS sku,
+                    pv.size AS size,
+                    vs.lastSaleDate AS lastSaleDate,
+                    vs.totalSold AS totalSold,
+                    vs.totalRevenue AS totalRevenue,
+                    vs.totalProfit AS totalProfit,
+                    ii.quantity AS currentStock
+                FROM PeriodSales vs
+                JOIN ProductVariant pv ON pv.id = vs.variantId
+                JOIN Product p ON p.id = pv.product.id
+                LEFT JOIN p.category c
+                JOIN InventoryItem ii ON ii.inventory = :inventory AND ii.productVariant = pv
+                ORDER BY vs.totalSold DESC, p.model ASC, p.color ASC, pv.size
             """)
-    List<ProductVariantSaleSummary> findAllWithSalesDataByInventory(@Param("inventory") Inventory inventory);
+    List<ProductVariantSaleSummary> findTopSoldByInventoryAndPeriod(
+            @Param("inventory") Inventory inventory,
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth,
+            Limit limit);
 
     Optional<InventoryItem> findByInventoryAndProductVariant(Inventory inventory, ProductVariant productVariant);
 
+    /**
+     * Stock and average cost of every variant of the user's inventory, as plain rows:
+     * no entity is loaded, not even the inventory.
+     */
+    @Query("""
+            SELECT pv.id AS variantId, pv.sku AS sku, ii.quantity AS quantity,
+                   ii.reservedQuantity AS reservedQuantity, ii.averageCost AS averageCost
+            FROM User u
+            JOIN InventoryItem ii ON ii.inventory = u.inventory
+            JOIN ii.productVariant pv
+            WHERE u.email = :email
+            """)
+    List<InventoryStockSnapshotRow> findStockSnapshotByUserEmail(@Param("email") String email);
+
+    /**
+     * Inventory items of several variants in one query (batch variant of
+     * {@link #findByInventoryAndProductVariant}).
+     */
+    @Query("SELECT ii FROM InventoryItem ii WHERE ii.inventory = :inventory AND ii.productVariant.id IN :variantIds")
+    List<InventoryItem> findAllByInventoryAndVariantIds(@Param("inventory") Inventory inventory,
+            @Param("variantIds") Collection<Long> variantIds);
+
+    /**
+     * Atomically takes stock for several variants in one statement: each line is
+     * decremented only if its available stock ({@code quantity - reserved_quantity})
+     * covers the request, so concurrent sales of the last unit can never drive the
+     * stock negative nor sell units held by a reservation. Lines whose stock was too
+     * low (or that have no inventory item) are left untouched and are missing from
+     * the result.
+     *
+     * @return the decremented inventory items with their new quantity
+     */
+    @Query(value = """
+            UPDATE inventory_item ii
+            SET quantity = ii.quantity - line.quantity, version = ii.version + 1
+            FROM unnest(CAST(:variantIds AS bigint[]), CAST(:quantities AS integer[])) AS line(variant_id, quantity)
+            WHERE ii.inventory_id = :inventoryId
+              AND ii.product_variant_id = line.variant_id
+              AND ii.quantity - ii.reserved_quantity >= line.quantity
+            RETURNING ii.id AS "id", ii.product_variant_id AS "variantId", ii.quantity AS "quantity"
+            """, nativeQuery = true)
+    List<InventoryStockChange> decrementStockIfAvailable(@Param("inventoryId") Long inventoryId,
+            @Param("variantIds") Long[] variantIds,
+            @Param("quantities") Integer[] quantities);
+
+    /**
+     * Atomically returns stock for several variants in one statement
+     * ({@code quantity = quantity + returned}).
+     *
+     * @return the incremented inventory items with their new quantity
+     */
+    @Query(value = """
+            UPDATE inventory_item ii
+            SET quantity = ii.quantity + line.quantity, version = ii.version + 1
+            FROM unnest(CAST(:variantIds AS bigint[]), CAST(:quantities AS integer[])) AS line(variant_id, quantity)
+            WHERE ii.inventory_id = :inventoryId
+              AND ii.product_variant_id = line.variant_id
+            RETURNING ii.id AS "id", ii.product_variant_id AS "variantId", ii.quantity AS "quantity"
+            """, nativeQuery = true)
+    List<InventoryStockChange> incrementStock(@Param("inventoryId") Long inventoryId,
+            @Param("variantIds") Long[] variantIds,
+            @Param("quantities") Integer[] quantities);
+
+    /**
+     * Atomically holds stock for a reservation, same guard as
+     * {@link #decrementStockIfAvailable}: a line is reserved only if its available
+     * stock covers it. Lines that could not be reserved are missing from the result.
+     *
+     * @return the reserved inventory items with their available quantity
+     */
+    @Query(value = """
+            UPDATE inventory_item ii
+            SET reserved_quantity = ii.reserved_quantity + line.quantity, version = ii.version + 1
+            FROM unnest(CAST(:variantIds AS bigint[]), CAST(:quantities AS integer[])) AS line(variant_id, quantity)
+            WHERE ii.inventory_id = :inventoryId
+              AND ii.product_variant_id = line.variant_id
+              AND ii.quantity - ii.reserved_quantity >= line.quantity
+            RETURNING ii.id AS "id", ii.product_variant_id AS "variantId",
+                      ii.quantity - ii.reserved_quantity AS "quantity"
+            """, nativeQuery = true)
+    List<InventoryStockChange> reserveStockIfAvailable(@Param("inventoryId") Long inventoryId,
+            @Param("variantIds") Long[] variantIds,
+            @Param("quantities") Integer[] quantities);
+
+    /**
+     * Releases everything the given reservations hold, in one statement whatever
+     * the number of reservations and items (sweeper, cancellation, conversion).
+     * The caller must have moved them out of ACTIVE first, so no quantity is
+     * released twice.
+     */
     @Modifying
-    @Query("UPDATE InventoryItem ii SET ii.quantity = :quantity WHERE ii.productVariant.id = :variantId AND ii.inventory = :inventory")
+    @Query(value = """
+            UPDATE inventory_item ii
+            SET reserved_quantity = GREATEST(ii.reserved_quantity - held.quantity, 0), version = ii.version + 1
+            FROM (SELECT sr.inventory_id, sri.product_variant_id, SUM(sri.quantity) AS quantity
+                  FROM stock_reservation sr
+                  JOIN stock_reservation_item sri ON sri.reservation_id = sr.id
+                  WHERE sr.id IN (:reservationIds)
+                  GROUP BY sr.inventory_id, sri.product_variant_id) AS held
+            WHERE ii.inventory_id = held.inventory_id
+              AND ii.product_variant_id = held.product_variant_id
+            """, nativeQuery = true)
+    int releaseReservedStock(@Param("reservationIds") Collection<Long> reservationIds);
+
+    /**
+     * Atomically adjusts the incoming stock of several variants in one statement
+     * ({@code incoming_stock = incoming_stock + delta}, never below zero). Deltas
+     * are negative when an order is delivered or cancelled.
+     *
+     * @return the adjusted inventory items with their new incoming stock
+     */
+    @Query(value = """
+            UPDATE inventory_item ii
+            SET incoming_stock = GREATEST(ii.incoming_stock + line.quantity, 0), version = ii.version + 1
+            FROM unnest(CAST(:variantIds AS bigint[]), CAST(:quantities AS integer[])) AS line(variant_id, quantity)
+            WHERE ii.inventory_id = :inventoryId
+              AND ii.product_variant_id = line.variant_id
+            RETURNING ii.id AS "id", ii.product_variant_id AS "variantId", ii.incoming_stock AS "quantity"
+            """, nativeQuery = true)
+    List<InventoryStockChange> adjustIncomingStock(@Param("inventoryId") Long inventoryId,
+            @Param("variantIds") Long[] variantIds,
+            @Param("quantities") Integer[] quantities);
+
+    /**
+     * Recomputes the incoming stock of every item of an inventory from its open
+     * purchase orders. Only the items whose counter drifted are written.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE inventory_item ii
+            SET incoming_stock = expected.quantity, version = ii.version + 1
+            FROM (SELECT target.id, COALESCE(open_orders.quantity, 0) AS quantity
+                  FROM inventory_item target
+                  LEFT JOIN (SELECT poi.product_variant_id, SUM(poi.quantity) AS quantity
+                             FROM purchase_order po
+                             JOIN purchase_order_item poi ON poi.purchase_order_id = po.id
+                             WHERE po.inventory_id = :inventoryId AND po.status NOT IN (:excludedStatuses)
+                             GROUP BY poi.product_variant_id) AS open_orders
+                         ON open_orders.product_variant_id = target.product_variant_id
+                  WHERE target.inventory_id = :inventoryId) AS expected
+            WHERE ii.id = expected.id
+              AND ii.incoming_stock <> expected.quantity
+            """, nativeQuery = true)
+    int rebuildIncomingStock(@Param("inventoryId") Long inventoryId,
+            @Param("excludedStatuses") Collection<String> excludedStatuses);
+
+    @Modifying
+    @Query("UPDATE InventoryItem ii SET ii.quantity = :quantity, ii.version = ii.version + 1 WHERE ii.productVariant.id = :variantId AND ii.inventory = :inventory")
     void updateStock(@Param("variantId") Long variantId,
             @Param("quantity") int quantity,
             @Param("inventory") Inventory inventory);
@@ -178,51 +400,100 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
     void deleteByProductIdAndInventory(@Param("productId") Long productId, @Param("inventory") Inventory inventory);
 
     @Modifying
-	@Query("UPDATE InventoryItem ii SET ii.averageCost = :price WHERE ii.productVariant.id = :variantId AND ii.inventory = :inventory")
+	@Query("UPDATE InventoryItem ii SET ii.averageCost = :price, ii.version = ii.version + 1 WHERE ii.productVariant.id = :variantId AND ii.inventory = :inventory")
 	void updatePrice(@Param("variantId") Long variantId,
 			@Param("price") BigDecimal price,
 			@Param("inventory") Inventory inventory);
 
+    /**
+     * Product totals sum the sales stats rows and incoming stock counters of the product's variants.
+     */
     @Query("""
-            WITH SalesSummary AS (
+            WITH ProductAggregates AS (
                 SELECT
-                    si.productVariant.id AS variantId,
-                    MAX(s.date) AS lastSaleDate,
-                    SUM(si.quantity) AS totalSold,
-                    SUM(si.totalItemPrice) AS totalRevenue,
-                    SUM(si.totalItemProfit) AS totalProfit
-                FROM Sale s
-                JOIN s.items si
-                WHERE s.inventory = :inventory
-                GROUP BY si.productVariant.id
-            ),
-            StockSummary AS (
-                SELECT
-                    ii.productVariant.id AS variantId,
-                    COALESCE(SUM(CASE WHEN po.status NOT IN (:excludedStatuses) THEN poi.quantity ELSE 0 END), 0) AS incomingStock
+                    p.id AS productId,
+                    SUM(ii.quantity) AS totalCurrentStock,
+                    SUM(ii.incomingStock) AS totalIncomingStock,
+                    SUM(ii.quantity * COALESCE(ii.averageCost, 0)) AS totalStockValue,
+                    MAX(ii.lastPurchaseDate) AS lastPurchaseDate,
+                    AVG(ii.averageCost) AS avgPurchasePrice,
+                    MAX(vs.lastSaleDate) AS lastSaleDate,
+                    SUM(vs.totalSold) AS totalSold,
+                    SUM(vs.totalRevenue) AS totalRevenue,
+                    SUM(vs.totalProfit) AS totalProfit
                 FROM InventoryItem ii
-                LEFT JOIN PurchaseOrderItem poi ON poi.productVariant.id = ii.productVariant.id
-                LEFT JOIN poi.purchaseOrder po ON po.inventory = :inventory
+                JOIN ProductVariant pv ON pv.id = ii.productVariant.id
+                JOIN Product p ON p.id = pv.product.id
+                LEFT JOIN VariantSalesStats vs ON vs.inventory = ii.inventory AND vs.productVariant = pv
                 WHERE ii.inventory = :inventory
-                GROUP BY ii.productVariant.id, ii.quantity
+                GROUP BY p.id
+            )
+            SELECT
+                p.id AS productId,
+                p.model AS model,
+                p.color AS color,
+                p.imgUrl AS imgUrl,
+                COALESCE(c.name, '') AS categoryName,
+                COALESCE(p.salePrice, 0) AS salePrice,
+                pa.lastPurchaseDate AS lastPurchaseDate,
+                pa.avgPurchasePrice AS averageCost,
+                pa.totalCurrentStock AS totalCurrentStock,
+                pa.totalIncomingStock AS totalIncomingStock,
+                pa.totalCurrentStock + pa.totalIncomingStock AS totalFutureStock,
+                pa.lastSaleDate AS lastSaleDate,
+                pa.totalSold AS totalSold,
+                pa.totalRevenue AS totalRevenue,
+                pa.totalProfit AS totalProfit,
+                pa.totalStockValue AS totalStockValue,
+                CASE
+                    WHEN COALESCE(pa.totalRevenue, 0) > 0 THEN
+                        (COALESCE(pa.totalProfit, 0) / COALESCE(pa.totalRevenue, 0)) * 100
+                    ELSE 0
+                END AS profitMargin
+            FROM Product p
+            JOIN ProductAggregates pa ON pa.productId = p.id
+            LEFT JOIN p.category c
+            WHERE EXISTS (
+                SELECT 1 FROM InventoryItem ii
+                JOIN ProductVariant pv ON pv.id = ii.productVariant.id
+                WHERE ii.inventory = :inventory AND pv.product.id = p.id
+            )
+            ORDER BY p.model ASC, p.color ASC
+            """)
+    List<ProductSalesAndStockSummary> findAllGroupedByProduct(@Param("inventory") Inventory inventory);
+
+    /**
+     * Same as {@link #findAllGroupedByProduct}, sales restricted to the months
+     * {@code fromMonth..toMonth}.
+     */
+    @Query("""
+            WITH PeriodSales AS (
+                SELECT
+                    m.productVariant.id AS variantId,
+                    MAX(m.lastSaleDate) AS lastSaleDate,
+                    SUM(m.totalSold) AS totalSold,
+                    SUM(m.totalRevenue) AS totalRevenue,
+                    SUM(m.totalProfit) AS totalProfit
+                FROM VariantSalesMonthly m
+                WHERE m.inventory = :inventory AND m.monthStart BETWEEN :fromMonth AND :toMonth
+                GROUP BY m.productVariant.id
             ),
             ProductAggregates AS (
                 SELECT
                     p.id AS productId,
                     SUM(ii.quantity) AS totalCurrentStock,
-                    SUM(s.incomingStock) AS totalIncomingStock,
+                    SUM(ii.incomingStock) AS totalIncomingStock,
                     SUM(ii.quantity * COALESCE(ii.averageCost, 0)) AS totalStockValue,
                     MAX(ii.lastPurchaseDate) AS lastPurchaseDate,
                     AVG(ii.averageCost) AS avgPurchasePrice,
-                    MAX(ss.lastSaleDate) AS lastSaleDate,
-                    SUM(ss.totalSold) AS totalSold,
-                    SUM(ss.totalRevenue) AS totalRevenue,
-                    SUM(ss.totalProfit) AS totalProfit
+                    MAX(vs.lastSaleDate) AS lastSaleDate,
+                    SUM(vs.totalSold) AS totalSold,
+                    SUM(vs.totalRevenue) AS totalRevenue,
+                    SUM(vs.totalProfit) AS totalProfit
                 FROM InventoryItem ii
                 JOIN ProductVariant pv ON pv.id = ii.productVariant.id
                 JOIN Product p ON p.id = pv.product.id
-                LEFT JOIN SalesSummary ss ON ss.variantId = pv.id
-                LEFT JOIN StockSummary s ON s.variantId = pv.id
+                LEFT JOIN PeriodSales vs ON vs.variantId = pv.id
                 WHERE ii.inventory = :inventory
                 GROUP BY p.id
             )
@@ -258,12 +529,13 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
             )
             ORDER BY p.model ASC, p.color ASC
             """)
-    List<ProductSalesAndStockSummary> findAllGroupedByProduct(
-            @Param("excludedStatuses") List<PurchaseOrderStatus> excludedStatuses,
-            @Param("inventory") Inventory inventory);
+    List<ProductSalesAndStockSummary> findAllGroupedByProductAndPeriod(
+            @Param("inventory") Inventory inventory,
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth);
 
     @Modifying
-    @Query("UPDATE InventoryItem ii SET ii.averageCost = :price WHERE ii.productVariant.product.id = :productId AND ii.inventory = :inventory")
+    @Query("UPDATE InventoryItem ii SET ii.averageCost = :price, ii.version = ii.version + 1 WHERE ii.productVariant.product.id = :productId AND ii.inventory = :inventory")
     void updatePriceByProduct(@Param("productId") Long productId,
             @Param("price") BigDecimal price,
             @Param("inventory") Inventory inventory);
@@ -0,0 +1,167 @@
+package com.jaoow.helmetstore.repository;
+
+import com.jaoow.helmetstore.dto.balance.MonthlyLedgerBreakdown;
+import com.jaoow.helmetstore.dto.balance.MonthlyLedgerMetrics;
+import com.jaoow.helmetstore.model.balance.LedgerMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface LedgerMonthlyRollupRepository extends JpaRepository<LedgerMonthlyRollup, Long> {
+
+       /**
+        * Every metric of one month in a single round trip.
+        * <p>
+        * Closing balances are running sums of the monthly wallet movement:
+        * SUM(balance_change) OVER (ORDER BY month). Months without ledger rows
+        * return zero metrics and carry the balances of the last month before them.
+        * Gross profit comes from the sales of the month (Sale.totalProfit).
+        */
+       @Query(value = """
+                     WITH monthly AS (
+                         SELECT r.month_start,
+                                SUM(r.income) AS income,
+                                SUM(r.expense) AS expense,
+                                SUM(r.net_profit) AS net_profit,
+                                SUM(r.operational_expenses) AS operational_expenses,
+                                SUM(r.cogs) AS cogs,
+                                SUM(r.sales_revenue) AS sales_revenue,
+                                SUM(CASE WHEN r.wallet = 'BANK' THEN r.balance_change ELSE 0 END) AS bank_change,
+                                SUM(CASE WHEN r.wallet = 'CASH' THEN r.balance_change ELSE 0 END) AS cash_change
+                         FROM ledger_monthly_rollup r
+                         JOIN app_user u ON u.id = r.user_id
+                         WHERE u.email = :userEmail AND r.month_start <= :monthStart
+                         GROUP BY r.month_start
+                     ),
+                     cumulative AS (
+                         SELECT m.*,
+                                SUM(m.bank_change) OVER (ORDER BY m.month_start) AS bank_balance,
+                                SUM(m.cash_change) OVER (ORDER BY m.month_start) AS cash_balance
+                         FROM monthly m
+                     ),
+                     latest AS (
+                         SELECT * FROM cumulative ORDER BY month_start DESC LIMIT 1
+                     )
+                     SELECT
+                         CASE WHEN l.month_start = :monthStart THEN l.income ELSE 0 END AS "income",
+                         CASE WHEN l.month_start = :monthStart THEN l.expense ELSE 0 END AS "expense",
+                         CASE WHEN l.month_start = :monthStart THEN l.income - l.expense ELSE 0 END AS "cashFlow",
+                         CASE WHEN l.month_start = :monthStart THEN l.net_profit ELSE 0 END AS "netProfit",
+                         CASE WHEN l.month_start = :monthStart THEN l.operational_expenses ELSE 0 END AS "operationalExpenses",
+                         CASE WHEN l.month_start = :monthStart THEN l.cogs ELSE 0 END AS "cogs",
+                         CASE WHEN l.month_start = :monthStart THEN l.sales_revenue ELSE 0 END AS "salesRevenue",
+                         COALESCE(l.bank_balance, 0) AS "bankBalance",
+                         COALESCE(l.cash_balance, 0) AS "cashBalance",
+                         (SELECT COALESCE(SUM(s.total_profit), 0)
+                          FROM sale s
+                          JOIN app_user su ON su.inventory_id = s.inventory_id
+                          WHERE su.email = :userEmail
+                            AND s.date >= :monthStart AND s.date < :nextMonthStart) AS "grossProfit"
+                     FROM (SELECT 1) base
+                     LEFT JOIN latest l ON TRUE
+                     """, nativeQuery = true)
+       MonthlyLedgerMetrics findMonthlyMetrics(@Param("userEmail") String userEmail,
+                                               @Param("monthStart") LocalDate monthStart,
+                                               @Param("nextMonthStart") LocalDate nextMonthStart);
+
+       /**
+        * Every month of a user with its metrics, oldest month first.
+        * <p>
+        * Same aggregation as {@link #findMonthlyMetrics} over all months at once: closing
+        * balances are running sums of the monthly wallet movement, and gross profit comes
+        * from the sales grouped by month. Months whose transactions were all removed
+        * (transactionCount = 0) are skipped but still count towards the balances.
+        */
+       @Query(value = """
+                     WITH monthly AS (
+                         SELECT r.month_start,
+                                SUM(r.income) AS income,
+                                SUM(r.expense) AS expense,
+                                SUM(r.net_profit) AS net_profit,
+                                SUM(r.operational_expenses) AS operational_expenses,
+                                SUM(r.cogs) AS cogs,
+                                SUM(r.sales_revenue) AS sales_revenue,
+                                SUM(r.transaction_count) AS transaction_count,
+                                SUM(CASE WHEN r.wallet = 'BANK' THEN r.balance_change ELSE 0 END) AS bank_change,
+                                SUM(CASE WHEN r.wallet = 'CASH' THEN r.balance_change ELSE 0 END) AS cash_change
+                         FROM ledger_monthly_rollup r
+                         JOIN app_user u ON u.id = r.user_id
+                         WHERE u.email = :userEmail
+                         GROUP BY r.month_start
+                     ),
+                     cumulative AS (
+                         SELECT m.*,
+                                SUM(m.bank_change) OVER (ORDER BY m.month_start) AS bank_balance,
+                                SUM(m.cash_change) OVER (ORDER BY m.month_start) AS cash_balance
+                         FROM monthly m
+                     ),
+                     gross AS (
+                         SELECT CAST(date_trunc('month', s.date) AS DATE) AS month_start,
+                                SUM(s.total_profit) AS gross_profit
+                         FROM sale s
+                         JOIN app_user su ON su.inventory_id = s.inventory_id
+                         WHERE su.email = :userEmail
+                         GROUP BY 1
+                     )
+                     SELECT
+                         CAST(EXTRACT(YEAR FROM c.month_start) AS INTEGER) AS "year",
+                         CAST(EXTRACT(MONTH FROM c.month_start) AS INTEGER) AS "month",
+                         c.income AS "income",
+                         c.expense AS "expense",
+                         c.income - c.expense AS "cashFlow",
+                         c.net_profit AS "netProfit",
+                         c.operational_expenses AS "operationalExpenses",
+                         c.cogs AS "cogs",
+                         c.sales_revenue AS "salesRevenue",
+                         c.bank_balance AS "bankBalance",
+                         c.cash_balance AS "cashBalance",
+                         COALESCE(g.gross_profit, 0) AS "grossProfit"
+                     FROM cumulative c
+                     LEFT JOIN gross g ON g.month_start = c.month_start
+                     WHERE c.transaction_count > 0
+                     ORDER BY c.month_start
+                     """, nativeQuery = true)
+       List<MonthlyLedgerBreakdown> findAllMonthlyMetrics(@Param("userEmail") String userEmail);
+
+       /**
+        * Apply a delta to the (user, month, wallet) row, creating it when missing.
+        * <p>
+        * The user is resolved from the transaction's account so callers never have
+        * to initialize the account proxy.
+        */
+       @Modifying
+       @Query(value = """
+                     INSERT INTO ledger_monthly_rollup (user_id, month_start, wallet, income, expense, net_profit,
+                                                        operational_expenses, cogs, sales_revenue, balance_change,
+                                                        transaction_count)
+                     SELECT a.user_id, :monthStart, :wallet, :income, :expense, :netProfit,
+                            :operationalExpenses, :cogs, :salesRevenue, :balanceChange, :transactionCount
+                     FROM account a
+                     WHERE a.id = :accountId
+                     ON CONFLICT (user_id, month_start, wallet) DO UPDATE SET
+                         income = ledger_monthly_rollup.income + EXCLUDED.income,
+                         expense = ledger_monthly_rollup.expense + EXCLUDED.expense,
+                         net_profit = ledger_monthly_rollup.net_profit + EXCLUDED.net_profit,
+                         operational_expenses = ledger_monthly_rollup.operational_expenses + EXCLUDED.operational_expenses,
+                         cogs = ledger_monthly_rollup.cogs + EXCLUDED.cogs,
+                         sales_revenue = ledger_monthly_rollup.sales_revenue + EXCLUDED.sales_revenue,
+                         balance_change = ledger_monthly_rollup.balance_change + EXCLUDED.balance_change,
+                         transaction_count = ledger_monthly_rollup.transaction_count + EXCLUDED.transaction_count
+                     """, nativeQuery = true)
+       int applyDelta(@Param("accountId") Long accountId,
+                      @Param("monthStart") LocalDate monthStart,
+                      @Param("wallet") String wallet,
+                      @Param("income") BigDecimal income,
+                      @Param("expense") BigDecimal expense,
+                      @Param("netProfit") BigDecimal netProfit,
+                      @Param("operationalExpenses") BigDecimal operationalExpenses,
+                      @Param("cogs") BigDecimal cogs,
+                      @Param("salesRevenue") BigDecimal salesRevenue,
+                      @Param("balanceChange") BigDecimal balanceChange,
+                      @Param("transactionCount") long transactionCount);
+}
@@ -2,8 +2,12 @@ package com.jaoow.helmetstore.repository;
 
 import com.jaoow.helmetstore.model.ProductVariant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +15,10 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
 
     Optional<ProductVariant> findBySku(String sku);
 
+    /**
+     * Variants with their product in one query.
+     */
+    @Query("SELECT pv FROM ProductVariant pv JOIN FETCH pv.product WHERE pv.id IN :ids")
+    List<ProductVariant> findAllWithProductByIdIn(@Param("ids") Collection<Long> ids);
+
 }
\ No newline at end of file
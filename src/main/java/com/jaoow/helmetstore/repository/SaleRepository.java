@@ -1,7 +1,11 @@
 package com.jaoow.helmetstore.repository;
 
+import com.jaoow.helmetstore.dto.summary.SaleHistoryItemRow;
+import com.jaoow.helmetstore.dto.summary.SaleHistoryPaymentRow;
+import com.jaoow.helmetstore.dto.summary.SaleHistoryRow;
 import com.jaoow.helmetstore.model.Sale;
 import com.jaoow.helmetstore.model.inventory.Inventory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,6 +18,7 @@ import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +44,15 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
 
         Optional<Sale> findByIdAndInventory(Long id, Inventory inventory);
 
+        /**
+         * Sales already ingested under the given client-side ids (batch sale ingestion).
+         * Returns: [clientSaleId, saleId]
+         */
+        @Query("SELECT s.clientSaleId, s.id FROM Sale s " +
+                        "WHERE s.inventory = :inventory AND s.clientSaleId IN :clientSaleIds")
+        List<Object[]> findIdsByInventoryAndClientSaleIds(@Param("inventory") Inventory inventory,
+                        @Param("clientSaleIds") Collection<String> clientSaleIds);
+
         @Query("""
                         SELECT COALESCE(SUM(s.totalProfit), 0)
                         FROM Sale s
@@ -46,18 +60,6 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
                         """)
         BigDecimal getTotalGrossProfit(@Param("inventory") Inventory inventory);
 
-        // Versão otimizada com hint para queries read-only em grande volume
-        @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
-        @Query("""
-                        SELECT DISTINCT s FROM Sale s
-                        LEFT JOIN FETCH s.items si
-                        LEFT JOIN FETCH si.productVariant sipv
-                        LEFT JOIN FETCH sipv.product
-                        WHERE s.inventory = :inventory
-                        ORDER BY s.date DESC, s.id DESC
-                        """)
-        List<Sale> findAllByInventoryWithProductVariantsAndProducts(@Param("inventory") Inventory inventory);
-
         // Versão paginada para consultas com muitos registros - sem EntityGraph para evitar MultipleBagFetchException
         @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
         @Query(value = """
@@ -71,31 +73,64 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
                         """)
         Page<Sale> findAllByInventoryPaginated(@Param("inventory") Inventory inventory, Pageable pageable);
 
-        // Query otimizada para buscar por período (mais performática)
-        @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+        /**
+         * One page of the sales history, newest first, after the (cursorDate, cursorId) keyset.
+         * The row-value comparison is an index bound on idx_sale_inventory_date_id: the scan
+         * starts at the cursor, so the cost of a page does not depend on how deep it is,
+         * unlike an OFFSET (or an equivalent OR of the two columns, applied as a filter).
+         */
         @Query("""
-                        SELECT DISTINCT s FROM Sale s
-                        LEFT JOIN FETCH s.items si
-                        LEFT JOIN FETCH si.productVariant sipv
-                        LEFT JOIN FETCH sipv.product
+                        SELECT s.id AS id, s.date AS date,
+                               s.totalAmount AS totalAmount, s.totalProfit AS totalProfit,
+                               s.status AS status, s.cancelledAt AS cancelledAt, s.cancelledBy AS cancelledBy,
+                               s.cancellationReason AS cancellationReason, s.cancellationNotes AS cancellationNotes,
+                               s.hasRefund AS hasRefund, s.refundAmount AS refundAmount,
+                               s.refundPaymentMethod AS refundPaymentMethod
+                        FROM Sale s
                         WHERE s.inventory = :inventory
                         AND s.date >= :startDate
                         AND s.date < :endDate
+                        AND (s.date, s.id) < (:cursorDate, :cursorId)
                         ORDER BY s.date DESC, s.id DESC
                         """)
-        List<Sale> findByInventoryAndDateRange(
+        List<SaleHistoryRow> findHistoryPage(
                         @Param("inventory") Inventory inventory,
                         @Param("startDate") LocalDateTime startDate,
-                        @Param("endDate") LocalDateTime endDate);
+                        @Param("endDate") LocalDateTime endDate,
+                        @Param("cursorDate") LocalDateTime cursorDate,
+                        @Param("cursorId") Long cursorId,
+                        Limit limit);
 
-        // PERFORMANCE FIX: Busca payments em batch para as sales já carregadas (evita N+1)
-        @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+        /**
+         * Items of a page of the sales history, with their variant and product, in one query.
+         */
         @Query("""
-                        SELECT DISTINCT s FROM Sale s
-                        LEFT JOIN FETCH s.payments
-                        WHERE s IN :sales
+                        SELECT si.sale.id AS saleId, si.id AS id, si.quantity AS quantity,
+                               si.unitPrice AS unitPrice, si.unitProfit AS unitProfit,
+                               si.totalItemPrice AS totalItemPrice, si.totalItemProfit AS totalItemProfit,
+                               si.isCancelled AS isCancelled, si.cancelledQuantity AS cancelledQuantity,
+                               pv.id AS variantId, pv.size AS size, pv.sku AS sku,
+                               p.id AS productId, p.model AS model, p.color AS color, p.imgUrl AS imgUrl,
+                               c.name AS categoryName
+                        FROM SaleItem si
+                        JOIN si.productVariant pv
+                        JOIN pv.product p
+                        LEFT JOIN p.category c
+                        WHERE si.sale.id IN :saleIds
+                        ORDER BY si.id
+                        """)
+        List<SaleHistoryItemRow> findHistoryItemsBySaleIds(@Param("saleIds") Collection<Long> saleIds);
+
+        /**
+         * Payments of a page of the sales history, in one query.
+         */
+        @Query("""
+                        SELECT sp.sale.id AS saleId, sp.paymentMethod AS paymentMethod, sp.amount AS amount
+                        FROM SalePayment sp
+                        WHERE sp.sale.id IN :saleIds
+                        ORDER BY sp.id
                         """)
-        List<Sale> loadPaymentsForSales(@Param("sales") List<Sale> sales);
+        List<SaleHistoryPaymentRow> findHistoryPaymentsBySaleIds(@Param("saleIds") Collection<Long> saleIds);
 
         @Query("""
                         SELECT COALESCE(SUM(s.totalProfit), 0)
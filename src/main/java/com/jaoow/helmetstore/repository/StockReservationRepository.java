@@ -0,0 +1,113 @@
+package com.jaoow.helmetstore.repository;
+
+import com.jaoow.helmetstore.model.inventory.Inventory;
+import com.jaoow.helmetstore.model.reservation.ReservationStatus;
+import com.jaoow.helmetstore.model.reservation.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    /**
+     * Reservation with its items, their variant and product (everything a sale needs).
+     */
+    @Query("""
+            SELECT DISTINCT r FROM StockReservation r
+            JOIN FETCH r.items i
+            JOIN FETCH i.productVariant pv
+            JOIN FETCH pv.product
+            WHERE r.id = :id AND r.inventory = :inventory
+            """)
+    Optional<StockReservation> findByIdAndInventoryWithItems(@Param("id") Long id,
+            @Param("inventory") Inventory inventory);
+
+    @Query("""
+            SELECT DISTINCT r FROM StockReservation r
+            JOIN FETCH r.items i
+            JOIN FETCH i.productVariant pv
+            JOIN FETCH pv.product
+            WHERE r.inventory = :inventory AND r.status = :status
+            ORDER BY r.expiresAt ASC
+            """)
+    List<StockReservation> findAllByInventoryAndStatusWithItems(@Param("inventory") Inventory inventory,
+            @Param("status") ReservationStatus status);
+
+    /**
+     * Units held by the active, unexpired reservations of the inventory.
+     */
+    @Query("""
+            SELECT COALESCE(SUM(i.quantity), 0) FROM StockReservation r
+            JOIN r.items i
+            WHERE r.inventory = :inventory
+              AND r.status = com.jaoow.helmetstore.model.reservation.ReservationStatus.ACTIVE
+              AND r.expiresAt > :now
+            """)
+    long sumActiveUnits(@Param("inventory") Inventory inventory, @Param("now") LocalDateTime now);
+
+    /**
+     * Active, unexpired reservations of the inventory made with this customer phone.
+     */
+    @Query("""
+            SELECT COUNT(r) FROM StockReservation r
+            WHERE r.inventory = :inventory AND r.customerPhone = :customerPhone
+              AND r.status = com.jaoow.helmetstore.model.reservation.ReservationStatus.ACTIVE
+              AND r.expiresAt > :now
+            """)
+    long countActiveByCustomerPhone(@Param("inventory") Inventory inventory,
+            @Param("customerPhone") String customerPhone,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Move an active, unexpired reservation to another status. The status check and
+     * the change are one statement, so a reservation is converted, cancelled or
+     * expired only once even when the sweeper and the store race on it.
+     *
+     * @return 1 if the reservation was still active, 0 otherwise
+     */
+    @Modifying
+    @Query("""
+            UPDATE StockReservation r SET r.status = :status
+            WHERE r.id = :id AND r.inventory = :inventory
+              AND r.status = com.jaoow.helmetstore.model.reservation.ReservationStatus.ACTIVE
+              AND r.expiresAt > :now
+            """)
+    int closeIfActive(@Param("id") Long id,
+            @Param("inventory") Inventory inventory,
+            @Param("status") ReservationStatus status,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Mark up to {@code batchSize} expired reservations as EXPIRED. Rows locked by a
+     * concurrent conversion or cancellation are skipped.
+     *
+     * @return ids of the reservations expired
+     */
+    @Query(value = """
+            UPDATE stock_reservation SET status = 'EXPIRED'
+            WHERE id IN (SELECT id FROM stock_reservation
+                         WHERE status = 'ACTIVE' AND expires_at <= :now
+                         ORDER BY expires_at
+                         LIMIT :batchSize
+                         FOR UPDATE SKIP LOCKED)
+            RETURNING id
+            """, nativeQuery = true)
+    List<Long> expireDue(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    /**
+     * Emails of the owners of the given reservations' inventories (cache and ETag keys).
+     */
+    @Query("""
+            SELECT DISTINCT u.email FROM User u, StockReservation r
+            WHERE r.id IN :ids AND u.inventory = r.inventory
+            """)
+    List<String> findOwnerEmails(@Param("ids") Collection<Long> ids);
+}
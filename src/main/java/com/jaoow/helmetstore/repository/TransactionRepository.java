@@ -1,6 +1,7 @@
 package com.jaoow.helmetstore.repository;
 
 import com.jaoow.helmetstore.model.balance.AccountType;
+import com.jaoow.helmetstore.model.balance.LedgerReferenceType;
 import com.jaoow.helmetstore.model.balance.Transaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,9 +21,16 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
        Optional<Transaction> findByIdAndAccountUserEmail(Long id, String accountUserEmail);
 
-       // Reference-based queries
-       Optional<Transaction> findByReference(String reference);
-       List<Transaction> findAllByReference(String reference);
+       // Reference-based queries (idx_transaction_reference_type_id)
+       List<Transaction> findAllByReferenceTypeAndReferenceId(LedgerReferenceType referenceType, Long referenceId);
+
+       /**
+        * Ledger rows of many entities of the same type (e.g. several sales) in one query.
+        */
+       List<Transaction> findAllByReferenceTypeAndReferenceIdIn(LedgerReferenceType referenceType,
+                                                                Collection<Long> referenceIds);
+
+       Optional<Transaction> findFirstByReferenceTypeAndReferenceId(LedgerReferenceType referenceType, Long referenceId);
 
        /**
         * Check if transaction exists for specific sub-reference ID.
@@ -30,10 +39,17 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
        boolean existsByReferenceSubId(Long referenceSubId);
 
        /**
-        * Check if refund transaction already exists for a sale.
+        * Sub-reference IDs (e.g. SalePayment ids) that already have a transaction.
+        * Batch variant of {@link #existsByReferenceSubId(Long)}: one query for a whole sale.
+        */
+       @Query("SELECT DISTINCT t.referenceSubId FROM Transaction t WHERE t.referenceSubId IN :referenceSubIds")
+       List<Long> findExistingReferenceSubIds(@Param("referenceSubIds") Collection<Long> referenceSubIds);
+
+       /**
+        * Check if a transaction already exists for an originating entity.
         * Used for duplicate prevention when cancelling sales.
         */
-       boolean existsByReference(String reference);
+       boolean existsByReferenceTypeAndReferenceId(LedgerReferenceType referenceType, Long referenceId);
 
        // ============================================================================
        // USER TRANSACTIONS QUERIES
@@ -185,7 +201,7 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
        /**
         * Calculate Gross Profit (Revenue - COGS only) for all time.
         * <p>
-        * Formula: SUM(amount) WHERE detail IN ('SALE', 'COST_OF_GOODS_SOLD') AND reference LIKE 'SALE#%'
+        * Formula: SUM(amount) WHERE detail IN ('SALE', 'COST_OF_GOODS_SOLD') AND referenceType = SALE
         * <p>
         * Includes: Sales Revenue (+), COGS from sales (-)
         * Excludes: Operational expenses, Purchase Orders
@@ -194,13 +210,13 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
                      "JOIN t.account a " +
                      "WHERE a.user.email = :userEmail " +
                      "AND (t.detail = 'SALE' OR " +
-                     "(t.detail = 'COST_OF_GOODS_SOLD' AND t.reference LIKE 'SALE#%'))")
+                     "(t.detail = 'COST_OF_GOODS_SOLD' AND t.referenceType = 'SALE'))")
        BigDecimal calculateGrossProfit(@Param("userEmail") String userEmail);
 
        /**
         * Calculate Gross Profit (Revenue - COGS only) for a date range.
         * <p>
-        * Formula: SUM(amount) WHERE detail IN ('SALE', 'COST_OF_GOODS_SOLD') AND reference LIKE 'SALE#%'
+        * Formula: SUM(amount) WHERE detail IN ('SALE', 'COST_OF_GOODS_SOLD') AND referenceType = SALE
         * <p>
         * Use this for monthly/quarterly gross profit reports.
         */
@@ -208,7 +224,7 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
                      "JOIN t.account a " +
                      "WHERE a.user.email = :userEmail " +
                      "AND (t.detail = 'SALE' OR " +
-                     "(t.detail = 'COST_OF_GOODS_SOLD' AND t.reference LIKE 'SALE#%')) " +
+                     "(t.detail = 'COST_OF_GOODS_SOLD' AND t.referenceType = 'SALE')) " +
                      "AND t.date >= :startDate AND t.date < :endDate")
        BigDecimal calculateGrossProfitByDateRange(
                      @Param("userEmail") String userEmail,
@@ -0,0 +1,78 @@
+package com.jaoow.helmetstore.repository;
+
+import com.jaoow.helmetstore.model.sale.VariantSalesMonthly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface VariantSalesMonthlyRepository extends JpaRepository<VariantSalesMonthly, Long> {
+
+       /**
+        * Apply a delta to the (inventory, month, variant) row, creating it when missing.
+        * Same rules as {@link VariantSalesStatsRepository#applyDelta}.
+        */
+       @Modifying
+       @Query(value = """
+                     INSERT INTO variant_sales_monthly (inventory_id, month_start, product_variant_id, total_sold,
+                                                        total_revenue, total_profit, last_sale_date, sale_item_count)
+                     VALUES (:inventoryId, :monthStart, :variantId, :totalSold,
+                             :totalRevenue, :totalProfit, CAST(:lastSaleDate AS timestamp), :saleItemCount)
+                     ON CONFLICT (inventory_id, month_start, product_variant_id) DO UPDATE SET
+                         total_sold = variant_sales_monthly.total_sold + EXCLUDED.total_sold,
+                         total_revenue = variant_sales_monthly.total_revenue + EXCLUDED.total_revenue,
+                         total_profit = variant_sales_monthly.total_profit + EXCLUDED.total_profit,
+                         last_sale_date = GREATEST(variant_sales_monthly.last_sale_date, EXCLUDED.last_sale_date),
+                         sale_item_count = variant_sales_monthly.sale_item_count + EXCLUDED.sale_item_count
+                     """, nativeQuery = true)
+       int applyDelta(@Param("inventoryId") Long inventoryId,
+                      @Param("monthStart") LocalDate monthStart,
+                      @Param("variantId") Long variantId,
+                      @Param("totalSold") long totalSold,
+                      @Param("totalRevenue") BigDecimal totalRevenue,
+                      @Param("totalProfit") BigDecimal totalProfit,
+                      @Param("lastSaleDate") LocalDateTime lastSaleDate,
+                      @Param("saleItemCount") long saleItemCount);
+
+       /**
+        * Recompute the last sale date of the given variants within one month, after
+        * sale items were removed from it.
+        */
+       @Modifying(flushAutomatically = true)
+       @Query(value = """
+                     UPDATE variant_sales_monthly vm
+                     SET last_sale_date = (
+                         SELECT MAX(s.date)
+                         FROM sale_item si
+                         JOIN sale s ON s.id = si.sale_id
+                         WHERE si.product_variant_id = vm.product_variant_id
+                           AND s.inventory_id = vm.inventory_id
+                           AND s.date >= :monthStart AND s.date < :nextMonthStart
+                     )
+                     WHERE vm.inventory_id = :inventoryId AND vm.month_start = :monthStart
+                       AND vm.product_variant_id IN (:variantIds)
+                     """, nativeQuery = true)
+       int refreshLastSaleDate(@Param("inventoryId") Long inventoryId,
+                               @Param("monthStart") LocalDate monthStart,
+                               @Param("nextMonthStart") LocalDate nextMonthStart,
+                               @Param("variantIds") Collection<Long> variantIds);
+
+       /**
+        * Drop the month rows left without sale items.
+        */
+       @Modifying
+       @Query(value = """
+                     DELETE FROM variant_sales_monthly
+                     WHERE inventory_id = :inventoryId AND month_start = :monthStart
+                       AND product_variant_id IN (:variantIds)
+                       AND sale_item_count <= 0
+                     """, nativeQuery = true)
+       int deleteEmpty(@Param("inventoryId") Long inventoryId,
+                       @Param("monthStart") LocalDate monthStart,
+                       @Param("variantIds") Collection<Long> variantIds);
+}
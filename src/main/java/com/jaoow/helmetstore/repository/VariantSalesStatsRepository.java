@@ -0,0 +1,73 @@
+package com.jaoow.helmetstore.repository;
+
+import com.jaoow.helmetstore.model.sale.VariantSalesStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface VariantSalesStatsRepository extends JpaRepository<VariantSalesStats, Long> {
+
+       /**
+        * Apply a delta to the (inventory, variant) row, creating it when missing.
+        * <p>
+        * The last sale date only moves forward here; removals pass {@code null} and
+        * recompute it with {@link #refreshLastSaleDate}.
+        */
+       @Modifying
+       @Query(value = """
+                     INSERT INTO variant_sales_stats (inventory_id, product_variant_id, total_sold, total_revenue,
+                                                      total_profit, last_sale_date, sale_item_count)
+                     VALUES (:inventoryId, :variantId, :totalSold, :totalRevenue,
+                             :totalProfit, CAST(:lastSaleDate AS timestamp), :saleItemCount)
+                     ON CONFLICT (inventory_id, product_variant_id) DO UPDATE SET
+                         total_sold = variant_sales_stats.total_sold + EXCLUDED.total_sold,
+                         total_revenue = variant_sales_stats.total_revenue + EXCLUDED.total_revenue,
+                         total_profit = variant_sales_stats.total_profit + EXCLUDED.total_profit,
+                         last_sale_date = GREATEST(variant_sales_stats.last_sale_date, EXCLUDED.last_sale_date),
+                         sale_item_count = variant_sales_stats.sale_item_count + EXCLUDED.sale_item_count
+                     """, nativeQuery = true)
+       int applyDelta(@Param("inventoryId") Long inventoryId,
+                      @Param("variantId") Long variantId,
+                      @Param("totalSold") long totalSold,
+                      @Param("totalRevenue") BigDecimal totalRevenue,
+                      @Param("totalProfit") BigDecimal totalProfit,
+                      @Param("lastSaleDate") LocalDateTime lastSaleDate,
+                      @Param("saleItemCount") long saleItemCount);
+
+       /**
+        * Recompute the last sale date of the given variants after sale items were
+        * removed or a sale date changed. Reads the variants' sale items only
+        * (idx_sale_item_variant_id); pending deletes are flushed first.
+        */
+       @Modifying(flushAutomatically = true)
+       @Query(value = """
+                     UPDATE variant_sales_stats vs
+                     SET last_sale_date = (
+                         SELECT MAX(s.date)
+                         FROM sale_item si
+                         JOIN sale s ON s.id = si.sale_id
+                         WHERE si.product_variant_id = vs.product_variant_id
+                           AND s.inventory_id = vs.inventory_id
+                     )
+                     WHERE vs.inventory_id = :inventoryId AND vs.product_variant_id IN (:variantIds)
+                     """, nativeQuery = true)
+       int refreshLastSaleDate(@Param("inventoryId") Long inventoryId,
+                               @Param("variantIds") Collection<Long> variantIds);
+
+       /**
+        * Drop the rows left without sale items, as if the variants had never been sold.
+        */
+       @Modifying
+       @Query(value = """
+                     DELETE FROM variant_sales_stats
+                     WHERE inventory_id = :inventoryId AND product_variant_id IN (:variantIds)
+                       AND sale_item_count <= 0
+                     """, nativeQuery = true)
+       int deleteEmpty(@Param("inventoryId") Long inventoryId,
+                       @Param("variantIds") Collection<Long> variantIds);
+}
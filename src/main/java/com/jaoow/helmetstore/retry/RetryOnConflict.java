@@ -0,0 +1,34 @@
+package com.jaoow.helmetstore.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-run a transactional write when it loses an optimistic lock race
+ * (a {@code @Version} check failed because another transaction changed the row).
+ * <p>
+ * Each attempt runs in a new transaction and re-reads the data, so the method must
+ * be safe to run again from the start. Only applies where the transaction starts:
+ * when called inside an already running transaction, the conflict is left to the
+ * outermost retry boundary.
+ *
+ * @see RetryOnConflictAspect
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    /**
+     * Total attempts, including the first one.
+     */
+    int maxAttempts() default 3;
+
+    /**
+     * Base delay before the second attempt; doubled for each further attempt and jittered.
+     */
+    long backoffMillis() default 50;
+}
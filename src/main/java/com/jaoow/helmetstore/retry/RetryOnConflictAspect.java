@@ -0,0 +1,81 @@
+package com.jaoow.helmetstore.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries {@link RetryOnConflict} methods on optimistic lock failures.
+ * <p>
+ * Ordered before the transaction interceptor, so every attempt gets its own
+ * transaction and conflicts detected at commit are retried too. The delay between
+ * attempts grows exponentially with ±50% jitter, so writers that collided once do
+ * not collide again on the next attempt.
+ * <p>
+ * Metrics: {@code optimistic.lock.conflicts} tagged with the method and the outcome
+ * ({@code retried}, or {@code exhausted} when the last attempt failed as well).
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RetryOnConflictAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Joined an outer transaction: retrying here would re-run on a rolled-back transaction
+            return joinPoint.proceed();
+        }
+
+        String method = joinPoint.getSignature().toShortString();
+        int maxAttempts = Math.max(1, retryOnConflict.maxAttempts());
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("optimistic.lock.conflicts", "method", method, "outcome", "exhausted")
+                            .increment();
+                    log.warn("Optimistic lock conflict in {} after {} attempt(s): {}", method, attempt, e.getMessage());
+                    throw e;
+                }
+
+                meterRegistry.counter("optimistic.lock.conflicts", "method", method, "outcome", "retried")
+                        .increment();
+                long delay = backoff(retryOnConflict.backoffMillis(), attempt);
+                log.debug("Optimistic lock conflict in {} (attempt {}), retrying in {} ms", method, attempt, delay);
+                sleep(delay, e);
+            }
+        }
+    }
+
+    private long backoff(long baseMillis, int attempt) {
+        long exponential = baseMillis << (attempt - 1);
+        return (long) (exponential * ThreadLocalRandom.current().nextDouble(0.5, 1.5));
+    }
+
+    private void sleep(long millis, RuntimeException conflict) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
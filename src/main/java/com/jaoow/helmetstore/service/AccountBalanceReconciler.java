@@ -0,0 +1,66 @@
+package com.jaoow.helmetstore.service;
+
+import com.jaoow.helmetstore.model.balance.Account;
+import com.jaoow.helmetstore.model.balance.AccountBalance;
+import com.jaoow.helmetstore.repository.AccountBalanceRepository;
+import com.jaoow.helmetstore.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Background safety net for the materialized {@link AccountBalance}.
+ * <p>
+ * Periodically recalculates each balance from the ledger
+ * ({@link TransactionRepository#calculateWalletBalance}) and corrects drifted rows.
+ * A correction is only applied when the row's appliedVersion did not change while
+ * recalculating, so it never overwrites a concurrent delta.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "ledger.balance-reconciler.enabled", havingValue = "true", matchIfMissing = true)
+public class AccountBalanceReconciler {
+
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final CacheInvalidationService cacheInvalidationService;
+
+    @Scheduled(fixedDelayString = "${ledger.balance-reconciler.fixed-delay:PT30M}",
+            initialDelayString = "${ledger.balance-reconciler.initial-delay:PT5M}")
+    @Transactional
+    public void reconcile() {
+        Set<String> correctedUsers = new LinkedHashSet<>();
+
+        for (AccountBalance stored : accountBalanceRepository.findAllWithAccountAndUser()) {
+            Account account = stored.getAccount();
+            BigDecimal expected = transactionRepository.calculateWalletBalance(
+                    account.getUser().getEmail(), account.getType());
+
+            if (expected.compareTo(stored.getBalance()) == 0) {
+                continue;
+            }
+
+            log.warn("Account balance drift detected for account {} ({}): stored={}, ledger={}",
+                    account.getId(), account.getType(), stored.getBalance(), expected);
+
+            if (accountBalanceRepository.correctBalance(account.getId(), expected, stored.getAppliedVersion()) == 1) {
+                correctedUsers.add(account.getUser().getEmail());
+            } else {
+                log.info("Skipping correction of account {}: balance changed during reconciliation", account.getId());
+            }
+        }
+
+        if (!correctedUsers.isEmpty()) {
+            log.warn("Corrected drifted account balance(s) of {} user(s)", correctedUsers.size());
+            correctedUsers.forEach(cacheInvalidationService::invalidateUserFinancialCaches);
+        }
+    }
+}
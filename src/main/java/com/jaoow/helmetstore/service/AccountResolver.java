@@ -0,0 +1,109 @@
+package com.jaoow.helmetstore.service;
+
+import com.jaoow.helmetstore.cache.CacheNames;
+import com.jaoow.helmetstore.exception.AccountNotFoundException;
+import com.jaoow.helmetstore.model.balance.Account;
+import com.jaoow.helmetstore.model.balance.AccountType;
+import com.jaoow.helmetstore.model.balance.PaymentMethod;
+import com.jaoow.helmetstore.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Resolves the CASH/BANK account of a user as a lightweight reference.
+ * <p>
+ * PERFORMANCE OPTIMIZATION:
+ * - Account ids per user are cached (they never change once created)
+ * - Returns a {@code getReference} proxy: linking a transaction to it never loads
+ *   the account row, let alone its transactions collection
+ * - Missing accounts are created with an upsert, so concurrent first writes of a
+ *   new user cannot create duplicate accounts
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccountResolver {
+
+    private final AccountRepository accountRepository;
+    private final CacheManager cacheManager;
+
+    /**
+     * Wallet that receives money paid with the given method.
+     */
+    public static AccountType walletOf(PaymentMethod paymentMethod) {
+        return paymentMethod == PaymentMethod.CASH ? AccountType.CASH : AccountType.BANK;
+    }
+
+    @Transactional
+    public Account resolve(String userEmail, PaymentMethod paymentMethod) {
+        return resolve(userEmail, walletOf(paymentMethod));
+    }
+
+    @Transactional
+    public Account resolve(String userEmail, AccountType type) {
+        Long accountId = getAccountIds(userEmail).get(type);
+
+        if (accountId == null) {
+            accountId = createMissingAccounts(userEmail).get(type);
+        }
+
+        if (accountId == null) {
+            throw new AccountNotFoundException("Conta não encontrada do tipo: " + type);
+        }
+
+        return accountRepository.getReferenceById(accountId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<AccountType, Long> getAccountIds(String userEmail) {
+        Cache cache = cacheManager.getCache(CacheNames.ACCOUNT_REFERENCES);
+        Map<AccountType, Long> cached = cache != null ? cache.get(userEmail, Map.class) : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        Map<AccountType, Long> accountIds = loadAccountIds(userEmail);
+        cacheAfterCommit(cache, userEmail, accountIds);
+        return accountIds;
+    }
+
+    private Map<AccountType, Long> createMissingAccounts(String userEmail) {
+        log.info("Creating missing CASH/BANK accounts for user: {}", userEmail);
+
+        for (AccountType type : AccountType.values()) {
+            accountRepository.insertIfMissing(userEmail, type.name());
+        }
+
+        Map<AccountType, Long> accountIds = loadAccountIds(userEmail);
+        cacheAfterCommit(cacheManager.getCache(CacheNames.ACCOUNT_REFERENCES), userEmail, accountIds);
+        return accountIds;
+    }
+
+    /**
+     * Only cache ids once they are committed: an id read or created inside a
+     * transaction that rolls back must never be handed out to other requests.
+     * The cache manager is transaction-aware, so put() is deferred until commit.
+     */
+    private void cacheAfterCommit(Cache cache, String userEmail, Map<AccountType, Long> accountIds) {
+        if (cache == null || accountIds.size() < AccountType.values().length) {
+            return;
+        }
+
+        cache.put(userEmail, accountIds);
+    }
+
+    private Map<AccountType, Long> loadAccountIds(String userEmail) {
+        Map<AccountType, Long> accountIds = new EnumMap<>(AccountType.class);
+        for (Object[] row : accountRepository.findAccountReferencesByUserEmail(userEmail)) {
+            accountIds.put((AccountType) row[1], (Long) row[0]);
+        }
+        return accountIds;
+    }
+}
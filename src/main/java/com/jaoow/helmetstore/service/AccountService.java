@@ -4,6 +4,7 @@ import com.jaoow.helmetstore.dto.balance.AccountInfo;
 import com.jaoow.helmetstore.dto.balance.BalanceConversionDTO;
 import com.jaoow.helmetstore.model.balance.*;
 import com.jaoow.helmetstore.model.user.User;
+import com.jaoow.helmetstore.repository.AccountBalanceRepository;
 import com.jaoow.helmetstore.repository.AccountRepository;
 import com.jaoow.helmetstore.repository.TransactionRepository;
 import com.jaoow.helmetstore.service.user.UserService;
@@ -17,6 +18,7 @@ import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -27,10 +29,13 @@ import java.util.stream.Collectors;
 public class AccountService {
 
     private final AccountRepository accountRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
     private final TransactionRepository transactionRepository;
     private final UserService userService;
     private final ModelMapper modelMapper;
     private final CacheInvalidationService cacheInvalidationService;
+    private final LedgerRollupService ledgerRollupService;
+    private final AccountResolver accountResolver;
 
     public List<AccountInfo> getAccountInfo(Principal principal) {
         if (principal == null || principal.getName() == null) {
@@ -42,46 +47,32 @@ public class AccountService {
             return new ArrayList<>();
         }
 
+        // PERFORMANCE: All balances in one query instead of summing each account's transactions
+        Map<Long, BigDecimal> balances = accountBalanceRepository.findAllByUserEmail(principal.getName()).stream()
+                .collect(Collectors.toMap(AccountBalance::getAccountId, AccountBalance::getBalance));
+
         return accounts.stream()
                 .filter(Objects::nonNull)
                 .map(account -> {
                     AccountInfo accountInfo = modelMapper.map(account, AccountInfo.class);
-                    accountInfo.setBalance(calculateAccountBalance(account));
+                    accountInfo.setBalance(balances.getOrDefault(account.getId(), BigDecimal.ZERO));
                     return accountInfo;
                 })
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Resolve the wallet account for a payment method as a lightweight reference.
+     * <p>
+     * PERFORMANCE: Delegates to AccountResolver (cached ids + getReference proxy),
+     * so the account's transactions are never fetched.
+     */
     public Optional<Account> findAccountByPaymentMethodAndUser(PaymentMethod paymentMethod, Principal principal) {
         if (paymentMethod == null || principal == null || principal.getName() == null) {
             return Optional.empty();
         }
 
-        Optional<Account> accountOpt = switch (paymentMethod) {
-            case CASH ->
-                accountRepository.findByUserEmailAndTypeWithTransactions(principal.getName(), AccountType.CASH);
-            case PIX, CARD ->
-                accountRepository.findByUserEmailAndTypeWithTransactions(principal.getName(), AccountType.BANK);
-        };
-
-        return accountOpt.or(() -> {
-            try {
-                User user = userService.findUserByEmail(principal.getName());
-                if (user == null) {
-                    return Optional.empty();
-                }
-
-                AccountType type = paymentMethod == PaymentMethod.CASH ? AccountType.CASH : AccountType.BANK;
-                Account account = Account.builder()
-                        .type(type)
-                        .user(user)
-                        .build();
-
-                return Optional.of(accountRepository.save(account));
-            } catch (Exception e) {
-                return Optional.empty();
-            }
-        });
+        return Optional.of(accountResolver.resolve(principal.getName(), paymentMethod));
     }
 
     public void convertBalance(BalanceConversionDTO conversionDTO, Principal principal) {
@@ -102,25 +93,8 @@ public class AccountService {
             throw new IllegalArgumentException("Usuário não encontrado.");
         }
 
-        Account fromAccount = accountRepository
-                .findByUserEmailAndTypeWithTransactions(principal.getName(), conversionDTO.getFromAccountType())
-                .orElseGet(() -> {
-                    Account newAccount = Account.builder()
-                            .type(conversionDTO.getFromAccountType())
-                            .user(user)
-                            .build();
-                    return accountRepository.save(newAccount);
-                });
-
-        Account toAccount = accountRepository
-                .findByUserEmailAndType(principal.getName(), conversionDTO.getToAccountType())
-                .orElseGet(() -> {
-                    Account newAccount = Account.builder()
-                            .type(conversionDTO.getToAccountType())
-                            .user(user)
-                            .build();
-                    return accountRepository.save(newAccount);
-                });
+        Account fromAccount = accountResolver.resolve(principal.getName(), conversionDTO.getFromAccountType());
+        Account toAccount = accountResolver.resolve(principal.getName(), conversionDTO.getToAccountType());
 
         // Verificar se há saldo suficiente na conta de origem
         BigDecimal fromAccountBalance = calculateAccountBalance(fromAccount);
@@ -183,37 +157,29 @@ public class AccountService {
 
         Transaction savedFromTransaction = transactionRepository.save(fromTransaction);
         Transaction savedToTransaction = transactionRepository.save(toTransaction);
+        ledgerRollupService.recordInserts(List.of(savedFromTransaction, savedToTransaction));
 
         if (savedFromTransaction.getDate().isAfter(savedToTransaction.getDate())) {
             throw new IllegalStateException("Erro na ordem das transações: saída deve vir antes da entrada");
         }
 
-        cacheInvalidationService.invalidateFinancialCaches();
+        cacheInvalidationService.invalidateForTransactions(principal.getName(),
+                List.of(savedFromTransaction, savedToTransaction));
     }
 
     /**
-     * Calcula o saldo atual de uma conta baseado nas transações
+     * Saldo atual de uma conta, lido do saldo materializado (AccountBalance).
+     * <p>
+     * PERFORMANCE: Lookup por chave primária em vez de somar todas as transações da conta.
      */
     public BigDecimal calculateAccountBalance(Account account) {
-        if (account == null) {
+        if (account == null || account.getId() == null) {
             return BigDecimal.ZERO;
         }
 
-        List<Transaction> transactions = account.getTransactions();
-        if (transactions == null || transactions.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-
-        return transactions.stream()
-                .filter(transaction -> transaction != null && transaction.getAmount() != null)
-                .map(transaction -> {
-                    if (transaction.getType() == TransactionType.INCOME) {
-                        return transaction.getAmount();
-                    } else {
-                        return transaction.getAmount().negate();
-                    }
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return accountBalanceRepository.findById(account.getId())
+                .map(AccountBalance::getBalance)
+                .orElse(BigDecimal.ZERO);
     }
 
     /**
@@ -224,10 +190,7 @@ public class AccountService {
             return BigDecimal.ZERO;
         }
 
-        Optional<Account> accountOpt = accountRepository.findByUserEmailAndTypeWithTransactions(userEmail, accountType);
-        if (accountOpt.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        return calculateAccountBalance(accountOpt.get());
+        return accountBalanceRepository.findBalanceByUserEmailAndType(userEmail, accountType)
+                .orElse(BigDecimal.ZERO);
     }
 }
@@ -1,41 +1,128 @@
 package com.jaoow.helmetstore.service;
 
 import com.jaoow.helmetstore.cache.CacheNames;
+import com.jaoow.helmetstore.cache.FinancialCacheKey;
+import com.jaoow.helmetstore.cache.SaleHistoryCacheKey;
+import com.jaoow.helmetstore.model.balance.Transaction;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Predicate;
 
 /**
  * Service responsible for invalidating caches when financial data changes
+ * <p>
+ * PERFORMANCE OPTIMIZATION:
+ * - Financial caches use {@link FinancialCacheKey} (user, scope, month), so a write
+ *   evicts only the summaries of its user and the month entries it changed instead
+ *   of clearing the caches for every tenant
+ * - Month entries carry cumulative balances, so a write dated in month M evicts the
+ *   user's entries for M and every later month
+ * - Every invalidation records how many entries it evicted
+ *   (cache.invalidation.evicted per cache, cache.invalidation.entries per write)
+ * - Inside a transaction, evictions run after commit: evicting before commit would let a
+ *   concurrent reader repopulate the entry with pre-commit data. Only immediate cache
+ *   operations (evictIfPresent, invalidate) are used, since the transaction-aware caches
+ *   would defer evict/clear again and those deferrals are not run once commit completed.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CacheInvalidationService {
 
+    /**
+     * Caches holding one all-time entry per user ({@link FinancialCacheKey#summary}).
+     */
+    private static final String[] USER_SUMMARY_CACHES = {
+            CacheNames.CASH_FLOW_SUMMARY,
+            CacheNames.FINANCIAL_SUMMARY,
+            CacheNames.PROFIT_CALCULATION,
+            CacheNames.CASH_FLOW_CALCULATION,
+            CacheNames.PROFIT_SUMMARY
+    };
+
+    /**
+     * Caches holding a breakdown entry plus one entry per month of each user.
+     */
+    private static final String[] USER_MONTHLY_CACHES = {
+            CacheNames.MONTHLY_CASH_FLOW,
+            CacheNames.MONTHLY_PROFIT
+    };
+
     private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
 
     /**
-     * Invalidate all financial-related caches when a transaction is created,
-     * updated, or deleted
+     * Invalidate the financial caches of a user after ledger transactions were
+     * created, updated or deleted.
+     *
+     * @param userEmail owner of the transactions
+     * @param months    months of the written transactions (before and after, for updates)
+     */
+    public void invalidateFinancialCaches(String userEmail, Collection<YearMonth> months) {
+        YearMonth fromMonth = months.stream()
+                .filter(Objects::nonNull)
+                .min(YearMonth::compareTo)
+                .orElse(null);
+
+        if (fromMonth == null) {
+            invalidateUserFinancialCaches(userEmail);
+            return;
+        }
+
+        log.debug("Invalidating financial caches for user {} from month {}", userEmail, fromMonth);
+        runAfterCommit(() -> recordInvalidation("user", evictUserEntries(userEmail, fromMonth)));
+    }
+
+    /**
+     * Invalidate the financial caches of a user for the months of the given transactions.
+     */
+    public void invalidateForTransactions(String userEmail, Collection<Transaction> transactions) {
+        invalidateFinancialCaches(userEmail, transactions.stream()
+                .map(Transaction::getDate)
+                .filter(Objects::nonNull)
+                .map(YearMonth::from)
+                .toList());
+    }
+
+    /**
+     * Invalidate every financial entry of a user (all months).
+     */
+    public void invalidateUserFinancialCaches(String userEmail) {
+        log.debug("Invalidating all financial caches for user {}", userEmail);
+        runAfterCommit(() -> recordInvalidation("user", evictUserEntries(userEmail, null)));
+    }
+
+    /**
+     * Invalidate all financial-related caches of every user
+     * (nuclear option, prefer the per-user variants)
      */
     public void invalidateFinancialCaches() {
         log.info("Invalidating all financial caches due to transaction change");
 
-        // Invalidate cash flow related caches
-        invalidateCache(CacheNames.CASH_FLOW_SUMMARY);
-        invalidateCache(CacheNames.MONTHLY_CASH_FLOW);
-        invalidateCache(CacheNames.FINANCIAL_SUMMARY);
-        invalidateCache(CacheNames.PROFIT_CALCULATION);
-        invalidateCache(CacheNames.CASH_FLOW_CALCULATION);
+        runAfterCommit(() -> {
+            long evicted = 0;
+            for (String cacheName : USER_SUMMARY_CACHES) {
+                evicted += invalidateCache(cacheName);
+            }
+            for (String cacheName : USER_MONTHLY_CACHES) {
+                evicted += invalidateCache(cacheName);
+            }
 
-        // Invalidate profit tracking related caches
-        invalidateCache(CacheNames.PROFIT_SUMMARY);
-        invalidateCache(CacheNames.MONTHLY_PROFIT);
+            // Also invalidate revenue and profit cache as it might be affected
+            evicted += invalidateCache(CacheNames.REVENUE_AND_PROFIT);
 
-        // Also invalidate revenue and profit cache as it might be affected
-        invalidateCache(CacheNames.REVENUE_AND_PROFIT);
+            recordInvalidation("all", evicted);
+        });
     }
 
     /**
@@ -43,7 +130,8 @@ public class CacheInvalidationService {
      */
     public void invalidateMonthlyCashFlowCache(String userEmail) {
         log.info("Invalidating monthly cash flow cache for user: {}", userEmail);
-        invalidateCache(CacheNames.MONTHLY_CASH_FLOW);
+        runAfterCommit(() -> recordInvalidation("user",
+                evictMonthlyEntries(CacheNames.MONTHLY_CASH_FLOW, userEmail, null)));
     }
 
     /**
@@ -51,7 +139,8 @@ public class CacheInvalidationService {
      */
     public void invalidateCashFlowSummaryCache(String userEmail) {
         log.info("Invalidating cash flow summary cache for user: {}", userEmail);
-        invalidateCache(CacheNames.CASH_FLOW_SUMMARY);
+        runAfterCommit(() -> recordInvalidation("user",
+                evictKey(CacheNames.CASH_FLOW_SUMMARY, FinancialCacheKey.summary(userEmail))));
     }
 
     /**
@@ -59,7 +148,7 @@ public class CacheInvalidationService {
      */
     public void invalidateProfitCache() {
         log.info("Invalidating profit calculation cache");
-        invalidateCache(CacheNames.PROFIT_CALCULATION);
+        runAfterCommit(() -> invalidateCache(CacheNames.PROFIT_CALCULATION));
     }
 
     /**
@@ -67,7 +156,7 @@ public class CacheInvalidationService {
      */
     public void invalidateCashFlowCalculationCache() {
         log.info("Invalidating cash flow calculation cache");
-        invalidateCache(CacheNames.CASH_FLOW_CALCULATION);
+        runAfterCommit(() -> invalidateCache(CacheNames.CASH_FLOW_CALCULATION));
     }
 
     /**
@@ -75,7 +164,7 @@ public class CacheInvalidationService {
      */
     public void invalidateFinancialSummaryCache() {
         log.info("Invalidating financial summary cache");
-        invalidateCache(CacheNames.FINANCIAL_SUMMARY);
+        runAfterCommit(() -> invalidateCache(CacheNames.FINANCIAL_SUMMARY));
     }
 
     /**
@@ -83,25 +172,140 @@ public class CacheInvalidationService {
      */
     public void invalidateAllCaches() {
         log.info("Invalidating ALL caches due to major financial changes");
-        for (String cacheName : CacheNames.ALL_CACHE_NAMES) {
-            invalidateCache(cacheName);
+        runAfterCommit(() -> {
+            for (String cacheName : CacheNames.ALL_CACHE_NAMES) {
+                invalidateCache(cacheName);
+            }
+        });
+    }
+
+    /**
+     * Invalidate the cached sales history pages of a user after one of its sales was
+     * created, updated, cancelled or deleted.
+     */
+    public void invalidateSalesHistory(String userEmail) {
+        log.debug("Invalidating sales history for user {}", userEmail);
+        runAfterCommit(() -> recordInvalidation("user", evictMatching(CacheNames.SALES_HISTORY,
+                key -> key instanceof SaleHistoryCacheKey historyKey && historyKey.isOfUser(userEmail))));
+    }
+
+    private long evictUserEntries(String userEmail, YearMonth fromMonth) {
+        long evicted = 0;
+
+        for (String cacheName : USER_SUMMARY_CACHES) {
+            evicted += evictKey(cacheName, FinancialCacheKey.summary(userEmail));
+        }
+        for (String cacheName : USER_MONTHLY_CACHES) {
+            evicted += evictMonthlyEntries(cacheName, userEmail, fromMonth);
         }
+
+        // Revenue and profit is keyed by the plain user name
+        evicted += evictKey(CacheNames.REVENUE_AND_PROFIT, userEmail);
+
+        return evicted;
+    }
+
+    /**
+     * Evict the user's breakdown entry and its month entries from {@code fromMonth} on.
+     */
+    private long evictMonthlyEntries(String cacheName, String userEmail, YearMonth fromMonth) {
+        long evicted = evictKey(cacheName, FinancialCacheKey.breakdown(userEmail));
+        return evicted + evictMatching(cacheName, key -> key instanceof FinancialCacheKey financialKey
+                && financialKey.isMonthOfUserFrom(userEmail, fromMonth));
+    }
+
+    /**
+     * Evict the entries whose key matches.
+     */
+    private long evictMatching(String cacheName, Predicate<Object> matches) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            log.warn("Cache not found: {}", cacheName);
+            return 0;
+        }
+
+        if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            // Unknown cache implementation: fall back to clearing it
+            cache.invalidate();
+            return 0;
+        }
+
+        // Bounded cache (a few hundred entries): scanning the keys is cheap and exact
+        long evicted = 0;
+        for (Object key : nativeCache.asMap().keySet()) {
+            if (matches.test(key) && nativeCache.asMap().remove(key) != null) {
+                evicted++;
+            }
+        }
+        countEvictions(cacheName, evicted);
+        return evicted;
+    }
+
+    private long evictKey(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            log.warn("Cache not found: {}", cacheName);
+            return 0;
+        }
+
+        boolean evicted = cache.evictIfPresent(key);
+        if (evicted) {
+            countEvictions(cacheName, 1);
+        }
+        return evicted ? 1 : 0;
     }
 
     /**
      * Helper method to invalidate a specific cache
+     *
+     * @return number of entries removed, when the cache can tell
      */
-    private void invalidateCache(String cacheName) {
+    private long invalidateCache(String cacheName) {
         try {
             var cache = cacheManager.getCache(cacheName);
             if (cache != null) {
-                cache.clear();
+                long size = cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache
+                        ? nativeCache.estimatedSize()
+                        : 0;
+                cache.invalidate();
+                countEvictions(cacheName, size);
                 log.debug("Successfully cleared cache: {}", cacheName);
+                return size;
             } else {
                 log.warn("Cache not found: {}", cacheName);
             }
         } catch (Exception e) {
             log.error("Error clearing cache {}: {}", cacheName, e.getMessage(), e);
         }
+        return 0;
+    }
+
+    /**
+     * Run the eviction once the surrounding transaction commits (immediately when
+     * there is none). Nothing is evicted if the transaction rolls back.
+     */
+    private void runAfterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private void countEvictions(String cacheName, long count) {
+        if (count > 0) {
+            meterRegistry.counter("cache.invalidation.evicted", "cache", cacheName).increment(count);
+        }
+    }
+
+    private void recordInvalidation(String scope, long evicted) {
+        meterRegistry.summary("cache.invalidation.entries", "scope", scope).record(evicted);
+        log.debug("Cache invalidation ({}) evicted {} entries", scope, evicted);
     }
-}
\ No newline at end of file
+}
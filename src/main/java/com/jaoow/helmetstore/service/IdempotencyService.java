@@ -0,0 +1,222 @@
+package com.jaoow.helmetstore.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jaoow.helmetstore.cache.CacheNames;
+import com.jaoow.helmetstore.exception.IdempotencyConflictException;
+import com.jaoow.helmetstore.model.idempotency.IdempotencyRecord;
+import com.jaoow.helmetstore.model.idempotency.IdempotentOperation;
+import com.jaoow.helmetstore.repository.IdempotencyRecordRepository;
+import com.jaoow.helmetstore.retry.RetryOnConflict;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Runs write requests sent with an {@code Idempotency-Key} header at most once.
+ * <p>
+ * The first request claims the key (an {@link IdempotencyRecord} row) in the same
+ * transaction as the write and stores the response with it. A retry with the same
+ * key gets the stored response back:
+ * <p>
+ * PERFORMANCE OPTIMIZATION:
+ * - Retries are answered from a Caffeine front cache ({@link CacheNames#IDEMPOTENT_RESPONSES})
+ *   with a single lookup, without re-running validation queries or the write pipeline
+ * - The database row is only read on a cache miss (restart, evicted entry)
+ * - Expired rows are deleted in the background, not on the request path
+ * <p>
+ * A key reused with a different request, or sent again while the first request is
+ * still running, is rejected with {@link IdempotencyConflictException}.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              CacheManager cacheManager,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl:PT24H}") Duration ttl) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Response of a request already processed with this key, kept in the front cache.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class StoredResponse {
+        private final String requestHash;
+        private final Object response;
+    }
+
+    /**
+     * Run {@code action} once per (user, operation, key).
+     *
+     * @param idempotencyKey value of the {@code Idempotency-Key} header; without it the action just runs
+     * @param request        what identifies the request (body, path ids), hashed to detect key reuse
+     */
+    @RetryOnConflict
+    @Transactional
+    public <T> T execute(String idempotencyKey, IdempotentOperation operation, Principal principal,
+                         Object request, Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    String.format("O cabeçalho %s deve ter no máximo %d caracteres.", HEADER, MAX_KEY_LENGTH));
+        }
+
+        String userEmail = principal.getName();
+        String cacheKey = userEmail + ":" + operation + ":" + idempotencyKey;
+        String requestHash = hash(request);
+
+        // 1. Retry answered by the front cache: one lookup
+        StoredResponse cached = responses().get(cacheKey, StoredResponse.class);
+        if (cached != null) {
+            checkSameRequest(cached.getRequestHash(), requestHash);
+            return responseType.cast(cached.getResponse());
+        }
+
+        // 2. Retry after a restart or a cache eviction: stored response
+        Optional<T> stored = findStoredResponse(userEmail, operation, idempotencyKey, requestHash, responseType);
+        if (stored.isPresent()) {
+            responses().put(cacheKey, new StoredResponse(requestHash, stored.get()));
+            return stored.get();
+        }
+
+        // 3. First request: claim the key, then write in the same transaction
+        IdempotencyRecord claim = claimKey(userEmail, operation, idempotencyKey, requestHash);
+        T response = action.get();
+        claim.setResponseBody(serialize(response));
+
+        // Transaction-aware cache: only visible once the write has committed
+        responses().put(cacheKey, new StoredResponse(requestHash, response));
+        return response;
+    }
+
+    /**
+     * Delete the records whose TTL has passed.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.cleanup.fixed-delay:PT1H}",
+            initialDelayString = "${idempotency.cleanup.initial-delay:PT10M}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency record(s)", deleted);
+        }
+    }
+
+    private <T> Optional<T> findStoredResponse(String userEmail, IdempotentOperation operation,
+                                               String idempotencyKey, String requestHash, Class<T> responseType) {
+        Optional<IdempotencyRecord> existing = idempotencyRecordRepository
+                .findByUserEmailAndOperationAndIdempotencyKey(userEmail, operation, idempotencyKey);
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+
+        IdempotencyRecord record = existing.get();
+        if (!record.getExpiresAt().isAfter(LocalDateTime.now())) {
+            // Expired but not cleaned up yet: the key can be used again
+            idempotencyRecordRepository.delete(record);
+            idempotencyRecordRepository.flush();
+            return Optional.empty();
+        }
+
+        checkSameRequest(record.getRequestHash(), requestHash);
+        if (record.getResponseBody() == null) {
+            throw new IdempotencyConflictException(
+                    "Uma requisição com esta Idempotency-Key ainda está em processamento.");
+        }
+        return Optional.of(deserialize(record.getResponseBody(), responseType));
+    }
+
+    /**
+     * Insert the record right away: a concurrent request with the same key waits on the
+     * unique constraint and fails once this transaction commits.
+     */
+    private IdempotencyRecord claimKey(String userEmail, IdempotentOperation operation,
+                                       String idempotencyKey, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                    .userEmail(userEmail)
+                    .operation(operation)
+                    .idempotencyKey(idempotencyKey)
+                    .requestHash(requestHash)
+                    .createdAt(now)
+                    .expiresAt(now.plus(ttl))
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new IdempotencyConflictException(
+                    "Uma requisição com esta Idempotency-Key já foi processada. Tente novamente para obter a resposta.");
+        }
+    }
+
+    private void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyConflictException(
+                    "Esta Idempotency-Key já foi usada com uma requisição diferente.");
+        }
+    }
+
+    private Cache responses() {
+        return cacheManager.getCache(CacheNames.IDEMPOTENT_RESPONSES);
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Não foi possível calcular o hash da requisição", e);
+        }
+    }
+
+    private String serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível armazenar a resposta da requisição", e);
+        }
+    }
+
+    private <T> T deserialize(String responseBody, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(responseBody, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível ler a resposta armazenada da requisição", e);
+        }
+    }
+}
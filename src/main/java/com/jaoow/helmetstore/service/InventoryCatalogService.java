@@ -11,6 +11,7 @@ import com.jaoow.helmetstore.dto.summary.ProductVariantStockSummary;
 import com.jaoow.helmetstore.exception.CatalogNotFoundException;
 import com.jaoow.helmetstore.exception.TokenAlreadyInUseException;
 import com.jaoow.helmetstore.helper.InventoryHelper;
+import com.jaoow.helmetstore.mapper.ProductStockMapper;
 import com.jaoow.helmetstore.model.inventory.Inventory;
 import com.jaoow.helmetstore.model.inventory.InventoryCatalog;
 import com.jaoow.helmetstore.repository.InventoryItemRepository;
@@ -24,14 +25,13 @@ import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.*;
 
-import static com.jaoow.helmetstore.service.ReportService.EXCLUDED_STATUSES;
-
 @Service
 @RequiredArgsConstructor
 public class InventoryCatalogService {
 
     private final InventoryHelper inventoryHelper;
     private final ModelMapper modelMapper;
+    private final ProductStockMapper productStockMapper;
     private final InventoryCatalogRepository catalogRepository;
     private final InventoryItemRepository inventoryItemRepository;
 
@@ -55,7 +55,7 @@ public class InventoryCatalogService {
     private ArrayList<PublicProductStockDto> getPublicProductStockDtos(InventoryCatalog catalog) {
         Inventory inventory = catalog.getInventory();
         List<ProductVariantStockSummary> projections = inventoryItemRepository
-                .findAllWithStockDetailsByInventory(EXCLUDED_STATUSES, inventory);
+                .findAllWithStockDetailsByInventory(inventory);
 
         Map<Long, PublicProductStockDto> productMap = new LinkedHashMap<>();
 
@@ -93,11 +93,11 @@ public class InventoryCatalogService {
     }
 
     private PublicProductStockDto mapToPublicProductStockDto(ProductVariantStockSummary projection) {
-        return modelMapper.map(projection, PublicProductStockDto.class);
+        return productStockMapper.toPublicProductStock(projection);
     }
 
     private PublicProductStockVariantDto mapToPublicProductStockVariantDto(ProductVariantStockSummary projection) {
-        return modelMapper.map(projection, PublicProductStockVariantDto.class);
+        return productStockMapper.toPublicProductStockVariant(projection);
     }
 
     @Transactional
@@ -122,6 +122,7 @@ public class InventoryCatalogService {
                 .showPrice(true)
                 .showWhatsappButton(true)
                 .showSizeSelector(true)
+                .allowReservations(false)
                 .build();
 
         catalog = catalogRepository.save(catalog);
@@ -166,6 +167,10 @@ public class InventoryCatalogService {
             catalog.setShowSizeSelector(dto.getShowSizeSelector());
         }
 
+        if (dto.getAllowReservations() != null) {
+            catalog.setAllowReservations(dto.getAllowReservations());
+        }
+
         if (dto.getWhatsappNumber() != null) {
             catalog.setWhatsappNumber(dto.getWhatsappNumber());
         }
@@ -6,6 +6,7 @@ import com.jaoow.helmetstore.dto.item.VariantStockUpdateDTO;
 import com.jaoow.helmetstore.helper.InventoryHelper;
 import com.jaoow.helmetstore.model.inventory.Inventory;
 import com.jaoow.helmetstore.repository.InventoryItemRepository;
+import com.jaoow.helmetstore.retry.RetryOnConflict;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
@@ -22,7 +23,9 @@ public class InventoryItemService {
 
     private final InventoryHelper inventoryHelper;
     private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryStockService inventoryStockService;
 
+    @RetryOnConflict
     @Transactional
     @Caching(evict = {
             @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name"),
@@ -36,6 +39,7 @@ public class InventoryItemService {
         }
     }
 
+    @RetryOnConflict
     @Transactional
     @Caching(evict = {
             @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name"),
@@ -46,6 +50,7 @@ public class InventoryItemService {
         inventoryItemRepository.deleteByProductIdAndInventory(productId, inventory);
     }
 
+    @RetryOnConflict
     @Transactional
     @Caching(evict = {
             @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name"),
@@ -58,6 +63,7 @@ public class InventoryItemService {
         }
     }
 
+    @RetryOnConflict
     @Transactional
     @Caching(evict = {
             @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name"),
@@ -68,4 +74,22 @@ public class InventoryItemService {
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
         inventoryItemRepository.updatePriceByProduct(productId, averageCost, inventory);
     }
+
+    /**
+     * Recompute the incoming stock counters of the user's inventory from its open
+     * purchase orders.
+     *
+     * @return the number of inventory items whose counter was corrected
+     */
+    @RetryOnConflict
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name"),
+            @CacheEvict(value = CacheNames.PRODUCT_INDICATORS_GROUPED, key = "#principal.name"),
+            @CacheEvict(value = CacheNames.PRODUCT_STOCK, key = "#principal.name"),
+    })
+    public int rebuildIncomingStock(Principal principal) {
+        Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
+        return inventoryStockService.rebuildIncoming(inventory);
+    }
 }
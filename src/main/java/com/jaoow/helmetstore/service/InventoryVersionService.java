@@ -0,0 +1,69 @@
+package com.jaoow.helmetstore.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic data version of each inventory, keyed by the owner's email (one inventory per user).
+ * <p>
+ * Every successful write of a user (sales, purchase orders, stock adjustments, ledger
+ * writes) bumps the version once the request has completed, i.e. after its transaction
+ * committed and its caches were evicted. Read endpoints expose the version as a strong
+ * ETag so that unchanged polls are answered with 304 Not Modified.
+ * <p>
+ * PERFORMANCE OPTIMIZATION:
+ * - The version lives in memory: checking it is one map lookup, no query
+ * - The ETag carries the instance start time, so the counters restarting from zero after
+ *   a reboot can never match an ETag issued before it
+ */
+@Service
+@Slf4j
+public class InventoryVersionService {
+
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Strong ETag of the user's current data version, e.g. {@code "m1x2y3z4-17"}.
+     */
+    public String currentETag(String userEmail) {
+        return "\"" + instanceId + "-" + currentVersion(userEmail) + "\"";
+    }
+
+    /**
+     * Current data version of the user on this instance (0 until the first write).
+     */
+    public long currentVersion(String userEmail) {
+        AtomicLong version = versions.get(userEmail);
+        return version != null ? version.get() : 0;
+    }
+
+    /**
+     * Record that the user's data changed.
+     */
+    public void bump(String userEmail) {
+        long version = versions.computeIfAbsent(userEmail, key -> new AtomicLong()).incrementAndGet();
+        log.debug("Inventory data of {} is now at version {}", userEmail, version);
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header (a comma-separated list of ETags, or
+     * {@code *}) matches the ETag of the current response.
+     */
+    public static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,211 @@
+package com.jaoow.helmetstore.service;
+
+import com.jaoow.helmetstore.helper.Money;
+import com.jaoow.helmetstore.helper.MoneyAccumulator;
+import com.jaoow.helmetstore.model.balance.AccountType;
+import com.jaoow.helmetstore.model.balance.LedgerMonthlyRollup;
+import com.jaoow.helmetstore.model.balance.Transaction;
+import com.jaoow.helmetstore.model.balance.TransactionDetail;
+import com.jaoow.helmetstore.repository.AccountBalanceRepository;
+import com.jaoow.helmetstore.repository.LedgerMonthlyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the ledger read models in sync with the ledger:
+ * - {@link LedgerMonthlyRollup}: monthly aggregates per (user, month, wallet)
+ * - {@link com.jaoow.helmetstore.model.balance.AccountBalance}: current wallet balance per account
+ * <p>
+ * Every code path that inserts, updates or deletes a {@link Transaction} must call
+ * this service inside the same database transaction. Deltas of the same key are
+ * merged in memory and applied with one atomic upsert each.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerRollupService {
+
+    private final LedgerMonthlyRollupRepository rollupRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+
+    /**
+     * Immutable copy of the fields that feed the rollup.
+     * Capture it before mutating a managed transaction so the old values can be reverted.
+     */
+    @Value
+    public static class LedgerEntry {
+        Long accountId;
+        LocalDateTime date;
+        BigDecimal amount;
+        TransactionDetail detail;
+        boolean affectsProfit;
+        boolean affectsCash;
+        AccountType walletDestination;
+
+        public static LedgerEntry of(Transaction transaction) {
+            return new LedgerEntry(
+                    transaction.getAccount() != null ? transaction.getAccount().getId() : null,
+                    transaction.getDate(),
+                    transaction.getAmount(),
+                    transaction.getDetail(),
+                    transaction.isAffectsProfit(),
+                    transaction.isAffectsCash(),
+                    transaction.getWalletDestination());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordInsert(Transaction transaction) {
+        recordInserts(List.of(transaction));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordInserts(Collection<Transaction> transactions) {
+        Map<RollupKey, RollupDelta> deltas = new LinkedHashMap<>();
+        transactions.forEach(t -> accumulate(deltas, LedgerEntry.of(t), 1));
+        flush(deltas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDelete(Transaction transaction) {
+        recordDeletes(List.of(transaction));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletes(Collection<Transaction> transactions) {
+        Map<RollupKey, RollupDelta> deltas = new LinkedHashMap<>();
+        transactions.forEach(t -> accumulate(deltas, LedgerEntry.of(t), -1));
+        flush(deltas);
+    }
+
+    /**
+     * Revert the previous state of an updated transaction and apply the new one.
+     *
+     * @param before snapshot taken before the entity was modified
+     * @param after  the updated transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdate(LedgerEntry before, Transaction after) {
+        Map<RollupKey, RollupDelta> deltas = new LinkedHashMap<>();
+        accumulate(deltas, before, -1);
+        accumulate(deltas, LedgerEntry.of(after), 1);
+        flush(deltas);
+    }
+
+    private void accumulate(Map<RollupKey, RollupDelta> deltas, LedgerEntry entry, int sign) {
+        if (entry.getAccountId() == null || entry.getDate() == null || entry.getAmount() == null) {
+            log.warn("Skipping ledger rollup for incomplete transaction entry: {}", entry);
+            return;
+        }
+
+        String wallet = entry.getWalletDestination() != null
+                ? entry.getWalletDestination().name()
+                : LedgerMonthlyRollup.NO_WALLET;
+        RollupKey key = new RollupKey(entry.getAccountId(), entry.getDate().toLocalDate().withDayOfMonth(1), wallet);
+
+        deltas.computeIfAbsent(key, k -> new RollupDelta()).add(entry, sign);
+    }
+
+    private void flush(Map<RollupKey, RollupDelta> deltas) {
+        Map<BalanceKey, MoneyAccumulator> balanceDeltas = new LinkedHashMap<>();
+
+        deltas.forEach((key, delta) -> {
+            if (delta.isEmpty()) {
+                return;
+            }
+            rollupRepository.applyDelta(key.getAccountId(), key.getMonthStart(), key.getWallet(),
+                    delta.income.toBigDecimal(), delta.expense.toBigDecimal(), delta.netProfit.toBigDecimal(),
+                    delta.operationalExpenses.toBigDecimal(), delta.cogs.toBigDecimal(),
+                    delta.salesRevenue.toBigDecimal(), delta.balanceChange.toBigDecimal(), delta.transactionCount);
+
+            if (!LedgerMonthlyRollup.NO_WALLET.equals(key.getWallet())) {
+                balanceDeltas.computeIfAbsent(new BalanceKey(key.getAccountId(), key.getWallet()),
+                        k -> new MoneyAccumulator()).add(delta.balanceChange);
+            }
+        });
+
+        // Atomic balance = balance + delta, one statement per touched wallet
+        balanceDeltas.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                accountBalanceRepository.applyDelta(key.getAccountId(), key.getWallet(), delta.toBigDecimal());
+            }
+        });
+    }
+
+    @Value
+    private static class RollupKey {
+        Long accountId;
+        LocalDate monthStart;
+        String wallet;
+    }
+
+    @Value
+    private static class BalanceKey {
+        Long accountId;
+        String wallet;
+    }
+
+    private static final class RollupDelta {
+        private final MoneyAccumulator income = new MoneyAccumulator();
+        private final MoneyAccumulator expense = new MoneyAccumulator();
+        private final MoneyAccumulator netProfit = new MoneyAccumulator();
+        private final MoneyAccumulator operationalExpenses = new MoneyAccumulator();
+        private final MoneyAccumulator cogs = new MoneyAccumulator();
+        private final MoneyAccumulator salesRevenue = new MoneyAccumulator();
+        private final MoneyAccumulator balanceChange = new MoneyAccumulator();
+        private long transactionCount;
+
+        private void add(LedgerEntry entry, int sign) {
+            long amount = sign < 0 ? Math.negateExact(Money.toCents(entry.getAmount())) : Money.toCents(entry.getAmount());
+            int direction = entry.getAmount().signum();
+
+            if (entry.isAffectsCash() && direction > 0) {
+                income.addCents(amount);
+            } else if (entry.isAffectsCash() && direction < 0) {
+                expense.addCents(Math.negateExact(amount));
+            }
+
+            if (entry.isAffectsProfit()) {
+                netProfit.addCents(amount);
+                if (direction < 0 && entry.getDetail() != TransactionDetail.COST_OF_GOODS_SOLD) {
+                    operationalExpenses.addCents(amount);
+                }
+            }
+
+            if (entry.getDetail() == TransactionDetail.COST_OF_GOODS_SOLD) {
+                cogs.addCents(amount);
+            } else if (entry.getDetail() == TransactionDetail.SALE) {
+                salesRevenue.addCents(amount);
+            }
+
+            if (entry.getWalletDestination() != null) {
+                balanceChange.addCents(amount);
+            }
+
+            transactionCount += sign;
+        }
+
+        /**
+         * An update that did not touch any rollup field nets out to zero.
+         */
+        private boolean isEmpty() {
+            return transactionCount == 0
+                    && income.isZero() && expense.isZero()
+                    && netProfit.isZero() && operationalExpenses.isZero()
+                    && cogs.isZero() && salesRevenue.isZero()
+                    && balanceChange.isZero();
+        }
+    }
+}
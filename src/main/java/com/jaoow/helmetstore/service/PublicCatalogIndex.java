@@ -0,0 +1,230 @@
+package com.jaoow.helmetstore.service;
+
+import com.jaoow.helmetstore.dto.info.PublicProductStockDto;
+import com.jaoow.helmetstore.dto.info.PublicProductStockVariantDto;
+import com.jaoow.helmetstore.dto.inventory.CatalogDTO;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Search index over the products of a public catalog, taken at one data version of
+ * the owner's inventory ({@link InventoryVersionService}). Built by
+ * {@link PublicCatalogIndexService} and shared by concurrent readers, so it is never
+ * modified once built; the product and variant DTOs it returns must not be modified either.
+ * <p>
+ * Products keep the catalog order (model, color). A product matches when at least one
+ * of its variants does, and only the matching variants are returned.
+ * <p>
+ * PERFORMANCE OPTIMIZATION:
+ * - Inverted lists (one {@link BitSet} of product positions) per category, per size,
+ *   for products with stock, and per trigram of the model and color: a search
+ *   intersects a few bit sets, then checks the remaining candidates only
+ * - Text matching is accent and case insensitive ("capacete" finds "Capacete")
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class PublicCatalogIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int GRAM = 3;
+
+    private final long version;
+    private final String ownerEmail;
+    /** Catalog settings and store details, without the products */
+    private final CatalogDTO catalog;
+    private final boolean showPrice;
+
+    private final List<PublicProductStockDto> products;
+    private final String[] searchTexts;
+    private final Map<String, BitSet> productsByCategory;
+    private final Map<String, BitSet> productsBySize;
+    private final Map<String, BitSet> productsByTrigram;
+    private final BitSet productsInStock;
+
+    @Value
+    @Builder
+    public static class Query {
+        String category;
+        String size;
+        /** Words searched in the model and color; all of them must match */
+        String text;
+        boolean inStockOnly;
+        BigDecimal minPrice;
+        BigDecimal maxPrice;
+    }
+
+    @Value
+    public static class Result {
+        /** The products of the requested page */
+        List<PublicProductStockDto> products;
+        /** Number of matching products, all pages included */
+        int totalProducts;
+    }
+
+    /**
+     * @param products the catalog products, in display order; stock quantities are
+     *                 null when the catalog hides them (only variants with stock are listed then)
+     */
+    static PublicCatalogIndex build(long version, String ownerEmail, CatalogDTO catalog,
+                                    List<PublicProductStockDto> products) {
+        int size = products.size();
+        String[] searchTexts = new String[size];
+        Map<String, BitSet> byCategory = new HashMap<>();
+        Map<String, BitSet> bySize = new HashMap<>();
+        Map<String, BitSet> byTrigram = new HashMap<>();
+        BitSet inStock = new BitSet(size);
+
+        for (int position = 0; position < size; position++) {
+            PublicProductStockDto product = products.get(position);
+
+            searchTexts[position] = normalize(Objects.toString(product.getModel(), "")
+                    + " " + Objects.toString(product.getColor(), ""));
+            for (String word : searchTexts[position].split(" ")) {
+                for (int i = 0; i + GRAM <= word.length(); i++) {
+                    add(byTrigram, word.substring(i, i + GRAM), position);
+                }
+            }
+
+            add(byCategory, normalize(product.getCategoryName()), position);
+            for (PublicProductStockVariantDto variant : product.getVariants()) {
+                add(bySize, normalize(variant.getSize()), position);
+                if (isInStock(variant)) {
+                    inStock.set(position);
+                }
+            }
+        }
+
+        return new PublicCatalogIndex(version, ownerEmail, catalog, Boolean.TRUE.equals(catalog.getShowPrice()),
+                List.copyOf(products), searchTexts, byCategory, bySize, byTrigram, inStock);
+    }
+
+    /**
+     * Matching products of one page.
+     *
+     * @param page  zero-based page number
+     * @param limit products per page
+     */
+    public Result search(Query query, int page, int limit) {
+        BitSet candidates = new BitSet(products.size());
+        candidates.set(0, products.size());
+
+        String category = normalize(query.getCategory());
+        if (!category.isEmpty()) {
+            candidates.and(productsByCategory.getOrDefault(category, new BitSet()));
+        }
+        String size = normalize(query.getSize());
+        if (!size.isEmpty()) {
+            candidates.and(productsBySize.getOrDefault(size, new BitSet()));
+        }
+        if (query.isInStockOnly()) {
+            candidates.and(productsInStock);
+        }
+
+        String text = normalize(query.getText());
+        String[] words = text.isEmpty() ? new String[0] : text.split(" ");
+        for (String word : words) {
+            for (int i = 0; i + GRAM <= word.length(); i++) {
+                candidates.and(productsByTrigram.getOrDefault(word.substring(i, i + GRAM), new BitSet()));
+            }
+        }
+
+        Predicate<PublicProductStockVariantDto> variantFilter = variant ->
+                (size.isEmpty() || size.equals(normalize(variant.getSize())))
+                        && (!query.isInStockOnly() || isInStock(variant));
+
+        List<PublicProductStockDto> pageProducts = new ArrayList<>(limit);
+        long first = (long) page * limit;
+        int total = 0;
+        for (int position = candidates.nextSetBit(0); position >= 0; position = candidates.nextSetBit(position + 1)) {
+            PublicProductStockDto product = products.get(position);
+            // Trigrams only narrow down the candidates: check the words themselves
+            if (!containsAll(searchTexts[position], words) || !inPriceRange(product.getSalePrice(), query)) {
+                continue;
+            }
+            List<PublicProductStockVariantDto> variants = product.getVariants().stream().filter(variantFilter).toList();
+            if (variants.isEmpty()) {
+                continue;
+            }
+
+            if (total >= first && pageProducts.size() < limit) {
+                pageProducts.add(copyWithVariants(product, variants));
+            }
+            total++;
+        }
+
+        return new Result(pageProducts, total);
+    }
+
+    /**
+     * A catalog that hides its prices can not be filtered by price either.
+     */
+    private boolean inPriceRange(BigDecimal price, Query query) {
+        if (!showPrice || price == null) {
+            return true;
+        }
+        return (query.getMinPrice() == null || price.compareTo(query.getMinPrice()) >= 0)
+                && (query.getMaxPrice() == null || price.compareTo(query.getMaxPrice()) <= 0);
+    }
+
+    private static boolean containsAll(String text, String[] words) {
+        for (String word : words) {
+            if (!text.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hidden quantities are null: the catalog then only lists variants with stock.
+     */
+    private static boolean isInStock(PublicProductStockVariantDto variant) {
+        return variant.getCurrentStock() == null || variant.getCurrentStock() > 0;
+    }
+
+    private static PublicProductStockDto copyWithVariants(PublicProductStockDto product,
+                                                          List<PublicProductStockVariantDto> variants) {
+        if (variants.size() == product.getVariants().size()) {
+            return product;
+        }
+        PublicProductStockDto copy = new PublicProductStockDto();
+        copy.setProductId(product.getProductId());
+        copy.setModel(product.getModel());
+        copy.setColor(product.getColor());
+        copy.setImgUrl(product.getImgUrl());
+        copy.setCategoryName(product.getCategoryName());
+        copy.setSalePrice(product.getSalePrice());
+        copy.setVariants(variants);
+        return copy;
+    }
+
+    private static void add(Map<String, BitSet> index, String key, int position) {
+        index.computeIfAbsent(key, k -> new BitSet()).set(position);
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return WHITESPACE.matcher(DIACRITICS.matcher(decomposed).replaceAll(""))
+                .replaceAll(" ")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,107 @@
+package com.jaoow.helmetstore.service;
+
+import com.jaoow.helmetstore.cache.CacheNames;
+import com.jaoow.helmetstore.dto.inventory.CatalogDTO;
+import com.jaoow.helmetstore.dto.inventory.CatalogStoreViewDTO;
+import com.jaoow.helmetstore.dto.inventory.CatalogStoreViewPageDTO;
+import com.jaoow.helmetstore.exception.CatalogNotFoundException;
+import com.jaoow.helmetstore.repository.InventoryCatalogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+
+/**
+ * Filtered, paginated public catalog, answered from a per-token {@link PublicCatalogIndex}
+ * kept in the {@link CacheNames#PUBLIC_CATALOG_INDEX} cache.
+ * <p>
+ * Same freshness rule as {@link PublicCatalogResponseService}: the index is tagged with
+ * the owner's data version read before building it, and rebuilt on the first search
+ * after any write of the owner (stock, products, prices, catalog settings, reservations).
+ * <p>
+ * PERFORMANCE OPTIMIZATION:
+ * - While nothing is written, a search runs in memory: no query
+ * - Phones get one page of matching products instead of the whole inventory
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PublicCatalogIndexService {
+
+    public static final int DEFAULT_PAGE_SIZE = 24;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final InventoryCatalogService inventoryCatalogService;
+    private final InventoryCatalogRepository catalogRepository;
+    private final InventoryVersionService inventoryVersionService;
+    private final CacheManager cacheManager;
+
+    /**
+     * @throws CatalogNotFoundException if no active catalog has this token
+     */
+    public CatalogStoreViewPageDTO search(String token, PublicCatalogIndex.Query query, int page, int limit) {
+        if (page < 0) {
+            throw new IllegalArgumentException("A página deve ser maior ou igual a zero.");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("O limite deve ser maior que zero.");
+        }
+        if (query.getMinPrice() != null && query.getMaxPrice() != null
+                && query.getMinPrice().compareTo(query.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("O preço mínimo deve ser menor ou igual ao preço máximo.");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+
+        PublicCatalogIndex index = get(token);
+        PublicCatalogIndex.Result result = index.search(query, page, pageSize);
+
+        CatalogStoreViewPageDTO response = new CatalogStoreViewPageDTO();
+        BeanUtils.copyProperties(index.getCatalog(), response);
+        response.setProducts(result.getProducts());
+        response.setPage(page);
+        response.setLimit(pageSize);
+        response.setTotalProducts(result.getTotalProducts());
+        response.setHasMore((long) (page + 1) * pageSize < result.getTotalProducts());
+        return response;
+    }
+
+    private PublicCatalogIndex get(String token) {
+        Cache cache = cacheManager.getCache(CacheNames.PUBLIC_CATALOG_INDEX);
+        PublicCatalogIndex cached = cache.get(token, PublicCatalogIndex.class);
+        if (cached != null && cached.getVersion() == inventoryVersionService.currentVersion(cached.getOwnerEmail())) {
+            return cached;
+        }
+
+        try {
+            PublicCatalogIndex index = build(token);
+            // Not inside a transaction: the transaction-aware cache stores it right away
+            cache.put(token, index);
+            return index;
+        } catch (CatalogNotFoundException e) {
+            // Token changed or catalog deactivated
+            cache.evict(token);
+            throw e;
+        }
+    }
+
+    private PublicCatalogIndex build(String token) {
+        String ownerEmail = catalogRepository.findOwnerEmailByActiveToken(token)
+                .orElseThrow(CatalogNotFoundException::new);
+        // Version first: the view loaded afterwards is at least as recent as the tag
+        long version = inventoryVersionService.currentVersion(ownerEmail);
+
+        CatalogStoreViewDTO view = inventoryCatalogService.getCatalogView(token);
+        CatalogDTO catalog = new CatalogDTO();
+        BeanUtils.copyProperties(view, catalog);
+
+        PublicCatalogIndex index = PublicCatalogIndex.build(version, ownerEmail, catalog,
+                view.getProducts() != null ? view.getProducts() : new ArrayList<>());
+        log.debug("Built public catalog index {} at version {} ({} products)",
+                token, version, index.getProducts().size());
+        return index;
+    }
+}
@@ -0,0 +1,22 @@
+package com.jaoow.helmetstore.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Serialized public catalog view of one catalog token, ready to be written as is:
+ * the gzipped JSON body and its ETag, taken at one data version of the owner's
+ * inventory ({@link InventoryVersionService}). Built by
+ * {@link PublicCatalogResponseService} and shared by concurrent readers.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class PublicCatalogResponse {
+
+    private final String ownerEmail;
+    private final long version;
+    /** Strong ETag derived from the JSON content, stable across versions and instances */
+    private final String eTag;
+    private final byte[] gzippedBody;
+}
@@ -0,0 +1,128 @@
+package com.jaoow.helmetstore.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jaoow.helmetstore.cache.CacheNames;
+import com.jaoow.helmetstore.dto.inventory.CatalogStoreViewDTO;
+import com.jaoow.helmetstore.exception.CatalogNotFoundException;
+import com.jaoow.helmetstore.repository.InventoryCatalogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-token {@link PublicCatalogResponse}, kept in the {@link CacheNames#PUBLIC_CATALOG} cache.
+ * <p>
+ * Like {@link StockSnapshotService}, an entry is tagged with the owner's data version
+ * read before building it. Every write of the owner bumps that version (sales, stock,
+ * purchase orders, products and prices, categories, catalog settings) and so do the
+ * reservations made from the catalog, so a stale entry is rebuilt on its next request.
+ * <p>
+ * PERFORMANCE OPTIMIZATION:
+ * - While nothing is written, a request costs a cache lookup and a version lookup:
+ *   no query, no mapping, no JSON serialization, no compression
+ * - The body is stored gzipped, the way nearly every client asks for it
+ * - The ETag hashes the content: a rebuild after an unrelated write (e.g. a ledger
+ *   entry) keeps the same ETag, and clients keep getting 304 Not Modified
+ * <p>
+ * Versions are per instance: a write served by another instance is only seen once the
+ * entry expires.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PublicCatalogResponseService {
+
+    private final InventoryCatalogService inventoryCatalogService;
+    private final InventoryCatalogRepository catalogRepository;
+    private final InventoryVersionService inventoryVersionService;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+
+    /**
+     * @throws CatalogNotFoundException if no active catalog has this token
+     */
+    public PublicCatalogResponse get(String token) {
+        Cache cache = cacheManager.getCache(CacheNames.PUBLIC_CATALOG);
+        PublicCatalogResponse cached = cache.get(token, PublicCatalogResponse.class);
+        if (cached != null && cached.getVersion() == inventoryVersionService.currentVersion(cached.getOwnerEmail())) {
+            return cached;
+        }
+
+        try {
+            PublicCatalogResponse response = load(token);
+            // Not inside a transaction: the transaction-aware cache stores it right away
+            cache.put(token, response);
+            return response;
+        } catch (CatalogNotFoundException e) {
+            // Token changed or catalog deactivated
+            cache.evict(token);
+            throw e;
+        }
+    }
+
+    /**
+     * The JSON body, for the rare client that does not accept gzip.
+     */
+    public byte[] decompress(PublicCatalogResponse response) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getGzippedBody()))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private PublicCatalogResponse load(String token) {
+        String ownerEmail = catalogRepository.findOwnerEmailByActiveToken(token)
+                .orElseThrow(CatalogNotFoundException::new);
+        // Version first: the view loaded afterwards is at least as recent as the tag
+        long version = inventoryVersionService.currentVersion(ownerEmail);
+
+        CatalogStoreViewDTO view = inventoryCatalogService.getCatalogView(token);
+        byte[] json = serialize(view);
+        byte[] gzipped = gzip(json);
+
+        log.debug("Built public catalog {} at version {} ({} bytes, {} gzipped)",
+                token, version, json.length, gzipped.length);
+        return new PublicCatalogResponse(ownerEmail, version, eTag(json), gzipped);
+    }
+
+    private byte[] serialize(CatalogStoreViewDTO view) {
+        try {
+            return objectMapper.writeValueAsBytes(view);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar o catálogo", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(json.length / 4, 512));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String eTag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Não foi possível calcular o ETag do catálogo", e);
+        }
+    }
+}
@@ -8,6 +8,8 @@ import com.jaoow.helmetstore.exception.OrderAlreadyExistsException;
 import com.jaoow.helmetstore.exception.OrderNotFoundException;
 import com.jaoow.helmetstore.exception.ProductNotFoundException;
 import com.jaoow.helmetstore.helper.InventoryHelper;
+import com.jaoow.helmetstore.mapper.PurchaseOrderMapper;
+import com.jaoow.helmetstore.mapper.ReferenceMapper;
 import com.jaoow.helmetstore.model.ProductVariant;
 import com.jaoow.helmetstore.model.PurchaseOrder;
 import com.jaoow.helmetstore.model.PurchaseOrderItem;
@@ -17,6 +19,7 @@ import com.jaoow.helmetstore.model.inventory.InventoryItem;
 import com.jaoow.helmetstore.repository.InventoryItemRepository;
 import com.jaoow.helmetstore.repository.ProductVariantRepository;
 import com.jaoow.helmetstore.repository.PurchaseOrderRepository;
+import com.jaoow.helmetstore.retry.RetryOnConflict;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.CacheEvict;
@@ -31,8 +34,12 @@ import java.math.RoundingMode;
 import java.security.Principal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,17 +47,20 @@ import java.util.stream.Collectors;
 public class PurchaseOrderService {
 
     private final ModelMapper modelMapper;
+    private final PurchaseOrderMapper purchaseOrderMapper;
+    private final ReferenceMapper referenceMapper;
     private final PurchaseOrderRepository purchaseOrderRepository;
     private final ProductVariantRepository productVariantRepository;
     private final InventoryHelper inventoryHelper;
     private final InventoryItemRepository inventoryItemRepository;
     private final TransactionService transactionService;
+    private final InventoryStockService inventoryStockService;
 
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('ADMIN')")
     public List<PurchaseOrderDTO> findAll() {
         return purchaseOrderRepository.findAllByInventoryWithItemsAndVariants().stream()
-                .map(order -> modelMapper.map(order, PurchaseOrderDTO.class))
+                .map(purchaseOrderMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
@@ -61,12 +71,12 @@ public class PurchaseOrderService {
         List<PurchaseOrder> purchaseOrders = purchaseOrderRepository.findAllByInventoryWithItemsAndVariants(inventory);
 
         List<OrderDetailDTO> orders = purchaseOrders.stream()
-                .map(order -> modelMapper.map(order, OrderDetailDTO.class))
+                .map(purchaseOrderMapper::toDetail)
                 .collect(Collectors.toList());
 
         List<SimpleProductVariantDTO> productVariants = purchaseOrders.stream()
                 .flatMap(order -> order.getItems().stream())
-                .map(item -> modelMapper.map(item.getProductVariant(), SimpleProductVariantDTO.class))
+                .map(item -> referenceMapper.toSimpleVariant(item.getProductVariant()))
                 .distinct()
                 .collect(Collectors.toList());
 
@@ -74,7 +84,7 @@ public class PurchaseOrderService {
                 .flatMap(p -> p.getItems().stream())
                 .map(i -> i.getProductVariant().getProduct())
                 .distinct()
-                .map(p -> modelMapper.map(p, SimpleProductDTO.class))
+                .map(referenceMapper::toSimpleProduct)
                 .collect(Collectors.toList());
 
         return new PurchaseOrderHistoryResponse(orders, products, productVariants);
@@ -86,7 +96,7 @@ public class PurchaseOrderService {
         PurchaseOrder purchaseOrder = purchaseOrderRepository.findByIdAndInventoryWithItemsAndVariants(id, inventory)
                 .orElseThrow(() -> new OrderNotFoundException(id));
 
-        return modelMapper.map(purchaseOrder, PurchaseOrderDTO.class);
+        return purchaseOrderMapper.toDTO(purchaseOrder);
     }
 
     @Caching(evict = {
@@ -94,6 +104,7 @@ public class PurchaseOrderService {
             @CacheEvict(value = CacheNames.PRODUCT_STOCK, key = "#principal.name"),
             @CacheEvict(value = CacheNames.PURCHASE_ORDER_HISTORY, key = "#principal.name")
     })
+    @RetryOnConflict
     @Transactional
     public PurchaseOrderDTO save(PurchaseOrderCreateDTO orderCreateDTO, Principal principal) {
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
@@ -114,17 +125,39 @@ public class PurchaseOrderService {
 
         purchaseOrder = purchaseOrderRepository.save(purchaseOrder);
         transactionService.recordTransactionFromPurchaseOrder(purchaseOrder, principal);
+        if (isIncoming(purchaseOrder.getStatus())) {
+            inventoryStockService.adjustIncoming(inventory, quantitiesByVariant(items, 1));
+        }
 
-        return modelMapper.map(purchaseOrder, PurchaseOrderDTO.class);
+        return purchaseOrderMapper.toDTO(purchaseOrder);
     }
 
+    /**
+     * Variants and existing inventory items are loaded with one query each, and the
+     * missing inventory items are persisted together, so the item and inventory item
+     * inserts are sent as JDBC batches instead of one round trip per row.
+     */
     private List<PurchaseOrderItem> createPurchaseOrderItems(PurchaseOrderCreateDTO orderCreateDTO,
             PurchaseOrder purchaseOrder, Inventory inventory) {
+        Set<Long> variantIds = orderCreateDTO.getItems().stream()
+                .map(PurchaseOrderItemDTO::getProductVariantId)
+                .collect(Collectors.toSet());
+
+        Map<Long, ProductVariant> variantsById = productVariantRepository.findAllById(variantIds).stream()
+                .collect(Collectors.toMap(ProductVariant::getId, Function.identity()));
+        Set<Long> stockedVariantIds = inventoryItemRepository.findAllByInventoryAndVariantIds(inventory, variantIds)
+                .stream()
+                .map(inventoryItem -> inventoryItem.getProductVariant().getId())
+                .collect(Collectors.toCollection(HashSet::new));
+
         List<PurchaseOrderItem> items = new ArrayList<>();
+        List<InventoryItem> newInventoryItems = new ArrayList<>();
 
         for (PurchaseOrderItemDTO itemDTO : orderCreateDTO.getItems()) {
-            ProductVariant variant = productVariantRepository.findById(itemDTO.getProductVariantId())
-                    .orElseThrow(() -> new ProductNotFoundException(itemDTO.getProductVariantId()));
+            ProductVariant variant = variantsById.get(itemDTO.getProductVariantId());
+            if (variant == null) {
+                throw new ProductNotFoundException(itemDTO.getProductVariantId());
+            }
 
             PurchaseOrderItem orderItem = PurchaseOrderItem.builder()
                     .productVariant(variant)
@@ -133,27 +166,26 @@ public class PurchaseOrderService {
                     .purchaseOrder(purchaseOrder)
                     .build();
 
-            ensureInventoryItemExists(inventory, variant, itemDTO.getPurchasePrice(), purchaseOrder.getDate());
+            if (stockedVariantIds.add(variant.getId())) {
+                newInventoryItems.add(newInventoryItem(inventory, variant, itemDTO.getPurchasePrice(),
+                        purchaseOrder.getDate()));
+            }
             items.add(orderItem);
         }
 
+        inventoryItemRepository.saveAll(newInventoryItems);
         return items;
     }
 
-    private void ensureInventoryItemExists(Inventory inventory, ProductVariant variant, BigDecimal price,
+    private InventoryItem newInventoryItem(Inventory inventory, ProductVariant variant, BigDecimal price,
             LocalDate date) {
-        Optional<InventoryItem> inventoryItem = inventoryItemRepository.findByInventoryAndProductVariant(inventory,
-                variant);
-        if (inventoryItem.isEmpty()) {
-            inventoryItemRepository.save(
-                    InventoryItem.builder()
-                            .inventory(inventory)
-                            .productVariant(variant)
-                            .quantity(0)
-                            .averageCost(price)
-                            .lastPurchaseDate(date)
-                            .build());
-        }
+        return InventoryItem.builder()
+                .inventory(inventory)
+                .productVariant(variant)
+                .quantity(0)
+                .averageCost(price)
+                .lastPurchaseDate(date)
+                .build();
     }
 
     private BigDecimal calculateTotalAmount(List<PurchaseOrderItem> items) {
@@ -170,6 +202,7 @@ public class PurchaseOrderService {
             @CacheEvict(value = CacheNames.PURCHASE_ORDER_HISTORY, key = "#principal.name")
 
     })
+    @RetryOnConflict
     @Transactional
     public PurchaseOrderDTO update(Long id, PurchaseOrderUpdateDTO dto, Principal principal) {
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
@@ -184,7 +217,7 @@ public class PurchaseOrderService {
         Optional.ofNullable(dto.getDate()).ifPresent(order::setDate);
 
         order = purchaseOrderRepository.save(order);
-        return modelMapper.map(order, PurchaseOrderDTO.class);
+        return purchaseOrderMapper.toDTO(order);
     }
 
     private void updateStatus(PurchaseOrder order, PurchaseOrderStatus newStatus) {
@@ -192,6 +225,13 @@ public class PurchaseOrderService {
             throw new IllegalStateException("Não é possível cancelar um pedido entregue");
         }
 
+        // Items leave (delivered, cancelled) or re-enter the incoming stock; before the
+        // delivery, so that it loads the inventory items with their new counter
+        if (isIncoming(order.getStatus()) != isIncoming(newStatus)) {
+            inventoryStockService.adjustIncoming(order.getInventory(),
+                    quantitiesByVariant(order.getItems(), isIncoming(newStatus) ? 1 : -1));
+        }
+
         if (newStatus == PurchaseOrderStatus.DELIVERED) {
             processDelivery(order);
         }
@@ -206,10 +246,18 @@ public class PurchaseOrderService {
     private void processDelivery(PurchaseOrder order) {
         Inventory inventory = order.getInventory();
 
+        // One query for all items; updates and inserts are flushed as batches
+        Map<Long, InventoryItem> inventoryItemsByVariant = inventoryItemRepository
+                .findAllByInventoryAndVariantIds(inventory, order.getItems().stream()
+                        .map(item -> item.getProductVariant().getId())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ii -> ii.getProductVariant().getId(), Function.identity()));
+
         for (PurchaseOrderItem item : order.getItems()) {
-            InventoryItem inventoryItem = inventoryItemRepository
-                    .findByInventoryAndProductVariant(inventory, item.getProductVariant())
-                    .orElseGet(() -> InventoryItem.builder()
+            InventoryItem inventoryItem = inventoryItemsByVariant.computeIfAbsent(
+                    item.getProductVariant().getId(),
+                    variantId -> InventoryItem.builder()
                             .inventory(inventory)
                             .productVariant(item.getProductVariant())
                             .quantity(0)
@@ -237,6 +285,15 @@ public class PurchaseOrderService {
         }
     }
 
+    private static boolean isIncoming(PurchaseOrderStatus status) {
+        return status != null && status.isIncoming();
+    }
+
+    private static Map<Long, Integer> quantitiesByVariant(List<PurchaseOrderItem> items, int sign) {
+        return InventoryStockService.sumByVariant(items,
+                item -> item.getProductVariant().getId(), item -> sign * item.getQuantity());
+    }
+
     @Transactional(readOnly = true)
     public boolean isOrderNumberAvailable(String orderNumber, Principal principal) {
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
@@ -250,6 +307,7 @@ public class PurchaseOrderService {
             @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, key = "#principal.name"),
             @CacheEvict(value = CacheNames.PURCHASE_ORDER_HISTORY, key = "#principal.name")
     })
+    @RetryOnConflict
     @Transactional
     public PurchaseOrderDTO cancelOrderItem(Long orderId, Long itemId, CancelOrderItemDTO cancelDTO, Principal principal) {
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
@@ -286,6 +344,12 @@ public class PurchaseOrderService {
                 itemToCancel.getProductVariant().getSize(),
                 quantityToCancel);
 
+        // Unidades canceladas deixam de estar a caminho
+        if (isIncoming(order.getStatus())) {
+            inventoryStockService.adjustIncoming(inventory,
+                    Map.of(itemToCancel.getProductVariant().getId(), -quantityToCancel));
+        }
+
         // Se cancelar tudo, remover o item
         if (quantityToCancel == itemToCancel.getQuantity()) {
             order.getItems().remove(itemToCancel);
@@ -308,6 +372,6 @@ public class PurchaseOrderService {
         }
 
         order = purchaseOrderRepository.save(order);
-        return modelMapper.map(order, PurchaseOrderDTO.class);
+        return purchaseOrderMapper.toDTO(order);
     }
 }
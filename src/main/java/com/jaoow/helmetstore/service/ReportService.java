@@ -8,16 +8,19 @@ import com.jaoow.helmetstore.dto.summary.ProductVariantSaleSummary;
 import com.jaoow.helmetstore.dto.summary.ProductVariantSalesAndStockSummary;
 import com.jaoow.helmetstore.dto.summary.ProductVariantStockSummary;
 import com.jaoow.helmetstore.helper.InventoryHelper;
-import com.jaoow.helmetstore.model.PurchaseOrderStatus;
+import com.jaoow.helmetstore.mapper.ProductStockMapper;
 import com.jaoow.helmetstore.model.inventory.Inventory;
 import com.jaoow.helmetstore.repository.InventoryItemRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.security.Principal;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,38 +29,71 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ReportService {
 
-    public static final List<PurchaseOrderStatus> EXCLUDED_STATUSES = List.of(PurchaseOrderStatus.DELIVERED, PurchaseOrderStatus.CANCELED);
-
-    private final ModelMapper modelMapper;
+    private final ProductStockMapper productStockMapper;
     private final InventoryHelper inventoryHelper;
     private final InventoryItemRepository inventoryItemRepository;
 
-    @Cacheable(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name")
-    public List<ProductVariantSalesAndStockSummary> getProductIndicators(Principal principal) {
+    /**
+     * Default and maximum number of rows of the most sold products report.
+     */
+    public static final int DEFAULT_TOP_LIMIT = 50;
+    public static final int MAX_TOP_LIMIT = 500;
+
+    /**
+     * Product reports accept an optional month range ({@code from}/{@code to}, both
+     * inclusive). Without a range the all-time read model is used and the result is
+     * cached; with one, the monthly buckets of the period are summed (not cached:
+     * the cache is keyed per user only).
+     */
+    @Cacheable(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name", sync = true,
+            condition = "#from == null && #to == null")
+    public List<ProductVariantSalesAndStockSummary> getProductIndicators(YearMonth from, YearMonth to, Principal principal) {
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
-        return inventoryItemRepository.findAllWithSalesAndPurchaseDataByInventory(EXCLUDED_STATUSES, inventory);
+        if (from == null && to == null) {
+            return inventoryItemRepository.findAllWithSalesAndPurchaseDataByInventory(inventory);
+        }
+        MonthRange range = MonthRange.of(from, to);
+        return inventoryItemRepository.findAllWithSalesAndPurchaseDataByInventoryAndPeriod(
+                inventory, range.getFromMonth(), range.getToMonth());
     }
 
-    @Cacheable(value = CacheNames.PRODUCT_INDICATORS_GROUPED, key = "#principal.name")
-    public List<ProductSalesAndStockSummary> getProductIndicatorsGrouped(Principal principal) {
+    @Cacheable(value = CacheNames.PRODUCT_INDICATORS_GROUPED, key = "#principal.name", sync = true,
+            condition = "#from == null && #to == null")
+    public List<ProductSalesAndStockSummary> getProductIndicatorsGrouped(YearMonth from, YearMonth to, Principal principal) {
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
-        return inventoryItemRepository.findAllGroupedByProduct(EXCLUDED_STATUSES, inventory);
+        if (from == null && to == null) {
+            return inventoryItemRepository.findAllGroupedByProduct(inventory);
+        }
+        MonthRange range = MonthRange.of(from, to);
+        return inventoryItemRepository.findAllGroupedByProductAndPeriod(
+                inventory, range.getFromMonth(), range.getToMonth());
     }
 
-    @Cacheable(value = CacheNames.MOST_SOLD_PRODUCTS, key = "#principal.name")
-    public List<ProductVariantSaleSummary> getMostSoldProducts(Principal principal) {
+    /**
+     * PERFORMANCE OPTIMIZATION:
+     * - Ranking and top-N limit applied by the database on the sales read models,
+     *   instead of loading every variant of the inventory and sorting it here
+     */
+    @Cacheable(value = CacheNames.MOST_SOLD_PRODUCTS, key = "#principal.name", sync = true,
+            condition = "#from == null && #to == null && #limit == T(com.jaoow.helmetstore.service.ReportService).DEFAULT_TOP_LIMIT")
+    public List<ProductVariantSaleSummary> getMostSoldProducts(YearMonth from, YearMonth to, int limit, Principal principal) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("O limite deve ser maior que zero.");
+        }
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
-        List<ProductVariantSaleSummary> saleSummaries = inventoryItemRepository.findAllWithSalesDataByInventory(inventory);
-        return saleSummaries.stream()
-                .filter(summary -> summary.getTotalSold() > 0)
-                .sorted(Comparator.comparingInt(ProductVariantSaleSummary::getTotalSold).reversed())
-                .toList();
+        Limit top = Limit.of(Math.min(limit, MAX_TOP_LIMIT));
+        if (from == null && to == null) {
+            return inventoryItemRepository.findTopSoldByInventory(inventory, top);
+        }
+        MonthRange range = MonthRange.of(from, to);
+        return inventoryItemRepository.findTopSoldByInventoryAndPeriod(
+                inventory, range.getFromMonth(), range.getToMonth(), top);
     }
 
-    @Cacheable(value = CacheNames.PRODUCT_STOCK, key = "#principal.name")
+    @Cacheable(value = CacheNames.PRODUCT_STOCK, key = "#principal.name", sync = true)
     public List<ProductStockDto> getProductStock(Principal principal) {
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
-        List<ProductVariantStockSummary> projections = inventoryItemRepository.findAllWithStockDetailsByInventory(EXCLUDED_STATUSES, inventory);
+        List<ProductVariantStockSummary> projections = inventoryItemRepository.findAllWithStockDetailsByInventory(inventory);
 
         Map<Long, ProductStockDto> productMap = projections.stream()
                 .collect(Collectors.toMap(
@@ -76,10 +112,30 @@ public class ReportService {
     }
 
     private ProductStockDto mapToProductStockDto(ProductVariantStockSummary projection) {
-        return modelMapper.map(projection, ProductStockDto.class);
+        return productStockMapper.toProductStock(projection);
     }
 
     private ProductStockVariantDto mapToProductStockVariantDto(ProductVariantStockSummary projection) {
-        return modelMapper.map(projection, ProductStockVariantDto.class);
+        return productStockMapper.toProductStockVariant(projection);
+    }
+
+    /**
+     * Month range as the first days of its months, matching
+     * {@link com.jaoow.helmetstore.model.sale.VariantSalesMonthly#getMonthStart()}.
+     * An open start covers every past month, an open end stops at the current month.
+     */
+    @Value
+    private static class MonthRange {
+        LocalDate fromMonth;
+        LocalDate toMonth;
+
+        static MonthRange of(YearMonth from, YearMonth to) {
+            LocalDate fromMonth = from != null ? from.atDay(1) : LocalDate.EPOCH;
+            LocalDate toMonth = (to != null ? to : YearMonth.now()).atDay(1);
+            if (fromMonth.isAfter(toMonth)) {
+                throw new IllegalArgumentException("O mês inicial deve ser anterior ou igual ao mês final.");
+            }
+            return new MonthRange(fromMonth, toMonth);
+        }
     }
 }
@@ -0,0 +1,59 @@
+package com.jaoow.helmetstore.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jaoow.helmetstore.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-window limits on the reservations created from the public catalog, which
+ * needs no login: per client address and per catalog.
+ * <p>
+ * A counter starts with the first request of its key and is dropped
+ * {@code reservation.rate-limit.window} later. Counters are per instance, in memory.
+ */
+@Component
+@Slf4j
+public class ReservationRateLimiter {
+
+    private final Cache<String, AtomicInteger> counters;
+    private final int perClient;
+    private final int perCatalog;
+
+    public ReservationRateLimiter(@Value("${reservation.rate-limit.window:PT10M}") Duration window,
+                                  @Value("${reservation.rate-limit.per-client:5}") int perClient,
+                                  @Value("${reservation.rate-limit.per-catalog:60}") int perCatalog) {
+        this.counters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+        this.perClient = perClient;
+        this.perCatalog = perCatalog;
+    }
+
+    /**
+     * Count one reservation attempt.
+     *
+     * @throws TooManyRequestsException if the client or the catalog is over its limit
+     */
+    public void acquire(String catalogToken, String clientAddress) {
+        if (increment("client:" + clientAddress) > perClient) {
+            log.warn("Reservation rate limit reached by {} on catalog {}", clientAddress, catalogToken);
+            throw new TooManyRequestsException("Muitas reservas em pouco tempo. Tente novamente mais tarde.");
+        }
+        if (increment("catalog:" + catalogToken) > perCatalog) {
+            log.warn("Reservation rate limit reached on catalog {}", catalogToken);
+            throw new TooManyRequestsException("Este catálogo recebeu muitas reservas. Tente novamente mais tarde.");
+        }
+    }
+
+    private int increment(String key) {
+        // The entry is written once, when the window starts: incrementing does not extend it
+        return counters.get(key, k -> new AtomicInteger()).incrementAndGet();
+    }
+}
@@ -4,12 +4,14 @@ import com.jaoow.helmetstore.dto.balance.AvailableMonthDTO;
 import com.jaoow.helmetstore.dto.sale.*;
 import com.jaoow.helmetstore.exception.ResourceNotFoundException;
 import com.jaoow.helmetstore.helper.InventoryHelper;
+import com.jaoow.helmetstore.mapper.ReferenceMapper;
+import com.jaoow.helmetstore.mapper.SaleMapper;
 import com.jaoow.helmetstore.model.Sale;
+import com.jaoow.helmetstore.model.idempotency.IdempotentOperation;
 import com.jaoow.helmetstore.model.inventory.Inventory;
 import com.jaoow.helmetstore.repository.SaleRepository;
 import com.jaoow.helmetstore.usecase.sale.*;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -30,28 +32,48 @@ public class SaleService {
 
     private final SaleRepository saleRepository;
     private final InventoryHelper inventoryHelper;
-    private final ModelMapper modelMapper;
+    private final SaleMapper saleMapper;
+    private final ReferenceMapper referenceMapper;
+    private final IdempotencyService idempotencyService;
 
     // Use Cases
     private final CreateSaleUseCase createSaleUseCase;
+    private final CreateSaleBatchUseCase createSaleBatchUseCase;
     private final UpdateSaleUseCase updateSaleUseCase;
     private final DeleteSaleUseCase deleteSaleUseCase;
     private final GetSaleHistoryUseCase getSaleHistoryUseCase;
     private final GenerateSaleReceiptUseCase generateSaleReceiptUseCase;
     private final CancelSaleUseCase cancelSaleUseCase;
     private final ExchangeProductUseCase exchangeProductUseCase;
+    private final QuoteSaleUseCase quoteSaleUseCase;
 
     @Transactional(readOnly = true)
     public Page<SaleResponseDTO> findAll(Pageable pageable, Principal principal) {
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
         Page<Sale> salesPage = saleRepository.findAllByInventoryPaginated(inventory, pageable);
-        return salesPage.map(sale -> modelMapper.map(sale, SaleResponseDTO.class));
+        return salesPage.map(saleMapper::toResponse);
     }
 
     public SaleResponseDTO save(SaleCreateDTO dto, Principal principal) {
         return createSaleUseCase.execute(dto, principal);
     }
 
+    /**
+     * Create a sale at most once per idempotency key: a retry returns the first response.
+     */
+    public SaleResponseDTO save(SaleCreateDTO dto, Principal principal, String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, IdempotentOperation.CREATE_SALE, principal,
+                dto, SaleResponseDTO.class, () -> createSaleUseCase.execute(dto, principal));
+    }
+
+    public SaleQuoteResponseDTO quote(SaleQuoteRequestDTO request, Principal principal) {
+        return quoteSaleUseCase.execute(request, principal);
+    }
+
+    public SaleBatchResponseDTO saveBatch(List<SaleCreateDTO> dtos, Principal principal) {
+        return createSaleBatchUseCase.execute(dtos, principal);
+    }
+
     public SaleResponseDTO update(Long saleId, SaleCreateDTO dto, Principal principal) {
         return updateSaleUseCase.execute(saleId, dto, principal);
     }
@@ -60,8 +82,9 @@ public class SaleService {
         deleteSaleUseCase.execute(id, principal);
     }
 
-    public SaleHistoryResponse getHistory(Integer year, Integer month, Principal principal) {
-        return getSaleHistoryUseCase.execute(year, month, principal);
+    public SaleHistoryResponse getHistory(Integer year, Integer month, String cursor, int limit,
+            Principal principal) {
+        return getSaleHistoryUseCase.execute(year, month, cursor, limit, principal);
     }
 
     public byte[] generateReceipt(Long saleId, Principal principal) {
@@ -72,10 +95,24 @@ public class SaleService {
         return cancelSaleUseCase.execute(saleId, request, principal);
     }
 
+    public SaleCancellationResponseDTO cancelSale(Long saleId, SaleCancellationRequestDTO request,
+            Principal principal, String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, IdempotentOperation.CANCEL_SALE, principal,
+                new Object[] { saleId, request }, SaleCancellationResponseDTO.class,
+                () -> cancelSaleUseCase.execute(saleId, request, principal));
+    }
+
     public ProductExchangeResponseDTO exchangeProducts(ProductExchangeRequestDTO request, Principal principal) {
         return exchangeProductUseCase.execute(request, principal);
     }
 
+    public ProductExchangeResponseDTO exchangeProducts(ProductExchangeRequestDTO request, Principal principal,
+            String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, IdempotentOperation.EXCHANGE_PRODUCTS, principal,
+                request, ProductExchangeResponseDTO.class,
+                () -> exchangeProductUseCase.execute(request, principal));
+    }
+
     /**
      * Get available months with sale counts (lightweight for UI month selectors).
      */
@@ -128,7 +165,7 @@ public class SaleService {
             List<com.jaoow.helmetstore.dto.reference.SimpleProductVariantDTO> productVariants = sale.getItems().stream()
                     .map(com.jaoow.helmetstore.model.sale.SaleItem::getProductVariant)
                     .distinct()
-                    .map(variant -> modelMapper.map(variant, com.jaoow.helmetstore.dto.reference.SimpleProductVariantDTO.class))
+                    .map(referenceMapper::toSimpleVariant)
                     .collect(java.util.stream.Collectors.toList());
             dto.setProductVariants(productVariants);
 
@@ -136,7 +173,7 @@ public class SaleService {
             List<com.jaoow.helmetstore.dto.reference.SimpleProductDTO> products = sale.getItems().stream()
                     .map(item -> item.getProductVariant().getProduct())
                     .distinct()
-                    .map(product -> modelMapper.map(product, com.jaoow.helmetstore.dto.reference.SimpleProductDTO.class))
+                    .map(referenceMapper::toSimpleProduct)
                     .collect(java.util.stream.Collectors.toList());
             dto.setProducts(products);
         }
@@ -0,0 +1,302 @@
+package com.jaoow.helmetstore.service;
+
+import com.jaoow.helmetstore.cache.CacheNames;
+import com.jaoow.helmetstore.dto.reservation.StockReservationCreateDTO;
+import com.jaoow.helmetstore.dto.reservation.StockReservationDTO;
+import com.jaoow.helmetstore.dto.reservation.StockReservationItemCreateDTO;
+import com.jaoow.helmetstore.exception.BusinessException;
+import com.jaoow.helmetstore.exception.CatalogNotFoundException;
+import com.jaoow.helmetstore.exception.ProductNotFoundException;
+import com.jaoow.helmetstore.exception.ResourceNotFoundException;
+import com.jaoow.helmetstore.helper.InventoryHelper;
+import com.jaoow.helmetstore.mapper.StockReservationMapper;
+import com.jaoow.helmetstore.model.ProductVariant;
+import com.jaoow.helmetstore.model.inventory.Inventory;
+import com.jaoow.helmetstore.model.inventory.InventoryCatalog;
+import com.jaoow.helmetstore.model.reservation.ReservationStatus;
+import com.jaoow.helmetstore.model.reservation.StockReservation;
+import com.jaoow.helmetstore.model.reservation.StockReservationItem;
+import com.jaoow.helmetstore.repository.InventoryCatalogRepository;
+import com.jaoow.helmetstore.repository.ProductVariantRepository;
+import com.jaoow.helmetstore.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.Principal;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stock reservations of the public catalog.
+ * <p>
+ * A customer reserves items from the catalog before checking out on WhatsApp; the
+ * store then turns the reservation into a sale (POST /sales with its id) or cancels
+ * it. Reservations not handled within {@code reservation.ttl} are released by a
+ * scheduled sweeper.
+ * <p>
+ * PERFORMANCE OPTIMIZATION:
+ * - The reserved quantity of each variant is kept on its inventory item row, next
+ *   to the quantity: reports and the catalog read {@code quantity - reserved} from
+ *   the stock query they already run, and reserving is one conditional UPDATE for
+ *   all lines, race-free against concurrent sales without row locks
+ * - The sweeper expires and releases a whole batch of reservations with two
+ *   statements, found through a partial index on the active ones
+ * - Converting to a sale releases the reservation and takes the stock without
+ *   re-validating it: the sale reuses the variants loaded with the reservation
+ */
+@Service
+@Slf4j
+public class StockReservationService {
+
+    private static final char[] CODE_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    private static final int CODE_LENGTH = 8;
+
+    private final StockReservationRepository stockReservationRepository;
+    private final InventoryCatalogRepository catalogRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final InventoryStockService inventoryStockService;
+    private final InventoryVersionService inventoryVersionService;
+    private final InventoryHelper inventoryHelper;
+    private final StockReservationMapper stockReservationMapper;
+    private final CacheManager cacheManager;
+    private final ReservationRateLimiter rateLimiter;
+    private final Duration ttl;
+    private final int sweepBatchSize;
+    private final int maxActiveUnitsPerCatalog;
+    private final int maxActivePerCustomerPhone;
+    private final SecureRandom random = new SecureRandom();
+
+    public StockReservationService(StockReservationRepository stockReservationRepository,
+                                   InventoryCatalogRepository catalogRepository,
+                                   ProductVariantRepository productVariantRepository,
+                                   InventoryStockService inventoryStockService,
+                                   InventoryVersionService inventoryVersionService,
+                                   InventoryHelper inventoryHelper,
+                                   StockReservationMapper stockReservationMapper,
+                                   CacheManager cacheManager,
+                                   ReservationRateLimiter rateLimiter,
+                                   @Value("${reservation.ttl:PT30M}") Duration ttl,
+                                   @Value("${reservation.sweep.batch-size:500}") int sweepBatchSize,
+                                   @Value("${reservation.max-active-units-per-catalog:50}") int maxActiveUnitsPerCatalog,
+                                   @Value("${reservation.max-active-per-customer-phone:2}") int maxActivePerCustomerPhone) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.catalogRepository = catalogRepository;
+        this.productVariantRepository = productVariantRepository;
+        this.inventoryStockService = inventoryStockService;
+        this.inventoryVersionService = inventoryVersionService;
+        this.inventoryHelper = inventoryHelper;
+        this.stockReservationMapper = stockReservationMapper;
+        this.cacheManager = cacheManager;
+        this.rateLimiter = rateLimiter;
+        this.ttl = ttl;
+        this.sweepBatchSize = sweepBatchSize;
+        this.maxActiveUnitsPerCatalog = maxActiveUnitsPerCatalog;
+        this.maxActivePerCustomerPhone = maxActivePerCustomerPhone;
+    }
+
+    /**
+     * Reserve items of a public catalog's inventory, all or nothing.
+     * <p>
+     * The endpoint needs no login, so a reservation is only accepted when the store
+     * enabled reservations for its catalog, within the rate limits of
+     * {@link ReservationRateLimiter}, and while the catalog's active reservations hold
+     * at most {@code reservation.max-active-units-per-catalog} units and the customer
+     * phone has fewer than {@code reservation.max-active-per-customer-phone} of them.
+     *
+     * @param clientAddress address of the client, for the rate limits
+     * @throws com.jaoow.helmetstore.exception.InsufficientStockException if an item has not enough available stock
+     * @throws com.jaoow.helmetstore.exception.TooManyRequestsException   if the client or the catalog is over its rate limit
+     * @throws BusinessException                                          if reservations are disabled or a limit is reached
+     */
+    @Transactional
+    public StockReservationDTO reserve(String catalogToken, StockReservationCreateDTO dto, String clientAddress) {
+        rateLimiter.acquire(catalogToken, clientAddress);
+
+        // Locked: concurrent reservations of the catalog are checked against its limits one at a time
+        InventoryCatalog catalog = catalogRepository.findActiveByTokenForUpdate(catalogToken)
+                .orElseThrow(CatalogNotFoundException::new);
+        if (!catalog.isAllowReservations()) {
+            throw new BusinessException("Este catálogo não aceita reservas.");
+        }
+        Inventory inventory = catalog.getInventory();
+
+        Map<Long, Integer> quantities = InventoryStockService.sumByVariant(dto.getItems(),
+                StockReservationItemCreateDTO::getVariantId, StockReservationItemCreateDTO::getQuantity);
+        LocalDateTime now = LocalDateTime.now();
+        String customerPhone = normalizePhone(dto.getCustomerPhone());
+        checkLimits(inventory, quantities, customerPhone, now);
+        Map<Long, ProductVariant> variantsById = productVariantRepository.findAllWithProductByIdIn(quantities.keySet())
+                .stream()
+                .collect(Collectors.toMap(ProductVariant::getId, Function.identity()));
+        quantities.keySet().stream()
+                .filter(variantId -> !variantsById.containsKey(variantId))
+                .findFirst()
+                .ifPresent(variantId -> {
+                    throw new ProductNotFoundException(variantId);
+                });
+
+        inventoryStockService.reserve(inventory, quantities);
+
+        StockReservation reservation = StockReservation.builder()
+                .inventory(inventory)
+                .code(newCode())
+                .status(ReservationStatus.ACTIVE)
+                .customerName(dto.getCustomerName())
+                .customerPhone(customerPhone)
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build();
+        quantities.forEach((variantId, quantity) -> reservation.getItems().add(StockReservationItem.builder()
+                .reservation(reservation)
+                .productVariant(variantsById.get(variantId))
+                .quantity(quantity)
+                .build()));
+
+        StockReservation saved = stockReservationRepository.save(reservation);
+        stockChanged(List.of(inventory.getUser().getEmail()));
+        return stockReservationMapper.toDTO(saved);
+    }
+
+    private void checkLimits(Inventory inventory, Map<Long, Integer> quantities, String customerPhone,
+                             LocalDateTime now) {
+        long requested = quantities.values().stream().mapToLong(Integer::longValue).sum();
+        long held = stockReservationRepository.sumActiveUnits(inventory, now);
+        if (held + requested > maxActiveUnitsPerCatalog) {
+            throw new BusinessException(String.format(
+                    "Limite de itens reservados do catálogo atingido (%d). Tente novamente mais tarde.",
+                    maxActiveUnitsPerCatalog));
+        }
+
+        if (customerPhone != null
+                && stockReservationRepository.countActiveByCustomerPhone(inventory, customerPhone, now)
+                >= maxActivePerCustomerPhone) {
+            throw new BusinessException(String.format(
+                    "Este telefone já possui %d reserva(s) ativa(s).", maxActivePerCustomerPhone));
+        }
+    }
+
+    /**
+     * Digits only, so "+55 (11) 9..." and "5511 9..." count as the same customer.
+     */
+    private static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = phone.replaceAll("\\D", "");
+        return digits.isEmpty() ? null : digits;
+    }
+
+    /**
+     * Active reservations of the user's inventory, the ones expiring first on top.
+     */
+    @Transactional(readOnly = true)
+    public List<StockReservationDTO> findActive(Principal principal) {
+        Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
+        return stockReservationRepository.findAllByInventoryAndStatusWithItems(inventory, ReservationStatus.ACTIVE)
+                .stream()
+                .map(stockReservationMapper::toDTO)
+                .toList();
+    }
+
+    /**
+     * Cancel an active reservation, making its items available again.
+     */
+    @CacheEvict(value = CacheNames.PRODUCT_STOCK, key = "#principal.name")
+    @Transactional
+    public void cancel(Long reservationId, Principal principal) {
+        Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
+        close(reservationId, inventory, ReservationStatus.CANCELLED);
+        inventoryStockService.releaseReservations(List.of(reservationId));
+    }
+
+    /**
+     * Turn an active reservation into a sale: it is marked CONVERTED and its held
+     * units are released, to be taken by the sale in the same transaction. Nobody
+     * else can take them in between, the release keeps their rows locked until commit.
+     *
+     * @return the reservation, with its items, variants and products loaded
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public StockReservation convert(Long reservationId, Inventory inventory) {
+        StockReservation reservation = close(reservationId, inventory, ReservationStatus.CONVERTED);
+        inventoryStockService.releaseReservations(List.of(reservationId));
+        return reservation;
+    }
+
+    /**
+     * Release the reservations whose TTL has passed, one batch per run.
+     */
+    @Scheduled(fixedDelayString = "${reservation.sweep.fixed-delay:PT1M}",
+            initialDelayString = "${reservation.sweep.initial-delay:PT1M}")
+    @Transactional
+    public void expireReservations() {
+        List<Long> expired = stockReservationRepository.expireDue(LocalDateTime.now(), sweepBatchSize);
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        inventoryStockService.releaseReservations(expired);
+        stockChanged(stockReservationRepository.findOwnerEmails(expired));
+        log.info("Expired {} stock reservation(s)", expired.size());
+    }
+
+    private StockReservation close(Long reservationId, Inventory inventory, ReservationStatus status) {
+        StockReservation reservation = stockReservationRepository.findByIdAndInventoryWithItems(reservationId, inventory)
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva não encontrada: " + reservationId));
+
+        if (stockReservationRepository.closeIfActive(reservationId, inventory, status, LocalDateTime.now()) == 0) {
+            throw new IllegalStateException(
+                    String.format("A reserva %s não está mais ativa.", reservation.getCode()));
+        }
+        reservation.setStatus(status);
+        return reservation;
+    }
+
+    /**
+     * Writes without an authenticated request (public catalog, sweeper): evict the
+     * owners' stock report and move their ETag once the transaction has committed.
+     */
+    private void stockChanged(Collection<String> ownerEmails) {
+        Cache productStock = cacheManager.getCache(CacheNames.PRODUCT_STOCK);
+        Set<String> emails = Set.copyOf(ownerEmails);
+        if (productStock != null) {
+            // Transaction-aware cache: evicted after commit
+            emails.forEach(productStock::evict);
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            emails.forEach(inventoryVersionService::bump);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                emails.forEach(inventoryVersionService::bump);
+            }
+        });
+    }
+
+    private String newCode() {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            code[i] = CODE_ALPHABET[random.nextInt(CODE_ALPHABET.length)];
+        }
+        return new String(code);
+    }
+}
@@ -0,0 +1,35 @@
+package com.jaoow.helmetstore.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-only copy of an inventory's stock and average costs, taken at one data version
+ * of {@link InventoryVersionService}. Built by {@link StockSnapshotService} and shared
+ * by concurrent readers, so it is never modified once built.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class StockSnapshot {
+
+    private final long version;
+    private final Map<Long, Line> linesByVariantId;
+
+    public Optional<Line> find(Long variantId) {
+        return Optional.ofNullable(linesByVariantId.get(variantId));
+    }
+
+    @Value
+    public static class Line {
+        String sku;
+        /** Quantity minus the units held by reservations */
+        int availableQuantity;
+        BigDecimal averageCost;
+    }
+}
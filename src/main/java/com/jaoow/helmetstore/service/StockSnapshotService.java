@@ -0,0 +1,71 @@
+package com.jaoow.helmetstore.service;
+
+import com.jaoow.helmetstore.cache.CacheNames;
+import com.jaoow.helmetstore.dto.summary.InventoryStockSnapshotRow;
+import com.jaoow.helmetstore.repository.InventoryItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-inventory {@link StockSnapshot}, kept in the {@link CacheNames#STOCK_SNAPSHOT} cache.
+ * <p>
+ * A snapshot is tagged with the user's data version ({@link InventoryVersionService})
+ * read before loading it. Every successful write bumps that version (sales, purchase
+ * deliveries, stock and cost adjustments, reservations), so a snapshot older than the
+ * current version is rebuilt on its next use instead of being evicted by each writer.
+ * <p>
+ * PERFORMANCE OPTIMIZATION:
+ * - While nothing is written, reading the snapshot costs a version lookup and a cache
+ *   lookup: no query, no entity
+ * - Rebuilding it is one projection query by user email (the inventory is not loaded)
+ * <p>
+ * Versions are per instance: a write served by another instance is only seen once the
+ * entry expires. Snapshots are for previews; sales still check stock atomically.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockSnapshotService {
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryVersionService inventoryVersionService;
+    private final CacheManager cacheManager;
+
+    public StockSnapshot get(String userEmail) {
+        // Version first: the data loaded afterwards is at least as recent as the tag
+        long version = inventoryVersionService.currentVersion(userEmail);
+
+        Cache cache = cacheManager.getCache(CacheNames.STOCK_SNAPSHOT);
+        StockSnapshot cached = cache.get(userEmail, StockSnapshot.class);
+        if (cached != null && cached.getVersion() == version) {
+            return cached;
+        }
+
+        StockSnapshot snapshot = load(userEmail, version);
+        // Not inside a transaction: the transaction-aware cache stores it right away
+        cache.put(userEmail, snapshot);
+        return snapshot;
+    }
+
+    private StockSnapshot load(String userEmail, long version) {
+        List<InventoryStockSnapshotRow> rows = inventoryItemRepository.findStockSnapshotByUserEmail(userEmail);
+
+        Map<Long, StockSnapshot.Line> lines = new HashMap<>(rows.size() * 2);
+        for (InventoryStockSnapshotRow row : rows) {
+            lines.put(row.getVariantId(), new StockSnapshot.Line(
+                    row.getSku(),
+                    Math.max(row.getQuantity() - row.getReservedQuantity(), 0),
+                    row.getAverageCost()));
+        }
+
+        log.debug("Built stock snapshot of {} at version {} ({} variants)", userEmail, version, lines.size());
+        return new StockSnapshot(version, Map.copyOf(lines));
+    }
+}
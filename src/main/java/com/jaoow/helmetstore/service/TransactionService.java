@@ -46,6 +46,10 @@ public class TransactionService {
         recordSaleTransactionUseCase.execute(sale, principal);
     }
 
+    public void recordTransactionsFromSales(List<Sale> sales, Principal principal) {
+        recordSaleTransactionUseCase.executeAll(sales, principal);
+    }
+
     public void recordTransactionFromPurchaseOrder(PurchaseOrder purchaseOrder, Principal principal) {
         recordPurchaseOrderTransactionUseCase.execute(purchaseOrder, principal);
     }
@@ -0,0 +1,242 @@
+package com.jaoow.helmetstore.service;
+
+import com.jaoow.helmetstore.helper.MoneyAccumulator;
+import com.jaoow.helmetstore.model.Sale;
+import com.jaoow.helmetstore.model.sale.SaleItem;
+import com.jaoow.helmetstore.model.sale.VariantSalesMonthly;
+import com.jaoow.helmetstore.model.sale.VariantSalesStats;
+import com.jaoow.helmetstore.repository.VariantSalesMonthlyRepository;
+import com.jaoow.helmetstore.repository.VariantSalesStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the sales read models in sync with the sales:
+ * - {@link VariantSalesStats}: all-time totals per (inventory, variant)
+ * - {@link VariantSalesMonthly}: totals per (inventory, month, variant), for period reports
+ * <p>
+ * Every code path that inserts, updates or deletes a sale's items must call this
+ * service inside the same database transaction. Deltas of the same variant are
+ * merged in memory and applied with one atomic upsert each, in variant order so
+ * concurrent sales lock the rows in the same order.
+ * <p>
+ * Cancellations do not call it: they keep the sale items as recorded (a sale is
+ * historical), and so do the stats.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VariantSalesStatsService {
+
+    private final VariantSalesStatsRepository statsRepository;
+    private final VariantSalesMonthlyRepository monthlyRepository;
+
+    /**
+     * Immutable copy of the fields of a sale that feed the stats.
+     * Capture it before mutating a managed sale so the old values can be reverted.
+     */
+    @Value
+    public static class SaleEntry {
+        Long inventoryId;
+        LocalDateTime date;
+        List<Line> lines;
+
+        public static SaleEntry of(Sale sale) {
+            List<Line> lines = sale.getItems() == null ? List.of() : sale.getItems().stream()
+                    .map(Line::of)
+                    .toList();
+            return new SaleEntry(sale.getInventory() != null ? sale.getInventory().getId() : null,
+                    sale.getDate(), lines);
+        }
+    }
+
+    @Value
+    public static class Line {
+        Long variantId;
+        int quantity;
+        BigDecimal totalItemPrice;
+        BigDecimal totalItemProfit;
+
+        static Line of(SaleItem item) {
+            return new Line(item.getProductVariant().getId(),
+                    item.getQuantity() != null ? item.getQuantity() : 0,
+                    item.getTotalItemPrice(),
+                    item.getTotalItemProfit());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSale(Sale sale) {
+        recordSales(List.of(sale));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSales(Collection<Sale> sales) {
+        Deltas deltas = new Deltas();
+        sales.forEach(sale -> accumulate(deltas, SaleEntry.of(sale), 1));
+        flush(deltas);
+    }
+
+    /**
+     * @param removed snapshot of the deleted sale
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDelete(SaleEntry removed) {
+        Deltas deltas = new Deltas();
+        accumulate(deltas, removed, -1);
+        flush(deltas);
+        refresh(deltas);
+    }
+
+    /**
+     * Revert the previous items of an updated sale and apply the new ones.
+     *
+     * @param before snapshot taken before the sale was modified
+     * @param after  the updated sale
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdate(SaleEntry before, Sale after) {
+        Deltas deltas = new Deltas();
+        accumulate(deltas, before, -1);
+        accumulate(deltas, SaleEntry.of(after), 1);
+        flush(deltas);
+        refresh(deltas);
+    }
+
+    private void accumulate(Deltas deltas, SaleEntry entry, int sign) {
+        if (entry.getInventoryId() == null) {
+            log.warn("Skipping variant sales stats for sale without inventory: {}", entry);
+            return;
+        }
+
+        LocalDate monthStart = entry.getDate() != null ? entry.getDate().toLocalDate().withDayOfMonth(1) : null;
+        for (Line line : entry.getLines()) {
+            deltas.allTime.computeIfAbsent(new StatsKey(entry.getInventoryId(), line.getVariantId()),
+                    k -> new StatsDelta()).add(line, entry.getDate(), sign);
+            if (monthStart != null) {
+                deltas.monthly.computeIfAbsent(new MonthKey(entry.getInventoryId(), monthStart, line.getVariantId()),
+                        k -> new StatsDelta()).add(line, entry.getDate(), sign);
+            }
+        }
+    }
+
+    private void flush(Deltas deltas) {
+        deltas.allTime.entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .sorted(Map.Entry.comparingByKey(StatsKey.ORDER))
+                .forEach(entry -> {
+                    StatsKey key = entry.getKey();
+                    StatsDelta delta = entry.getValue();
+                    statsRepository.applyDelta(key.getInventoryId(), key.getVariantId(), delta.totalSold,
+                            delta.totalRevenue.toBigDecimal(), delta.totalProfit.toBigDecimal(),
+                            delta.lastSaleDate, delta.saleItemCount);
+                });
+
+        deltas.monthly.entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .sorted(Map.Entry.comparingByKey(MonthKey.ORDER))
+                .forEach(entry -> {
+                    MonthKey key = entry.getKey();
+                    StatsDelta delta = entry.getValue();
+                    monthlyRepository.applyDelta(key.getInventoryId(), key.getMonthStart(), key.getVariantId(),
+                            delta.totalSold, delta.totalRevenue.toBigDecimal(), delta.totalProfit.toBigDecimal(),
+                            delta.lastSaleDate, delta.saleItemCount);
+                });
+    }
+
+    /**
+     * A removal can take away the latest sale of a variant, or its last sale item:
+     * recompute the date and drop the emptied rows.
+     */
+    private void refresh(Deltas deltas) {
+        Map<Long, Set<Long>> variantIdsByInventory = deltas.allTime.keySet().stream()
+                .collect(Collectors.groupingBy(StatsKey::getInventoryId,
+                        Collectors.mapping(StatsKey::getVariantId, Collectors.toCollection(TreeSet::new))));
+        variantIdsByInventory.forEach((inventoryId, variantIds) -> {
+            statsRepository.refreshLastSaleDate(inventoryId, variantIds);
+            statsRepository.deleteEmpty(inventoryId, variantIds);
+        });
+
+        Map<MonthKey, Set<Long>> variantIdsByMonth = deltas.monthly.keySet().stream()
+                .collect(Collectors.groupingBy(key -> new MonthKey(key.getInventoryId(), key.getMonthStart(), null),
+                        Collectors.mapping(MonthKey::getVariantId, Collectors.toCollection(TreeSet::new))));
+        variantIdsByMonth.forEach((month, variantIds) -> {
+            monthlyRepository.refreshLastSaleDate(month.getInventoryId(), month.getMonthStart(),
+                    month.getMonthStart().plusMonths(1), variantIds);
+            monthlyRepository.deleteEmpty(month.getInventoryId(), month.getMonthStart(), variantIds);
+        });
+    }
+
+    private static final class Deltas {
+        private final Map<StatsKey, StatsDelta> allTime = new LinkedHashMap<>();
+        private final Map<MonthKey, StatsDelta> monthly = new LinkedHashMap<>();
+    }
+
+    @Value
+    private static class StatsKey {
+        static final Comparator<StatsKey> ORDER = Comparator.comparing(StatsKey::getInventoryId)
+                .thenComparing(StatsKey::getVariantId);
+
+        Long inventoryId;
+        Long variantId;
+    }
+
+    @Value
+    private static class MonthKey {
+        static final Comparator<MonthKey> ORDER = Comparator.comparing(MonthKey::getInventoryId)
+                .thenComparing(MonthKey::getMonthStart)
+                .thenComparing(MonthKey::getVariantId);
+
+        Long inventoryId;
+        LocalDate monthStart;
+        Long variantId;
+    }
+
+    private static final class StatsDelta {
+        private final MoneyAccumulator totalRevenue = new MoneyAccumulator();
+        private final MoneyAccumulator totalProfit = new MoneyAccumulator();
+        private long totalSold;
+        private long saleItemCount;
+        private LocalDateTime lastSaleDate;
+
+        private void add(Line line, LocalDateTime date, int sign) {
+            totalSold += (long) sign * line.getQuantity();
+            saleItemCount += sign;
+            if (line.getTotalItemPrice() != null) {
+                totalRevenue.add(sign < 0 ? line.getTotalItemPrice().negate() : line.getTotalItemPrice());
+            }
+            if (line.getTotalItemProfit() != null) {
+                totalProfit.add(sign < 0 ? line.getTotalItemProfit().negate() : line.getTotalItemProfit());
+            }
+            // Only inserts move the date forward; removals recompute it
+            if (sign > 0 && date != null && (lastSaleDate == null || date.isAfter(lastSaleDate))) {
+                lastSaleDate = date;
+            }
+        }
+
+        /**
+         * An update that did not touch the variant's items nets out to zero.
+         */
+        private boolean isEmpty() {
+            return saleItemCount == 0 && totalSold == 0
+                    && totalRevenue.isZero() && totalProfit.isZero()
+                    && lastSaleDate == null;
+        }
+    }
+}
@@ -39,10 +39,15 @@ public class GetCashFlowSummaryUseCase {
     private final TransactionRepository transactionRepository;
     private final AccountService accountService;
 
-    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.CASH_FLOW_SUMMARY, key = "#principal.name")
+    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.CASH_FLOW_SUMMARY, key = "T(com.jaoow.helmetstore.cache.FinancialCacheKey).summary(#principal.name)", sync = true)
     public CashFlowSummaryDTO execute(Principal principal) {
-        String userEmail = principal.getName();
+        return calculate(principal.getName());
+    }
 
+    /**
+     * Uncached calculation, also used by the cache to refresh stale entries in the background.
+     */
+    public CashFlowSummaryDTO calculate(String userEmail) {
         log.debug("Executing GetCashFlowSummaryUseCase for user: {}", userEmail);
 
         // ============================================================================
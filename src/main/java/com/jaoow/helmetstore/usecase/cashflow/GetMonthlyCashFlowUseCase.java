@@ -1,13 +1,14 @@
 package com.jaoow.helmetstore.usecase.cashflow;
 
 import com.jaoow.helmetstore.dto.balance.MonthlyCashFlowDTO;
+import com.jaoow.helmetstore.dto.balance.MonthlyLedgerMetrics;
 import com.jaoow.helmetstore.dto.balance.TransactionInfo;
-import com.jaoow.helmetstore.model.balance.AccountType;
+import com.jaoow.helmetstore.mapper.TransactionMapper;
 import com.jaoow.helmetstore.model.balance.Transaction;
+import com.jaoow.helmetstore.repository.LedgerMonthlyRollupRepository;
 import com.jaoow.helmetstore.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
@@ -27,8 +28,8 @@ import java.util.stream.Collectors;
  * - Cache results for performance
  * 
  * PERFORMANCE OPTIMIZATION:
- * - Uses SQL aggregations instead of loading all transactions
- * - Calculates cumulative balances using repository methods
+ * - Metrics and cumulative balances come from a single windowed aggregation
+ *   over the monthly ledger rollup instead of five separate aggregations
  */
 @Component
 @RequiredArgsConstructor
@@ -36,33 +37,25 @@ import java.util.stream.Collectors;
 public class GetMonthlyCashFlowUseCase {
 
     private final TransactionRepository transactionRepository;
-    private final ModelMapper modelMapper;
+    private final LedgerMonthlyRollupRepository ledgerMonthlyRollupRepository;
+    private final TransactionMapper transactionMapper;
 
-    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.MONTHLY_CASH_FLOW, key = "#userEmail + '-' + #yearMonth")
+    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.MONTHLY_CASH_FLOW, key = "T(com.jaoow.helmetstore.cache.FinancialCacheKey).month(#userEmail, #yearMonth)", sync = true)
     public MonthlyCashFlowDTO execute(String userEmail, YearMonth yearMonth) {
         log.debug("Executing GetMonthlyCashFlowUseCase for user: {} and month: {}", userEmail, yearMonth);
 
         LocalDateTime startOfMonth = yearMonth.atDay(1).atStartOfDay();
         LocalDateTime startOfNextMonth = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
-        LocalDateTime endOfMonth = yearMonth.atEndOfMonth().atTime(23, 59, 59);
 
         // ============================================================================
-        // PERFORMANCE: Use SQL aggregations instead of loading entities
+        // PERFORMANCE: One windowed aggregation over the monthly rollup returns the
+        // month's metrics and the cumulative balances (SUM() OVER (ORDER BY month))
         // ============================================================================
-        BigDecimal monthlyCashFlow = transactionRepository.calculateCashFlowByDateRange(
-                userEmail, startOfMonth, startOfNextMonth);
+        MonthlyLedgerMetrics metrics = ledgerMonthlyRollupRepository.findMonthlyMetrics(
+                userEmail, yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1));
 
-        // Calculate cumulative balances up to end of this month using SQL aggregation
-        BigDecimal cumulativeBankBalance = transactionRepository.calculateWalletBalanceUpToDate(
-                userEmail, AccountType.BANK, endOfMonth);
-        BigDecimal cumulativeCashBalance = transactionRepository.calculateWalletBalanceUpToDate(
-                userEmail, AccountType.CASH, endOfMonth);
-
-        // Calculate monthly income/expense with SQL aggregations
-        BigDecimal monthlyIncome = transactionRepository.calculateCashIncomeByDateRange(
-                userEmail, startOfMonth, startOfNextMonth);
-        BigDecimal monthlyExpense = transactionRepository.calculateCashExpenseByDateRange(
-                userEmail, startOfMonth, startOfNextMonth);
+        BigDecimal cumulativeBankBalance = metrics.getBankBalance();
+        BigDecimal cumulativeCashBalance = metrics.getCashBalance();
 
         // Get transactions for detailed breakdown (only if needed)
         List<Transaction> monthlyTransactions = transactionRepository
@@ -73,9 +66,9 @@ public class GetMonthlyCashFlowUseCase {
                 .bankAccountBalance(cumulativeBankBalance)
                 .cashAccountBalance(cumulativeCashBalance)
                 .totalBalance(cumulativeBankBalance.add(cumulativeCashBalance))
-                .monthlyIncome(monthlyIncome)
-                .monthlyExpense(monthlyExpense)
-                .monthlyCashFlow(monthlyCashFlow)
+                .monthlyIncome(metrics.getIncome())
+                .monthlyExpense(metrics.getExpense())
+                .monthlyCashFlow(metrics.getCashFlow())
                 .transactions(convertToTransactionInfo(monthlyTransactions))
                 .build();
     }
@@ -83,7 +76,7 @@ public class GetMonthlyCashFlowUseCase {
     private List<TransactionInfo> convertToTransactionInfo(List<Transaction> transactions) {
         return transactions.stream()
                 .filter(Transaction::isAffectsCash) // Only show cash-affecting transactions
-                .map(transaction -> modelMapper.map(transaction, TransactionInfo.class))
+                .map(transactionMapper::toInfo)
                 .collect(Collectors.toList());
     }
 }
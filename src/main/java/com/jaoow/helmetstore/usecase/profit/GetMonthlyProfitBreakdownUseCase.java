@@ -1,15 +1,15 @@
 package com.jaoow.helmetstore.usecase.profit;
 
+import com.jaoow.helmetstore.dto.balance.MonthlyLedgerBreakdown;
 import com.jaoow.helmetstore.dto.balance.MonthlyProfitDTO;
 import com.jaoow.helmetstore.dto.balance.TransactionInfo;
-import com.jaoow.helmetstore.helper.InventoryHelper;
-import com.jaoow.helmetstore.model.balance.AccountType;
+import com.jaoow.helmetstore.mapper.TransactionMapper;
 import com.jaoow.helmetstore.model.balance.Transaction;
+import com.jaoow.helmetstore.model.balance.TransactionDetail;
+import com.jaoow.helmetstore.repository.LedgerMonthlyRollupRepository;
 import com.jaoow.helmetstore.repository.TransactionRepository;
-import com.jaoow.helmetstore.helper.ProfitCalculationHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
@@ -23,16 +23,18 @@ import java.util.stream.Collectors;
 
 /**
  * Use Case: Get monthly profit breakdown for all months
- * 
+ *
  * Responsibilities:
  * - Calculate profit metrics for each month
  * - Track cumulative account balances month by month
- * - Include expense transaction details
+ * - Include expense transaction details for the most recent month
  * - Cache results for performance
- * 
+ *
  * PERFORMANCE OPTIMIZATION:
- * - Loads all transactions once instead of querying per month
- * - Calculates cumulative balances incrementally
+ * - One windowed aggregation over the monthly ledger rollup returns every month
+ *   with its cumulative balances and gross profit, instead of every transaction
+ * - Expense details are only loaded for the most recent month; other months are
+ *   loaded on demand via GetMonthlyProfitUseCase (/profit/monthly/{year}/{month})
  */
 @Component
 @RequiredArgsConstructor
@@ -40,79 +42,38 @@ import java.util.stream.Collectors;
 public class GetMonthlyProfitBreakdownUseCase {
 
     private final TransactionRepository transactionRepository;
-    private final InventoryHelper inventoryHelper;
-    private final ModelMapper modelMapper;
-    private final ProfitCalculationHelper profitCalculationHelper;
+    private final LedgerMonthlyRollupRepository ledgerMonthlyRollupRepository;
+    private final TransactionMapper transactionMapper;
 
-    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.MONTHLY_PROFIT, key = "#principal.name")
+    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.MONTHLY_PROFIT, key = "T(com.jaoow.helmetstore.cache.FinancialCacheKey).breakdown(#principal.name)", sync = true)
     public List<MonthlyProfitDTO> execute(Principal principal) {
         String userEmail = principal.getName();
 
         log.debug("Executing GetMonthlyProfitBreakdownUseCase for user: {}", userEmail);
 
-        // PERFORMANCE: Get all transactions ONCE instead of querying per month
-        List<Transaction> allTransactions = transactionRepository.findByAccountUserEmail(userEmail);
-
-        List<Object[]> distinctMonths = transactionRepository.findDistinctMonthsByUserEmail(userEmail);
-
-        List<YearMonth> sortedMonths = distinctMonths.stream()
-            .map(monthData -> {
-                Integer year = (Integer) monthData[0];
-                Integer month = (Integer) monthData[1];
-                return YearMonth.of(year, month);
-            })
-            .sorted()
-            .toList();
-
-        List<MonthlyProfitDTO> result = new ArrayList<>();
-
-        // PERFORMANCE FIX: Calculate cumulative balances incrementally
-        BigDecimal cumulativeBankBalance = BigDecimal.ZERO;
-        BigDecimal cumulativeCashBalance = BigDecimal.ZERO;
-
-        for (YearMonth yearMonth : sortedMonths) {
-            LocalDateTime startOfMonth = yearMonth.atDay(1).atStartOfDay();
-            LocalDateTime startOfNextMonth = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
-
-            // Filter transactions for this month from already-loaded list
-            List<Transaction> monthlyTransactions = allTransactions.stream()
-                .filter(t -> !t.getDate().isBefore(startOfMonth) && t.getDate().isBefore(startOfNextMonth))
-                .collect(Collectors.toList());
-
-            var inventory = inventoryHelper.getInventoryFromPrincipal(principal);
-
-            // Calculate monthly values using ProfitCalculationService
-            BigDecimal monthlyNetProfit = profitCalculationHelper.calculateNetProfitFromTransactions(monthlyTransactions);
-            BigDecimal monthlyGrossProfit = profitCalculationHelper.calculateGrossProfitByDateRange(inventory,
-                    startOfMonth, startOfNextMonth);
-            BigDecimal monthlyExpenseTransactions = profitCalculationHelper
-                    .calculateOperationalExpensesFromTransactions(monthlyTransactions);
+        // PERFORMANCE: One row per month, with the cumulative balances (SUM() OVER (ORDER BY month))
+        List<MonthlyLedgerBreakdown> months = ledgerMonthlyRollupRepository.findAllMonthlyMetrics(userEmail);
+        if (months.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-            // Get expense transactions for breakdown
-            List<Transaction> expenseTransactions = monthlyTransactions.stream()
-                .filter(Transaction::isAffectsProfit)
-                .filter(t -> t.getAmount().compareTo(BigDecimal.ZERO) < 0)
-                .filter(t -> t.getDetail() != com.jaoow.helmetstore.model.balance.TransactionDetail.COST_OF_GOODS_SOLD)
-                .collect(Collectors.toList());
+        YearMonth latestMonth = months.getLast().getYearMonth();
+        List<MonthlyProfitDTO> result = new ArrayList<>(months.size());
 
-            // PERFORMANCE: Update cumulative balances incrementally
-            for (Transaction t : monthlyTransactions) {
-                if (t.getWalletDestination() == AccountType.BANK) {
-                    cumulativeBankBalance = cumulativeBankBalance.add(t.getAmount());
-                } else if (t.getWalletDestination() == AccountType.CASH) {
-                    cumulativeCashBalance = cumulativeCashBalance.add(t.getAmount());
-                }
-            }
+        for (MonthlyLedgerBreakdown metrics : months) {
+            YearMonth yearMonth = metrics.getYearMonth();
 
             MonthlyProfitDTO monthlyData = MonthlyProfitDTO.builder()
                 .month(yearMonth)
-                .bankAccountBalance(cumulativeBankBalance)
-                .cashAccountBalance(cumulativeCashBalance)
-                .totalBalance(cumulativeBankBalance.add(cumulativeCashBalance))
-                .monthlyProfit(monthlyGrossProfit)
-                .monthlyNetProfit(monthlyNetProfit)
-                .monthlyExpenseTransactions(monthlyExpenseTransactions)
-                .expenseTransactions(convertToTransactionInfo(expenseTransactions))
+                .bankAccountBalance(metrics.getBankBalance())
+                .cashAccountBalance(metrics.getCashBalance())
+                .totalBalance(metrics.getBankBalance().add(metrics.getCashBalance()))
+                .monthlyProfit(metrics.getGrossProfit())
+                .monthlyNetProfit(metrics.getNetProfit())
+                .salesRevenue(metrics.getSalesRevenue())
+                .monthlyExpenseTransactions(metrics.getOperationalExpenses())
+                // Lazy: details only for the month the UI opens first
+                .expenseTransactions(yearMonth.equals(latestMonth) ? loadExpenseTransactions(userEmail, yearMonth) : null)
                 .build();
 
             result.add(monthlyData);
@@ -121,10 +82,23 @@ public class GetMonthlyProfitBreakdownUseCase {
         return result;
     }
 
+    private List<TransactionInfo> loadExpenseTransactions(String userEmail, YearMonth yearMonth) {
+        LocalDateTime startOfMonth = yearMonth.atDay(1).atStartOfDay();
+        LocalDateTime startOfNextMonth = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
+
+        List<Transaction> expenseTransactions = transactionRepository
+            .findProfitAffectingTransactionsByDateRange(userEmail, startOfMonth, startOfNextMonth)
+            .stream()
+            .filter(t -> t.getAmount().compareTo(BigDecimal.ZERO) < 0)
+            .collect(Collectors.toList());
+
+        return convertToTransactionInfo(expenseTransactions);
+    }
+
     private List<TransactionInfo> convertToTransactionInfo(List<Transaction> transactions) {
         return transactions.stream()
-                .filter(t -> t.getDetail() != com.jaoow.helmetstore.model.balance.TransactionDetail.COST_OF_GOODS_SOLD) // Hide COGS from UI
-                .map(transaction -> modelMapper.map(transaction, TransactionInfo.class))
+                .filter(t -> t.getDetail() != TransactionDetail.COST_OF_GOODS_SOLD) // Hide COGS from UI
+                .map(transactionMapper::toInfo)
                 .collect(Collectors.toList());
     }
 }
@@ -1,15 +1,14 @@
 package com.jaoow.helmetstore.usecase.profit;
 
+import com.jaoow.helmetstore.dto.balance.MonthlyLedgerMetrics;
 import com.jaoow.helmetstore.dto.balance.MonthlyProfitDTO;
 import com.jaoow.helmetstore.dto.balance.TransactionInfo;
-import com.jaoow.helmetstore.helper.InventoryHelper;
-import com.jaoow.helmetstore.model.balance.AccountType;
+import com.jaoow.helmetstore.mapper.TransactionMapper;
 import com.jaoow.helmetstore.model.balance.Transaction;
+import com.jaoow.helmetstore.repository.LedgerMonthlyRollupRepository;
 import com.jaoow.helmetstore.repository.TransactionRepository;
-import com.jaoow.helmetstore.helper.ProfitCalculationHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
@@ -30,8 +29,8 @@ import java.util.stream.Collectors;
  * - Cache results for performance
  * 
  * PERFORMANCE OPTIMIZATION:
- * - Uses SQL aggregations instead of loading all transactions
- * - Calculates cumulative balances using repository methods
+ * - Metrics and cumulative balances come from a single windowed aggregation
+ *   over the monthly ledger rollup instead of six separate aggregations
  */
 @Component
 @RequiredArgsConstructor
@@ -39,11 +38,10 @@ import java.util.stream.Collectors;
 public class GetMonthlyProfitUseCase {
 
     private final TransactionRepository transactionRepository;
-    private final InventoryHelper inventoryHelper;
-    private final ModelMapper modelMapper;
-    private final ProfitCalculationHelper profitCalculationHelper;
+    private final LedgerMonthlyRollupRepository ledgerMonthlyRollupRepository;
+    private final TransactionMapper transactionMapper;
 
-    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.MONTHLY_PROFIT, key = "#principal.name + '-' + #yearMonth")
+    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.MONTHLY_PROFIT, key = "T(com.jaoow.helmetstore.cache.FinancialCacheKey).month(#principal.name, #yearMonth)", sync = true)
     public MonthlyProfitDTO execute(Principal principal, YearMonth yearMonth) {
         String userEmail = principal.getName();
         
@@ -52,28 +50,18 @@ public class GetMonthlyProfitUseCase {
         LocalDateTime startOfMonth = yearMonth.atDay(1).atStartOfDay();
         LocalDateTime startOfNextMonth = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
 
-        var inventory = inventoryHelper.getInventoryFromPrincipal(principal);
-
         // ============================================================================
-        // PERFORMANCE: Use SQL aggregations instead of loading entities
+        // PERFORMANCE: One windowed aggregation over the monthly rollup returns the
+        // month's metrics and the cumulative balances (SUM() OVER (ORDER BY month))
         // ============================================================================
-        BigDecimal monthlyNetProfit = transactionRepository.calculateNetProfitByDateRange(
-                userEmail, startOfMonth, startOfNextMonth);
-        BigDecimal monthlyGrossProfit = profitCalculationHelper.calculateGrossProfitByDateRange(
-                inventory, startOfMonth, startOfNextMonth);
-        // FIXED: Use repository aggregation for expenses calculation (more efficient)
-        // Note: This calculates the same value as monthlyNetProfit but kept for clarity in DTO
-        BigDecimal monthlyExpenseTransactions = transactionRepository.calculateNetProfitByDateRange(
-                userEmail, startOfMonth, startOfNextMonth);
-        BigDecimal salesRevenue = transactionRepository.calculateSalesRevenueByDateRange(
-                userEmail, startOfMonth, startOfNextMonth);
+        MonthlyLedgerMetrics metrics = ledgerMonthlyRollupRepository.findMonthlyMetrics(
+                userEmail, yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1));
 
-        // Calculate cumulative balances up to end of this month using SQL aggregation
-        LocalDateTime endOfMonth = yearMonth.atEndOfMonth().atTime(23, 59, 59);
-        BigDecimal cumulativeBankBalance = transactionRepository.calculateWalletBalanceUpToDate(
-                userEmail, AccountType.BANK, endOfMonth);
-        BigDecimal cumulativeCashBalance = transactionRepository.calculateWalletBalanceUpToDate(
-                userEmail, AccountType.CASH, endOfMonth);
+        BigDecimal monthlyNetProfit = metrics.getNetProfit();
+        // Note: This is the same value as monthlyNetProfit but kept for clarity in DTO
+        BigDecimal monthlyExpenseTransactions = metrics.getNetProfit();
+        BigDecimal cumulativeBankBalance = metrics.getBankBalance();
+        BigDecimal cumulativeCashBalance = metrics.getCashBalance();
 
         // Get expense transactions for detailed breakdown (only if needed)
         List<Transaction> expenseTransactions = transactionRepository
@@ -88,9 +76,9 @@ public class GetMonthlyProfitUseCase {
             .bankAccountBalance(cumulativeBankBalance)
             .cashAccountBalance(cumulativeCashBalance)
             .totalBalance(cumulativeBankBalance.add(cumulativeCashBalance))
-            .monthlyProfit(monthlyGrossProfit)
+            .monthlyProfit(metrics.getGrossProfit())
             .monthlyNetProfit(monthlyNetProfit)
-            .salesRevenue(salesRevenue)
+            .salesRevenue(metrics.getSalesRevenue())
             .monthlyExpenseTransactions(monthlyExpenseTransactions)
             .expenseTransactions(convertToTransactionInfo(expenseTransactions))
             .build();
@@ -99,7 +87,7 @@ public class GetMonthlyProfitUseCase {
     private List<TransactionInfo> convertToTransactionInfo(List<Transaction> transactions) {
         return transactions.stream()
                 .filter(t -> t.getDetail() != com.jaoow.helmetstore.model.balance.TransactionDetail.COST_OF_GOODS_SOLD) // Hide COGS from UI
-                .map(transaction -> modelMapper.map(transaction, TransactionInfo.class))
+                .map(transactionMapper::toInfo)
                 .collect(Collectors.toList());
     }
 }
@@ -1,8 +1,9 @@
 package com.jaoow.helmetstore.usecase.profit;
 
 import com.jaoow.helmetstore.dto.balance.ProfitSummaryDTO;
-import com.jaoow.helmetstore.helper.InventoryHelper;
+import com.jaoow.helmetstore.exception.ResourceNotFoundException;
 import com.jaoow.helmetstore.model.balance.AccountType;
+import com.jaoow.helmetstore.repository.InventoryRepository;
 import com.jaoow.helmetstore.service.AccountService;
 import com.jaoow.helmetstore.helper.ProfitCalculationHelper;
 import lombok.RequiredArgsConstructor;
@@ -21,7 +22,8 @@ import java.security.Principal;
  * - Calculate gross profit (revenue - COGS)
  * - Calculate net profit (revenue - COGS - expenses)
  * - Calculate total operational expenses
- * - Cache results for performance
+ * - Cache results for performance (concurrent misses share one calculation and
+ *   stale entries are refreshed in the background, see CacheConfig)
  * 
  * Note: Monthly breakdown is loaded separately via GetMonthlyProfitBreakdownUseCase
  * to avoid expensive calculations when only summary is needed.
@@ -32,13 +34,19 @@ import java.security.Principal;
 public class GetProfitSummaryUseCase {
 
     private final AccountService accountService;
-    private final InventoryHelper inventoryHelper;
+    private final InventoryRepository inventoryRepository;
     private final ProfitCalculationHelper profitCalculationHelper;
 
-    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.PROFIT_SUMMARY, key = "#principal.name")
+    @Cacheable(value = com.jaoow.helmetstore.cache.CacheNames.PROFIT_SUMMARY, key = "T(com.jaoow.helmetstore.cache.FinancialCacheKey).summary(#principal.name)", sync = true)
     public ProfitSummaryDTO execute(Principal principal) {
-        String userEmail = principal.getName();
+        return calculate(principal.getName());
+    }
 
+    /**
+     * Uncached calculation, also used by the cache to refresh stale entries in the
+     * background (no request scope there, so the inventory is looked up directly).
+     */
+    public ProfitSummaryDTO calculate(String userEmail) {
         log.debug("Executing GetProfitSummaryUseCase for user: {}", userEmail);
 
         // PERFORMANCE: Use SQL aggregations instead of loading entities
@@ -46,7 +54,8 @@ public class GetProfitSummaryUseCase {
         BigDecimal cashBalance = accountService.calculateAccountBalanceByType(userEmail, AccountType.CASH);
         BigDecimal totalBalance = bankBalance.add(cashBalance);
 
-        var inventory = inventoryHelper.getInventoryFromPrincipal(principal);
+        var inventory = inventoryRepository.findByUserEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for user: " + userEmail));
 
         // PERFORMANCE: Use unified profit calculation with SQL aggregations
         BigDecimal totalNetProfit = profitCalculationHelper.calculateTotalNetProfit(userEmail);
@@ -9,13 +9,15 @@ import com.jaoow.helmetstore.helper.InventoryHelper;
 import com.jaoow.helmetstore.model.Sale;
 import com.jaoow.helmetstore.model.balance.*;
 import com.jaoow.helmetstore.model.inventory.Inventory;
-import com.jaoow.helmetstore.model.inventory.InventoryItem;
 import com.jaoow.helmetstore.model.sale.SaleItem;
 import com.jaoow.helmetstore.model.sale.SaleStatus;
-import com.jaoow.helmetstore.repository.AccountRepository;
-import com.jaoow.helmetstore.repository.InventoryItemRepository;
 import com.jaoow.helmetstore.repository.SaleRepository;
 import com.jaoow.helmetstore.repository.TransactionRepository;
+import com.jaoow.helmetstore.retry.RetryOnConflict;
+import com.jaoow.helmetstore.service.AccountResolver;
+import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.InventoryStockService;
+import com.jaoow.helmetstore.service.LedgerRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
@@ -25,7 +27,10 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.security.Principal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Use Case: Cancel a sale (total or partial)
@@ -51,20 +56,25 @@ import java.util.List;
 public class CancelSaleUseCase {
 
     private final SaleRepository saleRepository;
-    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryStockService inventoryStockService;
     private final TransactionRepository transactionRepository;
-    private final AccountRepository accountRepository;
+    private final AccountResolver accountResolver;
     private final InventoryHelper inventoryHelper;
+    private final LedgerRollupService ledgerRollupService;
+    private final CacheInvalidationService cacheInvalidationService;
 
     @Caching(evict = {
             @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, allEntries = true),
             @CacheEvict(value = CacheNames.MOST_SOLD_PRODUCTS, allEntries = true),
             @CacheEvict(value = CacheNames.PRODUCT_STOCK, allEntries = true),
-            @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, allEntries = true),
-            @CacheEvict(value = CacheNames.SALES_HISTORY, allEntries = true)
+            @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, allEntries = true)
     })
+    @RetryOnConflict
     @Transactional
     public SaleCancellationResponseDTO execute(Long saleId, SaleCancellationRequestDTO request, Principal principal) {
+        // Only this store's history pages, evicted once the transaction commits
+        cacheInvalidationService.invalidateSalesHistory(principal.getName());
+
         // 1. Load and validate sale
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
         Sale sale = saleRepository.findById(saleId)
@@ -230,21 +240,22 @@ public class CancelSaleUseCase {
 
     private void reverseTotalInventory(Sale sale, Inventory inventory) {
         // Only reverse inventory - item cancellation status is updated separately in updateSaleStatus
-        for (SaleItem item : sale.getItems()) {
-            if (!item.getIsCancelled()) {
-                reverseInventoryForItem(item, item.getQuantity(), inventory);
-            }
-        }
+        List<SaleItem> activeItems = sale.getItems().stream()
+                .filter(item -> !item.getIsCancelled())
+                .toList();
+        inventoryStockService.restock(inventory, InventoryStockService.sumByVariant(
+                activeItems, item -> item.getProductVariant().getId(), SaleItem::getQuantity));
     }
 
     private void reversePartialInventory(Sale sale, List<SaleCancellationRequestDTO.ItemCancellationDTO> itemsToCancel, Inventory inventory) {
+        Map<Long, Integer> returnedByVariant = new HashMap<>();
         for (var cancellation : itemsToCancel) {
             SaleItem item = sale.getItems().stream()
                     .filter(si -> si.getId().equals(cancellation.getItemId()))
                     .findFirst()
                     .orElseThrow(() -> new BusinessException("Item não encontrado: " + cancellation.getItemId()));
 
-            reverseInventoryForItem(item, cancellation.getQuantityToCancel(), inventory);
+            returnedByVariant.merge(item.getProductVariant().getId(), cancellation.getQuantityToCancel(), Integer::sum);
 
             // Update item cancellation tracking
             int currentCancelled = item.getCancelledQuantity() != null ? item.getCancelledQuantity() : 0;
@@ -254,16 +265,9 @@ public class CancelSaleUseCase {
                 item.setIsCancelled(true);
             }
         }
-    }
-
-    private void reverseInventoryForItem(SaleItem item, Integer quantity, Inventory inventory) {
-        InventoryItem inventoryItem = inventoryItemRepository
-                .findByInventoryAndProductVariant(inventory, item.getProductVariant())
-                .orElseThrow(() -> new BusinessException("Item de inventário não encontrado para a variante: " + item.getProductVariant().getId()));
 
-        // Return stock
-        inventoryItem.setQuantity(inventoryItem.getQuantity() + quantity);
-        inventoryItemRepository.save(inventoryItem);
+        // Return stock for all cancelled lines at once
+        inventoryStockService.restock(inventory, returnedByVariant);
     }
 
     private void updateSaleStatus(Sale sale, SaleCancellationRequestDTO request, Principal principal) {
@@ -345,14 +349,11 @@ public class CancelSaleUseCase {
     }
 
     private Long generateRefundTransaction(Sale sale, SaleCancellationRequestDTO request, Principal principal) {
-        // Check if refund already exists to prevent duplicates
-        String refundReference = "SALE_REFUND#" + sale.getId();
-
-        // Check by reference to avoid duplicates (works for both old and new sales)
-        if (transactionRepository.existsByReference(refundReference)) {
-            return transactionRepository.findByReference(refundReference)
-                    .map(Transaction::getId)
-                    .orElse(null);
+        // Check if refund already exists to prevent duplicates (works for both old and new sales)
+        Optional<Transaction> existingRefund = transactionRepository
+                .findFirstByReferenceTypeAndReferenceId(LedgerReferenceType.SALE_REFUND, sale.getId());
+        if (existingRefund.isPresent()) {
+            return existingRefund.get().getId();
         }
 
         // Find account for refund payment method
@@ -360,8 +361,7 @@ public class CancelSaleUseCase {
                 ? AccountType.CASH
                 : AccountType.BANK;
 
-        Account account = accountRepository.findByUserEmailAndType(principal.getName(), accountType)
-                .orElseThrow(() -> new BusinessException("Conta não encontrada para o método de pagamento: " + request.getRefundPaymentMethod()));
+        Account account = accountResolver.resolve(principal.getName(), accountType);
 
         // Determine wallet destination
         AccountType walletDest = (request.getRefundPaymentMethod() == PaymentMethod.CASH)
@@ -377,7 +377,7 @@ public class CancelSaleUseCase {
                 .description("Estorno de venda #" + sale.getId() + " - " + request.getReason().getDescription())
                 .amount(request.getRefundAmount().negate()) // Negative value (expense)
                 .paymentMethod(request.getRefundPaymentMethod())
-                .reference(refundReference)
+                .ledgerReference(LedgerReferenceType.SALE_REFUND, sale.getId())
                 .referenceSubId(null) // Not used for refunds to avoid conflicts with payment transactions
                 .account(account)
                 // DOUBLE-ENTRY LEDGER FLAGS
@@ -387,6 +387,7 @@ public class CancelSaleUseCase {
                 .build();
 
         Transaction savedTransaction = transactionRepository.save(refundTransaction);
+        ledgerRollupService.recordInsert(savedTransaction);
         return savedTransaction.getId();
     }
 
@@ -405,15 +406,12 @@ public class CancelSaleUseCase {
      * @param principal The authenticated user
      */
     private void reverseCOGSTransactions(Sale sale, SaleCancellationRequestDTO request, Principal principal) {
-        Account systemAccount = accountRepository.findByUserEmailAndType(principal.getName(), AccountType.CASH)
-                .orElseThrow(() -> new BusinessException("Conta não encontrada"));
+        Account systemAccount = accountResolver.resolve(principal.getName(), AccountType.CASH);
 
         BigDecimal totalCOGSReversal = BigDecimal.ZERO;
-        String referencePrefix = "SALE_CANCEL_COGS#";
 
         // Check if COGS reversal already exists to prevent duplicates
-        String cogsReference = referencePrefix + sale.getId();
-        if (transactionRepository.existsByReference(cogsReference)) {
+        if (transactionRepository.existsByReferenceTypeAndReferenceId(LedgerReferenceType.SALE_CANCEL_COGS, sale.getId())) {
             return; // Already reversed
         }
 
@@ -452,7 +450,7 @@ public class CancelSaleUseCase {
                             " venda #" + sale.getId())
                     .amount(totalCOGSReversal) // Positive value (reverses the expense)
                     .paymentMethod(PaymentMethod.CASH) // Placeholder (COGS doesn't involve cash movement)
-                    .reference(cogsReference)
+                    .ledgerReference(LedgerReferenceType.SALE_CANCEL_COGS, sale.getId())
                     .referenceSubId(null)
                     .account(systemAccount)
                     // DOUBLE-ENTRY LEDGER FLAGS (inherited from TransactionDetail.COGS_REVERSAL)
@@ -462,6 +460,7 @@ public class CancelSaleUseCase {
                     .build();
 
             transactionRepository.save(cogsReversalTx);
+            ledgerRollupService.recordInsert(cogsReversalTx);
         }
     }
 
@@ -0,0 +1,254 @@
+package com.jaoow.helmetstore.usecase.sale;
+
+import com.jaoow.helmetstore.cache.CacheNames;
+import com.jaoow.helmetstore.dto.sale.SaleBatchResponseDTO;
+import com.jaoow.helmetstore.dto.sale.SaleBatchResultDTO;
+import com.jaoow.helmetstore.dto.sale.SaleCreateDTO;
+import com.jaoow.helmetstore.dto.sale.SaleItemCreateDTO;
+import com.jaoow.helmetstore.exception.BusinessException;
+import com.jaoow.helmetstore.exception.InsufficientStockException;
+import com.jaoow.helmetstore.exception.ResourceNotFoundException;
+import com.jaoow.helmetstore.helper.InventoryHelper;
+import com.jaoow.helmetstore.model.Sale;
+import com.jaoow.helmetstore.model.inventory.Inventory;
+import com.jaoow.helmetstore.model.inventory.InventoryItem;
+import com.jaoow.helmetstore.repository.SaleRepository;
+import com.jaoow.helmetstore.retry.RetryOnConflict;
+import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.InventoryStockService;
+import com.jaoow.helmetstore.service.TransactionService;
+import com.jaoow.helmetstore.service.VariantSalesStatsService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Use Case: Ingest a batch of sales (offline POS synchronization)
+ *
+ * Responsibilities:
+ * - Skip sales already ingested under the same client-side id (idempotent replay)
+ * - Validate every sale against one stock snapshot of the whole batch
+ * - Report a result per sale, rejecting invalid sales without failing the batch
+ * - Take stock, persist sales and record ledger transactions for the accepted sales
+ * - Invalidate related caches once per batch
+ *
+ * PERFORMANCE OPTIMIZATION:
+ * - Variants and inventory items of all sales are loaded with two IN queries
+ *   ({@link SaleContext}) and already ingested ids with one more
+ * - Stock is taken with one conditional statement for the whole batch
+ * - Sales, items, payments and ledger rows use pooled sequences, so they are
+ *   inserted as JDBC batches; the ledger is written and the financial caches
+ *   invalidated once for all sales
+ *
+ * The snapshot is taken inside the transaction. If a concurrent sale takes the stock
+ * between the snapshot and the update, the conditional update fails and the whole
+ * batch is rolled back; replaying it is safe thanks to the client-side ids.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CreateSaleBatchUseCase {
+
+    static final int MAX_BATCH_SIZE = 500;
+
+    private final SaleRepository saleRepository;
+    private final SaleContextLoader saleContextLoader;
+    private final SaleAssembler saleAssembler;
+    private final InventoryStockService inventoryStockService;
+    private final TransactionService transactionService;
+    private final VariantSalesStatsService variantSalesStatsService;
+    private final InventoryHelper inventoryHelper;
+    private final Validator validator;
+    private final CacheInvalidationService cacheInvalidationService;
+
+    @Caching(evict = {
+            @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name"),
+            @CacheEvict(value = CacheNames.MOST_SOLD_PRODUCTS, key = "#principal.name"),
+            @CacheEvict(value = CacheNames.PRODUCT_STOCK, key = "#principal.name"),
+            @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, key = "#principal.name")
+    })
+    @RetryOnConflict
+    @Transactional
+    public SaleBatchResponseDTO execute(List<SaleCreateDTO> dtos, Principal principal) {
+        // Only this store's history pages, evicted once the transaction commits
+        cacheInvalidationService.invalidateSalesHistory(principal.getName());
+
+        validateBatchSize(dtos);
+
+        Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
+        SaleBatchResultDTO[] results = new SaleBatchResultDTO[dtos.size()];
+
+        // Sales already ingested in a previous (replayed) batch: one query
+        Map<String, Long> ingestedSaleIds = findIngestedSaleIds(inventory, dtos);
+
+        // One snapshot for the whole batch: variants, inventory items and their stock
+        SaleContext context = saleContextLoader.load(inventory, dtos.stream()
+                .filter(Objects::nonNull)
+                .filter(dto -> dto.getItems() != null)
+                .flatMap(dto -> dto.getItems().stream())
+                .filter(Objects::nonNull)
+                .map(SaleItemCreateDTO::getVariantId)
+                .filter(Objects::nonNull)
+                .toList());
+        // Units held by stock reservations can not be sold (see InventoryStockService#decrement)
+        Map<Long, Integer> availableStock = context.getInventoryItemsByVariantId().values().stream()
+                .collect(Collectors.toMap(item -> item.getProductVariant().getId(), InventoryItem::getAvailableQuantity));
+
+        Map<Long, Integer> takenStock = new HashMap<>();
+        Map<Integer, Sale> acceptedSales = new LinkedHashMap<>();
+        Map<String, Sale> acceptedByClientSaleId = new HashMap<>();
+        Map<Integer, String> duplicatesInBatch = new HashMap<>();
+
+        for (int index = 0; index < dtos.size(); index++) {
+            SaleCreateDTO dto = dtos.get(index);
+            String clientSaleId = dto != null ? dto.getClientSaleId() : null;
+
+            if (clientSaleId != null && ingestedSaleIds.containsKey(clientSaleId)) {
+                results[index] = result(index, clientSaleId, SaleBatchResultDTO.Status.DUPLICATE,
+                        ingestedSaleIds.get(clientSaleId), null);
+                continue;
+            }
+            if (clientSaleId != null && acceptedByClientSaleId.containsKey(clientSaleId)) {
+                // Sent twice in the same batch: the id is known once the first one is saved
+                duplicatesInBatch.put(index, clientSaleId);
+                continue;
+            }
+
+            try {
+                validateSale(dto);
+                Sale sale = saleAssembler.assemble(dto, context);
+                reserveStock(availableStock, InventoryStockService.sumByVariant(
+                        dto.getItems(), SaleItemCreateDTO::getVariantId, SaleItemCreateDTO::getQuantity));
+                sale.setClientSaleId(clientSaleId);
+
+                acceptedSales.put(index, sale);
+                if (clientSaleId != null) {
+                    acceptedByClientSaleId.put(clientSaleId, sale);
+                }
+                dto.getItems().forEach(item ->
+                        takenStock.merge(item.getVariantId(), item.getQuantity(), Integer::sum));
+            } catch (IllegalArgumentException | InsufficientStockException
+                     | ResourceNotFoundException | BusinessException e) {
+                results[index] = result(index, clientSaleId, SaleBatchResultDTO.Status.FAILED, null, e.getMessage());
+            }
+        }
+
+        List<Sale> sales = new ArrayList<>(acceptedSales.values());
+        if (!sales.isEmpty()) {
+            // Take stock for all accepted sales at once (atomic)
+            inventoryStockService.decrement(inventory, takenStock);
+
+            saleRepository.saveAll(sales);
+            variantSalesStatsService.recordSales(sales);
+            transactionService.recordTransactionsFromSales(sales, principal);
+        }
+
+        acceptedSales.forEach((index, sale) -> results[index] = result(index, sale.getClientSaleId(),
+                SaleBatchResultDTO.Status.CREATED, sale.getId(), null));
+        duplicatesInBatch.forEach((index, clientSaleId) -> results[index] = result(index, clientSaleId,
+                SaleBatchResultDTO.Status.DUPLICATE, acceptedByClientSaleId.get(clientSaleId).getId(), null));
+
+        log.info("Sale batch of {} ingested for {}: {} created", dtos.size(), principal.getName(), sales.size());
+        return buildResponse(Arrays.asList(results));
+    }
+
+    private void validateBatchSize(List<SaleCreateDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new IllegalArgumentException("O lote deve conter pelo menos uma venda.");
+        }
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    String.format("O lote pode conter no máximo %d vendas.", MAX_BATCH_SIZE));
+        }
+    }
+
+    private Map<String, Long> findIngestedSaleIds(Inventory inventory, List<SaleCreateDTO> dtos) {
+        Set<String> clientSaleIds = dtos.stream()
+                .filter(Objects::nonNull)
+                .map(SaleCreateDTO::getClientSaleId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (clientSaleIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return saleRepository.findIdsByInventoryAndClientSaleIds(inventory, clientSaleIds).stream()
+                .collect(Collectors.toMap(row -> (String) row[0], row -> ((Number) row[1]).longValue()));
+    }
+
+    /**
+     * Bean validation of one sale (the request body is a list, validated sale by sale
+     * so that an invalid sale does not reject the whole batch).
+     */
+    private void validateSale(SaleCreateDTO dto) {
+        if (dto == null) {
+            throw new IllegalArgumentException("Venda vazia.");
+        }
+
+        Set<ConstraintViolation<SaleCreateDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        // ⚠️ Only ExchangeProductUseCase may create derived sales (they record no transactions)
+        if (Boolean.TRUE.equals(dto.getIsDerivedFromExchange())) {
+            throw new BusinessException("Vendas derivadas de troca não podem ser enviadas em lote.");
+        }
+    }
+
+    /**
+     * Check the sale against the stock left in the snapshot by the previous sales of the
+     * batch, then take it from the snapshot.
+     */
+    private void reserveStock(Map<Long, Integer> availableStock, Map<Long, Integer> required) {
+        required.forEach((variantId, quantity) -> {
+            int available = availableStock.getOrDefault(variantId, 0);
+            if (available < quantity) {
+                throw new InsufficientStockException(variantId, available, quantity);
+            }
+        });
+        required.forEach((variantId, quantity) -> availableStock.merge(variantId, -quantity, Integer::sum));
+    }
+
+    private SaleBatchResultDTO result(int index, String clientSaleId, SaleBatchResultDTO.Status status,
+            Long saleId, String error) {
+        return SaleBatchResultDTO.builder()
+                .index(index)
+                .clientSaleId(clientSaleId)
+                .status(status)
+                .saleId(saleId)
+                .error(error)
+                .build();
+    }
+
+    private SaleBatchResponseDTO buildResponse(List<SaleBatchResultDTO> results) {
+        Map<SaleBatchResultDTO.Status, Long> countByStatus = results.stream()
+                .collect(Collectors.groupingBy(SaleBatchResultDTO::getStatus, Collectors.counting()));
+
+        return SaleBatchResponseDTO.builder()
+                .created(countByStatus.getOrDefault(SaleBatchResultDTO.Status.CREATED, 0L).intValue())
+                .duplicates(countByStatus.getOrDefault(SaleBatchResultDTO.Status.DUPLICATE, 0L).intValue())
+                .failed(countByStatus.getOrDefault(SaleBatchResultDTO.Status.FAILED, 0L).intValue())
+                .results(results)
+                .build();
+    }
+}
@@ -2,45 +2,47 @@ package com.jaoow.helmetstore.usecase.sale;
 
 import com.jaoow.helmetstore.cache.CacheNames;
 import com.jaoow.helmetstore.dto.sale.SaleCreateDTO;
+import com.jaoow.helmetstore.dto.sale.SaleItemCreateDTO;
 import com.jaoow.helmetstore.dto.sale.SaleResponseDTO;
-import com.jaoow.helmetstore.exception.InsufficientStockException;
 import com.jaoow.helmetstore.helper.InventoryHelper;
-import com.jaoow.helmetstore.helper.SaleCalculationHelper;
-import com.jaoow.helmetstore.model.ProductVariant;
+import com.jaoow.helmetstore.mapper.SaleMapper;
 import com.jaoow.helmetstore.model.Sale;
 import com.jaoow.helmetstore.model.inventory.Inventory;
-import com.jaoow.helmetstore.model.inventory.InventoryItem;
-import com.jaoow.helmetstore.model.sale.SaleItem;
-import com.jaoow.helmetstore.model.sale.SalePayment;
-import com.jaoow.helmetstore.repository.InventoryItemRepository;
-import com.jaoow.helmetstore.repository.ProductVariantRepository;
+import com.jaoow.helmetstore.model.reservation.StockReservation;
+import com.jaoow.helmetstore.model.reservation.StockReservationItem;
 import com.jaoow.helmetstore.repository.SaleRepository;
+import com.jaoow.helmetstore.retry.RetryOnConflict;
+import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.InventoryStockService;
+import com.jaoow.helmetstore.service.StockReservationService;
 import com.jaoow.helmetstore.service.TransactionService;
+import com.jaoow.helmetstore.service.VariantSalesStatsService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.security.Principal;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * Use Case: Create a new sale
  *
  * Responsibilities:
- * - Validate stock availability for all items
  * - Calculate sale totals (amount and profit)
+ * - Take inventory stock for all items (atomic, fails on insufficient stock)
+ * - Convert the catalog stock reservation the sale concludes, if any
  * - Validate payments sum matches sale total
- * - Update inventory stock
  * - Create sale record with items and payments
  * - Record financial transactions
+ * - Update the variant sales stats read model
  * - Invalidate related caches
+ *
+ * PERFORMANCE OPTIMIZATION:
+ * - Variants (with their product) and inventory items of all lines are preloaded
+ *   in a {@link SaleContext} with two IN queries, and stock is taken with one
+ *   statement: the query count no longer grows with the number of lines
  * 
  * ═══════════════════════════════════════════════════════════════════════════
  * ⚠️ RULE OF GOLD:
@@ -56,84 +58,69 @@ import java.util.stream.Collectors;
 public class CreateSaleUseCase {
 
     private final SaleRepository saleRepository;
-    private final ProductVariantRepository productVariantRepository;
-    private final InventoryItemRepository inventoryItemRepository;
+    private final SaleContextLoader saleContextLoader;
+    private final InventoryStockService inventoryStockService;
     private final TransactionService transactionService;
     private final InventoryHelper inventoryHelper;
-    private final SaleCalculationHelper saleCalculationHelper;
-    private final ModelMapper modelMapper;
+    private final SaleAssembler saleAssembler;
+    private final SaleMapper saleMapper;
+    private final StockReservationService stockReservationService;
+    private final VariantSalesStatsService variantSalesStatsService;
+    private final CacheInvalidationService cacheInvalidationService;
 
     @Caching(evict = {
             @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name"),
             @CacheEvict(value = CacheNames.MOST_SOLD_PRODUCTS, key = "#principal.name"),
             @CacheEvict(value = CacheNames.PRODUCT_STOCK, key = "#principal.name"),
-            @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, key = "#principal.name"),
-            @CacheEvict(value = CacheNames.SALES_HISTORY, allEntries = true)
+            @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, key = "#principal.name")
     })
+    @RetryOnConflict
     @Transactional
     public SaleResponseDTO execute(SaleCreateDTO dto, Principal principal) {
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
+        List<Long> variantIds = dto.getItems().stream()
+                .map(SaleItemCreateDTO::getVariantId)
+                .toList();
 
-        // Initialize collections
-        List<SaleItem> saleItems = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        BigDecimal totalProfit = BigDecimal.ZERO;
-
-        // Create sale entity
-        Sale sale = Sale.builder()
-                .date(dto.getDate())
-                .inventory(inventory)
-                .items(saleItems)
-                .build();
-
-        // Process each item
-        for (var itemDTO : dto.getItems()) {
-            // Validate and get entities
-            ProductVariant variant = getProductVariantOrThrow(itemDTO.getVariantId());
-            InventoryItem inventoryItem = getInventoryItemOrThrow(inventory, variant);
-            validateStock(inventoryItem, itemDTO.getQuantity());
-
-            // Create sale item
-            SaleItem saleItem = SaleItem.builder()
-                    .sale(sale)
-                    .productVariant(variant)
-                    .quantity(itemDTO.getQuantity())
-                    .unitPrice(itemDTO.getUnitPrice())
-                    .build();
-
-            // Calculate profit and pricing
-            saleCalculationHelper.populateSaleItemCalculations(saleItem, inventoryItem);
-            saleItems.add(saleItem);
+        if (dto.getReservationId() == null) {
+            return execute(dto, principal, saleContextLoader.load(inventory, variantIds));
+        }
 
-            // Update stock
-            updateInventoryStock(inventoryItem, -itemDTO.getQuantity());
+        // Sale of a catalog reservation: its held units are released and taken by this sale
+        StockReservation reservation = stockReservationService.convert(dto.getReservationId(), inventory);
+        SaleContext context = saleContextLoader.load(inventory, variantIds, reservation.getItems().stream()
+                .map(StockReservationItem::getProductVariant)
+                .toList());
+        SaleResponseDTO response = execute(dto, principal, context);
+        reservation.setSaleId(response.getId());
+        return response;
+    }
 
-            // Accumulate totals
-            totalAmount = totalAmount.add(saleItem.getTotalItemPrice());
-            totalProfit = totalProfit.add(saleItem.getTotalItemProfit());
-        }
+    /**
+     * Create the sale reading variants and inventory items from an already loaded
+     * {@link SaleContext} (e.g. the one of an exchange's new items).
+     */
+    @Caching(evict = {
+            @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name"),
+            @CacheEvict(value = CacheNames.MOST_SOLD_PRODUCTS, key = "#principal.name"),
+            @CacheEvict(value = CacheNames.PRODUCT_STOCK, key = "#principal.name"),
+            @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, key = "#principal.name")
+    })
+    @Transactional
+    public SaleResponseDTO execute(SaleCreateDTO dto, Principal principal, SaleContext context) {
+        // Only this store's history pages, evicted once the transaction commits
+        cacheInvalidationService.invalidateSalesHistory(principal.getName());
 
-        // Set sale totals
-        sale.setTotalAmount(totalAmount);
-        
-        // ⚠️ CRITICAL: Derived sales from exchanges must have ZERO profit
-        // Profit comes ONLY from the difference transaction, not from the sale itself
-        // This prevents profit duplication in financial reports
-        if (Boolean.TRUE.equals(dto.getIsDerivedFromExchange())) {
-            sale.setTotalProfit(BigDecimal.ZERO);
-        } else {
-            sale.setTotalProfit(totalProfit);
-        }
-        
-        sale.setIsDerivedFromExchange(dto.getIsDerivedFromExchange());
+        // Build items, totals and payments from the preloaded variants and inventory items
+        Sale sale = saleAssembler.assemble(dto, context);
 
-        // Validate and create payments
-        validatePayments(dto, totalAmount);
-        List<SalePayment> payments = createPayments(dto, sale);
-        sale.setPayments(payments);
+        // Take stock for all items at once (atomic: fails if any line lacks stock)
+        inventoryStockService.decrement(context.getInventory(), InventoryStockService.sumByVariant(
+                dto.getItems(), SaleItemCreateDTO::getVariantId, SaleItemCreateDTO::getQuantity));
 
         // Save and record transaction
         Sale savedSale = saleRepository.save(sale);
+        variantSalesStatsService.recordSale(savedSale);
 
         // ⚠️ CRITICAL: Only record financial transactions if NOT derived from exchange
         //
@@ -148,52 +135,7 @@ public class CreateSaleUseCase {
         return convertToDTO(savedSale);
     }
 
-    private ProductVariant getProductVariantOrThrow(Long variantId) {
-        return productVariantRepository.findById(variantId)
-                .orElseThrow(() -> new com.jaoow.helmetstore.exception.ProductNotFoundException(variantId));
-    }
-
-    private InventoryItem getInventoryItemOrThrow(Inventory inventory, ProductVariant variant) {
-        return inventoryItemRepository.findByInventoryAndProductVariant(inventory, variant)
-                .orElseThrow(() -> new com.jaoow.helmetstore.exception.ResourceNotFoundException(
-                        "Inventory item not found for variant ID: " + variant.getId()));
-    }
-
-    private void validateStock(InventoryItem item, int requiredQuantity) {
-        if (item.getQuantity() < requiredQuantity) {
-            throw new InsufficientStockException(
-                    item.getProductVariant().getId(),
-                    item.getQuantity(),
-                    requiredQuantity);
-        }
-    }
-
-    private void updateInventoryStock(InventoryItem inventoryItem, int quantityChange) {
-        inventoryItem.setQuantity(inventoryItem.getQuantity() + quantityChange);
-        inventoryItemRepository.save(inventoryItem);
-    }
-
-    private void validatePayments(SaleCreateDTO dto, BigDecimal totalAmount) {
-        if (!saleCalculationHelper.validatePaymentsSum(totalAmount, dto.getPayments())) {
-            BigDecimal paymentsSum = saleCalculationHelper.calculatePaymentsSum(dto.getPayments());
-            throw new IllegalArgumentException(
-                    String.format("A soma dos pagamentos (%s) deve ser igual ao total da venda (%s).",
-                            paymentsSum, totalAmount));
-        }
-    }
-
-    private List<SalePayment> createPayments(SaleCreateDTO dto, Sale sale) {
-        return dto.getPayments().stream()
-                .filter(Objects::nonNull)
-                .map(p -> SalePayment.builder()
-                        .sale(sale)
-                        .paymentMethod(p.getPaymentMethod())
-                        .amount(p.getAmount())
-                        .build())
-                .collect(Collectors.toList());
-    }
-
     private SaleResponseDTO convertToDTO(Sale sale) {
-        return modelMapper.map(sale, SaleResponseDTO.class);
+        return saleMapper.toResponse(sale);
     }
 }
@@ -5,11 +5,13 @@ import com.jaoow.helmetstore.exception.ResourceNotFoundException;
 import com.jaoow.helmetstore.helper.InventoryHelper;
 import com.jaoow.helmetstore.model.Sale;
 import com.jaoow.helmetstore.model.inventory.Inventory;
-import com.jaoow.helmetstore.model.inventory.InventoryItem;
 import com.jaoow.helmetstore.model.sale.SaleItem;
-import com.jaoow.helmetstore.repository.InventoryItemRepository;
 import com.jaoow.helmetstore.repository.SaleRepository;
+import com.jaoow.helmetstore.retry.RetryOnConflict;
+import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.InventoryStockService;
 import com.jaoow.helmetstore.service.TransactionService;
+import com.jaoow.helmetstore.service.VariantSalesStatsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
@@ -26,6 +28,7 @@ import java.security.Principal;
  * - Restore stock for all items
  * - Remove associated transactions
  * - Delete sale record
+ * - Revert its items from the variant sales stats
  * - Invalidate related caches
  */
 @Component
@@ -33,19 +36,24 @@ import java.security.Principal;
 public class DeleteSaleUseCase {
 
     private final SaleRepository saleRepository;
-    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryStockService inventoryStockService;
     private final TransactionService transactionService;
     private final InventoryHelper inventoryHelper;
+    private final VariantSalesStatsService variantSalesStatsService;
+    private final CacheInvalidationService cacheInvalidationService;
 
     @Caching(evict = {
             @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name"),
             @CacheEvict(value = CacheNames.MOST_SOLD_PRODUCTS, key = "#principal.name"),
             @CacheEvict(value = CacheNames.PRODUCT_STOCK, key = "#principal.name"),
-            @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, key = "#principal.name"),
-            @CacheEvict(value = CacheNames.SALES_HISTORY, allEntries = true)
+            @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, key = "#principal.name")
     })
+    @RetryOnConflict
     @Transactional
     public void execute(Long saleId, Principal principal) {
+        // Only this store's history pages, evicted once the transaction commits
+        cacheInvalidationService.invalidateSalesHistory(principal.getName());
+
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
         Sale sale = findSaleOrThrow(saleId, inventory);
 
@@ -56,7 +64,9 @@ public class DeleteSaleUseCase {
         transactionService.removeTransactionLinkedToSale(sale);
 
         // Delete sale
+        VariantSalesStatsService.SaleEntry removed = VariantSalesStatsService.SaleEntry.of(sale);
         saleRepository.delete(sale);
+        variantSalesStatsService.recordDelete(removed);
     }
 
     private Sale findSaleOrThrow(Long saleId, Inventory inventory) {
@@ -69,15 +79,7 @@ public class DeleteSaleUseCase {
             return;
         }
 
-        for (SaleItem saleItem : sale.getItems()) {
-            InventoryItem inventoryItem = inventoryItemRepository
-                    .findByInventoryAndProductVariant(inventory, saleItem.getProductVariant())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Inventory item not found for product variant: " + saleItem.getProductVariant()));
-
-            // Restore stock
-            inventoryItem.setQuantity(inventoryItem.getQuantity() + saleItem.getQuantity());
-            inventoryItemRepository.save(inventoryItem);
-        }
+        inventoryStockService.restock(inventory, InventoryStockService.sumByVariant(
+                sale.getItems(), item -> item.getProductVariant().getId(), SaleItem::getQuantity));
     }
 }
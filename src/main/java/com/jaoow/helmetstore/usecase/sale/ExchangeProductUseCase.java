@@ -19,13 +19,12 @@ import com.jaoow.helmetstore.model.inventory.InventoryItem;
 import com.jaoow.helmetstore.model.sale.CancellationReason;
 import com.jaoow.helmetstore.model.sale.SaleItem;
 import com.jaoow.helmetstore.model.sale.SaleStatus;
-import com.jaoow.helmetstore.repository.AccountRepository;
-import com.jaoow.helmetstore.repository.InventoryItemRepository;
-import com.jaoow.helmetstore.repository.InventoryRepository;
 import com.jaoow.helmetstore.repository.ProductExchangeRepository;
-import com.jaoow.helmetstore.repository.ProductVariantRepository;
 import com.jaoow.helmetstore.repository.SaleRepository;
-import com.jaoow.helmetstore.repository.TransactionRepository;
+import com.jaoow.helmetstore.retry.RetryOnConflict;
+import com.jaoow.helmetstore.service.AccountResolver;
+import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.LedgerWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
@@ -75,21 +74,23 @@ public class ExchangeProductUseCase {
     private final CancelSaleUseCase cancelSaleUseCase;
     private final CreateSaleUseCase createSaleUseCase;
     private final InventoryHelper inventoryHelper;
-    private final TransactionRepository transactionRepository;
-    private final AccountRepository accountRepository;
-    private final InventoryRepository inventoryRepository;
-    private final InventoryItemRepository inventoryItemRepository;
-    private final ProductVariantRepository productVariantRepository;
+    private final AccountResolver accountResolver;
+    private final SaleContextLoader saleContextLoader;
+    private final LedgerWriter ledgerWriter;
+    private final CacheInvalidationService cacheInvalidationService;
 
         @Caching(evict = {
                 @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, allEntries = true),
                 @CacheEvict(value = CacheNames.MOST_SOLD_PRODUCTS, allEntries = true),
                 @CacheEvict(value = CacheNames.PRODUCT_STOCK, allEntries = true),
-                @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, allEntries = true),
-                @CacheEvict(value = CacheNames.SALES_HISTORY, allEntries = true)
+                @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, allEntries = true)
         })
+    @RetryOnConflict
     @Transactional
     public ProductExchangeResponseDTO execute(ProductExchangeRequestDTO request, Principal principal) {
+        // Only this store's history pages, evicted once the transaction commits
+        cacheInvalidationService.invalidateSalesHistory(principal.getName());
+
         LocalDateTime exchangeDate = LocalDateTime.now();
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
 
@@ -112,7 +113,12 @@ public class ExchangeProductUseCase {
         validateExchangePayments(request, amountDifference);
         validateRefundPaymentMethod(request, amountDifference);
 
-        validateNewItemsStockAvailability(request.getNewItems(), inventory);
+        // Variants and inventory items of the new items, loaded once for the whole exchange
+        SaleContext newItemsContext = saleContextLoader.load(inventory, request.getNewItems().stream()
+                .map(ProductExchangeRequestDTO.NewItemDTO::getVariantId)
+                .toList());
+
+        validateNewItemsStockAvailability(request.getNewItems(), newItemsContext);
 
         SaleCancellationRequestDTO cancellationRequest = buildCancellationRequest(
                 request,
@@ -127,24 +133,39 @@ public class ExchangeProductUseCase {
                 principal
         );
 
-        reverseCOGSForReturnedItems(request, originalSale, principal);
+        // COGS reversal, COGS of the new items and the financial adjustment are
+        // built in memory and written with one batch
+        List<Transaction> ledgerRows = new ArrayList<>();
+
+        Transaction cogsReversal = buildCOGSReversalForReturnedItems(request, originalSale, principal);
+        if (cogsReversal != null) {
+            ledgerRows.add(cogsReversal);
+        }
 
-        createCOGSForNewItems(request, originalSale, principal);
+        Transaction newItemsCOGS = buildCOGSForNewItems(request, originalSale, newItemsContext, principal);
+        if (newItemsCOGS != null) {
+            ledgerRows.add(newItemsCOGS);
+        }
 
-        Long financialAdjustmentTransactionId = null;
+        Transaction financialAdjustment = null;
 
         if (amountDifference.compareTo(BigDecimal.ZERO) != 0) {
-            financialAdjustmentTransactionId = createFinancialAdjustmentTransaction(
+            financialAdjustment = buildFinancialAdjustmentTransaction(
                     amountDifference,
                     request,
                     originalSale,
                     exchangeDate,
                     principal
             );
+            ledgerRows.add(financialAdjustment);
         }
 
+        ledgerWriter.insertAll(ledgerRows);
+
+        Long financialAdjustmentTransactionId = financialAdjustment != null ? financialAdjustment.getId() : null;
+
         SaleCreateDTO newSaleDTO = buildNewSaleDTO(request, exchangeDate, returnedAmount, amountDifference);
-        var newSaleResponse = createSaleUseCase.execute(newSaleDTO, principal);
+        var newSaleResponse = createSaleUseCase.execute(newSaleDTO, principal, newItemsContext);
 
         // Load the created sale entity
         Sale newSale = saleRepository.findById(newSaleResponse.getId())
@@ -243,23 +264,22 @@ public class ExchangeProductUseCase {
 
     private void validateNewItemsStockAvailability(
             List<ProductExchangeRequestDTO.NewItemDTO> newItems,
-            Inventory inventory
+            SaleContext context
     ) {
         for (ProductExchangeRequestDTO.NewItemDTO item : newItems) {
-            ProductVariant variant = productVariantRepository.findById(item.getVariantId())
+            ProductVariant variant = context.findVariant(item.getVariantId())
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "Variante de produto não encontrada: " + item.getVariantId()));
 
-            InventoryItem inventoryItem = inventoryItemRepository
-                    .findByInventoryAndProductVariant(inventory, variant)
+            InventoryItem inventoryItem = context.findInventoryItem(item.getVariantId())
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "Produto não encontrado no inventário: " + variant.getSku()));
 
-            if (inventoryItem.getQuantity() < item.getQuantity()) {
+            if (inventoryItem.getAvailableQuantity() < item.getQuantity()) {
                 throw new BusinessException(String.format(
                         "Estoque insuficiente para o produto %s. Disponível: %d, Solicitado: %d",
                         variant.getSku(),
-                        inventoryItem.getQuantity(),
+                        inventoryItem.getAvailableQuantity(),
                         item.getQuantity()
                 ));
             }
@@ -376,13 +396,12 @@ public class ExchangeProductUseCase {
                 .build();
     }
 
-    private void reverseCOGSForReturnedItems(
+    private Transaction buildCOGSReversalForReturnedItems(
             ProductExchangeRequestDTO request,
             Sale originalSale,
             Principal principal
     ) {
-        Account systemAccount = accountRepository.findByUserEmailAndType(principal.getName(), AccountType.CASH)
-                .orElseThrow(() -> new BusinessException("Conta não encontrada"));
+        Account systemAccount = accountResolver.resolve(principal.getName(), AccountType.CASH);
 
         BigDecimal totalCOGSReversal = BigDecimal.ZERO;
 
@@ -397,70 +416,64 @@ public class ExchangeProductUseCase {
             totalCOGSReversal = totalCOGSReversal.add(itemCost);
         }
 
-        if (totalCOGSReversal.compareTo(BigDecimal.ZERO) > 0) {
-            Transaction cogsReversalTx = Transaction.builder()
-                    .date(LocalDateTime.now())
-                    .type(TransactionType.INCOME)
-                    .detail(TransactionDetail.COGS_REVERSAL)
-                    .description(String.format("Reversão COGS - Troca venda #%d", originalSale.getId()))
-                    .amount(totalCOGSReversal) // Positive value (reverses the expense)
-                    .paymentMethod(PaymentMethod.CASH)
-                    .reference("EXCHANGE_COGS#" + originalSale.getId())
-                    .referenceSubId(null)
-                    .account(systemAccount)
-                    .affectsProfit(true)  // Reversal increases profit back
-                    .affectsCash(false)   // No cash impact (accounting only)
-                    .walletDestination(null)
-                    .build();
-
-            transactionRepository.save(cogsReversalTx);
+        if (totalCOGSReversal.compareTo(BigDecimal.ZERO) <= 0) {
+            return null;
         }
+
+        return Transaction.builder()
+                .date(LocalDateTime.now())
+                .type(TransactionType.INCOME)
+                .detail(TransactionDetail.COGS_REVERSAL)
+                .description(String.format("Reversão COGS - Troca venda #%d", originalSale.getId()))
+                .amount(totalCOGSReversal) // Positive value (reverses the expense)
+                .paymentMethod(PaymentMethod.CASH)
+                .ledgerReference(LedgerReferenceType.EXCHANGE_COGS, originalSale.getId())
+                .referenceSubId(null)
+                .account(systemAccount)
+                .affectsProfit(true)  // Reversal increases profit back
+                .affectsCash(false)   // No cash impact (accounting only)
+                .walletDestination(null)
+                .build();
     }
 
-    private void createCOGSForNewItems(
+    private Transaction buildCOGSForNewItems(
             ProductExchangeRequestDTO request,
             Sale originalSale,
+            SaleContext newItemsContext,
             Principal principal
     ) {
-        Account systemAccount = accountRepository.findByUserEmailAndType(principal.getName(), AccountType.CASH)
-                .orElseThrow(() -> new BusinessException("Conta não encontrada"));
-
-        Inventory inventory = inventoryRepository.findByUserEmail(principal.getName())
-                .orElseThrow(() -> new BusinessException("Inventário não encontrado"));
+        Account systemAccount = accountResolver.resolve(principal.getName(), AccountType.CASH);
 
         BigDecimal totalCOGS = BigDecimal.ZERO;
 
         for (var newItem : request.getNewItems()) {
-            ProductVariant variant = productVariantRepository.findById(newItem.getVariantId())
-                    .orElseThrow(() -> new BusinessException("Variante não encontrada: " + newItem.getVariantId()));
-
-            InventoryItem inventoryItem = inventoryItemRepository
-                    .findByInventoryAndProductVariant(inventory, variant)
+            // Average cost from the preloaded inventory items
+            BigDecimal averageCost = newItemsContext.findInventoryItem(newItem.getVariantId())
+                    .map(InventoryItem::getAverageCost)
                     .orElseThrow(() -> new BusinessException("Item de inventário não encontrado"));
 
-            BigDecimal itemCost = inventoryItem.getAverageCost()
-                    .multiply(BigDecimal.valueOf(newItem.getQuantity()));
+            BigDecimal itemCost = averageCost.multiply(BigDecimal.valueOf(newItem.getQuantity()));
             totalCOGS = totalCOGS.add(itemCost);
         }
 
-        if (totalCOGS.compareTo(BigDecimal.ZERO) > 0) {
-            Transaction cogsTx = Transaction.builder()
-                    .date(LocalDateTime.now())
-                    .type(TransactionType.EXPENSE)
-                    .detail(TransactionDetail.COST_OF_GOODS_SOLD)
-                    .description(String.format("COGS novos produtos - Troca venda #%d", originalSale.getId()))
-                    .amount(totalCOGS.negate()) // Negative value (expense)
-                    .paymentMethod(PaymentMethod.CASH)
-                    .reference("EXCHANGE_COGS_NEW#" + originalSale.getId())
-                    .referenceSubId(null)
-                    .account(systemAccount)
-                    .affectsProfit(true)  // YES: COGS reduces profit
-                    .affectsCash(false)   // No cash impact (accounting only)
-                    .walletDestination(null)
-                    .build();
-
-            transactionRepository.save(cogsTx);
+        if (totalCOGS.compareTo(BigDecimal.ZERO) <= 0) {
+            return null;
         }
+
+        return Transaction.builder()
+                .date(LocalDateTime.now())
+                .type(TransactionType.EXPENSE)
+                .detail(TransactionDetail.COST_OF_GOODS_SOLD)
+                .description(String.format("COGS novos produtos - Troca venda #%d", originalSale.getId()))
+                .amount(totalCOGS.negate()) // Negative value (expense)
+                .paymentMethod(PaymentMethod.CASH)
+                .ledgerReference(LedgerReferenceType.EXCHANGE_COGS_NEW, originalSale.getId())
+                .referenceSubId(null)
+                .account(systemAccount)
+                .affectsProfit(true)  // YES: COGS reduces profit
+                .affectsCash(false)   // No cash impact (accounting only)
+                .walletDestination(null)
+                .build();
     }
 
     /**
@@ -476,9 +489,9 @@ public class ExchangeProductUseCase {
      * @param originalSale The original sale
      * @param exchangeDate The exchange date
      * @param principal The authenticated user
-     * @return The ID of the created transaction, or null if no difference
+     * @return The adjustment transaction, persisted by the caller with the other ledger rows
      */
-    private Long createFinancialAdjustmentTransaction(
+    private Transaction buildFinancialAdjustmentTransaction(
             BigDecimal amountDifference,
             ProductExchangeRequestDTO request,
             Sale originalSale,
@@ -490,8 +503,7 @@ public class ExchangeProductUseCase {
                 ? AccountType.CASH
                 : AccountType.BANK;
 
-        Account userAccount = accountRepository.findByUserEmailAndType(principal.getName(), walletType)
-                .orElseThrow(() -> new BusinessException("Conta não encontrada"));
+        Account userAccount = accountResolver.resolve(principal.getName(), walletType);
 
         Transaction transaction;
 
@@ -511,7 +523,7 @@ public class ExchangeProductUseCase {
                     .paymentMethod(request.getNewSalePayments() != null && !request.getNewSalePayments().isEmpty()
                             ? request.getNewSalePayments().get(0).getPaymentMethod()
                             : PaymentMethod.CASH)
-                    .reference("EXCHANGE_CHARGE#" + originalSale.getId())
+                    .ledgerReference(LedgerReferenceType.EXCHANGE_CHARGE, originalSale.getId())
                     .referenceSubId(null)
                     .account(userAccount)
                     .affectsProfit(true)       // YES: This creates profit
@@ -536,7 +548,7 @@ public class ExchangeProductUseCase {
                     .type(TransactionType.EXPENSE)
                     .detail(TransactionDetail.SALE_REFUND)
                     .paymentMethod(request.getRefundPaymentMethod())
-                    .reference("EXCHANGE_REFUND#" + originalSale.getId())
+                    .ledgerReference(LedgerReferenceType.EXCHANGE_REFUND, originalSale.getId())
                     .referenceSubId(null)
                     .account(userAccount)
                     .affectsProfit(true)       // YES: This reduces profit
@@ -545,8 +557,7 @@ public class ExchangeProductUseCase {
                     .build();
         }
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        return savedTransaction.getId();
+        return transaction;
     }
 
     private ProductExchangeResponseDTO buildResponse(ProductExchange exchange) {
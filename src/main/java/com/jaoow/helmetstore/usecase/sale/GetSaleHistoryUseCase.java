@@ -4,100 +4,167 @@ import com.jaoow.helmetstore.cache.CacheNames;
 import com.jaoow.helmetstore.dto.reference.SimpleProductDTO;
 import com.jaoow.helmetstore.dto.reference.SimpleProductVariantDTO;
 import com.jaoow.helmetstore.dto.sale.SaleHistoryResponse;
+import com.jaoow.helmetstore.dto.sale.SaleItemDTO;
+import com.jaoow.helmetstore.dto.sale.SalePaymentDTO;
 import com.jaoow.helmetstore.dto.sale.SaleResponseDTO;
+import com.jaoow.helmetstore.dto.summary.SaleHistoryItemRow;
+import com.jaoow.helmetstore.dto.summary.SaleHistoryPaymentRow;
+import com.jaoow.helmetstore.dto.summary.SaleHistoryRow;
 import com.jaoow.helmetstore.helper.InventoryHelper;
-import com.jaoow.helmetstore.model.ProductVariant;
-import com.jaoow.helmetstore.model.Sale;
 import com.jaoow.helmetstore.model.inventory.Inventory;
 import com.jaoow.helmetstore.repository.SaleRepository;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Use Case: Get sale history with filters
  *
  * Responsibilities:
- * - Fetch sales for given period (year/month or all)
- * - Eagerly load items, variants and products to avoid N+1
- * - Extract unique products and variants for frontend reference
- * - Return optimized DTO structure
+ * - Fetch one page of sales for given period (year/month or all), newest first
+ * - Return items and payments of the page's sales
+ * - Extract unique products and variants of the page for frontend reference
+ * - Return the cursor of the next page
  * - Cache results for performance
+ *
+ * PERFORMANCE OPTIMIZATION:
+ * - Keyset pagination on (date, id): every page costs the same, however many sales the store has
+ * - Read-only projections instead of managed entities (no dirty checking, no ModelMapper)
+ * - Three queries per page: sales, items with variant and product, payments
+ * - Pages are cached per user ({@link com.jaoow.helmetstore.cache.SaleHistoryCacheKey}): a sale
+ *   write evicts only the pages of its store
  */
 @Component
 @RequiredArgsConstructor
 public class GetSaleHistoryUseCase {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Bounds of the unfiltered history
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final SaleRepository saleRepository;
     private final InventoryHelper inventoryHelper;
-    private final ModelMapper modelMapper;
 
     @Cacheable(value = CacheNames.SALES_HISTORY,
-            key = "#principal.name + '-' + (#year != null ? #year : 'all') + '-' + (#month != null ? #month : 'all')")
+            key = "T(com.jaoow.helmetstore.cache.SaleHistoryCacheKey).of(#principal.name, #year, #month, #cursor, #limit)")
     @Transactional(readOnly = true)
-    public SaleHistoryResponse execute(Integer year, Integer month, Principal principal) {
+    public SaleHistoryResponse execute(Integer year, Integer month, String cursor, int limit, Principal principal) {
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
 
-        // Fetch sales based on filters
-        List<Sale> sales = fetchSales(inventory, year, month);
-
-        // Convert to DTOs
-        List<SaleResponseDTO> saleDTOs = sales.stream()
-                .map(sale -> modelMapper.map(sale, SaleResponseDTO.class))
-                .collect(Collectors.toList());
-
-        // Extract unique variants and products for frontend reference
-        Set<ProductVariant> variantSet = new HashSet<>();
-        Set<com.jaoow.helmetstore.model.Product> productSet = new HashSet<>();
-
-        sales.forEach(sale -> {
-            if (sale.getItems() != null && !sale.getItems().isEmpty()) {
-                sale.getItems().forEach(item -> {
-                    ProductVariant variant = item.getProductVariant();
-                    variantSet.add(variant);
-                    productSet.add(variant.getProduct());
-                });
-            }
-        });
-
-        List<SimpleProductVariantDTO> productVariants = variantSet.stream()
-                .map(variant -> modelMapper.map(variant, SimpleProductVariantDTO.class))
-                .collect(Collectors.toList());
-
-        List<SimpleProductDTO> products = productSet.stream()
-                .map(product -> modelMapper.map(product, SimpleProductDTO.class))
-                .collect(Collectors.toList());
-
-        return new SaleHistoryResponse(saleDTOs, products, productVariants);
-    }
+        LocalDateTime startDate = MIN_DATE;
+        LocalDateTime endDate = MAX_DATE;
+        if (year != null && month != null) {
+            startDate = LocalDateTime.of(year, month, 1, 0, 0, 0);
+            endDate = startDate.plusMonths(1);
+        }
 
-    private List<Sale> fetchSales(Inventory inventory, Integer year, Integer month) {
-        List<Sale> sales;
+        // First page starts right below the end of the period
+        SaleHistoryCursor after = cursor != null
+                ? SaleHistoryCursor.decode(cursor)
+                : new SaleHistoryCursor(endDate, Long.MAX_VALUE);
 
-        if (year != null && month != null) {
-            // Fetch sales for specific month
-            LocalDateTime startDate = LocalDateTime.of(year, month, 1, 0, 0, 0);
-            LocalDateTime endDate = startDate.plusMonths(1);
-            sales = saleRepository.findByInventoryAndDateRange(inventory, startDate, endDate);
-        } else {
-            // Fetch all sales
-            sales = saleRepository.findAllByInventoryWithProductVariantsAndProducts(inventory);
+        // One extra row tells whether there is a next page
+        List<SaleHistoryRow> rows = saleRepository.findHistoryPage(inventory, startDate, endDate,
+                after.getDate(), after.getId(), Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<SaleHistoryRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        if (page.isEmpty()) {
+            return new SaleHistoryResponse(List.of(), List.of(), List.of(), null);
+        }
+
+        Map<Long, SaleResponseDTO> salesById = new LinkedHashMap<>();
+        page.forEach(row -> salesById.put(row.getId(), toSaleDTO(row)));
+
+        // Items, variants and products of the whole page, deduplicated by id
+        Map<Long, SimpleProductVariantDTO> variantsById = new HashMap<>();
+        Map<Long, SimpleProductDTO> productsById = new HashMap<>();
+        for (SaleHistoryItemRow item : saleRepository.findHistoryItemsBySaleIds(salesById.keySet())) {
+            salesById.get(item.getSaleId()).getItems().add(toItemDTO(item));
+            variantsById.computeIfAbsent(item.getVariantId(), id -> toVariantDTO(item));
+            productsById.computeIfAbsent(item.getProductId(), id -> toProductDTO(item));
         }
 
-        // Fetch payments in batch to avoid N+1 (cannot use single query due to MultipleBagFetchException)
-        if (!sales.isEmpty()) {
-            saleRepository.loadPaymentsForSales(sales);
+        for (SaleHistoryPaymentRow payment : saleRepository.findHistoryPaymentsBySaleIds(salesById.keySet())) {
+            salesById.get(payment.getSaleId()).getPayments().add(SalePaymentDTO.builder()
+                    .paymentMethod(payment.getPaymentMethod())
+                    .amount(payment.getAmount())
+                    .build());
         }
 
-        return sales;
+        SaleHistoryRow last = page.get(page.size() - 1);
+        String nextCursor = hasMore ? new SaleHistoryCursor(last.getDate(), last.getId()).encode() : null;
+
+        return new SaleHistoryResponse(
+                new ArrayList<>(salesById.values()),
+                new ArrayList<>(productsById.values()),
+                new ArrayList<>(variantsById.values()),
+                nextCursor);
+    }
+
+    private SaleResponseDTO toSaleDTO(SaleHistoryRow row) {
+        return SaleResponseDTO.builder()
+                .id(row.getId())
+                .date(row.getDate())
+                .items(new ArrayList<>())
+                .payments(new ArrayList<>())
+                .totalAmount(row.getTotalAmount())
+                .totalProfit(row.getTotalProfit())
+                .status(row.getStatus())
+                .cancelledAt(row.getCancelledAt())
+                .cancelledBy(row.getCancelledBy())
+                .cancellationReason(row.getCancellationReason())
+                .cancellationNotes(row.getCancellationNotes())
+                .hasRefund(row.getHasRefund())
+                .refundAmount(row.getRefundAmount())
+                .refundPaymentMethod(row.getRefundPaymentMethod())
+                .build();
+    }
+
+    private SaleItemDTO toItemDTO(SaleHistoryItemRow item) {
+        return SaleItemDTO.builder()
+                .id(item.getId())
+                .productVariantId(item.getVariantId())
+                .quantity(item.getQuantity())
+                .unitPrice(item.getUnitPrice())
+                .unitProfit(item.getUnitProfit())
+                .totalItemPrice(item.getTotalItemPrice())
+                .totalItemProfit(item.getTotalItemProfit())
+                .isCancelled(item.getIsCancelled())
+                .cancelledQuantity(item.getCancelledQuantity())
+                .build();
+    }
+
+    private SimpleProductVariantDTO toVariantDTO(SaleHistoryItemRow item) {
+        SimpleProductVariantDTO variant = new SimpleProductVariantDTO();
+        variant.setId(item.getVariantId());
+        variant.setSize(item.getSize());
+        variant.setSku(item.getSku());
+        variant.setProductId(item.getProductId());
+        return variant;
+    }
+
+    private SimpleProductDTO toProductDTO(SaleHistoryItemRow item) {
+        SimpleProductDTO product = new SimpleProductDTO();
+        product.setId(item.getProductId());
+        product.setModel(item.getModel());
+        product.setColor(item.getColor());
+        product.setImgUrl(item.getImgUrl());
+        product.setCategoryName(item.getCategoryName());
+        return product;
     }
 }
@@ -0,0 +1,116 @@
+package com.jaoow.helmetstore.usecase.sale;
+
+import com.jaoow.helmetstore.dto.sale.SaleItemCreateDTO;
+import com.jaoow.helmetstore.dto.sale.SaleQuoteItemDTO;
+import com.jaoow.helmetstore.dto.sale.SaleQuoteRequestDTO;
+import com.jaoow.helmetstore.dto.sale.SaleQuoteResponseDTO;
+import com.jaoow.helmetstore.helper.SaleCalculationHelper;
+import com.jaoow.helmetstore.service.InventoryStockService;
+import com.jaoow.helmetstore.service.StockSnapshot;
+import com.jaoow.helmetstore.service.StockSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Use Case: Quote a sale (dry run)
+ *
+ * Responsibilities:
+ * - Calculate item and sale totals and profit, as a sale would
+ * - Check the payments sum against the total
+ * - Check the available stock of every item
+ * - Report every problem instead of failing on the first one
+ *
+ * PERFORMANCE OPTIMIZATION:
+ * - Reads stock and average costs from the inventory's {@link StockSnapshot}: while
+ *   the inventory is not written, a quote runs no query and loads no entity
+ * - No transaction and no write: POS terminals can quote on every cart change
+ *
+ * A quote is a preview: POST /sales still takes the stock atomically.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuoteSaleUseCase {
+
+    private final StockSnapshotService stockSnapshotService;
+    private final SaleCalculationHelper saleCalculationHelper;
+
+    public SaleQuoteResponseDTO execute(SaleQuoteRequestDTO request, Principal principal) {
+        StockSnapshot snapshot = stockSnapshotService.get(principal.getName());
+        List<String> issues = new ArrayList<>();
+
+        // Stock is checked per variant, summing the lines of the same variant
+        Map<Long, Integer> quantitiesByVariant = InventoryStockService.sumByVariant(request.getItems(),
+                SaleItemCreateDTO::getVariantId, SaleItemCreateDTO::getQuantity);
+
+        List<SaleQuoteItemDTO> items = new ArrayList<>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        BigDecimal totalProfit = BigDecimal.ZERO;
+
+        for (SaleItemCreateDTO item : request.getItems()) {
+            Optional<StockSnapshot.Line> line = snapshot.find(item.getVariantId());
+            if (line.isEmpty()) {
+                issues.add("Produto não encontrado no inventário: variante ID " + item.getVariantId());
+                items.add(SaleQuoteItemDTO.builder()
+                        .productVariantId(item.getVariantId())
+                        .quantity(item.getQuantity())
+                        .unitPrice(item.getUnitPrice())
+                        .availableStock(0)
+                        .inStock(false)
+                        .build());
+                continue;
+            }
+
+            StockSnapshot.Line stock = line.get();
+            BigDecimal unitProfit = saleCalculationHelper.calculateUnitProfit(item.getUnitPrice(), stock.getAverageCost());
+            BigDecimal totalItemPrice = saleCalculationHelper.calculateTotalItemPrice(item.getUnitPrice(), item.getQuantity());
+            BigDecimal totalItemProfit = saleCalculationHelper.calculateTotalItemProfit(unitProfit, item.getQuantity());
+            boolean inStock = stock.getAvailableQuantity() >= quantitiesByVariant.get(item.getVariantId());
+
+            items.add(SaleQuoteItemDTO.builder()
+                    .productVariantId(item.getVariantId())
+                    .sku(stock.getSku())
+                    .quantity(item.getQuantity())
+                    .unitPrice(item.getUnitPrice())
+                    .unitProfit(unitProfit)
+                    .totalItemPrice(totalItemPrice)
+                    .totalItemProfit(totalItemProfit)
+                    .availableStock(stock.getAvailableQuantity())
+                    .inStock(inStock)
+                    .build());
+
+            totalAmount = totalAmount.add(totalItemPrice);
+            totalProfit = totalProfit.add(totalItemProfit);
+        }
+
+        quantitiesByVariant.forEach((variantId, quantity) -> snapshot.find(variantId)
+                .filter(stock -> stock.getAvailableQuantity() < quantity)
+                .ifPresent(stock -> issues.add(String.format(
+                        "Estoque insuficiente para o produto %s. Disponível: %d, Solicitado: %d",
+                        stock.getSku(), stock.getAvailableQuantity(), quantity))));
+
+        BigDecimal paymentsSum = saleCalculationHelper.calculatePaymentsSum(request.getPayments());
+        boolean paymentsMatch = saleCalculationHelper.validatePaymentsSum(totalAmount, request.getPayments());
+        if (!paymentsMatch) {
+            issues.add(String.format("A soma dos pagamentos (%s) deve ser igual ao total da venda (%s).",
+                    paymentsSum, totalAmount));
+        }
+
+        return SaleQuoteResponseDTO.builder()
+                .items(items)
+                .totalAmount(totalAmount)
+                .totalProfit(totalProfit)
+                .paymentsSum(paymentsSum)
+                .remainingAmount(totalAmount.subtract(paymentsSum))
+                .paymentsMatch(paymentsMatch)
+                .valid(issues.isEmpty())
+                .issues(issues)
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.jaoow.helmetstore.usecase.sale;
+
+import com.jaoow.helmetstore.dto.sale.SaleCreateDTO;
+import com.jaoow.helmetstore.helper.SaleCalculationHelper;
+import com.jaoow.helmetstore.model.ProductVariant;
+import com.jaoow.helmetstore.model.Sale;
+import com.jaoow.helmetstore.model.inventory.InventoryItem;
+import com.jaoow.helmetstore.model.sale.SaleItem;
+import com.jaoow.helmetstore.model.sale.SalePayment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Builds a new {@link Sale} (items, totals and payments) from its DTO, reading variants
+ * and inventory items from a preloaded {@link SaleContext}.
+ * <p>
+ * Nothing is persisted and stock is not touched: the caller takes the stock and saves
+ * the sale, one at a time ({@link CreateSaleUseCase}) or many at once
+ * ({@link CreateSaleBatchUseCase}).
+ */
+@Component
+@RequiredArgsConstructor
+public class SaleAssembler {
+
+    private final SaleCalculationHelper saleCalculationHelper;
+
+    public Sale assemble(SaleCreateDTO dto, SaleContext context) {
+        // Initialize collections
+        List<SaleItem> saleItems = new ArrayList<>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        BigDecimal totalProfit = BigDecimal.ZERO;
+
+        // Create sale entity
+        Sale sale = Sale.builder()
+                .date(dto.getDate())
+                .inventory(context.getInventory())
+                .items(saleItems)
+                .build();
+
+        // Process each item
+        for (var itemDTO : dto.getItems()) {
+            // Validate and get entities (preloaded)
+            ProductVariant variant = context.getVariantOrThrow(itemDTO.getVariantId());
+            InventoryItem inventoryItem = context.getInventoryItemOrThrow(itemDTO.getVariantId());
+
+            // Create sale item
+            SaleItem saleItem = SaleItem.builder()
+                    .sale(sale)
+                    .productVariant(variant)
+                    .quantity(itemDTO.getQuantity())
+                    .unitPrice(itemDTO.getUnitPrice())
+                    .build();
+
+            // Calculate profit and pricing
+            saleCalculationHelper.populateSaleItemCalculations(saleItem, inventoryItem);
+            saleItems.add(saleItem);
+
+            // Accumulate totals
+            totalAmount = totalAmount.add(saleItem.getTotalItemPrice());
+            totalProfit = totalProfit.add(saleItem.getTotalItemProfit());
+        }
+
+        // Set sale totals
+        sale.setTotalAmount(totalAmount);
+
+        // ⚠️ CRITICAL: Derived sales from exchanges must have ZERO profit
+        // Profit comes ONLY from the difference transaction, not from the sale itself
+        // This prevents profit duplication in financial reports
+        if (Boolean.TRUE.equals(dto.getIsDerivedFromExchange())) {
+            sale.setTotalProfit(BigDecimal.ZERO);
+        } else {
+            sale.setTotalProfit(totalProfit);
+        }
+
+        sale.setIsDerivedFromExchange(dto.getIsDerivedFromExchange());
+
+        // Validate and create payments
+        validatePayments(dto, totalAmount);
+        sale.setPayments(createPayments(dto, sale));
+
+        return sale;
+    }
+
+    private void validatePayments(SaleCreateDTO dto, BigDecimal totalAmount) {
+        if (!saleCalculationHelper.validatePaymentsSum(totalAmount, dto.getPayments())) {
+            BigDecimal paymentsSum = saleCalculationHelper.calculatePaymentsSum(dto.getPayments());
+            throw new IllegalArgumentException(
+                    String.format("A soma dos pagamentos (%s) deve ser igual ao total da venda (%s).",
+                            paymentsSum, totalAmount));
+        }
+    }
+
+    private List<SalePayment> createPayments(SaleCreateDTO dto, Sale sale) {
+        return dto.getPayments().stream()
+                .filter(Objects::nonNull)
+                .map(p -> SalePayment.builder()
+                        .sale(sale)
+                        .paymentMethod(p.getPaymentMethod())
+                        .amount(p.getAmount())
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,48 @@
+package com.jaoow.helmetstore.usecase.sale;
+
+import com.jaoow.helmetstore.exception.ProductNotFoundException;
+import com.jaoow.helmetstore.exception.ResourceNotFoundException;
+import com.jaoow.helmetstore.model.ProductVariant;
+import com.jaoow.helmetstore.model.inventory.Inventory;
+import com.jaoow.helmetstore.model.inventory.InventoryItem;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Entities needed to process the lines of a sale, preloaded by {@link SaleContextLoader}.
+ * <p>
+ * Validation, profit calculation, stock update, ledger and DTO mapping all read the
+ * variants (with their product) and inventory items from here instead of querying
+ * them line by line.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class SaleContext {
+
+    private final Inventory inventory;
+    private final Map<Long, ProductVariant> variantsById;
+    private final Map<Long, InventoryItem> inventoryItemsByVariantId;
+
+    public Optional<ProductVariant> findVariant(Long variantId) {
+        return Optional.ofNullable(variantsById.get(variantId));
+    }
+
+    public Optional<InventoryItem> findInventoryItem(Long variantId) {
+        return Optional.ofNullable(inventoryItemsByVariantId.get(variantId));
+    }
+
+    public ProductVariant getVariantOrThrow(Long variantId) {
+        return findVariant(variantId)
+                .orElseThrow(() -> new ProductNotFoundException(variantId));
+    }
+
+    public InventoryItem getInventoryItemOrThrow(Long variantId) {
+        return findInventoryItem(variantId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Inventory item not found for variant ID: " + variantId));
+    }
+}
@@ -2,23 +2,25 @@ package com.jaoow.helmetstore.usecase.sale;
 
 import com.jaoow.helmetstore.cache.CacheNames;
 import com.jaoow.helmetstore.dto.sale.SaleCreateDTO;
+import com.jaoow.helmetstore.dto.sale.SaleItemCreateDTO;
 import com.jaoow.helmetstore.dto.sale.SaleResponseDTO;
-import com.jaoow.helmetstore.exception.InsufficientStockException;
 import com.jaoow.helmetstore.exception.ResourceNotFoundException;
 import com.jaoow.helmetstore.helper.InventoryHelper;
 import com.jaoow.helmetstore.helper.SaleCalculationHelper;
+import com.jaoow.helmetstore.mapper.SaleMapper;
 import com.jaoow.helmetstore.model.ProductVariant;
 import com.jaoow.helmetstore.model.Sale;
 import com.jaoow.helmetstore.model.inventory.Inventory;
 import com.jaoow.helmetstore.model.inventory.InventoryItem;
 import com.jaoow.helmetstore.model.sale.SaleItem;
 import com.jaoow.helmetstore.model.sale.SalePayment;
-import com.jaoow.helmetstore.repository.InventoryItemRepository;
-import com.jaoow.helmetstore.repository.ProductVariantRepository;
 import com.jaoow.helmetstore.repository.SaleRepository;
+import com.jaoow.helmetstore.retry.RetryOnConflict;
+import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.InventoryStockService;
 import com.jaoow.helmetstore.service.TransactionService;
+import com.jaoow.helmetstore.service.VariantSalesStatsService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Component;
@@ -36,36 +38,47 @@ import java.util.stream.Collectors;
  * 
  * Responsibilities:
  * - Restore stock from old sale items
- * - Validate new items and stock availability
+ * - Validate new items
  * - Recalculate sale totals
- * - Update inventory stock
+ * - Take stock for new items (atomic, fails on insufficient stock)
  * - Update sale record with new items and payments
  * - Update financial transactions
+ * - Update the variant sales stats read model
  * - Invalidate related caches
+ *
+ * PERFORMANCE OPTIMIZATION:
+ * - New lines read variants and inventory items from a {@link SaleContext}
+ *   (two IN queries); stock is returned and taken with one statement each
  */
 @Component
 @RequiredArgsConstructor
 public class UpdateSaleUseCase {
 
     private final SaleRepository saleRepository;
-    private final ProductVariantRepository productVariantRepository;
-    private final InventoryItemRepository inventoryItemRepository;
+    private final SaleContextLoader saleContextLoader;
+    private final InventoryStockService inventoryStockService;
     private final TransactionService transactionService;
+    private final VariantSalesStatsService variantSalesStatsService;
     private final InventoryHelper inventoryHelper;
     private final SaleCalculationHelper saleCalculationHelper;
-    private final ModelMapper modelMapper;
+    private final SaleMapper saleMapper;
+    private final CacheInvalidationService cacheInvalidationService;
 
     @Caching(evict = {
             @CacheEvict(value = CacheNames.PRODUCT_INDICATORS, key = "#principal.name"),
             @CacheEvict(value = CacheNames.MOST_SOLD_PRODUCTS, key = "#principal.name"),
             @CacheEvict(value = CacheNames.PRODUCT_STOCK, key = "#principal.name"),
-            @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, key = "#principal.name"),
-            @CacheEvict(value = CacheNames.SALES_HISTORY, allEntries = true)
+            @CacheEvict(value = CacheNames.REVENUE_AND_PROFIT, key = "#principal.name")
     })
+    @RetryOnConflict
     @Transactional
     public SaleResponseDTO execute(Long saleId, SaleCreateDTO dto, Principal principal) {
+        // Only this store's history pages, evicted once the transaction commits
+        cacheInvalidationService.invalidateSalesHistory(principal.getName());
+
         Inventory inventory = inventoryHelper.getInventoryFromPrincipal(principal);
         Sale sale = findSaleOrThrow(saleId, inventory);
+        VariantSalesStatsService.SaleEntry before = VariantSalesStatsService.SaleEntry.of(sale);
 
         // Step 1: Restore stock from old items
         restoreStockFromOldItems(sale, inventory);
@@ -73,14 +86,16 @@ public class UpdateSaleUseCase {
         // Step 2: Clear old items and prepare for new ones
         clearOldItems(sale);
 
-        // Step 3: Process new items
+        // Step 3: Process new items (variants and inventory items preloaded)
+        SaleContext context = saleContextLoader.load(inventory, dto.getItems().stream()
+                .map(SaleItemCreateDTO::getVariantId)
+                .toList());
         BigDecimal totalAmount = BigDecimal.ZERO;
         BigDecimal totalProfit = BigDecimal.ZERO;
 
         for (var itemDTO : dto.getItems()) {
-            ProductVariant variant = getProductVariantOrThrow(itemDTO.getVariantId());
-            InventoryItem inventoryItem = getInventoryItemOrThrow(inventory, variant);
-            validateStock(inventoryItem, itemDTO.getQuantity());
+            ProductVariant variant = context.getVariantOrThrow(itemDTO.getVariantId());
+            InventoryItem inventoryItem = context.getInventoryItemOrThrow(itemDTO.getVariantId());
 
             // Create new sale item
             SaleItem saleItem = SaleItem.builder()
@@ -94,14 +109,15 @@ public class UpdateSaleUseCase {
             saleCalculationHelper.populateSaleItemCalculations(saleItem, inventoryItem);
             sale.getItems().add(saleItem);
 
-            // Update stock
-            updateInventoryStock(inventoryItem, -itemDTO.getQuantity());
-
             // Accumulate totals
             totalAmount = totalAmount.add(saleItem.getTotalItemPrice());
             totalProfit = totalProfit.add(saleItem.getTotalItemProfit());
         }
 
+        // Take stock for the new items at once (atomic: fails if any line lacks stock)
+        inventoryStockService.decrement(inventory, InventoryStockService.sumByVariant(
+                dto.getItems(), SaleItemCreateDTO::getVariantId, SaleItemCreateDTO::getQuantity));
+
         // Step 4: Update sale data
         sale.setDate(dto.getDate());
         sale.setTotalAmount(totalAmount);
@@ -114,6 +130,7 @@ public class UpdateSaleUseCase {
         // Step 6: Update transactions
         transactionService.removeTransactionLinkedToSale(sale);
         Sale updatedSale = saleRepository.save(sale);
+        variantSalesStatsService.recordUpdate(before, updatedSale);
         transactionService.recordTransactionFromSale(updatedSale, principal);
 
         return convertToDTO(updatedSale);
@@ -126,10 +143,8 @@ public class UpdateSaleUseCase {
 
     private void restoreStockFromOldItems(Sale sale, Inventory inventory) {
         if (sale.getItems() != null) {
-            for (SaleItem oldItem : sale.getItems()) {
-                InventoryItem inventoryItem = getInventoryItemOrThrow(inventory, oldItem.getProductVariant());
-                updateInventoryStock(inventoryItem, oldItem.getQuantity());
-            }
+            inventoryStockService.restock(inventory, InventoryStockService.sumByVariant(
+                    sale.getItems(), item -> item.getProductVariant().getId(), SaleItem::getQuantity));
         }
     }
 
@@ -141,31 +156,6 @@ public class UpdateSaleUseCase {
         }
     }
 
-    private ProductVariant getProductVariantOrThrow(Long variantId) {
-        return productVariantRepository.findById(variantId)
-                .orElseThrow(() -> new com.jaoow.helmetstore.exception.ProductNotFoundException(variantId));
-    }
-
-    private InventoryItem getInventoryItemOrThrow(Inventory inventory, ProductVariant variant) {
-        return inventoryItemRepository.findByInventoryAndProductVariant(inventory, variant)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Inventory item not found for variant ID: " + variant.getId()));
-    }
-
-    private void validateStock(InventoryItem item, int requiredQuantity) {
-        if (item.getQuantity() < requiredQuantity) {
-            throw new InsufficientStockException(
-                    item.getProductVariant().getId(),
-                    item.getQuantity(),
-                    requiredQuantity);
-        }
-    }
-
-    private void updateInventoryStock(InventoryItem inventoryItem, int quantityChange) {
-        inventoryItem.setQuantity(inventoryItem.getQuantity() + quantityChange);
-        inventoryItemRepository.save(inventoryItem);
-    }
-
     private void validatePayments(SaleCreateDTO dto, BigDecimal totalAmount) {
         if (!saleCalculationHelper.validatePaymentsSum(totalAmount, dto.getPayments())) {
             BigDecimal paymentsSum = saleCalculationHelper.calculatePaymentsSum(dto.getPayments());
@@ -193,6 +183,6 @@ public class UpdateSaleUseCase {
     }
 
     private SaleResponseDTO convertToDTO(Sale sale) {
-        return modelMapper.map(sale, SaleResponseDTO.class);
+        return saleMapper.toResponse(sale);
     }
 }
@@ -4,6 +4,7 @@ import com.jaoow.helmetstore.cache.CacheNames;
 import com.jaoow.helmetstore.dto.balance.FinancialSummaryDTO;
 import com.jaoow.helmetstore.model.balance.Transaction;
 import com.jaoow.helmetstore.repository.TransactionRepository;
+import com.jaoow.helmetstore.helper.MoneyAccumulator;
 import com.jaoow.helmetstore.helper.ProfitCalculationHelper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
@@ -46,8 +47,10 @@ public class CalculateFinancialMetricsUseCase {
      * - Stock Purchases (asset transfer, not an expense)
      * - Owner Investments (capital, not revenue)
      * - Internal Transfers (wallet movement, not profit-affecting)
+     * <p>
+     * Cached by the helper (same PROFIT_CALCULATION entry); caching it here too would
+     * nest two synchronized loads of the same key.
      */
-    @Cacheable(value = CacheNames.PROFIT_CALCULATION, key = "#principal.name")
     public BigDecimal calculateProfit(Principal principal) {
         return profitCalculationHelper.calculateTotalNetProfit(principal.getName());
     }
@@ -66,20 +69,23 @@ public class CalculateFinancialMetricsUseCase {
      * Excludes:
      * - Cost of Goods Sold (accounting entry only, no cash movement)
      */
-    @Cacheable(value = CacheNames.CASH_FLOW_CALCULATION, key = "#principal.name")
+    @Cacheable(value = CacheNames.CASH_FLOW_CALCULATION, key = "T(com.jaoow.helmetstore.cache.FinancialCacheKey).summary(#principal.name)", sync = true)
     public BigDecimal calculateCashFlow(Principal principal) {
         List<Transaction> transactions = transactionRepository.findByAccountUserEmail(principal.getName());
 
-        return transactions.stream()
-                .filter(Transaction::isAffectsCash) // Only cash-affecting transactions
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        MoneyAccumulator cashFlow = new MoneyAccumulator();
+        for (Transaction transaction : transactions) {
+            if (transaction.isAffectsCash()) { // Only cash-affecting transactions
+                cashFlow.add(transaction.getAmount());
+            }
+        }
+        return cashFlow.toBigDecimal();
     }
 
     /**
      * Get financial summary with both profit and cash flow
      */
-    @Cacheable(value = CacheNames.FINANCIAL_SUMMARY, key = "#principal.name")
+    @Cacheable(value = CacheNames.FINANCIAL_SUMMARY, key = "T(com.jaoow.helmetstore.cache.FinancialCacheKey).summary(#principal.name)", sync = true)
     public FinancialSummaryDTO calculateFinancialSummary(Principal principal) {
         BigDecimal profit = calculateProfit(principal);
         BigDecimal cashFlow = calculateCashFlow(principal);
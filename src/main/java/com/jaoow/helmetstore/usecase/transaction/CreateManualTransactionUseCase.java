@@ -6,6 +6,7 @@ import com.jaoow.helmetstore.model.balance.*;
 import com.jaoow.helmetstore.repository.TransactionRepository;
 import com.jaoow.helmetstore.service.AccountService;
 import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.LedgerRollupService;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
@@ -13,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.security.Principal;
+import java.util.List;
 
 /**
  * Use Case: Create a manual transaction
@@ -23,6 +25,7 @@ import java.security.Principal;
  * - Ensure expenses are stored as negative values
  * - Set ledger flags based on transaction type
  * - Save transaction
+ * - Keep the monthly ledger rollup in sync
  * - Invalidate financial caches
  */
 @Component
@@ -33,6 +36,7 @@ public class CreateManualTransactionUseCase {
     private final AccountService accountService;
     private final ModelMapper modelMapper;
     private final CacheInvalidationService cacheInvalidationService;
+    private final LedgerRollupService ledgerRollupService;
 
     @Transactional
     public void execute(TransactionCreateDTO dto, Principal principal) {
@@ -60,8 +64,9 @@ public class CreateManualTransactionUseCase {
         transaction.setWalletDestination(walletDest);
 
         transactionRepository.save(transaction);
+        ledgerRollupService.recordInsert(transaction);
 
         // Invalidate financial caches after creating a transaction
-        cacheInvalidationService.invalidateFinancialCaches();
+        cacheInvalidationService.invalidateForTransactions(principal.getName(), List.of(transaction));
     }
 }
@@ -6,6 +6,7 @@ import com.jaoow.helmetstore.model.balance.*;
 import com.jaoow.helmetstore.repository.TransactionRepository;
 import com.jaoow.helmetstore.service.AccountService;
 import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.LedgerRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.security.Principal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Use Case: Create refund transaction for canceled purchase order item
@@ -23,17 +25,17 @@ import java.time.LocalDateTime;
  * - Create income transaction for refund
  * - Set appropriate ledger flags (affects cash but not profit)
  * - Save refund transaction
+ * - Keep the monthly ledger rollup in sync
  * - Invalidate financial caches
  */
 @Component
 @RequiredArgsConstructor
 public class CreateRefundTransactionUseCase {
 
-    private static final String PURCHASE_ORDER_REFERENCE_PREFIX = "PURCHASE_ORDER#";
-
     private final TransactionRepository transactionRepository;
     private final AccountService accountService;
     private final CacheInvalidationService cacheInvalidationService;
+    private final LedgerRollupService ledgerRollupService;
 
     @Transactional
     public void execute(PurchaseOrder purchaseOrder, BigDecimal refundAmount,
@@ -53,7 +55,7 @@ public class CreateRefundTransactionUseCase {
                 .description("Reembolso cancelamento: " + itemDescription + " - Pedido #" + purchaseOrder.getOrderNumber())
                 .amount(refundAmount)
                 .paymentMethod(purchaseOrder.getPaymentMethod())
-                .reference("REFUND_" + PURCHASE_ORDER_REFERENCE_PREFIX + purchaseOrder.getId())
+                .ledgerReference(LedgerReferenceType.REFUND_PURCHASE_ORDER, purchaseOrder.getId())
                 .account(account)
                 .affectsProfit(false)  // Refund doesn't affect profit
                 .affectsCash(true)     // Refund increases cash/bank balance
@@ -61,8 +63,9 @@ public class CreateRefundTransactionUseCase {
                 .build();
 
         transactionRepository.save(refundTransaction);
+        ledgerRollupService.recordInsert(refundTransaction);
 
         // Invalidate financial caches after creating refund transaction
-        cacheInvalidationService.invalidateFinancialCaches();
+        cacheInvalidationService.invalidateForTransactions(principal.getName(), List.of(refundTransaction));
     }
 }
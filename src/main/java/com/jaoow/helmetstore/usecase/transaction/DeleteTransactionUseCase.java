@@ -4,11 +4,13 @@ import com.jaoow.helmetstore.model.balance.Transaction;
 import com.jaoow.helmetstore.model.balance.TransactionDetail;
 import com.jaoow.helmetstore.repository.TransactionRepository;
 import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.LedgerRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
+import java.util.List;
 
 /**
  * Use Case: Delete a transaction
@@ -17,6 +19,7 @@ import java.security.Principal;
  * - Find and validate transaction exists and belongs to user
  * - Validate transaction is not linked to sales or purchase orders
  * - Delete transaction
+ * - Keep the monthly ledger rollup in sync
  * - Invalidate financial caches
  */
 @Component
@@ -25,6 +28,7 @@ public class DeleteTransactionUseCase {
 
     private final TransactionRepository transactionRepository;
     private final CacheInvalidationService cacheInvalidationService;
+    private final LedgerRollupService ledgerRollupService;
 
     @Transactional
     public void execute(Long transactionId, Principal principal) {
@@ -40,7 +44,8 @@ public class DeleteTransactionUseCase {
         }
 
         transactionRepository.delete(transaction);
+        ledgerRollupService.recordDelete(transaction);
         // Invalidate financial caches after deleting a transaction
-        cacheInvalidationService.invalidateFinancialCaches();
+        cacheInvalidationService.invalidateForTransactions(principal.getName(), List.of(transaction));
     }
 }
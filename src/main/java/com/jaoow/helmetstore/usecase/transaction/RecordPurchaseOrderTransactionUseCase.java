@@ -6,11 +6,13 @@ import com.jaoow.helmetstore.model.balance.*;
 import com.jaoow.helmetstore.repository.TransactionRepository;
 import com.jaoow.helmetstore.service.AccountService;
 import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.LedgerRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
+import java.util.List;
 
 /**
  * Use Case: Record transaction from a purchase order
@@ -21,17 +23,17 @@ import java.security.Principal;
  * - Create expense transaction for inventory purchase
  * - Set appropriate ledger flags (affects cash but not profit)
  * - Save transaction
+ * - Keep the monthly ledger rollup in sync
  * - Invalidate financial caches
  */
 @Component
 @RequiredArgsConstructor
 public class RecordPurchaseOrderTransactionUseCase {
 
-    private static final String PURCHASE_ORDER_REFERENCE_PREFIX = "PURCHASE_ORDER#";
-
     private final TransactionRepository transactionRepository;
     private final AccountService accountService;
     private final CacheInvalidationService cacheInvalidationService;
+    private final LedgerRollupService ledgerRollupService;
 
     @Transactional
     public void execute(PurchaseOrder purchaseOrder, Principal principal) {
@@ -50,7 +52,7 @@ public class RecordPurchaseOrderTransactionUseCase {
                 .description("Pedido de Compra #" + purchaseOrder.getOrderNumber())
                 .amount(purchaseOrder.getTotalAmount().negate())
                 .paymentMethod(purchaseOrder.getPaymentMethod())
-                .reference(PURCHASE_ORDER_REFERENCE_PREFIX + purchaseOrder.getId())
+                .ledgerReference(LedgerReferenceType.PURCHASE_ORDER, purchaseOrder.getId())
                 .account(account)
                 .affectsProfit(false)  // Buying stock doesn't reduce profit
                 .affectsCash(true)     // But it does reduce available cash
@@ -58,8 +60,9 @@ public class RecordPurchaseOrderTransactionUseCase {
                 .build();
 
         transactionRepository.save(transaction);
+        ledgerRollupService.recordInsert(transaction);
 
         // Invalidate financial caches after recording transaction from purchase order
-        cacheInvalidationService.invalidateFinancialCaches();
+        cacheInvalidationService.invalidateForTransactions(principal.getName(), List.of(transaction));
     }
 }
@@ -9,9 +9,10 @@ import com.jaoow.helmetstore.model.inventory.InventoryItem;
 import com.jaoow.helmetstore.model.sale.SaleItem;
 import com.jaoow.helmetstore.model.sale.SalePayment;
 import com.jaoow.helmetstore.repository.InventoryItemRepository;
-import com.jaoow.helmetstore.repository.TransactionRepository;
+import com.jaoow.helmetstore.service.AccountResolver;
 import com.jaoow.helmetstore.service.AccountService;
 import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.LedgerWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +20,14 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.security.Principal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Use Case: Record transactions from a sale
@@ -29,48 +38,85 @@ import java.time.LocalDateTime;
  * - Calculate and snapshot COGS (Cost of Goods Sold)
  * - Create aggregated COGS transaction
  * - Set appropriate ledger flags
+ * - Keep the monthly ledger rollup in sync
  * - Invalidate financial caches
+ *
+ * PERFORMANCE OPTIMIZATION:
+ * - Recorded payments are found with one IN query, COGS uses the cost snapshot
+ *   taken at sale creation, and all rows are persisted by {@link LedgerWriter}
+ *   in one batch: a constant number of statements per sale
  */
 @Component
 @RequiredArgsConstructor
 public class RecordSaleTransactionUseCase {
 
-    private static final String SALE_REFERENCE_PREFIX = "SALE#";
-
-    private final TransactionRepository transactionRepository;
     private final AccountService accountService;
     private final InventoryItemRepository inventoryItemRepository;
     private final CacheInvalidationService cacheInvalidationService;
+    private final LedgerWriter ledgerWriter;
 
     /**
      * Records transactions from a sale.
      * Only creates transactions for payments that haven't been registered yet.
-     * Uses Transaction.salePaymentId for efficient duplicate prevention.
+     * Uses Transaction.referenceSubId (the SalePayment id) for duplicate prevention.
      *
      * @param sale The sale to record transactions for
      * @param principal The user principal
      */
     @Transactional
     public void execute(Sale sale, Principal principal) {
+        executeAll(List.of(sale), principal);
+    }
+
+    /**
+     * Records transactions for several sales at once (batch sale ingestion):
+     * one recorded-payments query, one ledger batch and one cache invalidation
+     * for all of them.
+     *
+     * @param sales The sales to record transactions for
+     * @param principal The user principal
+     */
+    @Transactional
+    public void executeAll(List<Sale> sales, Principal principal) {
+        if (sales.isEmpty()) {
+            return;
+        }
+
+        Map<PaymentMethod, Account> accounts = new EnumMap<>(PaymentMethod.class);
+        List<Transaction> ledgerRows = new ArrayList<>();
+
+        // Skip payments that already have a transaction registered (one query for all payments)
+        Set<Long> recordedPaymentIds = ledgerWriter.findRecordedSubReferences(sales.stream()
+                .flatMap(sale -> sale.getPayments().stream())
+                .map(SalePayment::getId)
+                .filter(Objects::nonNull)
+                .toList());
+
+        for (Sale sale : sales) {
+            addLedgerRows(sale, recordedPaymentIds, accounts, principal, ledgerRows);
+        }
+
+        // Revenue and COGS rows of the sales are written with one batch
+        ledgerWriter.insertAll(ledgerRows);
+
+        // Invalidate financial caches after recording transactions from the sales
+        cacheInvalidationService.invalidateFinancialCaches(principal.getName(), sales.stream()
+                .map(sale -> YearMonth.from(sale.getDate()))
+                .collect(Collectors.toSet()));
+    }
+
+    private void addLedgerRows(Sale sale, Set<Long> recordedPaymentIds, Map<PaymentMethod, Account> accounts,
+            Principal principal, List<Transaction> ledgerRows) {
         LocalDateTime date = sale.getDate();
 
-        // Process only payments that haven't generated a transaction yet
         for (SalePayment payment : sale.getPayments()) {
-            // Skip payments that already have a transaction registered
-            if (transactionRepository.existsByReferenceSubId(payment.getId())) {
+            if (recordedPaymentIds.contains(payment.getId())) {
                 continue;
             }
 
-            // Determine which wallet receives the money (Cash drawer or Bank account)
-            AccountType walletDest = (payment.getPaymentMethod() == PaymentMethod.CASH)
-                    ? AccountType.CASH
-                    : AccountType.BANK;
+            Account account = resolveAccount(accounts, payment.getPaymentMethod(), principal);
 
-            Account account = accountService
-                    .findAccountByPaymentMethodAndUser(payment.getPaymentMethod(), principal)
-                    .orElseThrow(() -> new AccountNotFoundException(payment.getPaymentMethod()));
-
-            Transaction revenueTx = Transaction.builder()
+            ledgerRows.add(Transaction.builder()
                     .date(date)
                     .type(TransactionType.INCOME)
                     .detail(TransactionDetail.SALE)
@@ -80,65 +126,83 @@ public class RecordSaleTransactionUseCase {
                             + " (" + payment.getPaymentMethod() + ")")
                     .amount(payment.getAmount())
                     .paymentMethod(payment.getPaymentMethod())
-                    .reference(SALE_REFERENCE_PREFIX + sale.getId())
+                    .ledgerReference(LedgerReferenceType.SALE, sale.getId())
                     .referenceSubId(payment.getId())  // Prevents duplicates in exchanges
                     .account(account)
                     // DOUBLE-ENTRY LEDGER FLAGS
                     .affectsProfit(true)  // Revenue increases profit
                     .affectsCash(true)    // Revenue increases cash/bank balance
-                    .walletDestination(walletDest)
-                    .build();
-
-            transactionRepository.save(revenueTx);
+                    // Determine which wallet receives the money (Cash drawer or Bank account)
+                    .walletDestination(AccountResolver.walletOf(payment.getPaymentMethod()))
+                    .build());
         }
 
-        BigDecimal totalCostOfGoods = BigDecimal.ZERO;
-
-        for (SaleItem item : sale.getItems()) {
-            // 1. Fetch the current average cost from inventory
-            InventoryItem inventoryItem = inventoryItemRepository
-                    .findByInventoryAndProductVariant(sale.getInventory(), item.getProductVariant())
-                    .orElseThrow(() -> new IllegalStateException(
-                            "Inventory item not found for variant ID: " + item.getProductVariant().getId()));
-
-            // 2. Snapshot the cost at this exact moment for historical accuracy
-            // This prevents future stock purchases from retroactively changing past profits
-            BigDecimal costAtMomentOfSale = inventoryItem.getAverageCost();
-            item.setCostBasisAtSale(costAtMomentOfSale);
-
-            // 3. Accumulate the total cost for all items in this sale
-            BigDecimal itemTotalCost = costAtMomentOfSale
-                    .multiply(BigDecimal.valueOf(item.getQuantity()));
-            totalCostOfGoods = totalCostOfGoods.add(itemTotalCost);
-        }
+        BigDecimal totalCostOfGoods = calculateCostOfGoods(sale);
 
-        // 4. Create ONE aggregated COGS transaction for the entire sale
+        // Create ONE aggregated COGS transaction for the entire sale
         if (totalCostOfGoods.compareTo(BigDecimal.ZERO) > 0) {
             // Use the primary account for linking (COGS doesn't belong to a specific wallet)
-            Account systemAccount = accountService
-                    .findAccountByPaymentMethodAndUser(PaymentMethod.CASH, principal)
-                    .orElseThrow(() -> new AccountNotFoundException(PaymentMethod.CASH));
+            Account systemAccount = resolveAccount(accounts, PaymentMethod.CASH, principal);
 
-            Transaction cogsTx = Transaction.builder()
+            ledgerRows.add(Transaction.builder()
                     .date(date)
                     .type(TransactionType.EXPENSE)
                     .detail(TransactionDetail.COST_OF_GOODS_SOLD)
                     .description("Custo de Mercadoria - Venda #" + sale.getId())
                     .amount(totalCostOfGoods.negate()) // Negative value (expense)
                     .paymentMethod(PaymentMethod.CASH) // Placeholder
-                    .reference(SALE_REFERENCE_PREFIX + sale.getId())
+                    .ledgerReference(LedgerReferenceType.SALE, sale.getId())
                     .account(systemAccount)
                     // DOUBLE-ENTRY LEDGER FLAGS
                     .affectsProfit(true)  // COGS REDUCES profit
                     .affectsCash(false)   // COGS does NOT change cash (already spent)
                     .walletDestination(null) // No wallet involved
-                    .build();
+                    .build());
+        }
+    }
 
-            transactionRepository.save(cogsTx);
+    /**
+     * Total cost of the sold items, using the cost snapshot taken when the sale was created
+     * (SaleItem.costBasisAtSale). Items without a snapshot get the current average cost,
+     * loaded for all of them with one query, and it is snapshotted on the item.
+     */
+    private BigDecimal calculateCostOfGoods(Sale sale) {
+        List<SaleItem> itemsWithoutSnapshot = sale.getItems().stream()
+                .filter(item -> item.getCostBasisAtSale() == null)
+                .toList();
+
+        if (!itemsWithoutSnapshot.isEmpty()) {
+            Map<Long, BigDecimal> averageCostByVariant = inventoryItemRepository
+                    .findAllByInventoryAndVariantIds(sale.getInventory(), itemsWithoutSnapshot.stream()
+                            .map(item -> item.getProductVariant().getId())
+                            .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(ii -> ii.getProductVariant().getId(), InventoryItem::getAverageCost));
+
+            for (SaleItem item : itemsWithoutSnapshot) {
+                BigDecimal averageCost = averageCostByVariant.get(item.getProductVariant().getId());
+                if (averageCost == null) {
+                    throw new IllegalStateException(
+                            "Inventory item not found for variant ID: " + item.getProductVariant().getId());
+                }
+                // Snapshot the cost for historical accuracy: future stock purchases
+                // must not retroactively change past profits
+                item.setCostBasisAtSale(averageCost);
+            }
+        }
+
+        BigDecimal totalCostOfGoods = BigDecimal.ZERO;
+        for (SaleItem item : sale.getItems()) {
+            totalCostOfGoods = totalCostOfGoods.add(
+                    item.getCostBasisAtSale().multiply(BigDecimal.valueOf(item.getQuantity())));
         }
+        return totalCostOfGoods;
+    }
 
-        // Invalidate financial caches after recording transaction from sale
-        cacheInvalidationService.invalidateFinancialCaches();
+    private Account resolveAccount(Map<PaymentMethod, Account> accounts, PaymentMethod paymentMethod, Principal principal) {
+        return accounts.computeIfAbsent(paymentMethod, method -> accountService
+                .findAccountByPaymentMethodAndUser(method, principal)
+                .orElseThrow(() -> new AccountNotFoundException(method)));
     }
 
     private String formatProductVariantName(ProductVariant productVariant) {
@@ -1,9 +1,11 @@
 package com.jaoow.helmetstore.usecase.transaction;
 
 import com.jaoow.helmetstore.model.PurchaseOrder;
+import com.jaoow.helmetstore.model.balance.LedgerReferenceType;
 import com.jaoow.helmetstore.model.balance.Transaction;
 import com.jaoow.helmetstore.repository.TransactionRepository;
 import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.LedgerRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,21 +19,21 @@ import java.util.List;
  * - Find all transactions linked to the purchase order by reference
  * - Validate transactions exist
  * - Delete all linked transactions
+ * - Keep the monthly ledger rollup in sync
  * - Invalidate financial caches
  */
 @Component
 @RequiredArgsConstructor
 public class RemovePurchaseOrderTransactionsUseCase {
 
-    private static final String PURCHASE_ORDER_REFERENCE_PREFIX = "PURCHASE_ORDER#";
-
     private final TransactionRepository transactionRepository;
     private final CacheInvalidationService cacheInvalidationService;
+    private final LedgerRollupService ledgerRollupService;
 
     @Transactional
     public void execute(PurchaseOrder purchaseOrder) {
-        String reference = PURCHASE_ORDER_REFERENCE_PREFIX + purchaseOrder.getId();
-        List<Transaction> transactions = transactionRepository.findAllByReference(reference);
+        List<Transaction> transactions = transactionRepository
+                .findAllByReferenceTypeAndReferenceId(LedgerReferenceType.PURCHASE_ORDER, purchaseOrder.getId());
 
         if (transactions.isEmpty()) {
             throw new IllegalArgumentException(
@@ -39,6 +41,8 @@ public class RemovePurchaseOrderTransactionsUseCase {
         }
 
         transactionRepository.deleteAll(transactions);
-        cacheInvalidationService.invalidateFinancialCaches();
+        ledgerRollupService.recordDeletes(transactions);
+        cacheInvalidationService.invalidateForTransactions(
+                transactions.getFirst().getAccount().getUser().getEmail(), transactions);
     }
 }
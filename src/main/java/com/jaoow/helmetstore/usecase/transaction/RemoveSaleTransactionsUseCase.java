@@ -1,9 +1,11 @@
 package com.jaoow.helmetstore.usecase.transaction;
 
 import com.jaoow.helmetstore.model.Sale;
+import com.jaoow.helmetstore.model.balance.LedgerReferenceType;
 import com.jaoow.helmetstore.model.balance.Transaction;
 import com.jaoow.helmetstore.repository.TransactionRepository;
 import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.LedgerRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,27 +19,29 @@ import java.util.List;
  * - Find all transactions linked to the sale by reference
  * - Validate transactions exist
  * - Delete all linked transactions
+ * - Keep the monthly ledger rollup in sync
  * - Invalidate financial caches
  */
 @Component
 @RequiredArgsConstructor
 public class RemoveSaleTransactionsUseCase {
 
-    private static final String SALE_REFERENCE_PREFIX = "SALE#";
-
     private final TransactionRepository transactionRepository;
     private final CacheInvalidationService cacheInvalidationService;
+    private final LedgerRollupService ledgerRollupService;
 
     @Transactional
     public void execute(Sale sale) {
-        String reference = SALE_REFERENCE_PREFIX + sale.getId();
-        List<Transaction> transactions = transactionRepository.findAllByReference(reference);
+        List<Transaction> transactions = transactionRepository
+                .findAllByReferenceTypeAndReferenceId(LedgerReferenceType.SALE, sale.getId());
 
         if (transactions.isEmpty()) {
             throw new IllegalArgumentException("Transação não encontrada para venda ID: " + sale.getId());
         }
 
         transactionRepository.deleteAll(transactions);
-        cacheInvalidationService.invalidateFinancialCaches();
+        ledgerRollupService.recordDeletes(transactions);
+        cacheInvalidationService.invalidateForTransactions(
+                transactions.getFirst().getAccount().getUser().getEmail(), transactions);
     }
 }
@@ -6,6 +6,7 @@ import com.jaoow.helmetstore.model.balance.*;
 import com.jaoow.helmetstore.repository.TransactionRepository;
 import com.jaoow.helmetstore.service.AccountService;
 import com.jaoow.helmetstore.service.CacheInvalidationService;
+import com.jaoow.helmetstore.service.LedgerRollupService;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
@@ -13,6 +14,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.security.Principal;
+import java.time.YearMonth;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * Use Case: Update an existing transaction
@@ -24,6 +28,7 @@ import java.security.Principal;
  * - Ensure expenses are stored as negative values
  * - Update account if payment method changed
  * - Save updated transaction
+ * - Keep the monthly ledger rollup in sync
  * - Invalidate financial caches
  */
 @Component
@@ -34,6 +39,7 @@ public class UpdateTransactionUseCase {
     private final AccountService accountService;
     private final ModelMapper modelMapper;
     private final CacheInvalidationService cacheInvalidationService;
+    private final LedgerRollupService ledgerRollupService;
 
     @Transactional
     public void execute(Long transactionId, TransactionCreateDTO dto, Principal principal) {
@@ -48,6 +54,9 @@ public class UpdateTransactionUseCase {
                     "Você não pode editar transações vinculadas a vendas ou pedidos de compra.");
         }
 
+        // Snapshot the ledger values before mutating the managed entity
+        LedgerRollupService.LedgerEntry previous = LedgerRollupService.LedgerEntry.of(transaction);
+
         // Update the existing transaction with new data
         modelMapper.map(dto, transaction);
 
@@ -61,8 +70,13 @@ public class UpdateTransactionUseCase {
 
         transaction.setAccount(account);
         transactionRepository.save(transaction);
+        ledgerRollupService.recordUpdate(previous, transaction);
 
-        // Invalidate financial caches after updating a transaction
-        cacheInvalidationService.invalidateFinancialCaches();
+        // Invalidate financial caches of both the previous and the new month
+        cacheInvalidationService.invalidateFinancialCaches(principal.getName(),
+                Stream.of(previous.getDate(), transaction.getDate())
+                        .filter(Objects::nonNull)
+                        .map(YearMonth::from)
+                        .toList());
     }
 }
@@ -0,0 +1,59 @@
+-- ================================================================================
+-- Migration V6.0.0: Monthly Ledger Rollup
+-- ================================================================================
+-- Description: Creates a read model with one row per (user, month, wallet) holding
+-- the monthly aggregates used by the profit and cash-flow breakdowns.
+--
+-- The table is maintained incrementally by the application in the same database
+-- transaction as every ledger write. This migration backfills it from the
+-- existing transactions.
+--
+-- Wallet buckets: 'CASH', 'BANK' and 'NONE' (non-wallet entries such as COGS).
+-- ================================================================================
+
+CREATE TABLE IF NOT EXISTS ledger_monthly_rollup (
+    id BIGINT PRIMARY KEY GENERATED BY DEFAULT AS IDENTITY,
+    user_id BIGINT NOT NULL,
+    month_start DATE NOT NULL,
+    wallet VARCHAR(20) NOT NULL,
+    income NUMERIC(19,2) NOT NULL DEFAULT 0,
+    expense NUMERIC(19,2) NOT NULL DEFAULT 0,
+    net_profit NUMERIC(19,2) NOT NULL DEFAULT 0,
+    operational_expenses NUMERIC(19,2) NOT NULL DEFAULT 0,
+    cogs NUMERIC(19,2) NOT NULL DEFAULT 0,
+    sales_revenue NUMERIC(19,2) NOT NULL DEFAULT 0,
+    balance_change NUMERIC(19,2) NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_ledger_rollup_user_month_wallet UNIQUE (user_id, month_start, wallet),
+    CONSTRAINT fk_ledger_rollup_user FOREIGN KEY (user_id) REFERENCES app_user(id) ON DELETE CASCADE
+);
+
+COMMENT ON TABLE ledger_monthly_rollup IS
+'Incrementally maintained monthly aggregates of the ledger, one row per (user, month, wallet).';
+
+COMMENT ON COLUMN ledger_monthly_rollup.balance_change IS
+'Net wallet movement of the month. Closing balance = running SUM(balance_change) ordered by month_start.';
+
+-- ================================================================================
+-- Backfill from existing transactions
+-- ================================================================================
+
+INSERT INTO ledger_monthly_rollup (user_id, month_start, wallet, income, expense, net_profit,
+                                   operational_expenses, cogs, sales_revenue, balance_change,
+                                   transaction_count)
+SELECT a.user_id,
+       CAST(date_trunc('month', t.date) AS DATE),
+       COALESCE(t.wallet_destination, 'NONE'),
+       COALESCE(SUM(CASE WHEN t.affects_cash AND t.amount > 0 THEN t.amount END), 0),
+       COALESCE(SUM(CASE WHEN t.affects_cash AND t.amount < 0 THEN -t.amount END), 0),
+       COALESCE(SUM(CASE WHEN t.affects_profit THEN t.amount END), 0),
+       COALESCE(SUM(CASE WHEN t.affects_profit AND t.amount < 0
+                              AND t.detail IS DISTINCT FROM 'COST_OF_GOODS_SOLD' THEN t.amount END), 0),
+       COALESCE(SUM(CASE WHEN t.detail = 'COST_OF_GOODS_SOLD' THEN t.amount END), 0),
+       COALESCE(SUM(CASE WHEN t.detail = 'SALE' THEN t.amount END), 0),
+       COALESCE(SUM(CASE WHEN t.wallet_destination IS NOT NULL THEN t.amount END), 0),
+       COUNT(*)
+FROM transaction t
+JOIN account a ON a.id = t.account_id
+WHERE t.date IS NOT NULL
+GROUP BY a.user_id, CAST(date_trunc('month', t.date) AS DATE), COALESCE(t.wallet_destination, 'NONE');
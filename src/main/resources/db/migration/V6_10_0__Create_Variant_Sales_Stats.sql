@@ -0,0 +1,53 @@
+-- ================================================================================
+-- Migration V6.10.0: Variant sales stats
+-- ================================================================================
+-- Description: Creates a read model with one row per (inventory, variant) holding
+-- the sales totals shown by the product reports: quantity sold, revenue, profit
+-- and last sale date.
+--
+-- The reports used to aggregate every sale item of the inventory on each request;
+-- they now join this table. It is maintained by the application in the same
+-- database transaction as every sale write (create, batch, update, delete,
+-- exchange). This migration backfills it from the existing sales.
+--
+-- Same figures as before: sale items are counted as recorded, cancelled
+-- quantities included (cancellations never rewrite sale items).
+-- ================================================================================
+
+CREATE TABLE IF NOT EXISTS variant_sales_stats (
+    id BIGINT PRIMARY KEY GENERATED BY DEFAULT AS IDENTITY,
+    inventory_id BIGINT NOT NULL,
+    product_variant_id BIGINT NOT NULL,
+    total_sold BIGINT NOT NULL DEFAULT 0,
+    total_revenue NUMERIC(19,2) NOT NULL DEFAULT 0,
+    total_profit NUMERIC(19,2) NOT NULL DEFAULT 0,
+    last_sale_date TIMESTAMP,
+    sale_item_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_variant_sales_stats_inventory_variant UNIQUE (inventory_id, product_variant_id),
+    CONSTRAINT fk_variant_sales_stats_inventory FOREIGN KEY (inventory_id) REFERENCES inventory(id) ON DELETE CASCADE,
+    CONSTRAINT fk_variant_sales_stats_variant FOREIGN KEY (product_variant_id) REFERENCES product_variant(id) ON DELETE CASCADE
+);
+
+COMMENT ON TABLE variant_sales_stats IS
+'Incrementally maintained sales totals of each variant, one row per (inventory, variant).';
+
+COMMENT ON COLUMN variant_sales_stats.sale_item_count IS
+'Sale items aggregated in the row; a row reaching 0 is deleted.';
+
+-- ================================================================================
+-- Backfill from existing sales
+-- ================================================================================
+
+INSERT INTO variant_sales_stats (inventory_id, product_variant_id, total_sold, total_revenue,
+                                 total_profit, last_sale_date, sale_item_count)
+SELECT s.inventory_id,
+       si.product_variant_id,
+       COALESCE(SUM(si.quantity), 0),
+       COALESCE(SUM(si.total_item_price), 0),
+       COALESCE(SUM(si.total_item_profit), 0),
+       MAX(s.date),
+       COUNT(*)
+FROM sale s
+JOIN sale_item si ON si.sale_id = s.id
+WHERE s.inventory_id IS NOT NULL
+GROUP BY s.inventory_id, si.product_variant_id;
@@ -0,0 +1,31 @@
+-- ================================================================================
+-- Migration V6.11.0: Incoming stock counter
+-- ================================================================================
+-- Description: inventory_item.incoming_stock holds the quantity of the variant
+-- on open purchase orders (neither DELIVERED nor CANCELED).
+--
+-- The stock reports and the public catalog used to sum the purchase order items
+-- of every open order on each query. The counter is adjusted by the purchase
+-- order lifecycle (creation, delivery, cancellation, item cancellation) in the
+-- same transaction; POST /inventory/rebuild-incoming-stock recomputes it for an
+-- inventory. This migration backfills it from the existing orders.
+-- ================================================================================
+
+ALTER TABLE inventory_item ADD COLUMN IF NOT EXISTS incoming_stock INTEGER NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN inventory_item.incoming_stock IS
+'Quantity on open purchase orders (status not DELIVERED / CANCELED); future stock = quantity + incoming_stock.';
+
+-- ================================================================================
+-- Backfill from existing purchase orders
+-- ================================================================================
+
+UPDATE inventory_item ii
+SET incoming_stock = open_orders.quantity
+FROM (SELECT po.inventory_id, poi.product_variant_id, SUM(poi.quantity) AS quantity
+      FROM purchase_order po
+      JOIN purchase_order_item poi ON poi.purchase_order_id = po.id
+      WHERE po.status NOT IN ('DELIVERED', 'CANCELED')
+      GROUP BY po.inventory_id, poi.product_variant_id) AS open_orders
+WHERE ii.inventory_id = open_orders.inventory_id
+  AND ii.product_variant_id = open_orders.product_variant_id;
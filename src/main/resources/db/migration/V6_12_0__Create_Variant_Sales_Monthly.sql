@@ -0,0 +1,55 @@
+-- ================================================================================
+-- Migration V6.12.0: Monthly variant sales rollup
+-- ================================================================================
+-- Description: Creates a read model with one row per (inventory, month, variant)
+-- holding the sales of the variant in that month, so the product reports can be
+-- scoped to a period (from / to months) by summing a few month buckets instead
+-- of scanning the sales with date filters.
+--
+-- Maintained by the application together with variant_sales_stats, in the same
+-- transaction as every sale write. This migration backfills it from the existing
+-- sales.
+--
+-- Also indexes variant_sales_stats by quantity sold, for the all-time top-N
+-- (most sold products) query.
+-- ================================================================================
+
+CREATE TABLE IF NOT EXISTS variant_sales_monthly (
+    id BIGINT PRIMARY KEY GENERATED BY DEFAULT AS IDENTITY,
+    inventory_id BIGINT NOT NULL,
+    month_start DATE NOT NULL,
+    product_variant_id BIGINT NOT NULL,
+    total_sold BIGINT NOT NULL DEFAULT 0,
+    total_revenue NUMERIC(19,2) NOT NULL DEFAULT 0,
+    total_profit NUMERIC(19,2) NOT NULL DEFAULT 0,
+    last_sale_date TIMESTAMP,
+    sale_item_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_variant_sales_monthly_inventory_month_variant UNIQUE (inventory_id, month_start, product_variant_id),
+    CONSTRAINT fk_variant_sales_monthly_inventory FOREIGN KEY (inventory_id) REFERENCES inventory(id) ON DELETE CASCADE,
+    CONSTRAINT fk_variant_sales_monthly_variant FOREIGN KEY (product_variant_id) REFERENCES product_variant(id) ON DELETE CASCADE
+);
+
+COMMENT ON TABLE variant_sales_monthly IS
+'Incrementally maintained sales totals of each variant per month, one row per (inventory, month, variant).';
+
+CREATE INDEX IF NOT EXISTS idx_variant_sales_stats_inventory_total_sold
+    ON variant_sales_stats(inventory_id, total_sold DESC);
+
+-- ================================================================================
+-- Backfill from existing sales
+-- ================================================================================
+
+INSERT INTO variant_sales_monthly (inventory_id, month_start, product_variant_id, total_sold, total_revenue,
+                                   total_profit, last_sale_date, sale_item_count)
+SELECT s.inventory_id,
+       CAST(date_trunc('month', s.date) AS DATE),
+       si.product_variant_id,
+       COALESCE(SUM(si.quantity), 0),
+       COALESCE(SUM(si.total_item_price), 0),
+       COALESCE(SUM(si.total_item_profit), 0),
+       MAX(s.date),
+       COUNT(*)
+FROM sale s
+JOIN sale_item si ON si.sale_id = s.id
+WHERE s.inventory_id IS NOT NULL AND s.date IS NOT NULL
+GROUP BY s.inventory_id, CAST(date_trunc('month', s.date) AS DATE), si.product_variant_id;
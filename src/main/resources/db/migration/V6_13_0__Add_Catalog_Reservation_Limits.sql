@@ -0,0 +1,20 @@
+-- ================================================================================
+-- Migration V6.13.0: Opt-in and limits for public catalog reservations
+-- ================================================================================
+-- Description: reserving from the public catalog needs no login. Reservations are
+-- now disabled by default and each store enables them for its own catalog
+-- (inventory_catalog.allow_reservations). Existing catalogs start disabled.
+--
+-- The application also caps the units held by the active reservations of a
+-- catalog and the active reservations of one customer phone. The partial index
+-- below serves the per-phone count and only holds the (few) active reservations.
+-- ================================================================================
+
+ALTER TABLE inventory_catalog ADD COLUMN IF NOT EXISTS allow_reservations BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_active_inventory_phone
+    ON stock_reservation(inventory_id, customer_phone)
+    WHERE status = 'ACTIVE';
+
+COMMENT ON COLUMN inventory_catalog.allow_reservations IS
+'Whether customers may reserve stock from the public catalog (off by default).';
@@ -0,0 +1,34 @@
+-- ================================================================================
+-- Migration V6.1.0: Materialized Account Balances
+-- ================================================================================
+-- Description: Stores the wallet balance of each account, adjusted atomically by
+-- the application on every ledger write (balance = balance + delta).
+--
+-- Balance formula: SUM(transaction.amount) of the account owner's transactions
+-- WHERE wallet_destination = account.type
+-- ================================================================================
+
+CREATE TABLE IF NOT EXISTS account_balance (
+    account_id BIGINT PRIMARY KEY,
+    balance NUMERIC(19,2) NOT NULL DEFAULT 0,
+    applied_version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT fk_account_balance_account FOREIGN KEY (account_id) REFERENCES account(id) ON DELETE CASCADE
+);
+
+COMMENT ON COLUMN account_balance.applied_version IS
+'Incremented on every applied delta. Used by the reconciler to avoid overwriting concurrent updates.';
+
+-- ================================================================================
+-- Backfill from existing transactions
+-- ================================================================================
+
+INSERT INTO account_balance (account_id, balance, applied_version)
+SELECT a.id,
+       COALESCE((SELECT SUM(t.amount)
+                 FROM transaction t
+                 JOIN account ta ON ta.id = t.account_id
+                 WHERE ta.user_id = a.user_id
+                   AND t.wallet_destination = a.type), 0),
+       0
+FROM account a
+ON CONFLICT (account_id) DO NOTHING;
@@ -0,0 +1,31 @@
+-- ================================================================================
+-- Migration V6.2.0: One account per (user, type)
+-- ================================================================================
+-- Description: Enforces a single CASH and a single BANK account per user so that
+-- missing accounts can be created race-free with INSERT ... ON CONFLICT DO NOTHING.
+--
+-- Duplicates created by concurrent requests in the past are merged into the
+-- oldest account of the same (user, type) before adding the constraint.
+-- ================================================================================
+
+-- 1. Re-point transactions of duplicate accounts to the surviving account
+WITH ranked AS (
+    SELECT id, MIN(id) OVER (PARTITION BY user_id, type) AS keep_id
+    FROM account
+)
+UPDATE transaction t
+SET account_id = r.keep_id
+FROM ranked r
+WHERE t.account_id = r.id
+  AND r.id <> r.keep_id;
+
+-- 2. Drop duplicate accounts (their materialized balances cascade)
+DELETE FROM account a
+USING account keep
+WHERE keep.user_id = a.user_id
+  AND keep.type = a.type
+  AND keep.id < a.id;
+
+-- 3. Enforce uniqueness
+ALTER TABLE account
+ADD CONSTRAINT uk_account_user_type UNIQUE (user_id, type);
@@ -0,0 +1,52 @@
+-- ================================================================================
+-- Migration V6.3.0: Pooled sequences for high-volume tables
+-- ================================================================================
+-- Description: Hibernate cannot batch inserts of IDENTITY entities (it needs the
+-- generated id of every row right away). Transaction, Sale, SaleItem, SalePayment,
+-- PurchaseOrderItem and InventoryItem now use GenerationType.SEQUENCE with the
+-- pooled optimizer (allocationSize = 50), so their inserts go out as JDBC batches.
+--
+-- Each sequence increments by 50 (it must match allocationSize) and is seeded so
+-- that the first pooled block starts after the current max id:
+--   setval(seq, max + 50) -> next nextval = max + 100 -> block (max + 51 .. max + 100]
+--
+-- The identity (or serial default) is dropped from the id columns: ids must come
+-- from the sequences only, otherwise a database-generated id could collide with
+-- a pooled block.
+-- ================================================================================
+
+-- Transaction
+CREATE SEQUENCE IF NOT EXISTS transaction_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('transaction_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM transaction));
+ALTER TABLE transaction ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE transaction ALTER COLUMN id DROP DEFAULT;
+
+-- Sale
+CREATE SEQUENCE IF NOT EXISTS sale_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('sale_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM sale));
+ALTER TABLE sale ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE sale ALTER COLUMN id DROP DEFAULT;
+
+-- Sale item
+CREATE SEQUENCE IF NOT EXISTS sale_item_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('sale_item_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM sale_item));
+ALTER TABLE sale_item ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE sale_item ALTER COLUMN id DROP DEFAULT;
+
+-- Sale payment
+CREATE SEQUENCE IF NOT EXISTS sale_payment_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('sale_payment_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM sale_payment));
+ALTER TABLE sale_payment ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE sale_payment ALTER COLUMN id DROP DEFAULT;
+
+-- Purchase order item
+CREATE SEQUENCE IF NOT EXISTS purchase_order_item_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('purchase_order_item_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM purchase_order_item));
+ALTER TABLE purchase_order_item ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE purchase_order_item ALTER COLUMN id DROP DEFAULT;
+
+-- Inventory item
+CREATE SEQUENCE IF NOT EXISTS inventory_item_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('inventory_item_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM inventory_item));
+ALTER TABLE inventory_item ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE inventory_item ALTER COLUMN id DROP DEFAULT;
@@ -0,0 +1,35 @@
+-- ================================================================================
+-- Migration V6.4.0: Typed ledger references
+-- ================================================================================
+-- Description: Ledger rows linked to their source only through the free-text
+-- reference column ("SALE#123", "REFUND_PURCHASE_ORDER#45"...), so every lookup
+-- was a string comparison. The source is now stored as:
+--   reference_type  VARCHAR  -> LedgerReferenceType (SALE, PURCHASE_ORDER, ...)
+--   reference_id    BIGINT   -> id of the originating entity
+-- with a composite index, which also serves IN (...) lookups over many sales.
+--
+-- The reference column is kept for display. Manual and account-conversion
+-- references ("CONV-<millis>-CB", free text) have no source entity and stay
+-- with a NULL reference_type.
+-- ================================================================================
+
+ALTER TABLE transaction
+    ADD COLUMN IF NOT EXISTS reference_type VARCHAR(30),
+    ADD COLUMN IF NOT EXISTS reference_id BIGINT;
+
+-- Backfill: "<TYPE>#<id>" where TYPE is one of the LedgerReferenceType constants
+UPDATE transaction
+SET reference_type = split_part(reference, '#', 1),
+    reference_id = CAST(split_part(reference, '#', 2) AS BIGINT)
+WHERE reference ~ '^(SALE|SALE_REFUND|SALE_CANCEL_COGS|PURCHASE_ORDER|REFUND_PURCHASE_ORDER|EXCHANGE_COGS|EXCHANGE_COGS_NEW|EXCHANGE_CHARGE|EXCHANGE_REFUND)#[0-9]+$';
+
+CREATE INDEX IF NOT EXISTS idx_transaction_reference_type_id ON transaction(reference_type, reference_id);
+
+-- Lookups no longer compare the string reference
+DROP INDEX IF EXISTS idx_transaction_reference;
+
+COMMENT ON COLUMN transaction.reference_type IS
+'Kind of the entity that originated the transaction (LedgerReferenceType). NULL for manual and conversion transactions.';
+
+COMMENT ON COLUMN transaction.reference_id IS
+'Id of the entity that originated the transaction (e.g. sale.id for SALE).';
@@ -0,0 +1,21 @@
+-- ================================================================================
+-- Migration V6.5.0: Client-side sale ids for batch ingestion
+-- ================================================================================
+-- Description: Stores queue sales while offline and replays them through
+-- POST /sales/batch. Each queued sale carries an id generated by the POS, stored
+-- in sale.client_sale_id, so replaying a batch (e.g. after a timeout) reports the
+-- already ingested sales as duplicates instead of recording them twice.
+--
+-- Sales created through POST /sales keep a NULL client_sale_id; the unique index
+-- only applies to non-null values.
+-- ================================================================================
+
+ALTER TABLE sale
+    ADD COLUMN IF NOT EXISTS client_sale_id VARCHAR(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_sale_inventory_client_sale_id
+    ON sale(inventory_id, client_sale_id)
+    WHERE client_sale_id IS NOT NULL;
+
+COMMENT ON COLUMN sale.client_sale_id IS
+'Id generated by the POS for sales sent through POST /sales/batch (idempotency, unique per inventory).';
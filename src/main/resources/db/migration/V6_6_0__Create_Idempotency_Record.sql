@@ -0,0 +1,28 @@
+-- ================================================================================
+-- Migration V6.6.0: Idempotency keys for sale writes
+-- ================================================================================
+-- Description: POST /sales, POST /sales/exchange and POST /sales/{id}/cancel accept
+-- an Idempotency-Key header. The first request stores its response here, in the
+-- same transaction as the write; retries with the same key return the stored
+-- response instead of writing again.
+--
+-- One row per (user, operation, key). Rows expire after a TTL
+-- (idempotency.ttl, default 24h) and are deleted by a scheduled cleanup.
+-- ================================================================================
+
+CREATE TABLE IF NOT EXISTS idempotency_record (
+    id BIGSERIAL PRIMARY KEY,
+    user_email VARCHAR(255) NOT NULL,
+    operation VARCHAR(30) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_idempotency_record_user_operation_key UNIQUE (user_email, operation, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_record_expires_at ON idempotency_record(expires_at);
+
+COMMENT ON COLUMN idempotency_record.request_hash IS
+'SHA-256 of the request; a key reused with a different request is rejected.';
@@ -0,0 +1,14 @@
+-- ================================================================================
+-- Migration V6.7.0: Keyset index for the sales history
+-- ================================================================================
+-- Description: /sales/history is paginated by (date, id), newest first:
+--   WHERE inventory_id = ? AND (date < ? OR (date = ? AND id < ?))
+--   ORDER BY date DESC, id DESC LIMIT ?
+-- The index matches that order, so a page is read straight from the index
+-- without sorting the inventory's sales. It also covers every lookup of the
+-- (inventory_id, date) index it replaces.
+-- ================================================================================
+
+CREATE INDEX IF NOT EXISTS idx_sale_inventory_date_id ON sale(inventory_id, date DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_sale_inventory_date;
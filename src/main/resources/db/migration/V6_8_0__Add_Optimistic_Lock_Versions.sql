@@ -0,0 +1,16 @@
+-- ================================================================================
+-- Migration V6.8.0: Optimistic lock versions
+-- ================================================================================
+-- Description: inventory_item, sale and account get a version column (JPA @Version).
+-- An UPDATE through Hibernate now checks "WHERE id = ? AND version = ?" and bumps
+-- the version, so two concurrent writes of the same row can no longer silently
+-- overwrite each other (e.g. a purchase delivery recomputing average_cost from a
+-- stale quantity while a sale takes stock). The losing write fails and is retried.
+--
+-- Bulk stock updates (quantity = quantity +/- n) bump the version themselves.
+-- Existing rows start at version 0.
+-- ================================================================================
+
+ALTER TABLE inventory_item ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE sale ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE account ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,51 @@
+-- ================================================================================
+-- Migration V6.9.0: Stock reservations
+-- ================================================================================
+-- Description: a customer coming from the public catalog can hold items for a
+-- while (reservation.ttl, default 30 min) before checking out on WhatsApp.
+--
+-- inventory_item.reserved_quantity is the held quantity of each variant; the
+-- quantity available to sell is quantity - reserved_quantity. Reserving, selling
+-- and releasing are conditional UPDATEs of that row, so a reservation and a
+-- concurrent sale can never both take the last unit.
+--
+-- stock_reservation / stock_reservation_item record what each reservation holds.
+-- Expired reservations are released by a scheduled sweeper; a reservation turned
+-- into a sale points to it.
+-- ================================================================================
+
+ALTER TABLE inventory_item ADD COLUMN IF NOT EXISTS reserved_quantity INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS stock_reservation (
+    id BIGSERIAL PRIMARY KEY,
+    inventory_id BIGINT NOT NULL,
+    code VARCHAR(12) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    customer_name VARCHAR(100),
+    customer_phone VARCHAR(30),
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    sale_id BIGINT,
+    CONSTRAINT uk_stock_reservation_code UNIQUE (code),
+    CONSTRAINT fk_stock_reservation_inventory FOREIGN KEY (inventory_id) REFERENCES inventory(id) ON DELETE CASCADE,
+    CONSTRAINT fk_stock_reservation_sale FOREIGN KEY (sale_id) REFERENCES sale(id) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS stock_reservation_item (
+    id BIGSERIAL PRIMARY KEY,
+    reservation_id BIGINT NOT NULL,
+    product_variant_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    CONSTRAINT fk_stock_reservation_item_reservation FOREIGN KEY (reservation_id) REFERENCES stock_reservation(id) ON DELETE CASCADE,
+    CONSTRAINT fk_stock_reservation_item_variant FOREIGN KEY (product_variant_id) REFERENCES product_variant(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_inventory_status ON stock_reservation(inventory_id, status);
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_item_reservation ON stock_reservation_item(reservation_id);
+
+-- Sweeper lookup: only the (few) active reservations are indexed
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_active_expires_at ON stock_reservation(expires_at)
+    WHERE status = 'ACTIVE';
+
+COMMENT ON COLUMN inventory_item.reserved_quantity IS
+'Quantity held by active stock reservations; available to sell = quantity - reserved_quantity.';
@@ -0,0 +1,126 @@
+package com.jaoow.helmetstore.benchmark;
+
+import com.jaoow.helmetstore.dto.sale.SaleResponseDTO;
+import com.jaoow.helmetstore.mapper.SaleMapper;
+import com.jaoow.helmetstore.model.Product;
+import com.jaoow.helmetstore.model.ProductVariant;
+import com.jaoow.helmetstore.model.Sale;
+import com.jaoow.helmetstore.model.balance.PaymentMethod;
+import com.jaoow.helmetstore.model.sale.SaleItem;
+import com.jaoow.helmetstore.model.sale.SalePayment;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reflective {@link ModelMapper} vs. the hand-written {@link SaleMapper} for
+ * Sale → SaleResponseDTO, the conversion behind sale responses and pages.
+ * <p>
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.jaoow.helmetstore.benchmark.DtoMappingBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"1000", "10000"})
+    private int saleCount;
+
+    private List<Sale> sales;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final SaleMapper saleMapper = new SaleMapper();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        PaymentMethod[] methods = PaymentMethod.values();
+
+        List<ProductVariant> variants = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            Product product = Product.builder().id(i).model("Model " + i).color("Preto").build();
+            variants.add(ProductVariant.builder().id(i).sku("SKU-" + i).size("58").product(product).build());
+        }
+
+        sales = new ArrayList<>(saleCount);
+        for (long i = 1; i <= saleCount; i++) {
+            Sale sale = Sale.builder()
+                    .id(i)
+                    .date(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(i))
+                    .totalAmount(BigDecimal.valueOf(random.nextLong(1_000, 100_000), 2))
+                    .totalProfit(BigDecimal.valueOf(random.nextLong(100, 10_000), 2))
+                    .build();
+
+            List<SaleItem> items = new ArrayList<>();
+            for (int j = 0; j < 1 + random.nextInt(3); j++) {
+                items.add(SaleItem.builder()
+                        .id(i * 10 + j)
+                        .sale(sale)
+                        .productVariant(variants.get(random.nextInt(variants.size())))
+                        .quantity(1 + random.nextInt(3))
+                        .unitPrice(BigDecimal.valueOf(random.nextLong(1_000, 50_000), 2))
+                        .unitProfit(BigDecimal.valueOf(random.nextLong(100, 5_000), 2))
+                        .totalItemPrice(BigDecimal.valueOf(random.nextLong(1_000, 50_000), 2))
+                        .totalItemProfit(BigDecimal.valueOf(random.nextLong(100, 5_000), 2))
+                        .isCancelled(false)
+                        .build());
+            }
+            sale.setItems(items);
+            sale.setPayments(List.of(SalePayment.builder()
+                    .id(i)
+                    .sale(sale)
+                    .paymentMethod(methods[random.nextInt(methods.length)])
+                    .amount(sale.getTotalAmount())
+                    .build()));
+            sales.add(sale);
+        }
+    }
+
+    @Benchmark
+    public List<SaleResponseDTO> modelMapper() {
+        List<SaleResponseDTO> result = new ArrayList<>(sales.size());
+        for (Sale sale : sales) {
+            result.add(modelMapper.map(sale, SaleResponseDTO.class));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<SaleResponseDTO> handWrittenMapper() {
+        List<SaleResponseDTO> result = new ArrayList<>(sales.size());
+        for (Sale sale : sales) {
+            result.add(saleMapper.toResponse(sale));
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DtoMappingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
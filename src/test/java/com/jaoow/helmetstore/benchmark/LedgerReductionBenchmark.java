@@ -0,0 +1,104 @@
+package com.jaoow.helmetstore.benchmark;
+
+import com.jaoow.helmetstore.helper.ProfitCalculationHelper;
+import com.jaoow.helmetstore.model.balance.Transaction;
+import com.jaoow.helmetstore.model.balance.TransactionDetail;
+import com.jaoow.helmetstore.model.balance.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream-of-BigDecimal reductions vs. the long-cents loops used by
+ * {@link ProfitCalculationHelper}.
+ * <p>
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.jaoow.helmetstore.benchmark.LedgerReductionBenchmark}
+ * (add {@code -prof gc} to the JMH options to compare allocation rates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerReductionBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int transactionCount;
+
+    private List<Transaction> transactions;
+
+    private final ProfitCalculationHelper profitCalculationHelper = new ProfitCalculationHelper(null, null);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        TransactionDetail[] details = TransactionDetail.values();
+
+        transactions = new ArrayList<>(transactionCount);
+        for (int i = 0; i < transactionCount; i++) {
+            // Amounts between -5000.00 and 5000.00, stored with scale 2 like the ledger
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(-500_000, 500_001), 2);
+            transactions.add(Transaction.builder()
+                    .type(amount.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME)
+                    .detail(details[random.nextInt(details.length)])
+                    .amount(amount)
+                    .affectsCash(random.nextBoolean())
+                    .affectsProfit(random.nextBoolean())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public BigDecimal netProfitStream() {
+        return transactions.stream()
+                .filter(Transaction::isAffectsProfit)
+                .map(Transaction::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal netProfitCents() {
+        return profitCalculationHelper.calculateNetProfitFromTransactions(transactions);
+    }
+
+    @Benchmark
+    public BigDecimal operationalExpensesStream() {
+        return transactions.stream()
+                .filter(Transaction::isAffectsProfit)
+                .filter(t -> t.getAmount().compareTo(BigDecimal.ZERO) < 0)
+                .filter(t -> t.getDetail() != TransactionDetail.COST_OF_GOODS_SOLD)
+                .map(Transaction::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal operationalExpensesCents() {
+        return profitCalculationHelper.calculateOperationalExpensesFromTransactions(transactions);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LedgerReductionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,40 @@
+package com.jaoow.helmetstore.helper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Money - conversão de valores para centavos")
+class MoneyTest {
+
+    @Test
+    @DisplayName("Converte valores com duas casas decimais sem arredondar")
+    void shouldConvertExactAmounts() {
+        assertThat(Money.toCents(new BigDecimal("10.50"))).isEqualTo(1050L);
+        assertThat(Money.toCents(new BigDecimal("-3"))).isEqualTo(-300L);
+        assertThat(Money.toCents(null)).isZero();
+    }
+
+    @Test
+    @DisplayName("Arredonda frações de centavo como a coluna NUMERIC(19,2), sem lançar exceção")
+    void shouldRoundSubCentAmountsHalfUp() {
+        assertThat(Money.toCents(new BigDecimal("10.005"))).isEqualTo(1001L);
+        assertThat(Money.toCents(new BigDecimal("1.999"))).isEqualTo(200L);
+        assertThat(Money.toCents(new BigDecimal("1.004"))).isEqualTo(100L);
+        assertThat(Money.toCents(new BigDecimal("-10.005"))).isEqualTo(-1001L);
+    }
+
+    @Test
+    @DisplayName("Acumulador soma e subtrai valores com frações de centavo")
+    void shouldAccumulateSubCentAmounts() {
+        MoneyAccumulator accumulator = new MoneyAccumulator()
+                .add(new BigDecimal("10.005"))
+                .add(new BigDecimal("1.999"))
+                .subtract(new BigDecimal("0.001"));
+
+        assertThat(accumulator.toBigDecimal()).isEqualByComparingTo("12.01");
+    }
+}
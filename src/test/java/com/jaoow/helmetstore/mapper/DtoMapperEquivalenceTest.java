@@ -0,0 +1,239 @@
+package com.jaoow.helmetstore.mapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jaoow.helmetstore.dto.balance.TransactionInfo;
+import com.jaoow.helmetstore.dto.info.ProductStockDto;
+import com.jaoow.helmetstore.dto.info.ProductStockVariantDto;
+import com.jaoow.helmetstore.dto.info.PublicProductStockDto;
+import com.jaoow.helmetstore.dto.info.PublicProductStockVariantDto;
+import com.jaoow.helmetstore.dto.order.OrderDetailDTO;
+import com.jaoow.helmetstore.dto.order.PurchaseOrderDTO;
+import com.jaoow.helmetstore.dto.reference.SimpleProductDTO;
+import com.jaoow.helmetstore.dto.reference.SimpleProductVariantDTO;
+import com.jaoow.helmetstore.dto.sale.SaleResponseDTO;
+import com.jaoow.helmetstore.dto.summary.ProductVariantStockSummary;
+import com.jaoow.helmetstore.model.Category;
+import com.jaoow.helmetstore.model.Product;
+import com.jaoow.helmetstore.model.ProductVariant;
+import com.jaoow.helmetstore.model.PurchaseOrder;
+import com.jaoow.helmetstore.model.PurchaseOrderItem;
+import com.jaoow.helmetstore.model.PurchaseOrderStatus;
+import com.jaoow.helmetstore.model.Sale;
+import com.jaoow.helmetstore.model.balance.PaymentMethod;
+import com.jaoow.helmetstore.model.balance.Transaction;
+import com.jaoow.helmetstore.model.balance.TransactionDetail;
+import com.jaoow.helmetstore.model.balance.TransactionType;
+import com.jaoow.helmetstore.model.sale.CancellationReason;
+import com.jaoow.helmetstore.model.sale.SaleItem;
+import com.jaoow.helmetstore.model.sale.SalePayment;
+import com.jaoow.helmetstore.model.sale.SaleStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hand-written mappers must produce exactly what ModelMapper produced:
+ * both outputs are serialized to JSON and compared.
+ */
+@DisplayName("Mappers manuais - mesma saída que o ModelMapper")
+class DtoMapperEquivalenceTest {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final SaleMapper saleMapper = new SaleMapper();
+    private final PurchaseOrderMapper purchaseOrderMapper = new PurchaseOrderMapper();
+    private final ReferenceMapper referenceMapper = new ReferenceMapper();
+    private final ProductStockMapper productStockMapper = new ProductStockMapper();
+    private final TransactionMapper transactionMapper = new TransactionMapper();
+
+    @Test
+    @DisplayName("Venda com itens, pagamentos, cancelamento e estorno")
+    void saleWithItemsAndPayments() {
+        Sale sale = Sale.builder()
+                .id(10L)
+                .date(LocalDateTime.of(2025, 3, 14, 15, 9, 26))
+                .totalAmount(new BigDecimal("350.00"))
+                .totalProfit(new BigDecimal("120.50"))
+                .status(SaleStatus.PARTIALLY_CANCELLED)
+                .cancelledAt(LocalDateTime.of(2025, 3, 15, 10, 0))
+                .cancelledBy("owner@store.com")
+                .cancellationReason(CancellationReason.DEFEITO)
+                .cancellationNotes("Viseira trincada")
+                .hasRefund(true)
+                .refundAmount(new BigDecimal("50.00"))
+                .refundPaymentMethod(PaymentMethod.PIX)
+                .build();
+        ProductVariant variant = variant(7L, product(3L, category("Fechados")));
+        sale.setItems(List.of(
+                saleItem(100L, sale, variant, 2, false, null),
+                saleItem(101L, sale, variant, 1, true, 1)));
+        sale.setPayments(List.of(
+                SalePayment.builder().id(1L).sale(sale).paymentMethod(PaymentMethod.CASH).amount(new BigDecimal("300.00")).build(),
+                SalePayment.builder().id(2L).sale(sale).paymentMethod(PaymentMethod.CARD).amount(new BigDecimal("50.00")).build()));
+
+        assertSameOutput(modelMapper.map(sale, SaleResponseDTO.class), saleMapper.toResponse(sale));
+    }
+
+    @Test
+    @DisplayName("Venda sem itens nem pagamentos carregados")
+    void saleWithoutCollections() {
+        Sale sale = Sale.builder()
+                .id(11L)
+                .date(LocalDateTime.of(2025, 1, 2, 8, 0))
+                .totalAmount(BigDecimal.ZERO)
+                .totalProfit(BigDecimal.ZERO)
+                .build();
+
+        assertSameOutput(modelMapper.map(sale, SaleResponseDTO.class), saleMapper.toResponse(sale));
+    }
+
+    @Test
+    @DisplayName("Pedido de compra: DTO completo e detalhe do histórico")
+    void purchaseOrder() {
+        PurchaseOrder order = PurchaseOrder.builder()
+                .id(5L)
+                .orderNumber("NF-2025-001")
+                .status(PurchaseOrderStatus.DELIVERED)
+                .date(LocalDate.of(2025, 2, 20))
+                .totalAmount(new BigDecimal("1234.56"))
+                .paymentMethod(PaymentMethod.PIX)
+                .build();
+        List<PurchaseOrderItem> items = new ArrayList<>();
+        items.add(PurchaseOrderItem.builder().id(50L).purchaseOrder(order)
+                .productVariant(variant(7L, product(3L, null))).quantity(4).purchasePrice(new BigDecimal("99.90")).build());
+        items.add(PurchaseOrderItem.builder().id(51L).purchaseOrder(order)
+                .productVariant(variant(8L, product(3L, null))).quantity(1).purchasePrice(new BigDecimal("834.96")).build());
+        order.setItems(items);
+
+        assertSameOutput(modelMapper.map(order, PurchaseOrderDTO.class), purchaseOrderMapper.toDTO(order));
+        assertSameOutput(modelMapper.map(order, OrderDetailDTO.class), purchaseOrderMapper.toDetail(order));
+    }
+
+    @Test
+    @DisplayName("Referências de produto (com e sem categoria) e variação")
+    void references() {
+        Product withCategory = product(3L, category("Abertos"));
+        Product withoutCategory = product(4L, null);
+        ProductVariant variant = variant(7L, withCategory);
+
+        assertSameOutput(modelMapper.map(withCategory, SimpleProductDTO.class), referenceMapper.toSimpleProduct(withCategory));
+        assertSameOutput(modelMapper.map(withoutCategory, SimpleProductDTO.class), referenceMapper.toSimpleProduct(withoutCategory));
+        assertSameOutput(modelMapper.map(variant, SimpleProductVariantDTO.class), referenceMapper.toSimpleVariant(variant));
+    }
+
+    @Test
+    @DisplayName("Projeção de estoque: relatório e catálogo público")
+    void stockProjection() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("productId", 3L);
+        row.put("model", "Pro Tork Liberty");
+        row.put("color", "Preto Fosco");
+        row.put("imgUrl", "https://img/3.png");
+        row.put("categoryName", "Abertos");
+        row.put("salePrice", new BigDecimal("249.90"));
+        row.put("averageCost", new BigDecimal("130.00"));
+        row.put("lastPurchaseDate", LocalDate.of(2025, 2, 20));
+        row.put("variantId", 7L);
+        row.put("sku", "PTL-PF-58");
+        row.put("size", "58");
+        row.put("currentStock", 12);
+        row.put("reservedStock", 2);
+        row.put("availableStock", 10);
+        row.put("incomingStock", 4);
+        row.put("futureStock", 16);
+        ProductVariantStockSummary summary = new SpelAwareProxyProjectionFactory()
+                .createProjection(ProductVariantStockSummary.class, row);
+
+        assertSameOutput(modelMapper.map(summary, ProductStockDto.class), productStockMapper.toProductStock(summary));
+        assertSameOutput(modelMapper.map(summary, ProductStockVariantDto.class), productStockMapper.toProductStockVariant(summary));
+        assertSameOutput(modelMapper.map(summary, PublicProductStockDto.class), productStockMapper.toPublicProductStock(summary));
+
+        // The public catalog shows the stock available to sell (current minus reserved)
+        PublicProductStockVariantDto publicVariant = modelMapper.map(summary, PublicProductStockVariantDto.class);
+        publicVariant.setCurrentStock(summary.getAvailableStock());
+        assertSameOutput(publicVariant, productStockMapper.toPublicProductStockVariant(summary));
+    }
+
+    @Test
+    @DisplayName("Transação do livro-caixa")
+    void transaction() {
+        Transaction transaction = Transaction.builder()
+                .id(900L)
+                .date(LocalDateTime.of(2025, 3, 1, 12, 30))
+                .description("Venda #10")
+                .amount(new BigDecimal("350.00"))
+                .paymentMethod(PaymentMethod.CASH)
+                .type(TransactionType.INCOME)
+                .detail(TransactionDetail.SALE)
+                .reference("SALE#10")
+                .affectsCash(true)
+                .affectsProfit(true)
+                .build();
+
+        assertSameOutput(modelMapper.map(transaction, TransactionInfo.class), transactionMapper.toInfo(transaction));
+    }
+
+    private void assertSameOutput(Object expected, Object actual) {
+        assertThat(actual).isExactlyInstanceOf(expected.getClass());
+        assertThat(json(actual)).isEqualTo(json(expected));
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName(name);
+        return category;
+    }
+
+    private static Product product(Long id, Category category) {
+        return Product.builder()
+                .id(id)
+                .model("Pro Tork Liberty")
+                .color("Preto Fosco")
+                .imgUrl("https://img/" + id + ".png")
+                .salePrice(new BigDecimal("249.90"))
+                .category(category)
+                .build();
+    }
+
+    private static ProductVariant variant(Long id, Product product) {
+        return ProductVariant.builder().id(id).sku("SKU-" + id).size("58").product(product).build();
+    }
+
+    private static SaleItem saleItem(Long id, Sale sale, ProductVariant variant, int quantity,
+                                     boolean cancelled, Integer cancelledQuantity) {
+        return SaleItem.builder()
+                .id(id)
+                .sale(sale)
+                .productVariant(variant)
+                .quantity(quantity)
+                .unitPrice(new BigDecimal("100.00"))
+                .unitProfit(new BigDecimal("40.00"))
+                .totalItemPrice(new BigDecimal("100.00").multiply(BigDecimal.valueOf(quantity)))
+                .totalItemProfit(new BigDecimal("40.00").multiply(BigDecimal.valueOf(quantity)))
+                .isCancelled(cancelled)
+                .cancelledQuantity(cancelledQuantity)
+                .build();
+    }
+}
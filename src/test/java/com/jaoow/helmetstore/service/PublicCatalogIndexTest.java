@@ -0,0 +1,105 @@
+package com.jaoow.helmetstore.service;
+
+import com.jaoow.helmetstore.dto.info.PublicProductStockDto;
+import com.jaoow.helmetstore.dto.info.PublicProductStockVariantDto;
+import com.jaoow.helmetstore.dto.inventory.CatalogDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PublicCatalogIndex - busca e filtros do catálogo público")
+class PublicCatalogIndexTest {
+
+    private PublicCatalogIndex index;
+
+    @BeforeEach
+    void setUp() {
+        CatalogDTO catalog = new CatalogDTO();
+        catalog.setShowPrice(true);
+
+        index = PublicCatalogIndex.build(1, "owner@test.com", catalog, List.of(
+                product(1L, "Capacete Pro", "Preto", "Fechado", "150.00",
+                        variant(11L, "56", 2), variant(12L, "58", 0)),
+                product(2L, "Capacete Sport", "Azul Metálico", "Fechado", "220.00",
+                        variant(21L, "58", 1)),
+                product(3L, "Viseira", "Fumê", "Acessórios", "40.00",
+                        variant(31L, "Único", 5))));
+    }
+
+    @Test
+    @DisplayName("Sem filtros retorna todos os produtos na ordem do catálogo")
+    void shouldReturnEveryProductWithoutFilters() {
+        PublicCatalogIndex.Result result = index.search(PublicCatalogIndex.Query.builder().build(), 0, 10);
+
+        assertThat(result.getTotalProducts()).isEqualTo(3);
+        assertThat(result.getProducts()).extracting(PublicProductStockDto::getProductId)
+                .containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Busca textual ignora acentos e maiúsculas e exige todas as palavras")
+    void shouldMatchTextIgnoringAccentsAndCase() {
+        PublicCatalogIndex.Result result = index.search(
+                PublicCatalogIndex.Query.builder().text("capacete METALICO").build(), 0, 10);
+
+        assertThat(result.getProducts()).extracting(PublicProductStockDto::getProductId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Filtros de tamanho e estoque retornam apenas as variantes correspondentes")
+    void shouldKeepOnlyMatchingVariants() {
+        PublicCatalogIndex.Result result = index.search(
+                PublicCatalogIndex.Query.builder().size("58").inStockOnly(true).build(), 0, 10);
+
+        assertThat(result.getProducts()).extracting(PublicProductStockDto::getProductId).containsExactly(2L);
+        assertThat(result.getProducts().get(0).getVariants())
+                .extracting(PublicProductStockVariantDto::getVariantId).containsExactly(21L);
+    }
+
+    @Test
+    @DisplayName("Filtra por categoria e faixa de preço")
+    void shouldFilterByCategoryAndPriceRange() {
+        PublicCatalogIndex.Result result = index.search(PublicCatalogIndex.Query.builder()
+                .category("fechado")
+                .minPrice(new BigDecimal("200"))
+                .build(), 0, 10);
+
+        assertThat(result.getProducts()).extracting(PublicProductStockDto::getProductId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Pagina os resultados mantendo o total de produtos encontrados")
+    void shouldPaginate() {
+        PublicCatalogIndex.Result result = index.search(PublicCatalogIndex.Query.builder().build(), 1, 2);
+
+        assertThat(result.getTotalProducts()).isEqualTo(3);
+        assertThat(result.getProducts()).extracting(PublicProductStockDto::getProductId).containsExactly(3L);
+    }
+
+    private static PublicProductStockDto product(Long id, String model, String color, String category, String price,
+                                                 PublicProductStockVariantDto... variants) {
+        PublicProductStockDto product = new PublicProductStockDto();
+        product.setProductId(id);
+        product.setModel(model);
+        product.setColor(color);
+        product.setCategoryName(category);
+        product.setSalePrice(new BigDecimal(price));
+        product.setVariants(new ArrayList<>(List.of(variants)));
+        return product;
+    }
+
+    private static PublicProductStockVariantDto variant(Long id, String size, int stock) {
+        PublicProductStockVariantDto variant = new PublicProductStockVariantDto();
+        variant.setVariantId(id);
+        variant.setSku("SKU-" + id);
+        variant.setSize(size);
+        variant.setCurrentStock(stock);
+        return variant;
+    }
+}
@@ -44,6 +44,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -71,6 +72,12 @@ class TransactionServiceTest {
     @Mock
     private ProfitCalculationHelper profitCalculationHelper;
 
+    @Mock
+    private LedgerRollupService ledgerRollupService;
+
+    @Mock
+    private LedgerWriter ledgerWriter;
+
     // Use Cases - will be created with real instances using mocked dependencies
     private CreateManualTransactionUseCase createManualTransactionUseCase;
     private RecordSaleTransactionUseCase recordSaleTransactionUseCase;
@@ -95,21 +102,21 @@ class TransactionServiceTest {
     void setUp() {
         // Initialize use cases with mocked dependencies
         createManualTransactionUseCase = new CreateManualTransactionUseCase(
-                transactionRepository, accountService, modelMapper, cacheInvalidationService);
+                transactionRepository, accountService, modelMapper, cacheInvalidationService, ledgerRollupService);
         recordSaleTransactionUseCase = new RecordSaleTransactionUseCase(
-                transactionRepository, accountService, inventoryItemRepository, cacheInvalidationService);
+                accountService, inventoryItemRepository, cacheInvalidationService, ledgerWriter);
         recordPurchaseOrderTransactionUseCase = new RecordPurchaseOrderTransactionUseCase(
-                transactionRepository, accountService, cacheInvalidationService);
+                transactionRepository, accountService, cacheInvalidationService, ledgerRollupService);
         updateTransactionUseCase = new UpdateTransactionUseCase(
-                transactionRepository, accountService, modelMapper, cacheInvalidationService);
+                transactionRepository, accountService, modelMapper, cacheInvalidationService, ledgerRollupService);
         deleteTransactionUseCase = new DeleteTransactionUseCase(
-                transactionRepository, cacheInvalidationService);
+                transactionRepository, cacheInvalidationService, ledgerRollupService);
         createRefundTransactionUseCase = new CreateRefundTransactionUseCase(
-                transactionRepository, accountService, cacheInvalidationService);
+                transactionRepository, accountService, cacheInvalidationService, ledgerRollupService);
         removeSaleTransactionsUseCase = new RemoveSaleTransactionsUseCase(
-                transactionRepository, cacheInvalidationService);
+                transactionRepository, cacheInvalidationService, ledgerRollupService);
         removePurchaseOrderTransactionsUseCase = new RemovePurchaseOrderTransactionsUseCase(
-                transactionRepository, cacheInvalidationService);
+                transactionRepository, cacheInvalidationService, ledgerRollupService);
         calculateFinancialMetricsUseCase = new CalculateFinancialMetricsUseCase(
                 transactionRepository, profitCalculationHelper);
 
@@ -316,27 +323,27 @@ class TransactionServiceTest {
 
             when(accountService.findAccountByPaymentMethodAndUser(any(), any()))
                     .thenReturn(Optional.of(testAccount));
-            when(transactionRepository.existsByReferenceSubId(anyLong()))
-                    .thenReturn(false);
+            when(ledgerWriter.findRecordedSubReferences(anyCollection()))
+                    .thenReturn(Set.of());
 
             // Mock inventory items with costs
-            InventoryItem item1 = createInventoryItem(new BigDecimal("50.00"));
-            InventoryItem item2 = createInventoryItem(new BigDecimal("30.00"));
+            InventoryItem item1 = createInventoryItem(sale.getItems().get(0).getProductVariant(), new BigDecimal("50.00"));
+            InventoryItem item2 = createInventoryItem(sale.getItems().get(1).getProductVariant(), new BigDecimal("30.00"));
 
-            when(inventoryItemRepository.findByInventoryAndProductVariant(any(), any()))
-                    .thenReturn(Optional.of(item1))
-                    .thenReturn(Optional.of(item2));
+            when(inventoryItemRepository.findAllByInventoryAndVariantIds(any(), anyCollection()))
+                    .thenReturn(List.of(item1, item2));
 
-            ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Transaction>> transactionCaptor = ArgumentCaptor.forClass(List.class);
 
             // When
             transactionService.recordTransactionFromSale(sale, principal);
 
             // Then
-            verify(transactionRepository, atLeast(2)).save(transactionCaptor.capture());
+            verify(ledgerWriter).insertAll(transactionCaptor.capture());
 
             // Verificar COGS: (50 * 2) + (30 * 3) = 100 + 90 = 190
-            List<Transaction> savedTransactions = transactionCaptor.getAllValues();
+            List<Transaction> savedTransactions = transactionCaptor.getValue();
             Transaction cogsTransaction = savedTransactions.stream()
                     .filter(t -> t.getDetail() == TransactionDetail.COST_OF_GOODS_SOLD)
                     .findFirst()
@@ -357,22 +364,23 @@ class TransactionServiceTest {
 
             when(accountService.findAccountByPaymentMethodAndUser(any(), any()))
                     .thenReturn(Optional.of(testAccount));
-            when(transactionRepository.existsByReferenceSubId(anyLong()))
-                    .thenReturn(false);
+            when(ledgerWriter.findRecordedSubReferences(anyCollection()))
+                    .thenReturn(Set.of());
 
-            InventoryItem item = createInventoryItem(new BigDecimal("40.00"));
-            when(inventoryItemRepository.findByInventoryAndProductVariant(any(), any()))
-                    .thenReturn(Optional.of(item));
+            InventoryItem item = createInventoryItem(sale.getItems().getFirst().getProductVariant(), new BigDecimal("40.00"));
+            when(inventoryItemRepository.findAllByInventoryAndVariantIds(any(), anyCollection()))
+                    .thenReturn(List.of(item));
 
-            ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Transaction>> transactionCaptor = ArgumentCaptor.forClass(List.class);
 
             // When
             transactionService.recordTransactionFromSale(sale, principal);
 
             // Then
-            verify(transactionRepository, atLeast(2)).save(transactionCaptor.capture());
+            verify(ledgerWriter).insertAll(transactionCaptor.capture());
 
-            List<Transaction> revenueTransactions = transactionCaptor.getAllValues().stream()
+            List<Transaction> revenueTransactions = transactionCaptor.getValue().stream()
                     .filter(t -> t.getDetail() == TransactionDetail.SALE)
                     .toList();
 
@@ -398,28 +406,29 @@ class TransactionServiceTest {
             // Given
             Sale sale = createSimpleSale();
 
-            when(transactionRepository.existsByReferenceSubId(anyLong()))
-                    .thenReturn(true); // Pagamento já registrado
+            when(ledgerWriter.findRecordedSubReferences(anyCollection()))
+                    .thenReturn(Set.of(1L)); // Pagamento já registrado
             
             // Mock necessário para quando o serviço processa items após verificar pagamentos
             when(accountService.findAccountByPaymentMethodAndUser(any(), any()))
                     .thenReturn(Optional.of(testAccount));
 
             // Mock inventory item para calcular COGS
-            InventoryItem item = createInventoryItem(new BigDecimal("50.00"));
-            when(inventoryItemRepository.findByInventoryAndProductVariant(any(), any()))
-                    .thenReturn(Optional.of(item));
+            InventoryItem item = createInventoryItem(sale.getItems().getFirst().getProductVariant(), new BigDecimal("50.00"));
+            when(inventoryItemRepository.findAllByInventoryAndVariantIds(any(), anyCollection()))
+                    .thenReturn(List.of(item));
 
-            ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Transaction>> transactionCaptor = ArgumentCaptor.forClass(List.class);
 
             // When
             transactionService.recordTransactionFromSale(sale, principal);
 
             // Then
             // Deve criar COGS mas não deve criar transação de pagamento (SALE)
-            verify(transactionRepository, atLeastOnce()).save(transactionCaptor.capture());
+            verify(ledgerWriter).insertAll(transactionCaptor.capture());
             
-            List<Transaction> savedTransactions = transactionCaptor.getAllValues();
+            List<Transaction> savedTransactions = transactionCaptor.getValue();
             
             // Não deve ter transação de SALE (receita)
             boolean hasSaleTransaction = savedTransactions.stream()
@@ -440,22 +449,23 @@ class TransactionServiceTest {
 
             when(accountService.findAccountByPaymentMethodAndUser(any(), any()))
                     .thenReturn(Optional.of(testAccount));
-            when(transactionRepository.existsByReferenceSubId(anyLong()))
-                    .thenReturn(false);
+            when(ledgerWriter.findRecordedSubReferences(anyCollection()))
+                    .thenReturn(Set.of());
 
-            InventoryItem item = createInventoryItem(new BigDecimal("60.00"));
-            when(inventoryItemRepository.findByInventoryAndProductVariant(any(), any()))
-                    .thenReturn(Optional.of(item));
+            InventoryItem item = createInventoryItem(sale.getItems().getFirst().getProductVariant(), new BigDecimal("60.00"));
+            when(inventoryItemRepository.findAllByInventoryAndVariantIds(any(), anyCollection()))
+                    .thenReturn(List.of(item));
 
-            ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Transaction>> transactionCaptor = ArgumentCaptor.forClass(List.class);
 
             // When
             transactionService.recordTransactionFromSale(sale, principal);
 
             // Then
-            verify(transactionRepository, atLeast(2)).save(transactionCaptor.capture());
+            verify(ledgerWriter).insertAll(transactionCaptor.capture());
 
-            List<Transaction> savedTransactions = transactionCaptor.getAllValues();
+            List<Transaction> savedTransactions = transactionCaptor.getValue();
 
             Transaction revenue = savedTransactions.stream()
                     .filter(t -> t.getDetail() == TransactionDetail.SALE)
@@ -915,10 +925,11 @@ class TransactionServiceTest {
                 .build();
     }
 
-    private InventoryItem createInventoryItem(BigDecimal averageCost) {
+    private InventoryItem createInventoryItem(ProductVariant variant, BigDecimal averageCost) {
         return InventoryItem.builder()
-                .id(1L)
+                .id(variant.getId())
                 .inventory(testInventory)
+                .productVariant(variant)
                 .averageCost(averageCost)
                 .quantity(100)
                 .build();
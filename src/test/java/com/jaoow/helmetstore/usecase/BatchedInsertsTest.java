@@ -0,0 +1,403 @@
+package com.jaoow.helmetstore.usecase;
+
+import com.jaoow.helmetstore.dto.order.PurchaseOrderCreateDTO;
+import com.jaoow.helmetstore.dto.order.PurchaseOrderItemDTO;
+import com.jaoow.helmetstore.dto.sale.SaleBatchResponseDTO;
+import com.jaoow.helmetstore.dto.sale.SaleBatchResultDTO;
+import com.jaoow.helmetstore.dto.sale.SaleCreateDTO;
+import com.jaoow.helmetstore.dto.sale.SaleItemCreateDTO;
+import com.jaoow.helmetstore.dto.sale.SalePaymentCreateDTO;
+import com.jaoow.helmetstore.model.Product;
+import com.jaoow.helmetstore.model.ProductVariant;
+import com.jaoow.helmetstore.model.PurchaseOrderItem;
+import com.jaoow.helmetstore.model.balance.PaymentMethod;
+import com.jaoow.helmetstore.model.inventory.Inventory;
+import com.jaoow.helmetstore.model.inventory.InventoryItem;
+import com.jaoow.helmetstore.model.sale.SaleItem;
+import com.jaoow.helmetstore.model.user.User;
+import com.jaoow.helmetstore.repository.CategoryRepository;
+import com.jaoow.helmetstore.repository.InventoryItemRepository;
+import com.jaoow.helmetstore.repository.ProductRepository;
+import com.jaoow.helmetstore.repository.ProductVariantRepository;
+import com.jaoow.helmetstore.repository.user.UserRepository;
+import com.jaoow.helmetstore.service.PurchaseOrderService;
+import com.jaoow.helmetstore.usecase.sale.CreateSaleBatchUseCase;
+import com.jaoow.helmetstore.usecase.sale.CreateSaleUseCase;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.security.Principal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Multi-row writes must reach the database as JDBC batches: the entities use pooled
+ * sequences, so Hibernate groups their inserts (hibernate.jdbc.batch_size) and
+ * prepares the INSERT once per batch. With IDENTITY ids every row would be prepared
+ * and executed on its own.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session.events.auto="
+                + "com.jaoow.helmetstore.usecase.BatchedInsertsTest$BatchCountingListener"
+})
+@ActiveProfiles("test")
+@Transactional
+public class BatchedInsertsTest {
+
+    private static final int ITEM_COUNT = 20;
+
+    @Autowired
+    private CreateSaleUseCase createSaleUseCase;
+
+    @Autowired
+    private CreateSaleBatchUseCase createSaleBatchUseCase;
+
+    @Autowired
+    private PurchaseOrderService purchaseOrderService;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Principal testPrincipal;
+    private Inventory testInventory;
+    private List<ProductVariant> variants;
+
+    /**
+     * Counts the JDBC batches executed by every Hibernate session.
+     */
+    public static class BatchCountingListener implements SessionEventListener {
+
+        static final AtomicInteger BATCHES = new AtomicInteger();
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            BATCHES.incrementAndGet();
+        }
+    }
+
+    /**
+     * The application's {@link HibernatePropertiesCustomizer} installs the
+     * QueryPerformanceInspector as the statement inspector, replacing any inspector set
+     * through properties: wrap it so that INSERT preparations are counted too.
+     */
+    @TestConfiguration
+    static class InsertCountingConfiguration {
+
+        @Bean
+        static BeanPostProcessor insertCountingInspectorInstaller() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof HibernatePropertiesCustomizer customizer)) {
+                        return bean;
+                    }
+                    return (HibernatePropertiesCustomizer) properties -> {
+                        customizer.customize(properties);
+                        if (properties.get(AvailableSettings.STATEMENT_INSPECTOR) instanceof StatementInspector delegate
+                                && !(delegate instanceof InsertCountingInspector)) {
+                            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new InsertCountingInspector(delegate));
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /**
+     * Counts how many times an INSERT statement is prepared, per table, then hands the
+     * statement to the inspector it wraps.
+     */
+    @RequiredArgsConstructor
+    static class InsertCountingInspector implements StatementInspector {
+
+        static final Map<String, AtomicInteger> PREPARED_INSERTS = new ConcurrentHashMap<>();
+
+        private final StatementInspector delegate;
+
+        @Override
+        public String inspect(String sql) {
+            String inspected = delegate.inspect(sql);
+            String normalized = inspected.trim().toLowerCase(Locale.ROOT);
+            if (normalized.startsWith("insert into ")) {
+                String table = normalized.substring("insert into ".length()).split("[\\s(]", 2)[0];
+                PREPARED_INSERTS.computeIfAbsent(table, key -> new AtomicInteger()).incrementAndGet();
+            }
+            return inspected;
+        }
+
+        static int preparedInserts(String table) {
+            AtomicInteger count = PREPARED_INSERTS.get(table);
+            return count != null ? count.get() : 0;
+        }
+    }
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        // Use existing user from database (see ExchangeProductUseCaseTest)
+        User testUser = userRepository.findAll().stream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        "No users found in database. Please ensure at least one user exists for testing."));
+
+        testPrincipal = new UsernamePasswordAuthenticationToken(
+                testUser.getEmail(),
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))
+        );
+        testInventory = testUser.getInventory();
+
+        var category = categoryRepository.findAll().stream()
+                .findFirst()
+                .orElseGet(() -> categoryRepository.save(
+                        com.jaoow.helmetstore.model.Category.builder()
+                                .name("Test Category")
+                                .inventory(testInventory)
+                                .build()
+                ));
+
+        Product product = productRepository.save(Product.builder()
+                .model("Capacete Lote")
+                .color("Preto")
+                .salePrice(BigDecimal.valueOf(100.00))
+                .inventory(testInventory)
+                .category(category)
+                .build());
+
+        variants = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            variants.add(ProductVariant.builder()
+                    .product(product)
+                    .size("T" + i)
+                    .sku("CAP-LOTE-" + i)
+                    .build());
+        }
+        variants = productVariantRepository.saveAll(variants);
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Venda com vários itens deve inserir itens em lote")
+    public void multiItemSaleInsertsAreBatched() {
+        List<InventoryItem> inventoryItems = new ArrayList<>();
+        for (ProductVariant variant : variants) {
+            inventoryItems.add(InventoryItem.builder()
+                    .inventory(testInventory)
+                    .productVariant(variant)
+                    .quantity(10)
+                    .averageCost(BigDecimal.valueOf(50.00))
+                    .build());
+        }
+        inventoryItemRepository.saveAll(inventoryItems);
+        entityManager.flush();
+
+        List<SaleItemCreateDTO> items = variants.stream()
+                .map(variant -> SaleItemCreateDTO.builder()
+                        .variantId(variant.getId())
+                        .quantity(1)
+                        .unitPrice(BigDecimal.valueOf(100.00))
+                        .build())
+                .toList();
+
+        SaleCreateDTO saleDTO = SaleCreateDTO.builder()
+                .date(LocalDateTime.now())
+                .items(items)
+                .payments(List.of(
+                        SalePaymentCreateDTO.builder()
+                                .paymentMethod(PaymentMethod.CASH)
+                                .amount(BigDecimal.valueOf(100.00 * ITEM_COUNT))
+                                .build()
+                ))
+                .build();
+
+        startCounting();
+        createSaleUseCase.execute(saleDTO, testPrincipal);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityStatistics(SaleItem.class.getName()).getInsertCount())
+                .isEqualTo(ITEM_COUNT);
+        assertBatched("sale_item");
+    }
+
+    @Test
+    @DisplayName("Lote de vendas do PDV deve inserir em lote e reportar duplicadas e falhas")
+    public void saleBatchIsBatchedAndReportsPerSaleResults() {
+        List<InventoryItem> inventoryItems = new ArrayList<>();
+        for (ProductVariant variant : variants) {
+            inventoryItems.add(InventoryItem.builder()
+                    .inventory(testInventory)
+                    .productVariant(variant)
+                    .quantity(1)
+                    .averageCost(BigDecimal.valueOf(50.00))
+                    .build());
+        }
+        inventoryItemRepository.saveAll(inventoryItems);
+        entityManager.flush();
+
+        // One sale per variant, the last unit of each
+        List<SaleCreateDTO> sales = new ArrayList<>();
+        for (ProductVariant variant : variants) {
+            sales.add(singleItemSale("pdv-" + variant.getId(), variant));
+        }
+        // Same client id again: duplicate, not a second sale
+        sales.add(singleItemSale("pdv-" + variants.get(0).getId(), variants.get(0)));
+        // Other client id for an already sold-out variant: fails, the rest of the batch goes through
+        sales.add(singleItemSale("pdv-sem-estoque", variants.get(1)));
+
+        startCounting();
+        SaleBatchResponseDTO response = createSaleBatchUseCase.execute(sales, testPrincipal);
+        entityManager.flush();
+
+        assertThat(response.getCreated()).isEqualTo(ITEM_COUNT);
+        assertThat(response.getDuplicates()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults().get(ITEM_COUNT).getSaleId())
+                .isEqualTo(response.getResults().get(0).getSaleId());
+        assertThat(response.getResults().get(ITEM_COUNT + 1).getStatus())
+                .isEqualTo(SaleBatchResultDTO.Status.FAILED);
+
+        assertThat(statistics.getEntityStatistics(SaleItem.class.getName()).getInsertCount())
+                .isEqualTo(ITEM_COUNT);
+        assertBatched("sale_item");
+
+        // Replaying the batch does not create anything
+        SaleBatchResponseDTO replay = createSaleBatchUseCase.execute(sales.subList(0, ITEM_COUNT), testPrincipal);
+        assertThat(replay.getCreated()).isZero();
+        assertThat(replay.getDuplicates()).isEqualTo(ITEM_COUNT);
+    }
+
+    @Test
+    @DisplayName("Lote de vendas do PDV deve recusar apenas a venda de unidades reservadas")
+    public void saleBatchFailsOnlyTheSaleOfReservedUnits() {
+        List<InventoryItem> inventoryItems = new ArrayList<>();
+        for (ProductVariant variant : variants) {
+            inventoryItems.add(InventoryItem.builder()
+                    .inventory(testInventory)
+                    .productVariant(variant)
+                    .quantity(1)
+                    .averageCost(BigDecimal.valueOf(50.00))
+                    .build());
+        }
+        // The only unit of the first variant is held by a catalog reservation
+        inventoryItems.get(0).setReservedQuantity(1);
+        inventoryItemRepository.saveAll(inventoryItems);
+        entityManager.flush();
+
+        List<SaleCreateDTO> sales = List.of(
+                singleItemSale("pdv-reservado", variants.get(0)),
+                singleItemSale("pdv-livre", variants.get(1)));
+
+        SaleBatchResponseDTO response = createSaleBatchUseCase.execute(sales, testPrincipal);
+
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults().get(0).getStatus()).isEqualTo(SaleBatchResultDTO.Status.FAILED);
+        assertThat(response.getResults().get(1).getStatus()).isEqualTo(SaleBatchResultDTO.Status.CREATED);
+    }
+
+    private SaleCreateDTO singleItemSale(String clientSaleId, ProductVariant variant) {
+        return SaleCreateDTO.builder()
+                .clientSaleId(clientSaleId)
+                .date(LocalDateTime.now())
+                .items(List.of(SaleItemCreateDTO.builder()
+                        .variantId(variant.getId())
+                        .quantity(1)
+                        .unitPrice(BigDecimal.valueOf(100.00))
+                        .build()))
+                .payments(List.of(SalePaymentCreateDTO.builder()
+                        .paymentMethod(PaymentMethod.CASH)
+                        .amount(BigDecimal.valueOf(100.00))
+                        .build()))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Pedido de compra com vários itens deve inserir itens em lote")
+    public void multiItemPurchaseOrderInsertsAreBatched() {
+        List<PurchaseOrderItemDTO> items = variants.stream()
+                .map(variant -> PurchaseOrderItemDTO.builder()
+                        .productVariantId(variant.getId())
+                        .quantity(5)
+                        .purchasePrice(BigDecimal.valueOf(40.00))
+                        .build())
+                .toList();
+
+        PurchaseOrderCreateDTO orderDTO = PurchaseOrderCreateDTO.builder()
+                .orderNumber("PO-LOTE-" + System.nanoTime())
+                .date(LocalDate.now())
+                .items(items)
+                .paymentMethod(PaymentMethod.PIX)
+                .build();
+
+        startCounting();
+        purchaseOrderService.save(orderDTO, testPrincipal);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityStatistics(PurchaseOrderItem.class.getName()).getInsertCount())
+                .isEqualTo(ITEM_COUNT);
+        assertThat(statistics.getEntityStatistics(InventoryItem.class.getName()).getInsertCount())
+                .isEqualTo(ITEM_COUNT);
+        assertBatched("purchase_order_item");
+        assertBatched("inventory_item");
+    }
+
+    private void startCounting() {
+        statistics.clear();
+        BatchCountingListener.BATCHES.set(0);
+        InsertCountingInspector.PREPARED_INSERTS.clear();
+    }
+
+    /**
+     * The {@value ITEM_COUNT} rows of the table were sent in a single batch,
+     * not one statement per row.
+     */
+    private void assertBatched(String table) {
+        assertThat(BatchCountingListener.BATCHES.get()).isPositive();
+        assertThat(InsertCountingInspector.preparedInserts(table)).isEqualTo(1);
+    }
+}